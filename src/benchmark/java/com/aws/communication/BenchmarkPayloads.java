@@ -0,0 +1,91 @@
+package com.aws.communication;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.aws.communication.model.CommunicationCharacteristic;
+import com.aws.communication.model.EmailRequest;
+import com.aws.communication.model.Receiver;
+import com.aws.communication.model.SMSRequest;
+import com.aws.communication.model.Sender;
+
+/**
+ * Sample payloads shared by the benchmarks
+ *
+ */
+public final class BenchmarkPayloads {
+	
+	public static final String EMAIL_REQUEST_JSON = "{"
+			+ "\"templateName\":\"WelcomeEmail\","
+			+ "\"sender\":{\"emailAddress\":\"sender@example.com\"},"
+			+ "\"receiver\":{\"emailAddress\":\"receiver@example.com\"},"
+			+ "\"communicationCharacteristics\":["
+			+ "{\"name\":\"firstName\",\"value\":\"Jane\"},"
+			+ "{\"name\":\"lastName\",\"value\":\"Doe\"},"
+			+ "{\"name\":\"activationLink\",\"value\":\"https://example.com/activate?token=abc&id=1\"},"
+			+ "{\"name\":\"supportEmail\",\"value\":\"support@example.com\"},"
+			+ "{\"name\":\"company\",\"value\":\"Example <Corp>\"}"
+			+ "]}";
+	
+	public static final String SMS_REQUEST_JSON = "{"
+			+ "\"message\":\"Your one time password is 123456\","
+			+ "\"messageType\":\"Transactional\","
+			+ "\"sender\":{\"senderId\":\"EXAMPLE\"},"
+			+ "\"receiver\":{\"phoneNumber\":\"+31612345678\"}"
+			+ "}";
+	
+	private BenchmarkPayloads() {
+		super();
+	}
+	
+	/**
+	 * @return email request equivalent to EMAIL_REQUEST_JSON
+	 */
+	public static EmailRequest emailRequest() {
+		EmailRequest request = new EmailRequest();
+		request.setTemplateName("WelcomeEmail");
+		
+		Sender sender = new Sender();
+		sender.setEmailAddress("sender@example.com");
+		request.setSender(sender);
+		
+		Receiver receiver = new Receiver();
+		receiver.setEmailAddress("receiver@example.com");
+		request.setReceiver(receiver);
+		
+		List<CommunicationCharacteristic> characteristics = new ArrayList<>();
+		characteristics.add(characteristic("firstName", "Jane"));
+		characteristics.add(characteristic("lastName", "Doe"));
+		characteristics.add(characteristic("activationLink", "https://example.com/activate?token=abc&id=1"));
+		characteristics.add(characteristic("supportEmail", "support@example.com"));
+		characteristics.add(characteristic("company", "Example <Corp>"));
+		request.setCommunicationCharacteristics(characteristics);
+		return request;
+	}
+	
+	/**
+	 * @return SMS request equivalent to SMS_REQUEST_JSON
+	 */
+	public static SMSRequest smsRequest() {
+		SMSRequest request = new SMSRequest();
+		request.setMessage("Your one time password is 123456");
+		request.setMessageType("Transactional");
+		
+		Sender sender = new Sender();
+		sender.setSenderId("EXAMPLE");
+		request.setSender(sender);
+		
+		Receiver receiver = new Receiver();
+		receiver.setPhoneNumber("+31612345678");
+		request.setReceiver(receiver);
+		return request;
+	}
+	
+	private static CommunicationCharacteristic characteristic(String name, String value) {
+		CommunicationCharacteristic characteristic = new CommunicationCharacteristic();
+		characteristic.setName(name);
+		characteristic.setValue(value);
+		return characteristic;
+	}
+
+}
@@ -0,0 +1,82 @@
+package com.aws.communication.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.aws.communication.AwsCommunicationApplication;
+import com.aws.communication.BenchmarkPayloads;
+import com.aws.communication.fake.InMemoryAwsConfiguration;
+
+/**
+ * End-to-end in-process benchmark of the send APIs through MockMvc,
+ * covering request binding, interceptor, validation, mapping and the
+ * response serialization. SES and SNS are replaced by in-memory fakes.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EndToEndBenchmark {
+	
+	private ConfigurableApplicationContext context;
+	
+	private MockMvc mockMvc;
+	
+	@Setup
+	public void setup() {
+		context = new SpringApplicationBuilder(AwsCommunicationApplication.class, InMemoryAwsConfiguration.class)
+				.run("--server.port=0", 
+						"--management.server.port=-1", 
+						"--logback.access.enabled=false", 
+						"--logging.level.root=WARN", 
+						"--ratelimit.enabled=false", 
+						"--ses.region=us-east-1", "--ses.access.key=benchmark", "--ses.secret.key=benchmark", 
+						"--sns.region=us-east-1", "--sns.access.key=benchmark", "--sns.secret.key=benchmark");
+		mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+	}
+	
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+	
+	@Benchmark
+	public MvcResult sendEmail() throws Exception {
+		return mockMvc.perform(post("/aws-communication/v1/email/send")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(BenchmarkPayloads.EMAIL_REQUEST_JSON))
+				.andReturn();
+	}
+	
+	@Benchmark
+	public MvcResult sendSMS() throws Exception {
+		return mockMvc.perform(post("/aws-communication/v1/sms/send")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(BenchmarkPayloads.SMS_REQUEST_JSON))
+				.andReturn();
+	}
+
+}
@@ -0,0 +1,63 @@
+package com.aws.communication.controller;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.aws.communication.BenchmarkPayloads;
+import com.aws.communication.model.EmailRequest;
+import com.aws.communication.model.SMSRequest;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Benchmark of Jackson deserialization of the request bodies, using an
+ * ObjectMapper configured as by Spring Boot
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestDeserializationBenchmark {
+	
+	private ObjectMapper objectMapper;
+	
+	private byte[] emailRequestBody;
+	
+	private byte[] smsRequestBody;
+	
+	@Setup
+	public void setup() {
+		objectMapper = Jackson2ObjectMapperBuilder.json()
+				.serializationInclusion(JsonInclude.Include.NON_NULL)
+				.build();
+		emailRequestBody = BenchmarkPayloads.EMAIL_REQUEST_JSON.getBytes(StandardCharsets.UTF_8);
+		smsRequestBody = BenchmarkPayloads.SMS_REQUEST_JSON.getBytes(StandardCharsets.UTF_8);
+	}
+	
+	@Benchmark
+	public EmailRequest deserializeEmailRequest() throws IOException {
+		return objectMapper.readValue(emailRequestBody, EmailRequest.class);
+	}
+	
+	@Benchmark
+	public SMSRequest deserializeSMSRequest() throws IOException {
+		return objectMapper.readValue(smsRequestBody, SMSRequest.class);
+	}
+
+}
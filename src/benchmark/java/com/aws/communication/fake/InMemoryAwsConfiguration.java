@@ -0,0 +1,50 @@
+package com.aws.communication.fake;
+
+import java.util.Collections;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import com.amazonaws.services.simpleemail.AmazonSimpleEmailService;
+import com.amazonaws.services.sns.AmazonSNS;
+import com.aws.communication.config.RegionalClients;
+
+/**
+ * Configuration replacing the SES and SNS clients with in-memory fakes
+ * for in-process benchmarks of the application
+ *
+ */
+@Configuration
+public class InMemoryAwsConfiguration {
+	
+	private final AmazonSimpleEmailService simpleEmailService = new InMemorySimpleEmailService();
+	
+	private final AmazonSNS snsClient = new InMemorySNS();
+	
+	@Bean
+	@Primary
+	public AmazonSimpleEmailService inMemorySimpleEmailService() {
+		return simpleEmailService;
+	}
+	
+	@Bean
+	@Primary
+	public AmazonSNS inMemorySnsClient() {
+		return snsClient;
+	}
+	
+	@Bean
+	@Primary
+	public RegionalClients<AmazonSimpleEmailService> inMemorySesClients(@Value("${ses.region}") String sesRegion) {
+		return new RegionalClients<>(Collections.singletonList(sesRegion), region -> simpleEmailService);
+	}
+	
+	@Bean
+	@Primary
+	public RegionalClients<AmazonSNS> inMemorySnsClients(@Value("${sns.region}") String snsRegion) {
+		return new RegionalClients<>(Collections.singletonList(snsRegion), region -> snsClient);
+	}
+
+}
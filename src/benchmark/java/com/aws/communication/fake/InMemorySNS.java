@@ -0,0 +1,37 @@
+package com.aws.communication.fake;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.amazonaws.services.sns.AbstractAmazonSNS;
+import com.amazonaws.services.sns.model.PublishRequest;
+import com.amazonaws.services.sns.model.PublishResult;
+
+/**
+ * In-memory SNS client for benchmarks, answering every publish with
+ * a generated message id
+ *
+ */
+public class InMemorySNS extends AbstractAmazonSNS {
+	
+	private final AtomicLong publishCount = new AtomicLong();
+	
+	@Override
+	public PublishResult publish(PublishRequest request) {
+		publishCount.incrementAndGet();
+		return new PublishResult().withMessageId(UUID.randomUUID().toString());
+	}
+	
+	/**
+	 * @return number of messages published
+	 */
+	public long getPublishCount() {
+		return publishCount.get();
+	}
+	
+	@Override
+	public void shutdown() {
+		// nothing to release
+	}
+
+}
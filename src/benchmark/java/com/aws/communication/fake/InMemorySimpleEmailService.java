@@ -0,0 +1,93 @@
+package com.aws.communication.fake;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.amazonaws.services.simpleemail.AbstractAmazonSimpleEmailService;
+import com.amazonaws.services.simpleemail.model.BulkEmailDestination;
+import com.amazonaws.services.simpleemail.model.BulkEmailDestinationStatus;
+import com.amazonaws.services.simpleemail.model.BulkEmailStatus;
+import com.amazonaws.services.simpleemail.model.GetTemplateRequest;
+import com.amazonaws.services.simpleemail.model.GetTemplateResult;
+import com.amazonaws.services.simpleemail.model.ListTemplatesRequest;
+import com.amazonaws.services.simpleemail.model.ListTemplatesResult;
+import com.amazonaws.services.simpleemail.model.SendBulkTemplatedEmailRequest;
+import com.amazonaws.services.simpleemail.model.SendBulkTemplatedEmailResult;
+import com.amazonaws.services.simpleemail.model.SendRawEmailRequest;
+import com.amazonaws.services.simpleemail.model.SendRawEmailResult;
+import com.amazonaws.services.simpleemail.model.SendTemplatedEmailRequest;
+import com.amazonaws.services.simpleemail.model.SendTemplatedEmailResult;
+import com.amazonaws.services.simpleemail.model.Template;
+import com.amazonaws.services.simpleemail.model.TemplateMetadata;
+
+/**
+ * In-memory SES client for benchmarks, answering every send with
+ * a generated message id. Every template name exists, as a template
+ * without placeholders.
+ *
+ */
+public class InMemorySimpleEmailService extends AbstractAmazonSimpleEmailService {
+	
+	private final AtomicLong sendCount = new AtomicLong();
+	
+	private final Set<String> templateNames = ConcurrentHashMap.newKeySet();
+	
+	@Override
+	public SendTemplatedEmailResult sendTemplatedEmail(SendTemplatedEmailRequest request) {
+		sendCount.incrementAndGet();
+		return new SendTemplatedEmailResult().withMessageId(UUID.randomUUID().toString());
+	}
+	
+	@Override
+	public SendRawEmailResult sendRawEmail(SendRawEmailRequest request) {
+		sendCount.incrementAndGet();
+		return new SendRawEmailResult().withMessageId(UUID.randomUUID().toString());
+	}
+	
+	@Override
+	public SendBulkTemplatedEmailResult sendBulkTemplatedEmail(SendBulkTemplatedEmailRequest request) {
+		List<BulkEmailDestinationStatus> statuses = new ArrayList<>(request.getDestinations().size());
+		for(BulkEmailDestination destination : request.getDestinations()) {
+			sendCount.incrementAndGet();
+			statuses.add(new BulkEmailDestinationStatus()
+					.withStatus(BulkEmailStatus.Success)
+					.withMessageId(UUID.randomUUID().toString()));
+		}
+		return new SendBulkTemplatedEmailResult().withStatus(statuses);
+	}
+	
+	@Override
+	public GetTemplateResult getTemplate(GetTemplateRequest request) {
+		templateNames.add(request.getTemplateName());
+		return new GetTemplateResult().withTemplate(new Template()
+				.withTemplateName(request.getTemplateName())
+				.withSubjectPart("Benchmark")
+				.withTextPart("Benchmark"));
+	}
+	
+	@Override
+	public ListTemplatesResult listTemplates(ListTemplatesRequest request) {
+		List<TemplateMetadata> metadata = new ArrayList<>(templateNames.size());
+		for(String templateName : templateNames) {
+			metadata.add(new TemplateMetadata().withName(templateName));
+		}
+		return new ListTemplatesResult().withTemplatesMetadata(metadata);
+	}
+	
+	/**
+	 * @return number of emails sent
+	 */
+	public long getSendCount() {
+		return sendCount.get();
+	}
+	
+	@Override
+	public void shutdown() {
+		// nothing to release
+	}
+
+}
@@ -0,0 +1,110 @@
+package com.aws.communication.interceptor;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.aws.communication.controller.AwsCommunicationApiController;
+import com.aws.communication.model.EmailRequest;
+
+import ch.qos.logback.classic.Level;
+
+/**
+ * Benchmark of ValidationInterceptor.preHandle, compared with the previous
+ * reflective implementation, for a handler with request body only (send
+ * email) and a handler with required header, query and path parameters
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationInterceptorBenchmark {
+	
+	private HandlerInterceptor interceptor;
+	
+	private HandlerInterceptor legacyInterceptor;
+	
+	private MockHttpServletRequest request;
+	
+	private MockHttpServletResponse response;
+	
+	private HandlerMethod sendEmailHandler;
+	
+	private HandlerMethod parameterizedHandler;
+	
+	@Setup
+	public void setup() throws NoSuchMethodException {
+		// application logs at INFO, while logback defaults to DEBUG without configuration
+		((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.INFO);
+		
+		interceptor = new ValidationInterceptor();
+		legacyInterceptor = new LegacyValidationInterceptor();
+		
+		request = new MockHttpServletRequest("GET", "/aws-communication/v1/tracking/abc");
+		request.addHeader("X-Correlation-Id", "9f1c2d");
+		request.addParameter("channel", "email");
+		request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, 
+				Collections.singletonMap("trackingId", "abc"));
+		response = new MockHttpServletResponse();
+		
+		sendEmailHandler = new HandlerMethod(new AwsCommunicationApiController(), 
+				AwsCommunicationApiController.class.getMethod("sendEmail", EmailRequest.class));
+		parameterizedHandler = new HandlerMethod(new ParameterizedHandler(), 
+				ParameterizedHandler.class.getMethod("handle", String.class, String.class, String.class));
+	}
+	
+	@Benchmark
+	public boolean preHandleRequestBody() throws Exception {
+		return interceptor.preHandle(request, response, sendEmailHandler);
+	}
+	
+	@Benchmark
+	public boolean preHandleParameters() throws Exception {
+		return interceptor.preHandle(request, response, parameterizedHandler);
+	}
+	
+	@Benchmark
+	public boolean legacyPreHandleRequestBody() throws Exception {
+		return legacyInterceptor.preHandle(request, response, sendEmailHandler);
+	}
+	
+	@Benchmark
+	public boolean legacyPreHandleParameters() throws Exception {
+		return legacyInterceptor.preHandle(request, response, parameterizedHandler);
+	}
+	
+	/**
+	 * Handler with required header, query and path parameters
+	 */
+	public static class ParameterizedHandler {
+		
+		public String handle(@RequestHeader("X-Correlation-Id") String correlationId, 
+				@RequestParam("channel") String channel, @PathVariable("trackingId") String trackingId) {
+			return trackingId;
+		}
+	}
+
+}
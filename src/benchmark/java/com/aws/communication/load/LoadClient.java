@@ -0,0 +1,222 @@
+package com.aws.communication.load;
+
+import java.io.Closeable;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.pool.AbstractChannelPoolHandler;
+import io.netty.channel.pool.ChannelHealthChecker;
+import io.netty.channel.pool.FixedChannelPool;
+import io.netty.channel.pool.FixedChannelPool.AcquireTimeoutAction;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpClientCodec;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.util.AttributeKey;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.ScheduledFuture;
+
+/**
+ * Non-blocking HTTP/1.1 client of the load generator, keeping a fixed
+ * pool of keep-alive connections to the application. Requests beyond the
+ * free connections wait for one, and requests beyond the pending limit
+ * are dropped, so that an overloaded application does not make the load
+ * generator run out of memory.
+ *
+ */
+final class LoadClient implements Closeable {
+
+	private static final AttributeKey<Exchange> EXCHANGE = AttributeKey.valueOf("loadExchange");
+
+	private static final int MAX_RESPONSE_SIZE = 1 << 20;
+
+	/**
+	 * Listener of the outcome of a request
+	 */
+	interface Listener {
+
+		/**
+		 * Method called once the request completed
+		 *
+		 * @param status - HTTP status of the response, 0 when the request failed
+		 * @param failure - Failure of the request, null when a response was received
+		 */
+		void completed(int status, Throwable failure);
+	}
+
+	/**
+	 * Failure of a request dropped because too many requests wait for a connection
+	 */
+	static final class DroppedException extends Exception {
+
+		private static final long serialVersionUID = 1L;
+
+		private DroppedException(Throwable cause) {
+			super("Too many requests wait for a connection", cause, false, false);
+		}
+	}
+
+	private final String host;
+	private final long timeoutMillis;
+	private final EventLoopGroup group;
+	private final FixedChannelPool pool;
+
+	/**
+	 * @param target - Base URL of the application
+	 * @param connections - Number of connections
+	 * @param maxPending - Maximum number of requests waiting for a connection
+	 * @param ioThreads - Number of event loop threads
+	 * @param timeoutMillis - Timeout of a request, including the wait for a connection
+	 */
+	LoadClient(URI target, int connections, int maxPending, int ioThreads, long timeoutMillis) {
+		int port = target.getPort() > 0 ? target.getPort() : 80;
+		this.host = target.getHost() + ":" + port;
+		this.timeoutMillis = timeoutMillis;
+		this.group = new NioEventLoopGroup(ioThreads);
+		Bootstrap bootstrap = new Bootstrap()
+				.group(group)
+				.channel(NioSocketChannel.class)
+				.remoteAddress(target.getHost(), port)
+				.option(ChannelOption.TCP_NODELAY, true)
+				.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) timeoutMillis);
+		this.pool = new FixedChannelPool(bootstrap, new AbstractChannelPoolHandler() {
+			@Override
+			public void channelCreated(Channel channel) {
+				channel.pipeline().addLast(new HttpClientCodec(), new HttpObjectAggregator(MAX_RESPONSE_SIZE),
+						new ResponseHandler());
+			}
+		}, ChannelHealthChecker.ACTIVE, AcquireTimeoutAction.FAIL, timeoutMillis, connections, maxPending);
+	}
+
+	/**
+	 * Method to post a request, the listener being called on an event loop
+	 * thread once the request completed
+	 *
+	 * @param path - Path of the API
+	 * @param body - Body of the request, not released
+	 * @param listener - Listener of the outcome
+	 */
+	void post(String path, ByteBuf body, Listener listener) {
+		long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+		pool.acquire().addListener((Future<Channel> acquired) -> {
+			if(!acquired.isSuccess()) {
+				Throwable cause = acquired.cause();
+				listener.completed(0, cause instanceof IllegalStateException ? new DroppedException(cause) : cause);
+				return;
+			}
+			Channel channel = acquired.getNow();
+			Exchange exchange = new Exchange(channel, listener);
+			channel.attr(EXCHANGE).set(exchange);
+			exchange.timeout = channel.eventLoop().schedule(() -> exchange.fail(new TimeoutException(
+					"No response within " + timeoutMillis + " ms")), Math.max(0, deadlineNanos - System.nanoTime()),
+					TimeUnit.NANOSECONDS);
+			FullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, path,
+					body.retainedDuplicate());
+			request.headers()
+					.set(HttpHeaderNames.HOST, host)
+					.set(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_JSON)
+					.set(HttpHeaderNames.ACCEPT, HttpHeaderValues.APPLICATION_JSON)
+					.setInt(HttpHeaderNames.CONTENT_LENGTH, body.readableBytes());
+			channel.writeAndFlush(request).addListener(written -> {
+				if(!written.isSuccess()) {
+					exchange.fail(written.cause());
+				}
+			});
+		});
+	}
+
+	@Override
+	public void close() {
+		pool.close();
+		group.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Request in flight on a connection, completed exactly once by its
+	 * response, its timeout or the failure of the connection
+	 */
+	private final class Exchange {
+
+		private final Channel channel;
+		private final Listener listener;
+		private ScheduledFuture<?> timeout;
+
+		private Exchange(Channel channel, Listener listener) {
+			this.channel = channel;
+			this.listener = listener;
+		}
+
+		private void complete(FullHttpResponse response) {
+			if(channel.attr(EXCHANGE).compareAndSet(this, null)) {
+				timeout.cancel(false);
+				if(!HttpUtil.isKeepAlive(response)) {
+					channel.close();
+				}
+				pool.release(channel);
+				listener.completed(response.status().code(), null);
+			}
+		}
+
+		private void fail(Throwable cause) {
+			if(channel.attr(EXCHANGE).compareAndSet(this, null)) {
+				if(timeout != null) {
+					timeout.cancel(false);
+				}
+				// the connection is in an unknown state, it is closed and replaced
+				channel.close();
+				pool.release(channel);
+				listener.completed(0, cause);
+			}
+		}
+	}
+
+	/**
+	 * Handler completing the exchange of the connection with its response
+	 */
+	private static final class ResponseHandler extends SimpleChannelInboundHandler<FullHttpResponse> {
+
+		@Override
+		protected void channelRead0(ChannelHandlerContext context, FullHttpResponse response) {
+			Exchange exchange = context.channel().attr(EXCHANGE).get();
+			if(exchange != null) {
+				exchange.complete(response);
+			}
+		}
+
+		@Override
+		public void channelInactive(ChannelHandlerContext context) throws Exception {
+			Exchange exchange = context.channel().attr(EXCHANGE).get();
+			if(exchange != null) {
+				exchange.fail(new IllegalStateException("Connection closed before the response"));
+			}
+			super.channelInactive(context);
+		}
+
+		@Override
+		public void exceptionCaught(ChannelHandlerContext context, Throwable cause) {
+			Exchange exchange = context.channel().attr(EXCHANGE).get();
+			if(exchange != null) {
+				exchange.fail(cause);
+			} else {
+				context.close();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,65 @@
+package com.aws.communication.load;
+
+import com.aws.communication.BenchmarkPayloads;
+
+/**
+ * Send APIs driven by the load generator, with the payload posted to each
+ *
+ */
+public enum LoadEndpoint {
+
+	EMAIL("email", "/aws-communication/v1/email/send", BenchmarkPayloads.EMAIL_REQUEST_JSON),
+	SMS("sms", "/aws-communication/v1/sms/send", BenchmarkPayloads.SMS_REQUEST_JSON),
+	EMAIL_ASYNC("email-async", "/aws-communication/v1/email/send-async", BenchmarkPayloads.EMAIL_REQUEST_JSON),
+	SMS_ASYNC("sms-async", "/aws-communication/v1/sms/send-async", BenchmarkPayloads.SMS_REQUEST_JSON),
+	EMAIL_V2("email-v2", "/aws-communication/v2/email/send", BenchmarkPayloads.EMAIL_REQUEST_JSON),
+	SMS_V2("sms-v2", "/aws-communication/v2/sms/send", BenchmarkPayloads.SMS_REQUEST_JSON);
+
+	private final String key;
+	private final String path;
+	private final String payload;
+
+	LoadEndpoint(String key, String path, String payload) {
+		this.key = key;
+		this.path = path;
+		this.payload = payload;
+	}
+
+	/**
+	 * Method to find the endpoint of a key
+	 *
+	 * @param key - Key of the endpoint, e.g. email-async
+	 * @return LoadEndpoint
+	 * @throws IllegalArgumentException Thrown when no endpoint has the key
+	 */
+	public static LoadEndpoint fromKey(String key) {
+		for(LoadEndpoint endpoint : values()) {
+			if(endpoint.key.equals(key.trim())) {
+				return endpoint;
+			}
+		}
+		throw new IllegalArgumentException("Unknown endpoint " + key);
+	}
+
+	/**
+	 * @return the key of the endpoint, used in the mix and the report
+	 */
+	public String getKey() {
+		return key;
+	}
+
+	/**
+	 * @return the path of the API
+	 */
+	public String getPath() {
+		return path;
+	}
+
+	/**
+	 * @return the JSON request posted to the API
+	 */
+	public String getPayload() {
+		return payload;
+	}
+
+}
@@ -0,0 +1,495 @@
+package com.aws.communication.load;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import com.aws.communication.load.LoadClient.DroppedException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Load generator of the send APIs of a running application,
+ * for macro benchmarks against the stub server of SES and SNS.
+ *
+ * Requests are sent at a constant arrival rate whatever the response times,
+ * as production traffic does, and their latency is measured from the time
+ * they were due, so that a slow application is not hidden by a load
+ * generator waiting for it. Each step runs at one rate, and its first
+ * warm-up seconds are not measured.
+ *
+ * With --concurrency, the steps run closed-model instead: each keeps the
+ * given number of requests in flight, sending the next request as soon as
+ * one completes, and latency is measured from the time each request was
+ * sent. This is the load of a fixed number of clients, used to compare the
+ * platform and virtual thread modes at the same concurrency.
+ *
+ * With --rates, the steps run at the given rates. Otherwise the saturation
+ * rate is searched: the rate grows from --start-rate by --growth until a
+ * step is not sustained, then the gap between the last sustained rate and
+ * the first rate not sustained is halved --refine-steps times. A step is
+ * sustained when its p99 latency is within --slo-p99-ms and its share of
+ * requests not succeeding within --max-error-rate.
+ *
+ * The report is written as JSON to --report-dir, with the latency
+ * distribution of each step and endpoint as HdrHistogram .hgrm files.
+ * Given a --baseline report, the run is compared with it and, when the
+ * saturation rate was searched, the process exits with 1 when it regressed
+ * by more than --max-regression.
+ *
+ */
+public final class LoadGenerator {
+
+	private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+	private static final int SIGNIFICANT_DIGITS = 3;
+	private static final long LAG_WARNING_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+	private static final long FAILURE_PAUSE_MILLIS = 10;
+
+	private final URI target;
+	private final String mix;
+	private final List<LoadEndpoint> schedule = new ArrayList<>();
+	private final String rates;
+	private final String concurrency;
+	private final double startRate;
+	private final double growth;
+	private final double maxRate;
+	private final int refineSteps;
+	private final int stepDurationSeconds;
+	private final int warmupSeconds;
+	private final int pauseSeconds;
+	private final int connections;
+	private final int maxPending;
+	private final int ioThreads;
+	private final long timeoutMillis;
+	private final double sloP99Millis;
+	private final double maxErrorRate;
+	private final String label;
+	private final File reportDirectory;
+	private final String baseline;
+	private final double maxRegression;
+
+	private LoadGenerator(Map<String, String> settings) {
+		target = URI.create(remove(settings, "target", "http://localhost:8080"));
+		mix = remove(settings, "mix", "email:1,sms:1");
+		rates = remove(settings, "rates", "");
+		concurrency = remove(settings, "concurrency", "");
+		startRate = Double.parseDouble(remove(settings, "start-rate", "50"));
+		growth = Double.parseDouble(remove(settings, "growth", "2"));
+		maxRate = Double.parseDouble(remove(settings, "max-rate", "50000"));
+		refineSteps = Integer.parseInt(remove(settings, "refine-steps", "3"));
+		stepDurationSeconds = Integer.parseInt(remove(settings, "step-duration-s", "30"));
+		warmupSeconds = Integer.parseInt(remove(settings, "warmup-s", "5"));
+		pauseSeconds = Integer.parseInt(remove(settings, "pause-s", "2"));
+		// one connection per concurrent request in the closed model, so none waits for a connection
+		connections = Integer.parseInt(remove(settings, "connections", concurrency.trim().isEmpty() ? "200" 
+				: String.valueOf(maxConcurrency(concurrency))));
+		maxPending = Integer.parseInt(remove(settings, "max-pending", "10000"));
+		ioThreads = Integer.parseInt(remove(settings, "io-threads", "2"));
+		timeoutMillis = Long.parseLong(remove(settings, "timeout-ms", "10000"));
+		sloP99Millis = Double.parseDouble(remove(settings, "slo-p99-ms", "500"));
+		maxErrorRate = Double.parseDouble(remove(settings, "max-error-rate", "0.01"));
+		label = remove(settings, "label", "local");
+		reportDirectory = new File(remove(settings, "report-dir", "target/load"));
+		baseline = remove(settings, "baseline", "");
+		maxRegression = Double.parseDouble(remove(settings, "max-regression", "0.1"));
+		if(!settings.isEmpty()) {
+			throw new IllegalArgumentException("Unknown settings " + settings.keySet());
+		}
+		if(growth <= 1 || stepDurationSeconds <= warmupSeconds) {
+			throw new IllegalArgumentException("growth must be above 1 and step-duration-s above warmup-s");
+		}
+		for(String weighted : mix.split(",")) {
+			String[] parts = weighted.split(":");
+			LoadEndpoint endpoint = LoadEndpoint.fromKey(parts[0]);
+			int weight = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1;
+			for(int index = 0; index < weight; index++) {
+				schedule.add(endpoint);
+			}
+		}
+	}
+
+	/**
+	 * Method to run the load generator
+	 *
+	 * @param args - Settings as --key=value
+	 * @throws Exception Thrown when the load test cannot be run
+	 */
+	public static void main(String[] args) throws Exception {
+		Map<String, String> settings = new HashMap<>();
+		for(String arg : args) {
+			int separator = arg.indexOf('=');
+			if(!arg.startsWith("--") || separator < 0) {
+				throw new IllegalArgumentException("Expected --key=value, got " + arg);
+			}
+			settings.put(arg.substring(2, separator), arg.substring(separator + 1));
+		}
+		System.exit(new LoadGenerator(settings).run());
+	}
+
+	/**
+	 * Method to run the steps, write the report and compare it with the baseline
+	 *
+	 * @return int - Exit code, 1 when the saturation rate regressed
+	 * @throws IOException Thrown when the report cannot be written or the baseline read
+	 * @throws InterruptedException Thrown when interrupted
+	 */
+	private int run() throws IOException, InterruptedException {
+		if(!reportDirectory.isDirectory() && !reportDirectory.mkdirs()) {
+			throw new IOException("Cannot create " + reportDirectory);
+		}
+		LoadReport report = new LoadReport(label, OffsetDateTime.now().toString(), target.toString(), mix,
+				stepDurationSeconds, warmupSeconds, connections, sloP99Millis, maxErrorRate);
+		System.out.printf(Locale.ROOT, "Load test %s of %s with %s, steps of %ds after %ds of warm-up%n", label, target,
+				mix, stepDurationSeconds - warmupSeconds, warmupSeconds);
+		LoadReport.printHeader(System.out);
+		try(LoadClient client = new LoadClient(target, connections, maxPending, ioThreads, timeoutMillis)) {
+			if(!concurrency.trim().isEmpty()) {
+				for(String users : concurrency.split(",")) {
+					report.add(concurrencyStep(client, Integer.parseInt(users.trim())));
+				}
+			} else if(!rates.trim().isEmpty()) {
+				for(String rate : rates.split(",")) {
+					report.add(step(client, Double.parseDouble(rate.trim())));
+				}
+			} else {
+				searchSaturation(client, report);
+			}
+		}
+		File reportFile = new File(reportDirectory, label + ".json");
+		new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(reportFile, report);
+		if(concurrency.trim().isEmpty()) {
+			System.out.printf(Locale.ROOT, "Saturation rate %.0f requests/s, report written to %s%n",
+					report.getSaturationRate(), reportFile);
+		} else {
+			System.out.printf(Locale.ROOT, "Report written to %s%n", reportFile);
+		}
+		if(!baseline.isEmpty()) {
+			return report.compareTo(new ObjectMapper().readTree(new File(baseline)), 
+					rates.trim().isEmpty() && concurrency.trim().isEmpty(),
+					maxRegression, System.out) ? 1 : 0;
+		}
+		return 0;
+	}
+
+	/**
+	 * Method to search the saturation rate, growing the rate until a step
+	 * is not sustained and then bisecting between the last two rates
+	 *
+	 * @param client - HTTP client
+	 * @param report - Report the steps are added to
+	 * @throws IOException Thrown when a latency distribution cannot be written
+	 * @throws InterruptedException Thrown when interrupted
+	 */
+	private void searchSaturation(LoadClient client, LoadReport report) throws IOException, InterruptedException {
+		double sustainedRate = 0;
+		double failedRate = 0;
+		for(double rate = startRate; rate <= maxRate; rate *= growth) {
+			StepResult step = step(client, Math.round(rate));
+			report.add(step);
+			if(!step.isSustained()) {
+				failedRate = step.getTargetRate();
+				break;
+			}
+			sustainedRate = step.getTargetRate();
+		}
+		for(int index = 0; index < refineSteps && failedRate > 0; index++) {
+			double rate = Math.round((sustainedRate + failedRate) / 2);
+			if(rate <= sustainedRate || rate >= failedRate) {
+				break;
+			}
+			StepResult step = step(client, rate);
+			report.add(step);
+			if(step.isSustained()) {
+				sustainedRate = rate;
+			} else {
+				failedRate = rate;
+			}
+		}
+	}
+
+	/**
+	 * Method to run a step at a constant arrival rate
+	 *
+	 * @param client - HTTP client
+	 * @param rate - Arrival rate, in requests per second
+	 * @return StepResult
+	 * @throws IOException Thrown when a latency distribution cannot be written
+	 * @throws InterruptedException Thrown when interrupted
+	 */
+	private StepResult step(LoadClient client, double rate) throws IOException, InterruptedException {
+		Map<LoadEndpoint, EndpointRecorder> recorders = recorders();
+		EndpointRecorder[] scheduled = scheduled(recorders);
+		AtomicLong inFlight = new AtomicLong();
+		long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(10);
+		long measureStart = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+		long end = start + TimeUnit.SECONDS.toNanos(stepDurationSeconds);
+		long maxLagNanos = 0;
+		for(long sequence = 0;; sequence++) {
+			long due = start + (long) (sequence * NANOS_PER_SECOND / rate);
+			if(due >= end) {
+				break;
+			}
+			long wait = due - System.nanoTime();
+			if(wait > 0) {
+				LockSupport.parkNanos(wait);
+			} else {
+				maxLagNanos = Math.max(maxLagNanos, -wait);
+			}
+			EndpointRecorder recorder = scheduled[(int) (sequence % scheduled.length)];
+			boolean measured = due >= measureStart;
+			if(measured) {
+				recorder.sent.increment();
+			}
+			inFlight.incrementAndGet();
+			client.post(recorder.endpoint.getPath(), recorder.body, (status, failure) -> {
+				if(measured) {
+					recorder.record(status, failure, System.nanoTime() - due);
+				}
+				inFlight.decrementAndGet();
+			});
+		}
+		long drainDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis + 1000);
+		while(inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+			Thread.sleep(10);
+		}
+		if(maxLagNanos > LAG_WARNING_NANOS) {
+			System.out.printf(Locale.ROOT, "Warning: requests were sent up to %d ms late at %.0f/s, the load "
+					+ "generator is short of CPU%n", TimeUnit.NANOSECONDS.toMillis(maxLagNanos), rate);
+		}
+		StepResult step = summarize(0, rate, recorders, (double) (end - measureStart) / NANOS_PER_SECOND);
+		LoadReport.printStep(System.out, step);
+		TimeUnit.SECONDS.sleep(pauseSeconds);
+		return step;
+	}
+
+	/**
+	 * Method to run a closed-model step, keeping the given number of
+	 * requests in flight until the end of the step
+	 *
+	 * @param client - HTTP client
+	 * @param users - Number of requests in flight
+	 * @return StepResult
+	 * @throws IOException Thrown when a latency distribution cannot be written
+	 * @throws InterruptedException Thrown when interrupted
+	 */
+	private StepResult concurrencyStep(LoadClient client, int users) throws IOException, InterruptedException {
+		Map<LoadEndpoint, EndpointRecorder> recorders = recorders();
+		EndpointRecorder[] scheduled = scheduled(recorders);
+		long start = System.nanoTime();
+		long measureStart = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+		long end = start + TimeUnit.SECONDS.toNanos(stepDurationSeconds);
+		AtomicLong sequence = new AtomicLong();
+		AtomicInteger active = new AtomicInteger(users);
+		ScheduledExecutorService pauses = Executors.newSingleThreadScheduledExecutor();
+		try {
+			ClosedUser user = new ClosedUser(client, scheduled, sequence, active, pauses, measureStart, end);
+			for(int index = 0; index < users; index++) {
+				user.next();
+			}
+			long drainDeadline = end + TimeUnit.MILLISECONDS.toNanos(timeoutMillis + 1000);
+			while(active.get() > 0 && System.nanoTime() < drainDeadline) {
+				Thread.sleep(10);
+			}
+		} finally {
+			pauses.shutdownNow();
+		}
+		StepResult step = summarize(users, 0, recorders, (double) (end - measureStart) / NANOS_PER_SECOND);
+		LoadReport.printStep(System.out, step);
+		TimeUnit.SECONDS.sleep(pauseSeconds);
+		return step;
+	}
+
+	/**
+	 * @return the recorders of the endpoints of the mix
+	 */
+	private Map<LoadEndpoint, EndpointRecorder> recorders() {
+		Map<LoadEndpoint, EndpointRecorder> recorders = new LinkedHashMap<>();
+		for(LoadEndpoint endpoint : schedule) {
+			recorders.computeIfAbsent(endpoint, EndpointRecorder::new);
+		}
+		return recorders;
+	}
+
+	/**
+	 * @param recorders - Recorders of the endpoints
+	 * @return the recorder of each slot of the weighted schedule
+	 */
+	private EndpointRecorder[] scheduled(Map<LoadEndpoint, EndpointRecorder> recorders) {
+		EndpointRecorder[] scheduled = new EndpointRecorder[schedule.size()];
+		for(int index = 0; index < scheduled.length; index++) {
+			scheduled[index] = recorders.get(schedule.get(index));
+		}
+		return scheduled;
+	}
+
+	/**
+	 * Method to summarize the recorders of a step, writing the latency
+	 * distribution of each endpoint
+	 *
+	 * @param users - Requests kept in flight by a closed-model step, 0 for an open-model step
+	 * @param rate - Arrival rate of an open-model step
+	 * @param recorders - Recorders of the endpoints
+	 * @param seconds - Duration of the measurement
+	 * @return StepResult
+	 * @throws IOException Thrown when a latency distribution cannot be written
+	 */
+	private StepResult summarize(int users, double rate, Map<LoadEndpoint, EndpointRecorder> recorders, 
+			double seconds) throws IOException {
+		Histogram totalLatencies = new Histogram(SIGNIFICANT_DIGITS);
+		long[] totalCounts = new long[6];
+		Map<String, LoadStats> endpoints = new LinkedHashMap<>();
+		for(EndpointRecorder recorder : recorders.values()) {
+			Histogram latencies = recorder.latencies.getIntervalHistogram();
+			long[] counts = recorder.counts();
+			for(int index = 0; index < counts.length; index++) {
+				totalCounts[index] += counts[index];
+			}
+			totalLatencies.add(latencies);
+			endpoints.put(recorder.endpoint.getKey(), new LoadStats(counts, latencies, seconds));
+			File distribution = new File(reportDirectory, users > 0 
+					? String.format(Locale.ROOT, "%s-c%d-%s.hgrm", label, users, recorder.endpoint.getKey())
+					: String.format(Locale.ROOT, "%s-%.0f-%s.hgrm", label, rate, recorder.endpoint.getKey()));
+			try(PrintStream out = new PrintStream(new FileOutputStream(distribution), false,
+					StandardCharsets.UTF_8.name())) {
+				// recorded in microseconds, written in milliseconds
+				latencies.outputPercentileDistribution(out, 1000.0);
+			}
+		}
+		LoadStats total = new LoadStats(totalCounts, totalLatencies, seconds);
+		boolean sustained = total.getSent() > 0 && total.getErrorRate() <= maxErrorRate
+				&& total.getP99Millis() <= sloP99Millis;
+		return new StepResult(rate, users, sustained, total, endpoints);
+	}
+
+	private static int maxConcurrency(String concurrency) {
+		int max = 0;
+		for(String users : concurrency.split(",")) {
+			max = Math.max(max, Integer.parseInt(users.trim()));
+		}
+		return max;
+	}
+
+	private static String remove(Map<String, String> settings, String key, String defaultValue) {
+		String value = settings.remove(key);
+		return value != null ? value : defaultValue;
+	}
+
+	/**
+	 * Requests of a closed-model step. Each completed request is followed
+	 * by the next one until the end of the step; after a failure the next
+	 * request is delayed a little, so that an application refusing
+	 * connections is not hammered in a tight loop.
+	 */
+	private static final class ClosedUser {
+
+		private final LoadClient client;
+		private final EndpointRecorder[] scheduled;
+		private final AtomicLong sequence;
+		private final AtomicInteger active;
+		private final ScheduledExecutorService pauses;
+		private final long measureStart;
+		private final long end;
+
+		private ClosedUser(LoadClient client, EndpointRecorder[] scheduled, AtomicLong sequence, AtomicInteger active,
+				ScheduledExecutorService pauses, long measureStart, long end) {
+			this.client = client;
+			this.scheduled = scheduled;
+			this.sequence = sequence;
+			this.active = active;
+			this.pauses = pauses;
+			this.measureStart = measureStart;
+			this.end = end;
+		}
+
+		private void next() {
+			long sent = System.nanoTime();
+			if(sent >= end) {
+				active.decrementAndGet();
+				return;
+			}
+			EndpointRecorder recorder = scheduled[(int) (sequence.getAndIncrement() % scheduled.length)];
+			boolean measured = sent >= measureStart;
+			if(measured) {
+				recorder.sent.increment();
+			}
+			client.post(recorder.endpoint.getPath(), recorder.body, (status, failure) -> {
+				if(measured) {
+					recorder.record(status, failure, System.nanoTime() - sent);
+				}
+				if(failure == null) {
+					next();
+				} else {
+					pauses.schedule(this::next, FAILURE_PAUSE_MILLIS, TimeUnit.MILLISECONDS);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Outcome of the measured requests to an endpoint during a step
+	 */
+	private static final class EndpointRecorder {
+
+		private final LoadEndpoint endpoint;
+		private final ByteBuf body;
+		private final Recorder latencies = new Recorder(SIGNIFICANT_DIGITS);
+		private final LongAdder sent = new LongAdder();
+		private final LongAdder succeeded = new LongAdder();
+		private final LongAdder rejected = new LongAdder();
+		private final LongAdder failed = new LongAdder();
+		private final LongAdder timedOut = new LongAdder();
+		private final LongAdder dropped = new LongAdder();
+
+		private EndpointRecorder(LoadEndpoint endpoint) {
+			this.endpoint = endpoint;
+			this.body = Unpooled.unreleasableBuffer(Unpooled.copiedBuffer(endpoint.getPayload(),
+					StandardCharsets.UTF_8));
+		}
+
+		private void record(int status, Throwable failure, long latencyNanos) {
+			if(failure instanceof TimeoutException) {
+				timedOut.increment();
+			} else if(failure instanceof DroppedException) {
+				dropped.increment();
+			} else if(failure != null) {
+				failed.increment();
+			} else if(status >= 200 && status < 300) {
+				succeeded.increment();
+				latencies.recordValue(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+			} else if(status == 429 || status == 503) {
+				rejected.increment();
+			} else {
+				failed.increment();
+			}
+		}
+
+		private long[] counts() {
+			return new long[] { sent.sum(), succeeded.sum(), rejected.sum(), failed.sum(), timedOut.sum(),
+					dropped.sum() };
+		}
+	}
+
+}
@@ -0,0 +1,230 @@
+package com.aws.communication.load;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Report of a load test, written as JSON so that the runs of releases can
+ * be compared. The saturation rate is the highest arrival rate sustained:
+ * answered at that rate with the p99 latency and the error rate within
+ * the objectives. Closed-model steps are listed by concurrency and do not
+ * count towards the saturation rate.
+ *
+ */
+public final class LoadReport {
+
+	private static final String ROW_FORMAT = "%10s %10s %8s %9s %9s %9s %9s %9s  %s%n";
+
+	private final String label;
+	private final String startedAt;
+	private final String target;
+	private final String mix;
+	private final int stepDurationSeconds;
+	private final int warmupSeconds;
+	private final int connections;
+	private final double sloP99Millis;
+	private final double maxErrorRate;
+	private final List<StepResult> steps = new ArrayList<>();
+	private double saturationRate;
+
+	/**
+	 * @param label - Label of the run, e.g. the release tested
+	 * @param startedAt - Start of the run
+	 * @param target - Base URL of the application
+	 * @param mix - Endpoints driven and their weights
+	 * @param stepDurationSeconds - Duration of each step, warm-up included
+	 * @param warmupSeconds - Warm-up of each step, not measured
+	 * @param connections - Connections to the application
+	 * @param sloP99Millis - Objective of the p99 latency
+	 * @param maxErrorRate - Objective of the share of requests not succeeding
+	 */
+	LoadReport(String label, String startedAt, String target, String mix, int stepDurationSeconds,
+			int warmupSeconds, int connections, double sloP99Millis, double maxErrorRate) {
+		this.label = label;
+		this.startedAt = startedAt;
+		this.target = target;
+		this.mix = mix;
+		this.stepDurationSeconds = stepDurationSeconds;
+		this.warmupSeconds = warmupSeconds;
+		this.connections = connections;
+		this.sloP99Millis = sloP99Millis;
+		this.maxErrorRate = maxErrorRate;
+	}
+
+	/**
+	 * Method to add the result of a step, raising the saturation rate
+	 * when the step was sustained
+	 *
+	 * @param step - Result of the step
+	 */
+	void add(StepResult step) {
+		steps.add(step);
+		if(step.isSustained() && step.getConcurrency() == 0) {
+			saturationRate = Math.max(saturationRate, step.getTargetRate());
+		}
+	}
+
+	/**
+	 * Method to print the header of the step table
+	 *
+	 * @param out - Stream to print to
+	 */
+	static void printHeader(PrintStream out) {
+		out.printf(Locale.ROOT, ROW_FORMAT, "load", "achieved/s", "errors", "p50 ms", "p90 ms", "p99 ms",
+				"p99.9 ms", "max ms", "sustained");
+	}
+
+	/**
+	 * Method to print a step as a row of the step table
+	 *
+	 * @param out - Stream to print to
+	 * @param step - Result of the step
+	 */
+	static void printStep(PrintStream out, StepResult step) {
+		LoadStats total = step.getTotal();
+		out.printf(Locale.ROOT, ROW_FORMAT, load(step), format(total.getAchievedRate()),
+				String.format(Locale.ROOT, "%.2f%%", total.getErrorRate() * 100), format(total.getP50Millis()),
+				format(total.getP90Millis()), format(total.getP99Millis()), format(total.getP999Millis()),
+				format(total.getMaxMillis()), step.isSustained() ? "yes" : "no");
+	}
+
+	/**
+	 * Method to compare the run with a baseline report, printing the change
+	 * of the saturation rate and of the p99 latency at the rates of both runs,
+	 * and of the achieved rate and p99 latency at the concurrencies of both runs.
+	 * The saturation rate of a run at given rates is capped by the highest
+	 * rate, so it is only compared when the run searched it.
+	 *
+	 * @param baseline - Report of the baseline run
+	 * @param searched - true if the saturation rate of the run was searched
+	 * @param maxRegression - Share of the baseline saturation rate the run may lose
+	 * @param out - Stream to print to
+	 * @return boolean - true if the saturation rate regressed beyond maxRegression
+	 */
+	boolean compareTo(JsonNode baseline, boolean searched, double maxRegression, PrintStream out) {
+		double baselineRate = baseline.path("saturationRate").asDouble();
+		out.printf(Locale.ROOT, "Baseline %s (%s)%n", baseline.path("label").asText(),
+				baseline.path("startedAt").asText());
+		if(searched) {
+			out.printf(Locale.ROOT, "  saturation rate %s/s, baseline %s/s, %s%n", format(saturationRate),
+					format(baselineRate), change(saturationRate, baselineRate));
+		}
+		for(JsonNode baselineStep : baseline.path("steps")) {
+			for(StepResult step : steps) {
+				if(step.getConcurrency() > 0 && step.getConcurrency() == baselineStep.path("concurrency").asInt()) {
+					double baselineAchieved = baselineStep.path("total").path("achievedRate").asDouble();
+					double baselineP99 = baselineStep.path("total").path("p99Millis").asDouble();
+					out.printf(Locale.ROOT, "  at %d in flight %s/s, baseline %s/s, %s; p99 %s ms, baseline %s ms, %s%n", 
+							step.getConcurrency(), format(step.getTotal().getAchievedRate()), format(baselineAchieved),
+							change(step.getTotal().getAchievedRate(), baselineAchieved), format(step.getTotal().getP99Millis()),
+							format(baselineP99), change(step.getTotal().getP99Millis(), baselineP99));
+				} else if(step.getConcurrency() == 0 && baselineStep.path("concurrency").asInt() == 0 
+						&& step.getTargetRate() == baselineStep.path("targetRate").asDouble()) {
+					double baselineP99 = baselineStep.path("total").path("p99Millis").asDouble();
+					out.printf(Locale.ROOT, "  at %s/s p99 %s ms, baseline %s ms, %s%n", format(step.getTargetRate()),
+							format(step.getTotal().getP99Millis()), format(baselineP99),
+							change(step.getTotal().getP99Millis(), baselineP99));
+				}
+			}
+		}
+		boolean regressed = searched && saturationRate < baselineRate * (1 - maxRegression);
+		if(regressed) {
+			out.printf(Locale.ROOT, "Saturation rate regressed by more than %.0f%%%n", maxRegression * 100);
+		}
+		return regressed;
+	}
+
+	/**
+	 * @return the label of the run
+	 */
+	public String getLabel() {
+		return label;
+	}
+
+	/**
+	 * @return the start of the run
+	 */
+	public String getStartedAt() {
+		return startedAt;
+	}
+
+	/**
+	 * @return the base URL of the application
+	 */
+	public String getTarget() {
+		return target;
+	}
+
+	/**
+	 * @return the endpoints driven and their weights
+	 */
+	public String getMix() {
+		return mix;
+	}
+
+	/**
+	 * @return the duration of each step, warm-up included
+	 */
+	public int getStepDurationSeconds() {
+		return stepDurationSeconds;
+	}
+
+	/**
+	 * @return the warm-up of each step
+	 */
+	public int getWarmupSeconds() {
+		return warmupSeconds;
+	}
+
+	/**
+	 * @return the connections to the application
+	 */
+	public int getConnections() {
+		return connections;
+	}
+
+	/**
+	 * @return the objective of the p99 latency
+	 */
+	public double getSloP99Millis() {
+		return sloP99Millis;
+	}
+
+	/**
+	 * @return the objective of the share of requests not succeeding
+	 */
+	public double getMaxErrorRate() {
+		return maxErrorRate;
+	}
+
+	/**
+	 * @return the highest arrival rate sustained, 0 if none was
+	 */
+	public double getSaturationRate() {
+		return saturationRate;
+	}
+
+	/**
+	 * @return the results of the steps, in the order run
+	 */
+	public List<StepResult> getSteps() {
+		return steps;
+	}
+
+	private static String load(StepResult step) {
+		return step.getConcurrency() > 0 ? "x" + step.getConcurrency() : format(step.getTargetRate()) + "/s";
+	}
+
+	private static String format(double value) {
+		return String.format(Locale.ROOT, value >= 100 ? "%.0f" : "%.2f", value);
+	}
+
+	private static String change(double value, double baseline) {
+		return baseline == 0 ? "no baseline" : String.format(Locale.ROOT, "%+.1f%%", (value - baseline) * 100 / baseline);
+	}
+
+}
@@ -0,0 +1,144 @@
+package com.aws.communication.load;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Outcome of the requests of a load step, for one endpoint or all of them.
+ * Latencies are measured from the time each request was due to be sent, not
+ * from the time it was sent, so that the wait for a connection of an
+ * overloaded application is part of the latency.
+ *
+ */
+public final class LoadStats {
+
+	private static final double MICROS_PER_MILLI = 1000.0;
+
+	private final long sent;
+	private final long succeeded;
+	private final long rejected;
+	private final long failed;
+	private final long timedOut;
+	private final long dropped;
+	private final double achievedRate;
+	private final double p50Millis;
+	private final double p90Millis;
+	private final double p99Millis;
+	private final double p999Millis;
+	private final double maxMillis;
+
+	/**
+	 * @param counts - sent, succeeded, rejected, failed, timed out and dropped requests
+	 * @param latencies - Latencies of the successful requests, in microseconds
+	 * @param seconds - Duration of the measurement
+	 */
+	LoadStats(long[] counts, Histogram latencies, double seconds) {
+		this.sent = counts[0];
+		this.succeeded = counts[1];
+		this.rejected = counts[2];
+		this.failed = counts[3];
+		this.timedOut = counts[4];
+		this.dropped = counts[5];
+		this.achievedRate = succeeded / seconds;
+		this.p50Millis = percentile(latencies, 50);
+		this.p90Millis = percentile(latencies, 90);
+		this.p99Millis = percentile(latencies, 99);
+		this.p999Millis = percentile(latencies, 99.9);
+		this.maxMillis = latencies.getTotalCount() == 0 ? 0 : latencies.getMaxValue() / MICROS_PER_MILLI;
+	}
+
+	/**
+	 * @return the share of the requests sent which did not succeed
+	 */
+	public double getErrorRate() {
+		return sent == 0 ? 0 : (double) (sent - succeeded) / sent;
+	}
+
+	/**
+	 * @return the requests due in the measurement
+	 */
+	public long getSent() {
+		return sent;
+	}
+
+	/**
+	 * @return the requests answered with a 2xx status
+	 */
+	public long getSucceeded() {
+		return succeeded;
+	}
+
+	/**
+	 * @return the requests answered with 429 or 503, rejected by the application
+	 */
+	public long getRejected() {
+		return rejected;
+	}
+
+	/**
+	 * @return the requests answered with another status, or failed to connect
+	 */
+	public long getFailed() {
+		return failed;
+	}
+
+	/**
+	 * @return the requests not answered within the timeout
+	 */
+	public long getTimedOut() {
+		return timedOut;
+	}
+
+	/**
+	 * @return the requests dropped by the load generator as too many waited for a connection
+	 */
+	public long getDropped() {
+		return dropped;
+	}
+
+	/**
+	 * @return the successful requests per second
+	 */
+	public double getAchievedRate() {
+		return achievedRate;
+	}
+
+	/**
+	 * @return the median latency of the successful requests
+	 */
+	public double getP50Millis() {
+		return p50Millis;
+	}
+
+	/**
+	 * @return the 90th percentile latency of the successful requests
+	 */
+	public double getP90Millis() {
+		return p90Millis;
+	}
+
+	/**
+	 * @return the 99th percentile latency of the successful requests
+	 */
+	public double getP99Millis() {
+		return p99Millis;
+	}
+
+	/**
+	 * @return the 99.9th percentile latency of the successful requests
+	 */
+	public double getP999Millis() {
+		return p999Millis;
+	}
+
+	/**
+	 * @return the maximum latency of the successful requests
+	 */
+	public double getMaxMillis() {
+		return maxMillis;
+	}
+
+	private static double percentile(Histogram latencies, double percentile) {
+		return latencies.getTotalCount() == 0 ? 0 : latencies.getValueAtPercentile(percentile) / MICROS_PER_MILLI;
+	}
+
+}
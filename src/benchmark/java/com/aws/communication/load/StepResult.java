@@ -0,0 +1,69 @@
+package com.aws.communication.load;
+
+import java.util.Map;
+
+/**
+ * Result of a load step, either at a constant arrival rate (open model)
+ * or at a constant number of requests in flight (closed model)
+ *
+ */
+public final class StepResult {
+
+	private final double targetRate;
+	private final int concurrency;
+	private final boolean sustained;
+	private final LoadStats total;
+	private final Map<String, LoadStats> endpoints;
+
+	/**
+	 * @param targetRate - Arrival rate of an open-model step, in requests per second
+	 * @param concurrency - Requests in flight of a closed-model step, 0 for an open-model step
+	 * @param sustained - true if the application kept up with the rate
+	 * @param total - Outcome of the requests to all endpoints
+	 * @param endpoints - Outcome of the requests by endpoint
+	 */
+	StepResult(double targetRate, int concurrency, boolean sustained, LoadStats total, 
+			Map<String, LoadStats> endpoints) {
+		this.targetRate = targetRate;
+		this.concurrency = concurrency;
+		this.sustained = sustained;
+		this.total = total;
+		this.endpoints = endpoints;
+	}
+
+	/**
+	 * @return the arrival rate of the step, in requests per second
+	 */
+	public double getTargetRate() {
+		return targetRate;
+	}
+
+	/**
+	 * @return the requests in flight of a closed-model step, 0 for an open-model step
+	 */
+	public int getConcurrency() {
+		return concurrency;
+	}
+
+	/**
+	 * @return true if the application kept up with the rate within the objectives
+	 */
+	public boolean isSustained() {
+		return sustained;
+	}
+
+	/**
+	 * @return the outcome of the requests to all endpoints
+	 */
+	public LoadStats getTotal() {
+		return total;
+	}
+
+	/**
+	 * @return the outcome of the requests by endpoint
+	 */
+	public Map<String, LoadStats> getEndpoints() {
+		return endpoints;
+	}
+
+}
@@ -0,0 +1,60 @@
+package com.aws.communication.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.amazonaws.services.sns.model.MessageAttributeValue;
+import com.aws.communication.BenchmarkPayloads;
+import com.aws.communication.model.CommunicationCharacteristic;
+import com.aws.communication.model.SMSRequest;
+import com.aws.communication.utils.GenericUtils;
+
+/**
+ * Benchmark of mapping the incoming requests to the SES template data
+ * and SNS message attributes
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SendMappingBenchmark {
+	
+	private AwsCommunicationService service;
+	
+	private List<CommunicationCharacteristic> characteristics;
+	
+	private SMSRequest smsRequest;
+	
+	@Setup
+	public void setup() {
+		service = new AwsCommunicationService();
+		characteristics = BenchmarkPayloads.emailRequest().getCommunicationCharacteristics();
+		smsRequest = BenchmarkPayloads.smsRequest();
+	}
+	
+	@Benchmark
+	public String mapTemplateData() {
+		return GenericUtils.mapTemplateData(characteristics);
+	}
+	
+	@Benchmark
+	public Map<String, MessageAttributeValue> mapSMSAttributes() {
+		return service.mapSMSAttributes(smsRequest);
+	}
+
+}
@@ -0,0 +1,50 @@
+package com.aws.communication.service;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of reserving permits from the send rate limiter bucket under
+ * contention. The rate is high enough for requests never to wait, so only
+ * the cost of the compare-and-set is measured.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenBucketBenchmark {
+	
+	private TokenBucket bucket;
+	
+	@Setup
+	public void setup() {
+		bucket = new TokenBucket(1e9, Integer.MAX_VALUE / 2, TimeUnit.SECONDS.toNanos(1));
+	}
+	
+	@Benchmark
+	@Threads(1)
+	public long reserveUncontended() {
+		return bucket.reserve(1, 0);
+	}
+	
+	@Benchmark
+	@Threads(4)
+	public long reserveContended() {
+		return bucket.reserve(1, 0);
+	}
+
+}
@@ -0,0 +1,79 @@
+package com.aws.communication.service.outbox;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.aws.communication.BenchmarkPayloads;
+
+/**
+ * Benchmark of durable appends to the outbox on local disk. Each operation
+ * appends an entry, waits for the group commit and acknowledges the entry,
+ * which is the outbox work done for one accepted request.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OutboxBenchmark {
+	
+	private Path directory;
+	private Outbox outbox;
+	private byte[] payload;
+	private String trackingId;
+	
+	@Setup
+	public void setup() throws IOException {
+		directory = Files.createTempDirectory("outbox-benchmark");
+		outbox = new Outbox(directory, 64 * 1024 * 1024, 1000);
+		payload = BenchmarkPayloads.EMAIL_REQUEST_JSON.getBytes();
+		trackingId = UUID.randomUUID().toString();
+	}
+	
+	@TearDown
+	public void tearDown() throws IOException {
+		outbox.close();
+		try(Stream<Path> files = Files.walk(directory)) {
+			files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+		}
+	}
+	
+	@Benchmark
+	@Threads(1)
+	public long appendSingleWriter() throws IOException {
+		return appendAndAcknowledge();
+	}
+	
+	@Benchmark
+	@Threads(16)
+	public long appendGroupCommit() throws IOException {
+		return appendAndAcknowledge();
+	}
+	
+	private long appendAndAcknowledge() throws IOException {
+		long sequence = outbox.append((byte) 'E', trackingId, payload);
+		outbox.acknowledge(sequence);
+		return sequence;
+	}
+
+}
@@ -0,0 +1,73 @@
+package com.aws.communication.service.suppression;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of suppression list lookups, including normalization and
+ * hashing of the recipient, for recipients on the list and recipients
+ * not on the list, which are mostly answered by the Bloom filter.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = { "-XX:MaxDirectMemorySize=1g" })
+public class SuppressionLookupBenchmark {
+	
+	private static final int SAMPLES = 1024;
+	
+	@Param({ "10000000" })
+	private int entries;
+	
+	private SuppressionIndex index;
+	private String[] suppressed;
+	private String[] notSuppressed;
+	
+	@Setup
+	public void setup() {
+		index = new SuppressionIndex(entries, 10);
+		for(int i = 0; i < entries; i++) {
+			index.add(SuppressionHash.fingerprint(SuppressionService.normalize(address(i))));
+		}
+		suppressed = new String[SAMPLES];
+		notSuppressed = new String[SAMPLES];
+		for(int i = 0; i < SAMPLES; i++) {
+			suppressed[i] = address(ThreadLocalRandom.current().nextInt(entries));
+			notSuppressed[i] = address(entries + i);
+		}
+	}
+	
+	@Benchmark
+	public boolean lookupSuppressed() {
+		return lookup(suppressed[ThreadLocalRandom.current().nextInt(SAMPLES)]);
+	}
+	
+	@Benchmark
+	public boolean lookupNotSuppressed() {
+		return lookup(notSuppressed[ThreadLocalRandom.current().nextInt(SAMPLES)]);
+	}
+	
+	private boolean lookup(String recipient) {
+		return index.contains(SuppressionHash.fingerprint(SuppressionService.normalize(recipient)));
+	}
+	
+	private static String address(int i) {
+		return "Recipient." + i + "@Example.com";
+	}
+
+}
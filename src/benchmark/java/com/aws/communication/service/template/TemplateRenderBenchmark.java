@@ -0,0 +1,88 @@
+package com.aws.communication.service.template;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.aws.communication.BenchmarkPayloads;
+import com.aws.communication.model.CommunicationCharacteristic;
+
+/**
+ * Benchmark of local template rendering throughput on a single thread,
+ * i.e. per core: binding the template data and rendering the parts, and
+ * additionally writing the raw MIME message sent to SES.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(1)
+public class TemplateRenderBenchmark {
+	
+	private static final String SUBJECT = "Welcome to {{company}}, {{firstName}}!";
+	
+	private static final String TEXT = "Dear {{firstName}} {{lastName}},\n"
+			+ "\n"
+			+ "Thank you for signing up with {{company}}. Please activate your account:\n"
+			+ "{{activationLink}}\n"
+			+ "\n"
+			+ "{{#if supportEmail}}\n"
+			+ "Questions? Contact us at {{supportEmail}}.\n"
+			+ "{{/if}}\n"
+			+ "Kind regards,\n"
+			+ "{{company}}\n";
+	
+	private static final String HTML = "<html><body>"
+			+ "<p>Dear {{firstName}} {{lastName}},</p>"
+			+ "<p>Thank you for signing up with {{company}}. Please "
+			+ "<a href=\"{{{activationLink}}}\">activate your account</a>.</p>"
+			+ "{{#if supportEmail}}<p>Questions? Contact us at {{supportEmail}}.</p>{{/if}}"
+			+ "<p>Kind regards,<br/>{{company}}</p>"
+			+ "</body></html>";
+	
+	private CompiledEmailTemplate template;
+	
+	private List<CommunicationCharacteristic> characteristics;
+	
+	@Setup
+	public void setup() {
+		template = CompiledEmailTemplate.compile(SUBJECT, TEXT, HTML);
+		characteristics = BenchmarkPayloads.emailRequest().getCommunicationCharacteristics();
+	}
+	
+	@Benchmark
+	public void render(Blackhole blackhole) {
+		String[] values = template.bind(characteristics);
+		blackhole.consume(template.renderSubject(values));
+		blackhole.consume(template.renderText(values));
+		blackhole.consume(template.renderHtml(values));
+	}
+	
+	@Benchmark
+	public byte[] renderMimeMessage() {
+		String[] values = template.bind(characteristics);
+		return MimeMessageWriter.write("sender@example.com", "receiver@example.com", 
+				template.renderSubject(values), template.renderText(values), template.renderHtml(values));
+	}
+	
+	@Benchmark
+	public CompiledEmailTemplate compile() {
+		return CompiledEmailTemplate.compile(SUBJECT, TEXT, HTML);
+	}
+
+}
@@ -0,0 +1,387 @@
+package com.aws.communication.stub;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.aws.communication.stub.StubService.Outcome;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Stand-in for SES and SNS answering the AWS query protocol on one port,
+ * so that the application can be load tested without AWS by pointing
+ * ses.endpoint and sns.endpoint at it.
+ *
+ * Answers the SES SendTemplatedEmail, SendBulkTemplatedEmail, SendRawEmail,
+ * GetTemplate and ListTemplates actions and the SNS Publish action. Send
+ * calls are delayed by the configured latency distribution and throttled
+ * or failed with the configured rates, the delay being scheduled so that
+ * waiting calls do not hold threads. Every template exists, without
+ * placeholders.
+ *
+ * Settings are passed as arguments, e.g.
+ * --port=4579 --ses.latency=lognormal:20,150 --ses.max-rate=500 --sns.error-rate=0.01
+ * and can be changed while running with POST /stub/config?sns.error-rate=0.5.
+ * GET /stub/stats returns the counters of each action as JSON,
+ * POST /stub/reset resets them.
+ *
+ */
+public final class AwsStubServer {
+
+	private static final String SES_NAMESPACE = "http://ses.amazonaws.com/doc/2010-12-01/";
+	private static final String SNS_NAMESPACE = "http://sns.amazonaws.com/doc/2010-03-31/";
+	private static final String BULK_DESTINATION_PREFIX = "Destinations.member.";
+
+	static {
+		// the response headers and body are written separately, without TCP_NODELAY the body
+		// waits for the delayed acknowledgement of the headers
+		if(System.getProperty("sun.net.httpserver.nodelay") == null) {
+			System.setProperty("sun.net.httpserver.nodelay", "true");
+		}
+	}
+
+	private final StubService ses = new StubService("ses", SES_NAMESPACE);
+	private final StubService sns = new StubService("sns", SNS_NAMESPACE);
+
+	private final Set<String> templateNames = ConcurrentHashMap.newKeySet();
+
+	private final ScheduledExecutorService responder;
+
+	private final HttpServer server;
+
+	private final long startedNanos = System.nanoTime();
+
+	/**
+	 * @param port - Port to listen on, 0 for any free port
+	 * @param threads - Number of threads reading the requests
+	 * @throws IOException Thrown when the port cannot be bound
+	 */
+	public AwsStubServer(int port, int threads) throws IOException {
+		responder = Executors.newScheduledThreadPool(Math.max(1, threads / 4), daemonThreads("stub-responder-"));
+		server = HttpServer.create(new InetSocketAddress(port), 4096);
+		server.setExecutor(Executors.newFixedThreadPool(threads, daemonThreads("stub-handler-")));
+		server.createContext("/", this::handleQuery);
+		server.createContext("/stub/stats", exchange -> respond(exchange, 200, "application/json", stats()));
+		server.createContext("/stub/reset", exchange -> {
+			ses.reset();
+			sns.reset();
+			respond(exchange, 200, "text/plain", "reset\n");
+		});
+		server.createContext("/stub/config", this::handleConfig);
+	}
+
+	/**
+	 * Method to run the stub server until the process is stopped
+	 *
+	 * @param args - Settings as --key=value
+	 * @throws Exception Thrown when the server cannot be started
+	 */
+	public static void main(String[] args) throws Exception {
+		Map<String, String> settings = new HashMap<>();
+		for(String arg : args) {
+			int separator = arg.indexOf('=');
+			if(!arg.startsWith("--") || separator < 0) {
+				throw new IllegalArgumentException("Expected --key=value, got " + arg);
+			}
+			settings.put(arg.substring(2, separator), arg.substring(separator + 1));
+		}
+		int port = Integer.parseInt(remove(settings, "port", "4579"));
+		int threads = Integer.parseInt(remove(settings, "threads", "16"));
+		long reportInterval = Long.parseLong(remove(settings, "report-interval-s", "10"));
+		AwsStubServer stub = new AwsStubServer(port, threads);
+		settings.forEach(stub::configure);
+		stub.start();
+		System.out.println("AWS stub listening on port " + stub.getPort() + ": " + stub.ses.describe() + " "
+				+ stub.sns.describe());
+		if(reportInterval > 0) {
+			stub.responder.scheduleAtFixedRate(stub::report, reportInterval, reportInterval, TimeUnit.SECONDS);
+		}
+		Thread.currentThread().join();
+	}
+
+	/**
+	 * Method to change a setting of the emulated services
+	 *
+	 * @param key - Name of the setting, e.g. ses.latency
+	 * @param value - Value of the setting
+	 * @throws IllegalArgumentException Thrown when the setting is unknown or its value is not valid
+	 */
+	public void configure(String key, String value) {
+		if(!ses.configure(key, value) && !sns.configure(key, value)) {
+			throw new IllegalArgumentException("Unknown setting " + key);
+		}
+	}
+
+	/**
+	 * Method to start serving requests
+	 */
+	public void start() {
+		server.start();
+	}
+
+	/**
+	 * Method to stop serving requests
+	 */
+	public void stop() {
+		server.stop(0);
+		responder.shutdownNow();
+		((ExecutorService) server.getExecutor()).shutdownNow();
+	}
+
+	/**
+	 * @return the port the server listens on
+	 */
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	/**
+	 * Method to answer a call of the query protocol
+	 *
+	 * @param exchange - HTTP exchange of the call
+	 * @throws IOException Thrown when the call cannot be read or answered
+	 */
+	private void handleQuery(HttpExchange exchange) throws IOException {
+		Map<String, String> parameters = parseForm(readBody(exchange));
+		String action = parameters.getOrDefault("Action", "");
+		switch(action) {
+			case "SendTemplatedEmail":
+				templateNames.add(parameters.getOrDefault("Template", ""));
+				send(exchange, ses, action, 1, "<MessageId>" + UUID.randomUUID() + "</MessageId>");
+				break;
+			case "SendRawEmail":
+				send(exchange, ses, action, 1, "<MessageId>" + UUID.randomUUID() + "</MessageId>");
+				break;
+			case "SendBulkTemplatedEmail":
+				templateNames.add(parameters.getOrDefault("Template", ""));
+				int destinations = countBulkDestinations(parameters);
+				StringBuilder statuses = new StringBuilder("<Status>");
+				for(int index = 0; index < destinations; index++) {
+					statuses.append("<member><Status>Success</Status><MessageId>").append(UUID.randomUUID())
+							.append("</MessageId></member>");
+				}
+				send(exchange, ses, action, destinations, statuses.append("</Status>").toString());
+				break;
+			case "Publish":
+				send(exchange, sns, action, 1, "<MessageId>" + UUID.randomUUID() + "</MessageId>");
+				break;
+			case "GetTemplate":
+				String templateName = escape(parameters.getOrDefault("TemplateName", ""));
+				templateNames.add(parameters.getOrDefault("TemplateName", ""));
+				ses.count(action);
+				respond(exchange, 200, "text/xml", result(ses, action, "<Template><TemplateName>" + templateName
+						+ "</TemplateName><SubjectPart>Stub</SubjectPart><TextPart>Stub</TextPart></Template>"));
+				break;
+			case "ListTemplates":
+				StringBuilder metadata = new StringBuilder("<TemplatesMetadata>");
+				for(String name : templateNames) {
+					metadata.append("<member><Name>").append(escape(name)).append("</Name></member>");
+				}
+				ses.count(action);
+				respond(exchange, 200, "text/xml", result(ses, action, metadata.append("</TemplatesMetadata>")
+						.toString()));
+				break;
+			default:
+				respond(exchange, 400, "text/xml", error(ses, "Sender", "InvalidAction", "Action " + action
+						+ " is not supported by the stub"));
+		}
+	}
+
+	/**
+	 * Method to answer a send call after the latency of the service,
+	 * with the outcome decided by the service
+	 *
+	 * @param exchange - HTTP exchange of the call
+	 * @param service - Emulated service
+	 * @param action - Action of the call
+	 * @param messages - Number of messages sent by the call
+	 * @param result - Content of the result element on success
+	 */
+	private void send(HttpExchange exchange, StubService service, String action, int messages, String result) {
+		Outcome outcome = service.decide(action, messages);
+		Runnable response = () -> {
+			if(outcome == Outcome.THROTTLED) {
+				// SES reports throttling as 400 Throttling, SNS as 429 Throttled
+				if(service == ses) {
+					respond(exchange, 400, "text/xml", error(service, "Sender", "Throttling",
+							"Maximum sending rate exceeded."));
+				} else {
+					respond(exchange, 429, "text/xml", error(service, "Sender", "Throttled", "Rate exceeded"));
+				}
+			} else if(outcome == Outcome.FAILED) {
+				respond(exchange, 500, "text/xml", error(service, "Receiver", "InternalFailure",
+						"Injected failure of the stub"));
+			} else {
+				respond(exchange, 200, "text/xml", result(service, action, result));
+			}
+		};
+		long latencyNanos = service.sampleLatencyNanos();
+		if(latencyNanos == 0) {
+			response.run();
+		} else {
+			responder.schedule(response, latencyNanos, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	/**
+	 * Method to change settings with the query parameters of the request
+	 *
+	 * @param exchange - HTTP exchange of the call
+	 * @throws IOException Thrown when the query cannot be decoded
+	 */
+	private void handleConfig(HttpExchange exchange) throws IOException {
+		String query = exchange.getRequestURI().getRawQuery();
+		try {
+			if(query != null) {
+				parseForm(query).forEach(this::configure);
+			}
+			respond(exchange, 200, "text/plain", ses.describe() + "\n" + sns.describe() + "\n");
+		} catch (IllegalArgumentException e) {
+			respond(exchange, 400, "text/plain", e.getMessage() + "\n");
+		}
+	}
+
+	/**
+	 * Method to print the counters of the actions
+	 */
+	private void report() {
+		StringBuilder line = new StringBuilder();
+		for(StubService service : new StubService[] { ses, sns }) {
+			service.snapshot().forEach((action, counts) -> line.append(action).append(" requests=").append(counts[0])
+					.append(" ok=").append(counts[1]).append(" throttled=").append(counts[2]).append(" failed=")
+					.append(counts[3]).append(" messages=").append(counts[4]).append("  "));
+		}
+		System.out.println(line.length() == 0 ? "no calls" : line.toString().trim());
+	}
+
+	/**
+	 * @return the counters of the actions as JSON
+	 */
+	private String stats() {
+		StringBuilder json = new StringBuilder("{\"uptimeSeconds\":")
+				.append(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startedNanos));
+		for(StubService service : new StubService[] { ses, sns }) {
+			json.append(",\"").append(service.getName()).append("\":{");
+			boolean first = true;
+			for(Map.Entry<String, long[]> entry : service.snapshot().entrySet()) {
+				long[] counts = entry.getValue();
+				json.append(first ? "" : ",").append('"').append(entry.getKey()).append("\":{\"requests\":")
+						.append(counts[0]).append(",\"succeeded\":").append(counts[1]).append(",\"throttled\":")
+						.append(counts[2]).append(",\"failed\":").append(counts[3]).append(",\"messages\":")
+						.append(counts[4]).append('}');
+				first = false;
+			}
+			json.append('}');
+		}
+		return json.append("}\n").toString();
+	}
+
+	private static String result(StubService service, String action, String content) {
+		return "<" + action + "Response xmlns=\"" + service.getNamespace() + "\"><" + action + "Result>" + content
+				+ "</" + action + "Result><ResponseMetadata><RequestId>" + UUID.randomUUID()
+				+ "</RequestId></ResponseMetadata></" + action + "Response>";
+	}
+
+	private static String error(StubService service, String type, String code, String message) {
+		return "<ErrorResponse xmlns=\"" + service.getNamespace() + "\"><Error><Type>" + type + "</Type><Code>"
+				+ code + "</Code><Message>" + escape(message) + "</Message></Error><RequestId>" + UUID.randomUUID()
+				+ "</RequestId></ErrorResponse>";
+	}
+
+	/**
+	 * Method to count the destinations of a bulk call, numbered from 1 as
+	 * Destinations.member.N.Destination.ToAddresses.member.1
+	 *
+	 * @param parameters - Parameters of the call
+	 * @return int - Number of destinations
+	 */
+	private static int countBulkDestinations(Map<String, String> parameters) {
+		int destinations = 0;
+		for(String key : parameters.keySet()) {
+			if(key.startsWith(BULK_DESTINATION_PREFIX)) {
+				int end = key.indexOf('.', BULK_DESTINATION_PREFIX.length());
+				if(end > 0) {
+					destinations = Math.max(destinations, Integer.parseInt(key.substring(BULK_DESTINATION_PREFIX
+							.length(), end)));
+				}
+			}
+		}
+		return destinations;
+	}
+
+	private static void respond(HttpExchange exchange, int status, String contentType, String body) {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		try {
+			exchange.getResponseHeaders().set("Content-Type", contentType);
+			exchange.sendResponseHeaders(status, bytes.length);
+			try(OutputStream output = exchange.getResponseBody()) {
+				output.write(bytes);
+			}
+		} catch (IOException e) {
+			// the client went away, e.g. timed out
+			exchange.close();
+		}
+	}
+
+	private static String readBody(HttpExchange exchange) throws IOException {
+		ByteArrayOutputStream body = new ByteArrayOutputStream(1024);
+		byte[] buffer = new byte[8192];
+		try(InputStream input = exchange.getRequestBody()) {
+			int read;
+			while((read = input.read(buffer)) > 0) {
+				body.write(buffer, 0, read);
+			}
+		}
+		return new String(body.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	private static Map<String, String> parseForm(String form) throws UnsupportedEncodingException {
+		Map<String, String> parameters = new HashMap<>();
+		for(String pair : form.split("&")) {
+			if(pair.isEmpty()) {
+				continue;
+			}
+			int separator = pair.indexOf('=');
+			String key = separator < 0 ? pair : pair.substring(0, separator);
+			String value = separator < 0 ? "" : pair.substring(separator + 1);
+			parameters.put(URLDecoder.decode(key, "UTF-8"), URLDecoder.decode(value, "UTF-8"));
+		}
+		return parameters;
+	}
+
+	private static String escape(String text) {
+		return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+	}
+
+	private static String remove(Map<String, String> settings, String key, String defaultValue) {
+		String value = settings.remove(key);
+		return value != null ? value : defaultValue;
+	}
+
+	private static ThreadFactory daemonThreads(String prefix) {
+		AtomicInteger counter = new AtomicInteger();
+		return runnable -> {
+			Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+
+}
@@ -0,0 +1,122 @@
+package com.aws.communication.stub;
+
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Distribution of the latency added by the stub server to a call,
+ * parsed from a specification in milliseconds:
+ *
+ * none
+ * fixed:MS
+ * uniform:MIN,MAX
+ * normal:MEAN,STDDEV
+ * exponential:MEAN
+ * lognormal:MEDIAN,P99
+ *
+ * The log-normal distribution, given by its median and 99th percentile,
+ * has the long tail of real service latencies.
+ *
+ */
+public final class LatencyDistribution {
+
+	/**
+	 * z-score of the 99th percentile of the standard normal distribution
+	 */
+	private static final double Z_99 = 2.3263;
+
+	private enum Kind {
+		NONE, FIXED, UNIFORM, NORMAL, EXPONENTIAL, LOGNORMAL
+	}
+
+	private final String specification;
+	private final Kind kind;
+	private final double first;
+	private final double second;
+
+	private LatencyDistribution(String specification, Kind kind, double first, double second) {
+		this.specification = specification;
+		this.kind = kind;
+		this.first = first;
+		this.second = second;
+	}
+
+	/**
+	 * Method to parse a latency distribution
+	 *
+	 * @param specification - Distribution and its parameters in milliseconds, e.g. lognormal:20,150
+	 * @return LatencyDistribution
+	 * @throws IllegalArgumentException Thrown when the specification is not valid
+	 */
+	public static LatencyDistribution parse(String specification) {
+		String trimmed = specification.trim().toLowerCase(Locale.ROOT);
+		if(trimmed.isEmpty() || "none".equals(trimmed) || "0".equals(trimmed)) {
+			return new LatencyDistribution("none", Kind.NONE, 0, 0);
+		}
+		int separator = trimmed.indexOf(':');
+		if(separator < 0) {
+			throw new IllegalArgumentException("Latency distribution " + specification + " has no parameters");
+		}
+		Kind kind;
+		try {
+			kind = Kind.valueOf(trimmed.substring(0, separator).toUpperCase(Locale.ROOT));
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Unknown latency distribution " + specification, e);
+		}
+		String[] parameters = trimmed.substring(separator + 1).split(",");
+		int expected = kind == Kind.FIXED || kind == Kind.EXPONENTIAL ? 1 : 2;
+		if(parameters.length != expected) {
+			throw new IllegalArgumentException("Latency distribution " + specification + " expects " + expected
+					+ " parameters");
+		}
+		double first = Double.parseDouble(parameters[0].trim());
+		double second = expected == 2 ? Double.parseDouble(parameters[1].trim()) : 0;
+		if(first < 0 || second < 0 || (kind == Kind.UNIFORM && second < first)
+				|| (kind == Kind.LOGNORMAL && (first == 0 || second < first))) {
+			throw new IllegalArgumentException("Latency distribution " + specification + " has invalid parameters");
+		}
+		if(kind == Kind.LOGNORMAL) {
+			// parameters of the underlying normal distribution
+			double mu = Math.log(first);
+			return new LatencyDistribution(trimmed, kind, mu, (Math.log(second) - mu) / Z_99);
+		}
+		return new LatencyDistribution(trimmed, kind, first, second);
+	}
+
+	/**
+	 * Method to draw a latency from the distribution
+	 *
+	 * @return long - Latency in nanoseconds, never negative
+	 */
+	public long sampleNanos() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		double millis;
+		switch(kind) {
+			case FIXED:
+				millis = first;
+				break;
+			case UNIFORM:
+				millis = first + random.nextDouble() * (second - first);
+				break;
+			case NORMAL:
+				millis = first + random.nextGaussian() * second;
+				break;
+			case EXPONENTIAL:
+				millis = -first * Math.log(1 - random.nextDouble());
+				break;
+			case LOGNORMAL:
+				millis = Math.exp(first + random.nextGaussian() * second);
+				break;
+			default:
+				return 0;
+		}
+		return millis <= 0 ? 0 : (long) (millis * TimeUnit.MILLISECONDS.toNanos(1));
+	}
+
+	@Override
+	public String toString() {
+		return specification;
+	}
+
+}
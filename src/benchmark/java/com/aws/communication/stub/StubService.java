@@ -0,0 +1,219 @@
+package com.aws.communication.stub;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Behaviour and counters of a service emulated by the stub server.
+ *
+ * Every send call is delayed by a latency drawn from the configured
+ * distribution, then throttled or failed with the configured rates.
+ * With a maximum rate, calls beyond the rate are throttled as SES
+ * throttles the calls exceeding the sending quota of the account.
+ *
+ */
+public final class StubService {
+
+	/**
+	 * Outcome of a call
+	 */
+	public enum Outcome {
+		SUCCESS, THROTTLED, FAILED
+	}
+
+	private final String name;
+	private final String namespace;
+
+	private volatile LatencyDistribution latency = LatencyDistribution.parse("none");
+	private volatile double errorRate;
+	private volatile double throttleRate;
+	private volatile double maxRate;
+
+	private double tokens;
+	private long refilledNanos = System.nanoTime();
+
+	private final Map<String, ActionCounters> counters = new ConcurrentHashMap<>();
+
+	/**
+	 * @param name - Name of the service, prefix of its settings
+	 * @param namespace - XML namespace of the responses of the service
+	 */
+	public StubService(String name, String namespace) {
+		this.name = name;
+		this.namespace = namespace;
+	}
+
+	/**
+	 * Method to change a setting of the service. Settings are named
+	 * after the service, e.g. ses.latency, ses.error-rate, ses.throttle-rate
+	 * and ses.max-rate.
+	 *
+	 * @param key - Name of the setting
+	 * @param value - Value of the setting
+	 * @return boolean - true if the setting belongs to the service
+	 * @throws IllegalArgumentException Thrown when the value is not valid
+	 */
+	public boolean configure(String key, String value) {
+		if(!key.startsWith(name + ".")) {
+			return false;
+		}
+		switch(key.substring(name.length() + 1)) {
+			case "latency":
+				latency = LatencyDistribution.parse(value);
+				return true;
+			case "error-rate":
+				errorRate = rate(key, value);
+				return true;
+			case "throttle-rate":
+				throttleRate = rate(key, value);
+				return true;
+			case "max-rate":
+				double rate = Double.parseDouble(value);
+				if(rate < 0) {
+					throw new IllegalArgumentException(key + " must not be negative");
+				}
+				synchronized(this) {
+					maxRate = rate;
+					tokens = rate;
+					refilledNanos = System.nanoTime();
+				}
+				return true;
+			default:
+				throw new IllegalArgumentException("Unknown setting " + key);
+		}
+	}
+
+	/**
+	 * Method to decide the outcome of a send call and count it
+	 *
+	 * @param action - Action of the call
+	 * @param messages - Number of messages sent by the call
+	 * @return Outcome
+	 */
+	public Outcome decide(String action, int messages) {
+		ActionCounters actionCounters = counters(action);
+		actionCounters.requests.increment();
+		Outcome outcome;
+		double random = ThreadLocalRandom.current().nextDouble();
+		if(!acquire(messages) || random < throttleRate) {
+			outcome = Outcome.THROTTLED;
+			actionCounters.throttled.increment();
+		} else if(random < throttleRate + errorRate) {
+			outcome = Outcome.FAILED;
+			actionCounters.failed.increment();
+		} else {
+			outcome = Outcome.SUCCESS;
+			actionCounters.succeeded.increment();
+			actionCounters.messages.add(messages);
+		}
+		return outcome;
+	}
+
+	/**
+	 * Method to count a call answered without latency or faults,
+	 * such as the template lookups
+	 *
+	 * @param action - Action of the call
+	 */
+	public void count(String action) {
+		ActionCounters actionCounters = counters(action);
+		actionCounters.requests.increment();
+		actionCounters.succeeded.increment();
+	}
+
+	/**
+	 * @return the latency to add to a send call, in nanoseconds
+	 */
+	public long sampleLatencyNanos() {
+		return latency.sampleNanos();
+	}
+
+	/**
+	 * @return the XML namespace of the responses
+	 */
+	public String getNamespace() {
+		return namespace;
+	}
+
+	/**
+	 * @return the name of the service
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Method to reset the counters
+	 */
+	public void reset() {
+		counters.clear();
+	}
+
+	/**
+	 * Method to get the counters of the actions, sorted by action
+	 *
+	 * @return Map<String, long[]> - requests, succeeded, throttled, failed and messages of each action
+	 */
+	public Map<String, long[]> snapshot() {
+		Map<String, long[]> snapshot = new TreeMap<>();
+		counters.forEach((action, actionCounters) -> snapshot.put(action, new long[] {
+				actionCounters.requests.sum(), actionCounters.succeeded.sum(), actionCounters.throttled.sum(),
+				actionCounters.failed.sum(), actionCounters.messages.sum() }));
+		return snapshot;
+	}
+
+	/**
+	 * @return the settings of the service
+	 */
+	public String describe() {
+		return name + ".latency=" + latency + " " + name + ".error-rate=" + errorRate + " " + name + ".throttle-rate="
+				+ throttleRate + " " + name + ".max-rate=" + maxRate;
+	}
+
+	private ActionCounters counters(String action) {
+		return counters.computeIfAbsent(action, key -> new ActionCounters());
+	}
+
+	/**
+	 * Method to take permits of the maximum rate, refilled continuously
+	 * with a burst of one second
+	 *
+	 * @param permits - Number of messages of the call
+	 * @return boolean - true if the call is within the maximum rate
+	 */
+	private synchronized boolean acquire(int permits) {
+		if(maxRate <= 0) {
+			return true;
+		}
+		long now = System.nanoTime();
+		tokens = Math.min(maxRate, tokens + (now - refilledNanos) * maxRate / TimeUnit.SECONDS.toNanos(1));
+		refilledNanos = now;
+		if(tokens < permits) {
+			return false;
+		}
+		tokens -= permits;
+		return true;
+	}
+
+	private static double rate(String key, String value) {
+		double rate = Double.parseDouble(value);
+		if(rate < 0 || rate > 1) {
+			throw new IllegalArgumentException(key + " must be between 0 and 1");
+		}
+		return rate;
+	}
+
+	private static final class ActionCounters {
+
+		private final LongAdder requests = new LongAdder();
+		private final LongAdder succeeded = new LongAdder();
+		private final LongAdder throttled = new LongAdder();
+		private final LongAdder failed = new LongAdder();
+		private final LongAdder messages = new LongAdder();
+	}
+
+}
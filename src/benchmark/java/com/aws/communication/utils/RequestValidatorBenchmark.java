@@ -0,0 +1,53 @@
+package com.aws.communication.utils;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.aws.communication.BenchmarkPayloads;
+import com.aws.communication.exception.BadRequestException;
+import com.aws.communication.model.EmailRequest;
+import com.aws.communication.model.SMSRequest;
+
+/**
+ * Benchmark of request validation for valid send requests
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestValidatorBenchmark {
+	
+	private EmailRequest emailRequest;
+	
+	private SMSRequest smsRequest;
+	
+	@Setup
+	public void setup() {
+		emailRequest = BenchmarkPayloads.emailRequest();
+		smsRequest = BenchmarkPayloads.smsRequest();
+	}
+	
+	@Benchmark
+	public void validateSendEmailRequest() throws BadRequestException {
+		RequestValidator.validateSendEmailRequest(emailRequest);
+	}
+	
+	@Benchmark
+	public void validateSendSMSRequest() throws BadRequestException {
+		RequestValidator.validateSendSMSRequest(smsRequest);
+	}
+
+}
@@ -0,0 +1,72 @@
+package com.aws.communication.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.aws.communication.model.CommunicationCharacteristic;
+import com.google.gson.Gson;
+
+/**
+ * Benchmark of template data serialization, comparing the previous
+ * implementation (new Gson and HashMap per call) with TemplateDataSerializer.
+ * 
+ * Run with -Djmh.args="TemplateDataSerializerBenchmark -prof gc" to include
+ * allocation rate per operation.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TemplateDataSerializerBenchmark {
+	
+	@Param({"1", "10", "50", "200"})
+	private int characteristicCount;
+	
+	private List<CommunicationCharacteristic> characteristics;
+	
+	@Setup
+	public void setup() {
+		characteristics = new ArrayList<>(characteristicCount);
+		for(int i = 0; i < characteristicCount; i++) {
+			CommunicationCharacteristic characteristic = new CommunicationCharacteristic();
+			characteristic.setName("placeholder" + i);
+			// every fourth value needs escaping
+			characteristic.setValue(i % 4 == 0 ? "<b>Value \"" + i + "\"</b>" : "Value " + i);
+			characteristics.add(characteristic);
+		}
+	}
+	
+	@Benchmark
+	public String gsonPerCall() {
+		Map<String, String> templateDataMap = new HashMap<>();
+		for(CommunicationCharacteristic characteristic : characteristics) {
+			templateDataMap.put(characteristic.getName(), characteristic.getValue());
+		}
+		Gson gson = new Gson();
+		return gson.toJson(templateDataMap);
+	}
+	
+	@Benchmark
+	public String templateDataSerializer() {
+		return TemplateDataSerializer.toJson(characteristics);
+	}
+
+}
@@ -3,12 +3,14 @@ package com.aws.communication;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Spring boot main class for AWS communication application
  *
  */
 @SpringBootApplication
+@EnableScheduling
 @ComponentScan(basePackages = {"com.aws.communication", "com.aws.communication.controller"})
 public class AwsCommunicationApplication {
 
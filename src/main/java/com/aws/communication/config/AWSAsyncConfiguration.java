@@ -0,0 +1,154 @@
+package com.aws.communication.config;
+
+import java.net.URI;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.awscore.client.builder.AwsClientBuilder;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.retry.RetryPolicy;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.http.nio.netty.SdkEventLoopGroup;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.ses.SesAsyncClient;
+import software.amazon.awssdk.services.sns.SnsAsyncClient;
+
+/**
+ * Configuration for the non-blocking AWS transport. Creates AWS SDK v2
+ * asynchronous SES and SNS clients sharing one Netty NIO HTTP client,
+ * so that many in-flight sends are served by a small fixed number of
+ * event loop threads. The SDK retries are turned off when the calls
+ * are retried by the resilience layer.
+ * 
+ * Enabled with property aws.transport.async.enabled=true
+ *
+ */
+@Configuration
+@ConditionalOnProperty(name = "aws.transport.async.enabled", havingValue = "true")
+public class AWSAsyncConfiguration {
+	
+	@Value("${ses.region}")
+	private String sesRegion;
+	
+	@Value("${ses.access.key}")
+	private String sesAccessKey;
+	
+	@Value("${ses.secret.key}")
+	private String sesSecretKey;
+	
+	@Value("#{'${ses.regions:}'.split(',')}")
+	private List<String> sesRegions;
+	
+	@Value("${ses.endpoint:}")
+	private String sesEndpoint;
+	
+	@Value("${sns.region}")
+	private String snsRegion;
+	
+	@Value("#{'${sns.regions:}'.split(',')}")
+	private List<String> snsRegions;
+	
+	@Value("${sns.endpoint:}")
+	private String snsEndpoint;
+	
+	@Value("${sns.access.key}")
+	private String snsAccessKey;
+	
+	@Value("${sns.secret.key}")
+	private String snsSecretKey;
+	
+	@Value("${aws.transport.async.max-concurrency:1000}")
+	private int maxConcurrency;
+	
+	@Value("${aws.transport.async.max-pending-connection-acquires:10000}")
+	private int maxPendingConnectionAcquires;
+	
+	@Value("${aws.transport.async.event-loop-threads:4}")
+	private int eventLoopThreads;
+	
+	@Value("${resilience.enabled:true}")
+	private boolean resilienceEnabled;
+	
+	/**
+	 * Method to create the Netty NIO HTTP client shared by the
+	 * asynchronous SES and SNS clients
+	 * 
+	 * @return SdkAsyncHttpClient
+	 */
+	@Bean
+	public SdkAsyncHttpClient sdkAsyncHttpClient() {
+		return NettyNioAsyncHttpClient.builder()
+				.maxConcurrency(maxConcurrency)
+				.maxPendingConnectionAcquires(maxPendingConnectionAcquires)
+				.eventLoopGroupBuilder(SdkEventLoopGroup.builder().numberOfThreads(eventLoopThreads))
+				.build();
+	}
+	
+	/**
+	 * Method to create the SesAsyncClient clients of the SES regions
+	 * 
+	 * @param sdkAsyncHttpClient - Shared HTTP client
+	 * @return RegionalClients<SesAsyncClient>
+	 */
+	@Bean
+	public RegionalClients<SesAsyncClient> sesAsyncClients(SdkAsyncHttpClient sdkAsyncHttpClient) {
+		return new RegionalClients<>(AWSConfiguration.regions(sesRegion, sesRegions), 
+				region -> withEndpoint(SesAsyncClient.builder(), sesEndpoint, region)
+				.credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials
+						.create(sesAccessKey, sesSecretKey)))
+				.httpClient(sdkAsyncHttpClient)
+				.overrideConfiguration(overrideConfiguration())
+				.build());
+	}
+	
+	/**
+	 * Method to create the SnsAsyncClient clients of the SNS regions
+	 * 
+	 * @param sdkAsyncHttpClient - Shared HTTP client
+	 * @return RegionalClients<SnsAsyncClient>
+	 */
+	@Bean
+	public RegionalClients<SnsAsyncClient> snsAsyncClients(SdkAsyncHttpClient sdkAsyncHttpClient) {
+		return new RegionalClients<>(AWSConfiguration.regions(snsRegion, snsRegions), 
+				region -> withEndpoint(SnsAsyncClient.builder(), snsEndpoint, region)
+				.credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials
+						.create(snsAccessKey, snsSecretKey)))
+				.httpClient(sdkAsyncHttpClient)
+				.overrideConfiguration(overrideConfiguration())
+				.build());
+	}
+	
+	/**
+	 * Method to set the region of a client builder, sending the calls to the
+	 * endpoint when one is configured
+	 * 
+	 * @param builder - Client builder
+	 * @param endpoint - Endpoint override, empty for the AWS endpoint of the region
+	 * @param region - AWS region, used for request signing with an endpoint override
+	 * @return B - Client builder
+	 */
+	private static <B extends AwsClientBuilder<B, ?>> B withEndpoint(B builder, String endpoint, String region) {
+		builder.region(Region.of(region));
+		return endpoint.trim().isEmpty() ? builder : builder.endpointOverride(URI.create(AWSConfiguration
+				.endpoint(endpoint, region)));
+	}
+	
+	/**
+	 * Method to create the override configuration of the clients
+	 * 
+	 * @return ClientOverrideConfiguration
+	 */
+	private ClientOverrideConfiguration overrideConfiguration() {
+		return ClientOverrideConfiguration.builder()
+				.retryPolicy(resilienceEnabled ? RetryPolicy.none() : RetryPolicy.defaultRetryPolicy())
+				.build();
+	}
+
+}
@@ -1,16 +1,24 @@
 package com.aws.communication.config;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import com.amazonaws.auth.AWSStaticCredentialsProvider;
 import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.client.builder.AwsClientBuilder;
+import com.amazonaws.client.builder.AwsClientBuilder.EndpointConfiguration;
 import com.amazonaws.services.simpleemail.AmazonSimpleEmailService;
 import com.amazonaws.services.simpleemail.AmazonSimpleEmailServiceClientBuilder;
 import com.amazonaws.services.sns.AmazonSNS;
 import com.amazonaws.services.sns.AmazonSNSClientBuilder;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 /**
  * Configuration for AWS settings
  *
@@ -27,9 +35,21 @@ public class AWSConfiguration {
 	@Value("${ses.secret.key}")
 	private String sesSecretKey;
 	
+	@Value("#{'${ses.regions:}'.split(',')}")
+	private List<String> sesRegions;
+	
+	@Value("${ses.endpoint:}")
+	private String sesEndpoint;
+	
 	@Value("${sns.region}")
 	private String snsRegion;
 	
+	@Value("#{'${sns.regions:}'.split(',')}")
+	private List<String> snsRegions;
+	
+	@Value("${sns.endpoint:}")
+	private String snsEndpoint;
+	
 	@Value("${sns.access.key}")
 	private String snsAccessKey;
 	
@@ -38,17 +58,55 @@ public class AWSConfiguration {
 	
 	
 	/**
-	 * Method to create AmazonSimpleEmailService bean
+	 * Method to create the AmazonSimpleEmailService clients of the SES
+	 * regions, ses.region first followed by ses.regions
 	 * 
-	 * @return AmazonSimpleEmailService
+	 * @param meterRegistry - Registry for the client metrics
+	 * @return RegionalClients<AmazonSimpleEmailService>
 	 */
 	@Bean
-	public AmazonSimpleEmailService simpleEmailService() {
-		return AmazonSimpleEmailServiceClientBuilder
-				.standard()
-				.withRegion(sesRegion)
+	public RegionalClients<AmazonSimpleEmailService> sesClients(MeterRegistry meterRegistry) {
+		return new RegionalClients<>(regions(sesRegion, sesRegions), region -> withEndpoint(AmazonSimpleEmailServiceClientBuilder
+				.standard(), sesEndpoint, region)
 				.withCredentials(new AWSStaticCredentialsProvider(sesBasicAWSCredentials()))
-				.build();
+				.withClientConfiguration(sesClientProperties().toClientConfiguration())
+				.withMetricsCollector(new AwsClientMetricsCollector("ses", region, meterRegistry))
+				.build());
+	}
+	
+	/**
+	 * Method to create AmazonSimpleEmailService bean of the primary region
+	 * 
+	 * @param sesClients - Clients of the SES regions
+	 * @return AmazonSimpleEmailService
+	 */
+	@Bean
+	public AmazonSimpleEmailService simpleEmailService(RegionalClients<AmazonSimpleEmailService> sesClients) {
+		return sesClients.getPrimary();
+	}
+	
+	/**
+	 * Create bean of the HTTP client tuning properties for
+	 * AWS SES client
+	 * 
+	 * @return AwsClientProperties
+	 */
+	@Bean(name = "sesClientProperties")
+	@ConfigurationProperties(prefix = "ses.client")
+	public AwsClientProperties sesClientProperties() {
+		return new AwsClientProperties();
+	}
+	
+	/**
+	 * Create bean of the HTTP client tuning properties for
+	 * AWS SNS client
+	 * 
+	 * @return AwsClientProperties
+	 */
+	@Bean(name = "snsClientProperties")
+	@ConfigurationProperties(prefix = "sns.client")
+	public AwsClientProperties snsClientProperties() {
+		return new AwsClientProperties();
 	}
 	
 	/**
@@ -74,18 +132,77 @@ public class AWSConfiguration {
 	}
 	
 	/**
-	 * Method to create AmazonSNS bean
+	 * Method to create the AmazonSNS clients of the SNS regions,
+	 * sns.region first followed by sns.regions
 	 * 
-	 * @return AmazonSNS
+	 * @param meterRegistry - Registry for the client metrics
+	 * @return RegionalClients<AmazonSNS>
 	 */
 	@Bean
-	public AmazonSNS snsClient() {
-		return AmazonSNSClientBuilder
-				.standard()
-				.withRegion(snsRegion)
+	public RegionalClients<AmazonSNS> snsClients(MeterRegistry meterRegistry) {
+		return new RegionalClients<>(regions(snsRegion, snsRegions), region -> withEndpoint(AmazonSNSClientBuilder
+				.standard(), snsEndpoint, region)
 				.withCredentials(new AWSStaticCredentialsProvider(snsBasicAWSCredentials()))
-				.build();
+				.withClientConfiguration(snsClientProperties().toClientConfiguration())
+				.withMetricsCollector(new AwsClientMetricsCollector("sns", region, meterRegistry))
+				.build());
+	}
+	
+	/**
+	 * Method to create AmazonSNS bean of the primary region
+	 * 
+	 * @param snsClients - Clients of the SNS regions
+	 * @return AmazonSNS
+	 */
+	@Bean
+	public AmazonSNS snsClient(RegionalClients<AmazonSNS> snsClients) {
+		return snsClients.getPrimary();
 	}
 	
+	/**
+	 * Method to set the region of a client builder, sending the calls to the
+	 * endpoint when one is configured. The endpoint may contain the {region}
+	 * placeholder, replaced by the region.
+	 * 
+	 * @param builder - Client builder
+	 * @param endpoint - Endpoint override, empty for the AWS endpoint of the region
+	 * @param region - AWS region, used for request signing with an endpoint override
+	 * @return B - Client builder
+	 */
+	static <B extends AwsClientBuilder<B, ?>> B withEndpoint(B builder, String endpoint, String region) {
+		if(endpoint.trim().isEmpty()) {
+			return builder.withRegion(region);
+		}
+		return builder.withEndpointConfiguration(new EndpointConfiguration(endpoint(endpoint, region), region));
+	}
+	
+	/**
+	 * Method to get the endpoint override of a region
+	 * 
+	 * @param endpoint - Endpoint override, may contain the {region} placeholder
+	 * @param region - AWS region
+	 * @return String - Endpoint of the region
+	 */
+	static String endpoint(String endpoint, String region) {
+		return endpoint.trim().replace("{region}", region);
+	}
+	
+	/**
+	 * Method to list the regions of a service, the primary region first
+	 * 
+	 * @param primaryRegion - Primary region
+	 * @param additionalRegions - Additional regions, may contain blanks
+	 * @return List<String> - Regions
+	 */
+	static List<String> regions(String primaryRegion, List<String> additionalRegions) {
+		List<String> regions = new ArrayList<>();
+		regions.add(primaryRegion);
+		for(String region : additionalRegions) {
+			if(!region.trim().isEmpty()) {
+				regions.add(region.trim());
+			}
+		}
+		return regions;
+	}
 
 }
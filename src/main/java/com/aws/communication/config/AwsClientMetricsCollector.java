@@ -0,0 +1,169 @@
+package com.aws.communication.config;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.Request;
+import com.amazonaws.Response;
+import com.amazonaws.metrics.RequestMetricCollector;
+import com.amazonaws.util.AWSRequestMetrics;
+import com.amazonaws.util.AWSRequestMetrics.Field;
+import com.amazonaws.util.TimingInfo;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Request metric collector of an AWS SDK client, publishing the metrics
+ * captured by the SDK for each request to Micrometer.
+ * 
+ * Connection pool statistics (leased, pending and available connections)
+ * are captured by the SDK when a connection is requested, thus the gauges
+ * show the pool state as observed by the latest request.
+ * 
+ * Each call is also recorded per operation: its latency including the SDK
+ * retries, the HTTP requests retried by the SDK and the requests throttled
+ * by AWS. The meters of an operation are registered on its first call.
+ *
+ */
+public class AwsClientMetricsCollector extends RequestMetricCollector {
+	
+	private final AtomicLong leasedConnections = new AtomicLong();
+	private final AtomicLong pendingConnections = new AtomicLong();
+	private final AtomicLong availableConnections = new AtomicLong();
+	
+	private final Map<Class<?>, OperationMeters> operationMeters = new ConcurrentHashMap<>();
+	
+	private final String service;
+	private final String region;
+	private final MeterRegistry meterRegistry;
+	
+	/**
+	 * Constructor for AwsClientMetricsCollector registering the connection
+	 * pool gauges for the given service and region
+	 * 
+	 * @param service - Name of the AWS service, used as metric tag
+	 * @param region - AWS region of the client, used as metric tag
+	 * @param meterRegistry - Registry the metrics are published to
+	 */
+	public AwsClientMetricsCollector(String service, String region, MeterRegistry meterRegistry) {
+		this.service = service;
+		this.region = region;
+		this.meterRegistry = meterRegistry;
+		Gauge.builder("aws.client.connections.leased", leasedConnections, AtomicLong::get)
+				.description("Connections leased from the HTTP connection pool")
+				.tag("service", service)
+				.tag("region", region)
+				.register(meterRegistry);
+		Gauge.builder("aws.client.connections.pending", pendingConnections, AtomicLong::get)
+				.description("Requests waiting for a connection from the HTTP connection pool")
+				.tag("service", service)
+				.tag("region", region)
+				.register(meterRegistry);
+		Gauge.builder("aws.client.connections.available", availableConnections, AtomicLong::get)
+				.description("Idle connections available in the HTTP connection pool")
+				.tag("service", service)
+				.tag("region", region)
+				.register(meterRegistry);
+	}
+	
+	@Override
+	public void collectMetrics(Request<?> request, Response<?> response) {
+		AWSRequestMetrics requestMetrics = request.getAWSRequestMetrics();
+		if(requestMetrics == null) {
+			return;
+		}
+		TimingInfo timingInfo = requestMetrics.getTimingInfo();
+		update(leasedConnections, timingInfo, Field.HttpClientPoolLeasedCount);
+		update(pendingConnections, timingInfo, Field.HttpClientPoolPendingCount);
+		update(availableConnections, timingInfo, Field.HttpClientPoolAvailableCount);
+		
+		AmazonWebServiceRequest originalRequest = request.getOriginalRequest();
+		if(originalRequest == null) {
+			return;
+		}
+		OperationMeters meters = operationMeters.get(originalRequest.getClass());
+		if(meters == null) {
+			meters = operationMeters.computeIfAbsent(originalRequest.getClass(), 
+					type -> new OperationMeters(operation(type)));
+		}
+		TimingInfo executeTime = timingInfo.getSubMeasurement(Field.ClientExecuteTime.name());
+		Double executeMillis = executeTime != null ? executeTime.getTimeTakenMillisIfKnown() : null;
+		if(executeMillis != null) {
+			(response != null ? meters.success : meters.error)
+					.record((long) (executeMillis * 1_000_000), TimeUnit.NANOSECONDS);
+		}
+		Number requestCount = timingInfo.getCounter(Field.RequestCount.name());
+		if(requestCount != null && requestCount.intValue() > 1) {
+			meters.retries.increment(requestCount.intValue() - 1d);
+		}
+		Number throttleCount = timingInfo.getCounter(Field.ThrottleException.name());
+		if(throttleCount != null && throttleCount.intValue() > 0) {
+			meters.throttles.increment(throttleCount.intValue());
+		}
+	}
+	
+	/**
+	 * Method to get the operation name of the request type, such as
+	 * SendTemplatedEmail for SendTemplatedEmailRequest
+	 * 
+	 * @param type - Type of the original request
+	 * @return String - Operation name
+	 */
+	private static String operation(Class<?> type) {
+		String name = type.getSimpleName();
+		return name.endsWith("Request") ? name.substring(0, name.length() - "Request".length()) : name;
+	}
+	
+	/**
+	 * Method to update the gauge value with the counter captured by the SDK,
+	 * if the counter was captured for the request
+	 * 
+	 * @param value - Gauge value to be updated
+	 * @param timingInfo - Timing info of the request
+	 * @param field - Counter field
+	 */
+	private static void update(AtomicLong value, TimingInfo timingInfo, Field field) {
+		Number counter = timingInfo.getCounter(field.name());
+		if(counter != null) {
+			value.set(counter.longValue());
+		}
+	}
+	
+	/**
+	 * Meters of the calls of an operation
+	 */
+	private final class OperationMeters {
+		
+		private final Timer success;
+		private final Timer error;
+		private final Counter retries;
+		private final Counter throttles;
+		
+		private OperationMeters(String operation) {
+			success = timer(operation, "success");
+			error = timer(operation, "error");
+			retries = Counter.builder("aws.client.retries")
+					.description("HTTP requests retried by the SDK")
+					.tags("service", service, "region", region, "operation", operation)
+					.register(meterRegistry);
+			throttles = Counter.builder("aws.client.throttles")
+					.description("HTTP requests throttled by AWS")
+					.tags("service", service, "region", region, "operation", operation)
+					.register(meterRegistry);
+		}
+		
+		private Timer timer(String operation, String outcome) {
+			return Timer.builder("aws.client.requests")
+					.description("Calls made by the SDK client, including the retries made by the SDK")
+					.tags("service", service, "region", region, "operation", operation, "outcome", outcome)
+					.register(meterRegistry);
+		}
+	}
+
+}
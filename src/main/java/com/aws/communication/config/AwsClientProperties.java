@@ -0,0 +1,210 @@
+package com.aws.communication.config;
+
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.retry.PredefinedRetryPolicies;
+
+/**
+ * Tuning properties of the HTTP client of an AWS SDK client, bound
+ * per service (ses.client.*, sns.client.*). Defaults are the
+ * AWS SDK defaults.
+ *
+ */
+public class AwsClientProperties {
+	
+	private int maxConnections = ClientConfiguration.DEFAULT_MAX_CONNECTIONS;
+	
+	private long connectionTtlMillis = ClientConfiguration.DEFAULT_CONNECTION_TTL;
+	
+	private long connectionMaxIdleMillis = ClientConfiguration.DEFAULT_CONNECTION_MAX_IDLE_MILLIS;
+	
+	private boolean idleConnectionReaper = ClientConfiguration.DEFAULT_USE_REAPER;
+	
+	private int connectionTimeoutMillis = ClientConfiguration.DEFAULT_CONNECTION_TIMEOUT;
+	
+	private int socketTimeoutMillis = ClientConfiguration.DEFAULT_SOCKET_TIMEOUT;
+	
+	private int requestTimeoutMillis = ClientConfiguration.DEFAULT_REQUEST_TIMEOUT;
+	
+	private int clientExecutionTimeoutMillis = ClientConfiguration.DEFAULT_CLIENT_EXECUTION_TIMEOUT;
+	
+	private boolean tcpKeepAlive = ClientConfiguration.DEFAULT_TCP_KEEP_ALIVE;
+	
+	private boolean gzip = ClientConfiguration.DEFAULT_USE_GZIP;
+	
+	private int maxErrorRetry = PredefinedRetryPolicies.DEFAULT_MAX_ERROR_RETRY;
+	
+	/**
+	 * Method to create the SDK client configuration for these properties
+	 * 
+	 * @return ClientConfiguration - Created object
+	 */
+	public ClientConfiguration toClientConfiguration() {
+		return new ClientConfiguration()
+				.withMaxConnections(maxConnections)
+				.withConnectionTTL(connectionTtlMillis)
+				.withConnectionMaxIdleMillis(connectionMaxIdleMillis)
+				.withReaper(idleConnectionReaper)
+				.withConnectionTimeout(connectionTimeoutMillis)
+				.withSocketTimeout(socketTimeoutMillis)
+				.withRequestTimeout(requestTimeoutMillis)
+				.withClientExecutionTimeout(clientExecutionTimeoutMillis)
+				.withTcpKeepAlive(tcpKeepAlive)
+				.withGzip(gzip)
+				.withMaxErrorRetry(maxErrorRetry);
+	}
+
+	/**
+	 * @return the maxConnections
+	 */
+	public int getMaxConnections() {
+		return maxConnections;
+	}
+
+	/**
+	 * @param maxConnections the maxConnections to set
+	 */
+	public void setMaxConnections(int maxConnections) {
+		this.maxConnections = maxConnections;
+	}
+
+	/**
+	 * @return the connectionTtlMillis, -1 for no expiry
+	 */
+	public long getConnectionTtlMillis() {
+		return connectionTtlMillis;
+	}
+
+	/**
+	 * @param connectionTtlMillis the connectionTtlMillis to set
+	 */
+	public void setConnectionTtlMillis(long connectionTtlMillis) {
+		this.connectionTtlMillis = connectionTtlMillis;
+	}
+
+	/**
+	 * @return the connectionMaxIdleMillis
+	 */
+	public long getConnectionMaxIdleMillis() {
+		return connectionMaxIdleMillis;
+	}
+
+	/**
+	 * @param connectionMaxIdleMillis the connectionMaxIdleMillis to set
+	 */
+	public void setConnectionMaxIdleMillis(long connectionMaxIdleMillis) {
+		this.connectionMaxIdleMillis = connectionMaxIdleMillis;
+	}
+
+	/**
+	 * @return the idleConnectionReaper
+	 */
+	public boolean isIdleConnectionReaper() {
+		return idleConnectionReaper;
+	}
+
+	/**
+	 * @param idleConnectionReaper the idleConnectionReaper to set
+	 */
+	public void setIdleConnectionReaper(boolean idleConnectionReaper) {
+		this.idleConnectionReaper = idleConnectionReaper;
+	}
+
+	/**
+	 * @return the connectionTimeoutMillis
+	 */
+	public int getConnectionTimeoutMillis() {
+		return connectionTimeoutMillis;
+	}
+
+	/**
+	 * @param connectionTimeoutMillis the connectionTimeoutMillis to set
+	 */
+	public void setConnectionTimeoutMillis(int connectionTimeoutMillis) {
+		this.connectionTimeoutMillis = connectionTimeoutMillis;
+	}
+
+	/**
+	 * @return the socketTimeoutMillis
+	 */
+	public int getSocketTimeoutMillis() {
+		return socketTimeoutMillis;
+	}
+
+	/**
+	 * @param socketTimeoutMillis the socketTimeoutMillis to set
+	 */
+	public void setSocketTimeoutMillis(int socketTimeoutMillis) {
+		this.socketTimeoutMillis = socketTimeoutMillis;
+	}
+
+	/**
+	 * @return the requestTimeoutMillis, 0 for no timeout
+	 */
+	public int getRequestTimeoutMillis() {
+		return requestTimeoutMillis;
+	}
+
+	/**
+	 * @param requestTimeoutMillis the requestTimeoutMillis to set
+	 */
+	public void setRequestTimeoutMillis(int requestTimeoutMillis) {
+		this.requestTimeoutMillis = requestTimeoutMillis;
+	}
+
+	/**
+	 * @return the clientExecutionTimeoutMillis, 0 for no timeout
+	 */
+	public int getClientExecutionTimeoutMillis() {
+		return clientExecutionTimeoutMillis;
+	}
+
+	/**
+	 * @param clientExecutionTimeoutMillis the clientExecutionTimeoutMillis to set
+	 */
+	public void setClientExecutionTimeoutMillis(int clientExecutionTimeoutMillis) {
+		this.clientExecutionTimeoutMillis = clientExecutionTimeoutMillis;
+	}
+
+	/**
+	 * @return the tcpKeepAlive
+	 */
+	public boolean isTcpKeepAlive() {
+		return tcpKeepAlive;
+	}
+
+	/**
+	 * @param tcpKeepAlive the tcpKeepAlive to set
+	 */
+	public void setTcpKeepAlive(boolean tcpKeepAlive) {
+		this.tcpKeepAlive = tcpKeepAlive;
+	}
+
+	/**
+	 * @return the gzip
+	 */
+	public boolean isGzip() {
+		return gzip;
+	}
+
+	/**
+	 * @param gzip the gzip to set
+	 */
+	public void setGzip(boolean gzip) {
+		this.gzip = gzip;
+	}
+
+	/**
+	 * @return the maxErrorRetry
+	 */
+	public int getMaxErrorRetry() {
+		return maxErrorRetry;
+	}
+
+	/**
+	 * @param maxErrorRetry the maxErrorRetry to set
+	 */
+	public void setMaxErrorRetry(int maxErrorRetry) {
+		this.maxErrorRetry = maxErrorRetry;
+	}
+
+}
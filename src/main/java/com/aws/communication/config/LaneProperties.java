@@ -0,0 +1,160 @@
+package com.aws.communication.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Properties of the priority lanes of the dispatch queue (lanes.*).
+ * 
+ * SMS are transactional when their message type is Transactional, and
+ * emails when their template is listed in the transactional templates.
+ * Everything else is promotional.
+ *
+ */
+@Component
+@ConfigurationProperties(prefix = "lanes")
+public class LaneProperties {
+	
+	private List<String> transactionalTemplates = new ArrayList<>();
+	
+	private Settings transactional = new Settings(4, 0, 1000);
+	
+	private Settings promotional = new Settings(1, 6, 60000);
+	
+	/**
+	 * Dispatch settings of a lane
+	 */
+	public static class Settings {
+		
+		private int weight;
+		
+		private int queueCapacity;
+		
+		private int maxThreads;
+		
+		private long sloMs;
+		
+		/**
+		 * Default constructor for Settings
+		 */
+		public Settings() {
+		}
+		
+		/**
+		 * Constructor for Settings with default weight, threads and SLO
+		 * 
+		 * @param weight - Share of the dispatcher picks
+		 * @param maxThreads - Dispatcher threads the lane may occupy, 0 for all
+		 * @param sloMs - Latency objective from acceptance to send
+		 */
+		public Settings(int weight, int maxThreads, long sloMs) {
+			this.weight = weight;
+			this.maxThreads = maxThreads;
+			this.sloMs = sloMs;
+		}
+
+		/**
+		 * @return the share of the dispatcher picks given to the lane while
+		 * other lanes have requests waiting
+		 */
+		public int getWeight() {
+			return weight;
+		}
+
+		/**
+		 * @param weight the weight to set
+		 */
+		public void setWeight(int weight) {
+			this.weight = weight;
+		}
+
+		/**
+		 * @return the capacity of the lane queue, 0 for dispatch.queue.capacity
+		 */
+		public int getQueueCapacity() {
+			return queueCapacity;
+		}
+
+		/**
+		 * @param queueCapacity the queueCapacity to set
+		 */
+		public void setQueueCapacity(int queueCapacity) {
+			this.queueCapacity = queueCapacity;
+		}
+
+		/**
+		 * @return the number of dispatcher threads the lane may occupy at once, 0 for all
+		 */
+		public int getMaxThreads() {
+			return maxThreads;
+		}
+
+		/**
+		 * @param maxThreads the maxThreads to set
+		 */
+		public void setMaxThreads(int maxThreads) {
+			this.maxThreads = maxThreads;
+		}
+
+		/**
+		 * @return the latency objective from acceptance to send
+		 */
+		public long getSloMs() {
+			return sloMs;
+		}
+
+		/**
+		 * @param sloMs the sloMs to set
+		 */
+		public void setSloMs(long sloMs) {
+			this.sloMs = sloMs;
+		}
+		
+	}
+
+	/**
+	 * @return the email templates dispatched in the transactional lane
+	 */
+	public List<String> getTransactionalTemplates() {
+		return transactionalTemplates;
+	}
+
+	/**
+	 * @param transactionalTemplates the transactionalTemplates to set
+	 */
+	public void setTransactionalTemplates(List<String> transactionalTemplates) {
+		this.transactionalTemplates = transactionalTemplates;
+	}
+
+	/**
+	 * @return the transactional
+	 */
+	public Settings getTransactional() {
+		return transactional;
+	}
+
+	/**
+	 * @param transactional the transactional to set
+	 */
+	public void setTransactional(Settings transactional) {
+		this.transactional = transactional;
+	}
+
+	/**
+	 * @return the promotional
+	 */
+	public Settings getPromotional() {
+		return promotional;
+	}
+
+	/**
+	 * @param promotional the promotional to set
+	 */
+	public void setPromotional(Settings promotional) {
+		this.promotional = promotional;
+	}
+
+}
@@ -0,0 +1,59 @@
+package com.aws.communication.config;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import com.aws.communication.service.outbox.Outbox;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Configuration of the durable outbox, which persists requests accepted for
+ * asynchronous dispatch so that they are dispatched after a restart.
+ * 
+ * Enabled with property outbox.enabled=true
+ *
+ */
+@Configuration
+@ConditionalOnProperty(name = "outbox.enabled", havingValue = "true")
+public class OutboxConfiguration {
+	
+	@Autowired
+	private MeterRegistry meterRegistry;
+	
+	@Value("${outbox.directory:outbox}")
+	private String directory;
+	
+	@Value("${outbox.segment-size:64MB}")
+	private DataSize segmentSize;
+	
+	@Value("${outbox.compaction-interval-ms:10000}")
+	private long compactionIntervalMillis;
+	
+	/**
+	 * Method to open the outbox, reading back the entries not acknowledged
+	 * before the last shutdown, and register the count of corrupt records
+	 * skipped while reading them
+	 * 
+	 * @return Outbox
+	 * @throws IOException Thrown when the outbox directory cannot be used
+	 */
+	@Bean(destroyMethod = "close")
+	public Outbox outbox() throws IOException {
+		Outbox outbox = new Outbox(Paths.get(directory), Math.toIntExact(segmentSize.toBytes()), 
+				compactionIntervalMillis);
+		Gauge.builder("aws.communication.outbox.corrupt.records", outbox, Outbox::getCorruptRecordCount)
+				.description("Runs of corrupt records skipped in the outbox segments read back on startup")
+				.register(meterRegistry);
+		return outbox;
+	}
+
+}
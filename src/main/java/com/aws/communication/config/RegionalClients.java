@@ -0,0 +1,70 @@
+package com.aws.communication.config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * AWS clients of a service, one per region, in the configured order of
+ * the regions. The first region is the primary region.
+ *
+ * @param <T> - Type of the AWS client
+ */
+public class RegionalClients<T> {
+	
+	private final Map<String, T> clients = new LinkedHashMap<>();
+	
+	private final List<String> regions;
+	
+	/**
+	 * Constructor for RegionalClients building a client for each region
+	 * 
+	 * @param regions - AWS regions, primary region first
+	 * @param clientFactory - Factory of the client of a region
+	 */
+	public RegionalClients(List<String> regions, Function<String, T> clientFactory) {
+		for(String region : regions) {
+			clients.computeIfAbsent(region.trim(), clientFactory);
+		}
+		this.regions = Collections.unmodifiableList(new ArrayList<>(clients.keySet()));
+	}
+	
+	/**
+	 * Method to get the client of the region
+	 * 
+	 * @param region - AWS region
+	 * @return T - Client of the region
+	 */
+	public T get(String region) {
+		T client = clients.get(region);
+		if(client == null) {
+			throw new IllegalArgumentException("No client configured for region " + region);
+		}
+		return client;
+	}
+	
+	/**
+	 * @return the client of the primary region
+	 */
+	public T getPrimary() {
+		return clients.get(getPrimaryRegion());
+	}
+	
+	/**
+	 * @return the primary region
+	 */
+	public String getPrimaryRegion() {
+		return regions.get(0);
+	}
+	
+	/**
+	 * @return the regions, primary region first
+	 */
+	public List<String> getRegions() {
+		return regions;
+	}
+
+}
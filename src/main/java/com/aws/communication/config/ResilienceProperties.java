@@ -0,0 +1,239 @@
+package com.aws.communication.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Properties of the retry and circuit breaker layer around the SES and
+ * SNS calls (resilience.*).
+ *
+ * Retry budgets and circuit breakers are kept per channel and AWS region.
+ *
+ */
+@Component
+@ConfigurationProperties(prefix = "resilience")
+public class ResilienceProperties {
+
+	private boolean enabled = true;
+
+	private Retry retry = new Retry();
+
+	private Breaker breaker = new Breaker();
+
+	/**
+	 * Retry of failed calls with exponential backoff and decorrelated jitter
+	 */
+	public static class Retry {
+
+		private int maxAttempts = 3;
+
+		private long baseDelayMs = 50;
+
+		private long maxDelayMs = 1000;
+
+		private double budgetRatio = 0.2;
+
+		private double budgetMinPerSecond = 10;
+
+		/**
+		 * @return the number of attempts of a call, including the first one
+		 */
+		public int getMaxAttempts() {
+			return maxAttempts;
+		}
+
+		/**
+		 * @param maxAttempts the maxAttempts to set
+		 */
+		public void setMaxAttempts(int maxAttempts) {
+			this.maxAttempts = maxAttempts;
+		}
+
+		/**
+		 * @return the shortest delay before a retry
+		 */
+		public long getBaseDelayMs() {
+			return baseDelayMs;
+		}
+
+		/**
+		 * @param baseDelayMs the baseDelayMs to set
+		 */
+		public void setBaseDelayMs(long baseDelayMs) {
+			this.baseDelayMs = baseDelayMs;
+		}
+
+		/**
+		 * @return the longest delay before a retry
+		 */
+		public long getMaxDelayMs() {
+			return maxDelayMs;
+		}
+
+		/**
+		 * @param maxDelayMs the maxDelayMs to set
+		 */
+		public void setMaxDelayMs(long maxDelayMs) {
+			this.maxDelayMs = maxDelayMs;
+		}
+
+		/**
+		 * @return the number of retries allowed per call made
+		 */
+		public double getBudgetRatio() {
+			return budgetRatio;
+		}
+
+		/**
+		 * @param budgetRatio the budgetRatio to set
+		 */
+		public void setBudgetRatio(double budgetRatio) {
+			this.budgetRatio = budgetRatio;
+		}
+
+		/**
+		 * @return the number of retries allowed per second regardless of the calls made
+		 */
+		public double getBudgetMinPerSecond() {
+			return budgetMinPerSecond;
+		}
+
+		/**
+		 * @param budgetMinPerSecond the budgetMinPerSecond to set
+		 */
+		public void setBudgetMinPerSecond(double budgetMinPerSecond) {
+			this.budgetMinPerSecond = budgetMinPerSecond;
+		}
+
+	}
+
+	/**
+	 * Circuit breaker opening on the failure rate of the calls
+	 */
+	public static class Breaker {
+
+		private double failureRateThreshold = 0.5;
+
+		private int minimumCalls = 20;
+
+		private long windowMs = 10000;
+
+		private long openMs = 5000;
+
+		private int halfOpenCalls = 5;
+
+		/**
+		 * @return the failure rate at which the breaker opens
+		 */
+		public double getFailureRateThreshold() {
+			return failureRateThreshold;
+		}
+
+		/**
+		 * @param failureRateThreshold the failureRateThreshold to set
+		 */
+		public void setFailureRateThreshold(double failureRateThreshold) {
+			this.failureRateThreshold = failureRateThreshold;
+		}
+
+		/**
+		 * @return the number of calls within the window before the failure rate is evaluated
+		 */
+		public int getMinimumCalls() {
+			return minimumCalls;
+		}
+
+		/**
+		 * @param minimumCalls the minimumCalls to set
+		 */
+		public void setMinimumCalls(int minimumCalls) {
+			this.minimumCalls = minimumCalls;
+		}
+
+		/**
+		 * @return the sliding window the failure rate is measured over
+		 */
+		public long getWindowMs() {
+			return windowMs;
+		}
+
+		/**
+		 * @param windowMs the windowMs to set
+		 */
+		public void setWindowMs(long windowMs) {
+			this.windowMs = windowMs;
+		}
+
+		/**
+		 * @return the time the breaker stays open before trial calls are let through
+		 */
+		public long getOpenMs() {
+			return openMs;
+		}
+
+		/**
+		 * @param openMs the openMs to set
+		 */
+		public void setOpenMs(long openMs) {
+			this.openMs = openMs;
+		}
+
+		/**
+		 * @return the number of successful trial calls closing the breaker
+		 */
+		public int getHalfOpenCalls() {
+			return halfOpenCalls;
+		}
+
+		/**
+		 * @param halfOpenCalls the halfOpenCalls to set
+		 */
+		public void setHalfOpenCalls(int halfOpenCalls) {
+			this.halfOpenCalls = halfOpenCalls;
+		}
+
+	}
+
+	/**
+	 * @return the enabled
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * @param enabled the enabled to set
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * @return the retry
+	 */
+	public Retry getRetry() {
+		return retry;
+	}
+
+	/**
+	 * @param retry the retry to set
+	 */
+	public void setRetry(Retry retry) {
+		this.retry = retry;
+	}
+
+	/**
+	 * @return the breaker
+	 */
+	public Breaker getBreaker() {
+		return breaker;
+	}
+
+	/**
+	 * @param breaker the breaker to set
+	 */
+	public void setBreaker(Breaker breaker) {
+		this.breaker = breaker;
+	}
+
+}
@@ -0,0 +1,305 @@
+package com.aws.communication.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Properties of the client-side send rate limiter (ratelimit.*).
+ * 
+ * Each channel is limited per AWS region, matching the account quota
+ * (SES max send rate, SNS SMS TPS), with optional narrower limits per
+ * sender. Rates are in requests per second. A share of each region rate
+ * can be reserved for transactional traffic.
+ *
+ */
+@Component
+@ConfigurationProperties(prefix = "ratelimit")
+public class SendRateLimitProperties {
+	
+	private boolean enabled = false;
+	
+	private long maxWaitMs = 1000;
+	
+	private double transactionalReserve = 0;
+	
+	private Adaptive adaptive = new Adaptive();
+	
+	private Limit ses = new Limit(14, 14);
+	
+	private Limit sns = new Limit(20, 20);
+	
+	/**
+	 * Rate limit of a channel
+	 */
+	public static class Limit {
+		
+		private double rate;
+		
+		private int burst;
+		
+		private Map<String, Double> regions = new HashMap<>();
+		
+		private Map<String, Double> senders = new HashMap<>();
+		
+		/**
+		 * Default constructor for Limit
+		 */
+		public Limit() {
+		}
+		
+		/**
+		 * Constructor for Limit with default rate and burst
+		 * 
+		 * @param rate - Requests per second
+		 * @param burst - Requests allowed at once
+		 */
+		public Limit(double rate, int burst) {
+			this.rate = rate;
+			this.burst = burst;
+		}
+		
+		/**
+		 * Method to get the rate of the given region
+		 * 
+		 * @param region - AWS region
+		 * @return double - Region rate if configured, else default rate
+		 */
+		public double getRegionRate(String region) {
+			Double regionRate = regions.get(region);
+			return regionRate != null ? regionRate : rate;
+		}
+
+		/**
+		 * @return the rate
+		 */
+		public double getRate() {
+			return rate;
+		}
+
+		/**
+		 * @param rate the rate to set
+		 */
+		public void setRate(double rate) {
+			this.rate = rate;
+		}
+
+		/**
+		 * @return the burst
+		 */
+		public int getBurst() {
+			return burst;
+		}
+
+		/**
+		 * @param burst the burst to set
+		 */
+		public void setBurst(int burst) {
+			this.burst = burst;
+		}
+
+		/**
+		 * @return the rate per region
+		 */
+		public Map<String, Double> getRegions() {
+			return regions;
+		}
+
+		/**
+		 * @param regions the rate per region to set
+		 */
+		public void setRegions(Map<String, Double> regions) {
+			this.regions = regions;
+		}
+
+		/**
+		 * @return the rate per sender
+		 */
+		public Map<String, Double> getSenders() {
+			return senders;
+		}
+
+		/**
+		 * @param senders the rate per sender to set
+		 */
+		public void setSenders(Map<String, Double> senders) {
+			this.senders = senders;
+		}
+		
+	}
+	
+	/**
+	 * Adaptive behaviour of the limiter on AWS throttling
+	 */
+	public static class Adaptive {
+		
+		private boolean enabled = true;
+		
+		private double decreaseFactor = 0.5;
+		
+		private double minRateFraction = 0.1;
+		
+		private double increaseFraction = 0.05;
+		
+		private long holdMs = 1000;
+
+		/**
+		 * @return the enabled
+		 */
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		/**
+		 * @param enabled the enabled to set
+		 */
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		/**
+		 * @return the factor the rate is multiplied with on throttling
+		 */
+		public double getDecreaseFactor() {
+			return decreaseFactor;
+		}
+
+		/**
+		 * @param decreaseFactor the decreaseFactor to set
+		 */
+		public void setDecreaseFactor(double decreaseFactor) {
+			this.decreaseFactor = decreaseFactor;
+		}
+
+		/**
+		 * @return the lowest fraction of the configured rate to back off to
+		 */
+		public double getMinRateFraction() {
+			return minRateFraction;
+		}
+
+		/**
+		 * @param minRateFraction the minRateFraction to set
+		 */
+		public void setMinRateFraction(double minRateFraction) {
+			this.minRateFraction = minRateFraction;
+		}
+
+		/**
+		 * @return the fraction of the configured rate added per hold period
+		 * while ramping back up
+		 */
+		public double getIncreaseFraction() {
+			return increaseFraction;
+		}
+
+		/**
+		 * @param increaseFraction the increaseFraction to set
+		 */
+		public void setIncreaseFraction(double increaseFraction) {
+			this.increaseFraction = increaseFraction;
+		}
+
+		/**
+		 * @return the minimum time between two rate adjustments
+		 */
+		public long getHoldMs() {
+			return holdMs;
+		}
+
+		/**
+		 * @param holdMs the holdMs to set
+		 */
+		public void setHoldMs(long holdMs) {
+			this.holdMs = holdMs;
+		}
+		
+	}
+
+	/**
+	 * @return the enabled
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * @param enabled the enabled to set
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * @return the maximum time a request waits for the limiter
+	 */
+	public long getMaxWaitMs() {
+		return maxWaitMs;
+	}
+
+	/**
+	 * @param maxWaitMs the maxWaitMs to set
+	 */
+	public void setMaxWaitMs(long maxWaitMs) {
+		this.maxWaitMs = maxWaitMs;
+	}
+
+	/**
+	 * @return the share of the region rate promotional traffic cannot use
+	 */
+	public double getTransactionalReserve() {
+		return transactionalReserve;
+	}
+
+	/**
+	 * @param transactionalReserve the transactionalReserve to set
+	 */
+	public void setTransactionalReserve(double transactionalReserve) {
+		this.transactionalReserve = transactionalReserve;
+	}
+
+	/**
+	 * @return the adaptive
+	 */
+	public Adaptive getAdaptive() {
+		return adaptive;
+	}
+
+	/**
+	 * @param adaptive the adaptive to set
+	 */
+	public void setAdaptive(Adaptive adaptive) {
+		this.adaptive = adaptive;
+	}
+
+	/**
+	 * @return the ses limit
+	 */
+	public Limit getSes() {
+		return ses;
+	}
+
+	/**
+	 * @param ses the ses limit to set
+	 */
+	public void setSes(Limit ses) {
+		this.ses = ses;
+	}
+
+	/**
+	 * @return the sns limit
+	 */
+	public Limit getSns() {
+		return sns;
+	}
+
+	/**
+	 * @param sns the sns limit to set
+	 */
+	public void setSns(Limit sns) {
+		this.sns = sns;
+	}
+
+}
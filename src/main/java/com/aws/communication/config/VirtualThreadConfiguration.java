@@ -0,0 +1,91 @@
+package com.aws.communication.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration to run servlet request handling and the SES/SNS dispatch on
+ * virtual threads. Virtual threads are available from JDK 21, thus the
+ * application needs to run on JDK 21 or later when this mode is enabled.
+ * 
+ * The application is still compiled for Java 8, so the virtual thread
+ * factory is created reflectively. The runtime is checked when the
+ * configuration is created, so that startup fails before any bean is
+ * created when enabled on a runtime without virtual thread support,
+ * instead of running on platform threads.
+ * 
+ * Enabled with property threads.virtual.enabled=true
+ *
+ */
+@Configuration
+@ConditionalOnProperty(name = "threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfiguration {
+	
+	private static final Logger LOGGER = LoggerFactory.getLogger(VirtualThreadConfiguration.class);
+	
+	/**
+	 * Constructor checking that the runtime supports virtual threads
+	 * 
+	 * @throws IllegalStateException Thrown when running on JDK 20 or earlier
+	 */
+	public VirtualThreadConfiguration() {
+		virtualThreadFactory("virtual-check-");
+		LOGGER.info("Virtual threads are enabled on Java {}", System.getProperty("java.version"));
+	}
+	
+	/**
+	 * Method to create the virtual thread factory used by the dispatcher
+	 * threads of the asynchronous send pipeline
+	 * 
+	 * @return ThreadFactory
+	 */
+	@Bean(name = "dispatchThreadFactory")
+	public ThreadFactory dispatchThreadFactory() {
+		return virtualThreadFactory("dispatcher-");
+	}
+	
+	/**
+	 * Method to replace the Tomcat request processing pool with an executor
+	 * which starts a new virtual thread for each task
+	 * 
+	 * @return TomcatProtocolHandlerCustomizer
+	 */
+	@Bean
+	public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+		ThreadFactory threadFactory = virtualThreadFactory("http-vt-");
+		Executor executor = command -> threadFactory.newThread(command).start();
+		return protocolHandler -> {
+			LOGGER.info("Tomcat request processing is running on virtual threads");
+			protocolHandler.setExecutor(executor);
+		};
+	}
+	
+	/**
+	 * Method to create a virtual thread factory, equivalent to
+	 * Thread.ofVirtual().name(prefix, 0).factory()
+	 * 
+	 * @param prefix - Prefix of the thread names
+	 * @return ThreadFactory - Factory creating virtual threads
+	 */
+	private static ThreadFactory virtualThreadFactory(String prefix) {
+		try {
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			Class<?> builderClass = Class.forName("java.lang.Thread$Builder$OfVirtual");
+			builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+			return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+		} catch (NoSuchMethodException | ClassNotFoundException | IllegalAccessException 
+				| InvocationTargetException e) {
+			throw new IllegalStateException("threads.virtual.enabled requires JDK 21 or later, running on " 
+					+ System.getProperty("java.version"), e);
+		}
+	}
+
+}
@@ -3,20 +3,34 @@ package com.aws.communication.controller;
 import javax.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.aws.communication.exception.APIException;
 import com.aws.communication.exception.BadRequestException;
 import com.aws.communication.exception.NotFoundException;
+import com.aws.communication.exception.ServiceUnavailableException;
+import com.aws.communication.model.BulkEmailRequest;
+import com.aws.communication.model.BulkEmailResponse;
 import com.aws.communication.model.CommunicationResponse;
 import com.aws.communication.model.EmailRequest;
 import com.aws.communication.model.ErrorResponse;
 import com.aws.communication.model.SMSRequest;
+import com.aws.communication.model.TrackingResponse;
 import com.aws.communication.service.AwsCommunicationService;
+import com.aws.communication.service.DispatchService;
+import com.aws.communication.service.IdempotencyService;
+import com.aws.communication.utils.Constants;
 
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -30,6 +44,7 @@ import io.swagger.annotations.ApiResponses;
 
 @RestController
 @Validated
+@ConditionalOnWebApplication(type = Type.SERVLET)
 @Api(value = "aws-communication")
 @RequestMapping(value = "/aws-communication/v1")
 public class AwsCommunicationApiController {
@@ -37,19 +52,45 @@ public class AwsCommunicationApiController {
     @Autowired
     private AwsCommunicationService service;
 
+    @Autowired
+    private DispatchService dispatchService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
     @ApiOperation(value = "API to send email for given request using AWS SES", nickname = "sendEmail", 
     		notes = "API to send email for given request using AWS SES", response = CommunicationResponse.class, tags={ "AWSCommunication", })
     @ApiResponses(value = { 
         @ApiResponse(code = 200, message = "Success response", response = CommunicationResponse.class),
         @ApiResponse(code = 400, message = "Bad request", response = ErrorResponse.class),
         @ApiResponse(code = 404, message = "Not found", response = ErrorResponse.class),
-        @ApiResponse(code = 500, message = "Server encountered unexpected condition", response = ErrorResponse.class) })
+        @ApiResponse(code = 429, message = "Too many requests", response = ErrorResponse.class),
+        @ApiResponse(code = 500, message = "Server encountered unexpected condition", response = ErrorResponse.class),
+        @ApiResponse(code = 503, message = "Service unavailable", response = ErrorResponse.class) })
     @PostMapping(value = "/email/send",
     	consumes = { "application/json; charset=UTF-8" },
         produces = { "application/json; charset=UTF-8" })
     public ResponseEntity<CommunicationResponse> sendEmail(@ApiParam(value = "Request payload for sending email via AWS SES",required=true) 
-    @Valid @RequestBody EmailRequest request) throws NotFoundException, BadRequestException {
-    	return ResponseEntity.ok(service.sendEmail(request));
+    @Valid @RequestBody EmailRequest request, 
+    @ApiParam(value = "Key to send the request only once, repeated requests with the same key get the original response") 
+    @RequestHeader(value = Constants.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) throws APIException {
+    	return ResponseEntity.ok(idempotencyService.execute(Constants.IDEMPOTENCY_SCOPE_EMAIL, idempotencyKey, request, 
+    			() -> service.sendEmail(request)));
+    }
+
+    @ApiOperation(value = "API to send templated email to multiple receivers using AWS SES bulk send", nickname = "sendBulkEmail", 
+    		notes = "API to send templated email to multiple receivers using AWS SES bulk send. Requests are grouped by template and "
+    				+ "sender and sent in batches of up to 50 destinations", response = BulkEmailResponse.class, tags={ "AWSCommunication", })
+    @ApiResponses(value = { 
+        @ApiResponse(code = 200, message = "Success response", response = BulkEmailResponse.class),
+        @ApiResponse(code = 400, message = "Bad request", response = ErrorResponse.class),
+        @ApiResponse(code = 500, message = "Server encountered unexpected condition", response = ErrorResponse.class) })
+    @PostMapping(value = "/email/send-bulk",
+    	consumes = { "application/json; charset=UTF-8" },
+        produces = { "application/json; charset=UTF-8" })
+    public ResponseEntity<BulkEmailResponse> sendBulkEmail(@ApiParam(value = "Request payload for sending bulk email via AWS SES",required=true) 
+    @Valid @RequestBody BulkEmailRequest request) throws BadRequestException {
+    	return ResponseEntity.ok(service.sendBulkEmail(request));
     }
 
     @ApiOperation(value = "API to send SMS for given request using AWS SNS", nickname = "sendSMS", 
@@ -58,13 +99,63 @@ public class AwsCommunicationApiController {
         @ApiResponse(code = 200, message = "Success response", response = CommunicationResponse.class),
         @ApiResponse(code = 400, message = "Bad request", response = ErrorResponse.class),
         @ApiResponse(code = 404, message = "Not found", response = ErrorResponse.class),
-        @ApiResponse(code = 500, message = "Server encountered unexpected condition", response = ErrorResponse.class) })
+        @ApiResponse(code = 429, message = "Too many requests", response = ErrorResponse.class),
+        @ApiResponse(code = 500, message = "Server encountered unexpected condition", response = ErrorResponse.class),
+        @ApiResponse(code = 503, message = "Service unavailable", response = ErrorResponse.class) })
     @PostMapping(value = "/sms/send",
     	consumes = { "application/json; charset=UTF-8" },
         produces = { "application/json; charset=UTF-8" })
     public ResponseEntity<CommunicationResponse> sendSMS(@ApiParam(value = "Request payload for sending email via AWS SES",required=true) 
-    @Valid @RequestBody SMSRequest request) throws BadRequestException {
-    	return ResponseEntity.ok(service.sendSMS(request));
+    @Valid @RequestBody SMSRequest request, 
+    @ApiParam(value = "Key to send the request only once, repeated requests with the same key get the original response") 
+    @RequestHeader(value = Constants.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) throws APIException {
+    	return ResponseEntity.ok(idempotencyService.execute(Constants.IDEMPOTENCY_SCOPE_SMS, idempotencyKey, request, 
+    			() -> service.sendSMS(request)));
+    }
+
+    @ApiOperation(value = "API to accept email for asynchronous sending using AWS SES", nickname = "sendEmailAsync", 
+    		notes = "API to accept email for asynchronous sending using AWS SES. Returns tracking id to query the dispatch status", 
+    		response = TrackingResponse.class, tags={ "AWSCommunication", })
+    @ApiResponses(value = { 
+        @ApiResponse(code = 202, message = "Accepted response", response = TrackingResponse.class),
+        @ApiResponse(code = 400, message = "Bad request", response = ErrorResponse.class),
+        @ApiResponse(code = 500, message = "Server encountered unexpected condition", response = ErrorResponse.class),
+        @ApiResponse(code = 503, message = "Dispatch queue is full", response = ErrorResponse.class) })
+    @PostMapping(value = "/email/send-async",
+    	consumes = { "application/json; charset=UTF-8" },
+        produces = { "application/json; charset=UTF-8" })
+    public ResponseEntity<TrackingResponse> sendEmailAsync(@ApiParam(value = "Request payload for sending email via AWS SES",required=true) 
+    @Valid @RequestBody EmailRequest request) throws BadRequestException, ServiceUnavailableException {
+    	return ResponseEntity.status(HttpStatus.ACCEPTED).body(dispatchService.submitEmail(request));
+    }
+
+    @ApiOperation(value = "API to accept SMS for asynchronous sending using AWS SNS", nickname = "sendSMSAsync", 
+    		notes = "API to accept SMS for asynchronous sending using AWS SNS. Returns tracking id to query the dispatch status", 
+    		response = TrackingResponse.class, tags={ "AWSCommunication", })
+    @ApiResponses(value = { 
+        @ApiResponse(code = 202, message = "Accepted response", response = TrackingResponse.class),
+        @ApiResponse(code = 400, message = "Bad request", response = ErrorResponse.class),
+        @ApiResponse(code = 500, message = "Server encountered unexpected condition", response = ErrorResponse.class),
+        @ApiResponse(code = 503, message = "Dispatch queue is full", response = ErrorResponse.class) })
+    @PostMapping(value = "/sms/send-async",
+    	consumes = { "application/json; charset=UTF-8" },
+        produces = { "application/json; charset=UTF-8" })
+    public ResponseEntity<TrackingResponse> sendSMSAsync(@ApiParam(value = "Request payload for sending SMS via AWS SNS",required=true) 
+    @Valid @RequestBody SMSRequest request) throws BadRequestException, ServiceUnavailableException {
+    	return ResponseEntity.status(HttpStatus.ACCEPTED).body(dispatchService.submitSMS(request));
+    }
+
+    @ApiOperation(value = "API to retrieve dispatch status of an asynchronous send request", nickname = "getTrackingStatus", 
+    		notes = "API to retrieve dispatch status of an asynchronous send request", response = TrackingResponse.class, tags={ "AWSCommunication", })
+    @ApiResponses(value = { 
+        @ApiResponse(code = 200, message = "Success response", response = TrackingResponse.class),
+        @ApiResponse(code = 404, message = "Not found", response = ErrorResponse.class),
+        @ApiResponse(code = 500, message = "Server encountered unexpected condition", response = ErrorResponse.class) })
+    @GetMapping(value = "/tracking/{trackingId}",
+        produces = { "application/json; charset=UTF-8" })
+    public ResponseEntity<TrackingResponse> getTrackingStatus(@ApiParam(value = "Tracking id returned by the asynchronous send API",required=true) 
+    @PathVariable("trackingId") String trackingId) throws NotFoundException {
+    	return ResponseEntity.ok(dispatchService.getStatus(trackingId));
     }
 
 }
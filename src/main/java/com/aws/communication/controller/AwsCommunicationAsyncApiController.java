@@ -0,0 +1,93 @@
+package com.aws.communication.controller;
+
+import java.util.concurrent.CompletableFuture;
+
+import javax.validation.Valid;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.aws.communication.exception.APIException;
+import com.aws.communication.model.CommunicationResponse;
+import com.aws.communication.model.EmailRequest;
+import com.aws.communication.model.ErrorResponse;
+import com.aws.communication.model.SMSRequest;
+import com.aws.communication.service.AwsAsyncCommunicationService;
+import com.aws.communication.service.IdempotencyService;
+import com.aws.communication.utils.Constants;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+/**
+ * Controller class for AWS Communication Related resources served by the
+ * non-blocking AWS transport. Endpoints return CompletableFuture so that the
+ * servlet thread is released while AWS answers.
+ *
+ */
+
+@RestController
+@Validated
+@ConditionalOnWebApplication(type = Type.SERVLET)
+@Api(value = "aws-communication")
+@RequestMapping(value = "/aws-communication/v2")
+@ConditionalOnProperty(name = "aws.transport.async.enabled", havingValue = "true")
+public class AwsCommunicationAsyncApiController {
+
+    @Autowired
+    private AwsAsyncCommunicationService service;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @ApiOperation(value = "API to send email for given request using AWS SES", nickname = "sendEmailNonBlocking", 
+    		notes = "API to send email for given request using AWS SES non-blocking client", response = CommunicationResponse.class, tags={ "AWSCommunication", })
+    @ApiResponses(value = { 
+        @ApiResponse(code = 200, message = "Success response", response = CommunicationResponse.class),
+        @ApiResponse(code = 400, message = "Bad request", response = ErrorResponse.class),
+        @ApiResponse(code = 404, message = "Not found", response = ErrorResponse.class),
+        @ApiResponse(code = 429, message = "Too many requests", response = ErrorResponse.class),
+        @ApiResponse(code = 500, message = "Server encountered unexpected condition", response = ErrorResponse.class),
+        @ApiResponse(code = 503, message = "Service unavailable", response = ErrorResponse.class) })
+    @PostMapping(value = "/email/send",
+    	consumes = { "application/json; charset=UTF-8" },
+        produces = { "application/json; charset=UTF-8" })
+    public CompletableFuture<ResponseEntity<CommunicationResponse>> sendEmail(@ApiParam(value = "Request payload for sending email via AWS SES",required=true) 
+    @Valid @RequestBody EmailRequest request, 
+    @ApiParam(value = "Key to send the request only once, repeated requests with the same key get the original response") 
+    @RequestHeader(value = Constants.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) throws APIException {
+    	return idempotencyService.executeAsync(Constants.IDEMPOTENCY_SCOPE_EMAIL, idempotencyKey, request, 
+    			() -> service.sendEmail(request)).thenApply(ResponseEntity::ok);
+    }
+
+    @ApiOperation(value = "API to send SMS for given request using AWS SNS", nickname = "sendSMSNonBlocking", 
+    		notes = "API to send SMS for given request using AWS SNS non-blocking client", response = CommunicationResponse.class, tags={ "AWSCommunication", })
+    @ApiResponses(value = { 
+        @ApiResponse(code = 200, message = "Success response", response = CommunicationResponse.class),
+        @ApiResponse(code = 400, message = "Bad request", response = ErrorResponse.class),
+        @ApiResponse(code = 429, message = "Too many requests", response = ErrorResponse.class),
+        @ApiResponse(code = 500, message = "Server encountered unexpected condition", response = ErrorResponse.class),
+        @ApiResponse(code = 503, message = "Service unavailable", response = ErrorResponse.class) })
+    @PostMapping(value = "/sms/send",
+    	consumes = { "application/json; charset=UTF-8" },
+        produces = { "application/json; charset=UTF-8" })
+    public CompletableFuture<ResponseEntity<CommunicationResponse>> sendSMS(@ApiParam(value = "Request payload for sending SMS via AWS SNS",required=true) 
+    @Valid @RequestBody SMSRequest request, 
+    @ApiParam(value = "Key to send the request only once, repeated requests with the same key get the original response") 
+    @RequestHeader(value = Constants.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) throws APIException {
+    	return idempotencyService.executeAsync(Constants.IDEMPOTENCY_SCOPE_SMS, idempotencyKey, request, 
+    			() -> service.sendSMS(request)).thenApply(ResponseEntity::ok);
+    }
+
+}
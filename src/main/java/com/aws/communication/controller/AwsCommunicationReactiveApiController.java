@@ -0,0 +1,190 @@
+package com.aws.communication.controller;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.aws.communication.exception.APIException;
+import com.aws.communication.model.CommunicationResponse;
+import com.aws.communication.model.EmailRequest;
+import com.aws.communication.model.ErrorResponse;
+import com.aws.communication.model.SMSRequest;
+import com.aws.communication.model.StreamResult;
+import com.aws.communication.service.AwsAsyncCommunicationService;
+import com.aws.communication.service.IdempotencyService;
+import com.aws.communication.utils.Constants;
+import com.aws.communication.utils.GenericUtils;
+import com.aws.communication.utils.StatusCodes;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+/**
+ * Reactive controller class for AWS Communication Related resources. Registered
+ * instead of the servlet controllers when the application runs as a reactive
+ * web application (profile reactive), and serves the requests over the
+ * non-blocking AWS transport.
+ *
+ */
+
+@RestController
+@Validated
+@Api(value = "aws-communication")
+@RequestMapping(value = "/aws-communication/v1")
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+public class AwsCommunicationReactiveApiController {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AwsCommunicationReactiveApiController.class);
+
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    @Autowired
+    private AwsAsyncCommunicationService service;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Value("${stream.max-concurrency:256}")
+    private int streamMaxConcurrency;
+
+    @ApiOperation(value = "API to send email for given request using AWS SES", nickname = "sendEmail", 
+    		notes = "API to send email for given request using AWS SES", response = CommunicationResponse.class, tags={ "AWSCommunication", })
+    @ApiResponses(value = { 
+        @ApiResponse(code = 200, message = "Success response", response = CommunicationResponse.class),
+        @ApiResponse(code = 400, message = "Bad request", response = ErrorResponse.class),
+        @ApiResponse(code = 404, message = "Not found", response = ErrorResponse.class),
+        @ApiResponse(code = 500, message = "Server encountered unexpected condition", response = ErrorResponse.class),
+        @ApiResponse(code = 503, message = "Service unavailable", response = ErrorResponse.class) })
+    @PostMapping(value = "/email/send",
+    	consumes = { "application/json; charset=UTF-8" },
+        produces = { "application/json; charset=UTF-8" })
+    public Mono<CommunicationResponse> sendEmail(@ApiParam(value = "Request payload for sending email via AWS SES",required=true) 
+    @RequestBody EmailRequest request, 
+    @ApiParam(value = "Key to send the request only once, repeated requests with the same key get the original response") 
+    @RequestHeader(value = Constants.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+    	return Mono.defer(() -> toMono(() -> idempotencyService.executeAsync(Constants.IDEMPOTENCY_SCOPE_EMAIL, 
+    			idempotencyKey, request, () -> service.sendEmail(request))));
+    }
+
+    @ApiOperation(value = "API to send SMS for given request using AWS SNS", nickname = "sendSMS", 
+    		notes = "API to send SMS for given request using AWS SNS", response = CommunicationResponse.class, tags={ "AWSCommunication", })
+    @ApiResponses(value = { 
+        @ApiResponse(code = 200, message = "Success response", response = CommunicationResponse.class),
+        @ApiResponse(code = 400, message = "Bad request", response = ErrorResponse.class),
+        @ApiResponse(code = 500, message = "Server encountered unexpected condition", response = ErrorResponse.class),
+        @ApiResponse(code = 503, message = "Service unavailable", response = ErrorResponse.class) })
+    @PostMapping(value = "/sms/send",
+    	consumes = { "application/json; charset=UTF-8" },
+        produces = { "application/json; charset=UTF-8" })
+    public Mono<CommunicationResponse> sendSMS(@ApiParam(value = "Request payload for sending SMS via AWS SNS",required=true) 
+    @RequestBody SMSRequest request, 
+    @ApiParam(value = "Key to send the request only once, repeated requests with the same key get the original response") 
+    @RequestHeader(value = Constants.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+    	return Mono.defer(() -> toMono(() -> idempotencyService.executeAsync(Constants.IDEMPOTENCY_SCOPE_SMS, 
+    			idempotencyKey, request, () -> service.sendSMS(request))));
+    }
+
+    @ApiOperation(value = "API to send stream of emails using AWS SES", nickname = "sendEmailStream", 
+    		notes = "API to send newline delimited stream of email requests using AWS SES. Results are streamed back as they finish", 
+    		response = StreamResult.class, tags={ "AWSCommunication", })
+    @ApiResponses(value = { 
+        @ApiResponse(code = 200, message = "Success response", response = StreamResult.class),
+        @ApiResponse(code = 400, message = "Bad request", response = ErrorResponse.class) })
+    @PostMapping(value = "/email/send-stream",
+    	consumes = { APPLICATION_NDJSON },
+        produces = { APPLICATION_NDJSON })
+    public Flux<StreamResult> sendEmailStream(@ApiParam(value = "Stream of email requests",required=true) 
+    @RequestBody Flux<EmailRequest> requests) {
+    	return requests.index()
+    			.flatMap(tuple -> toStreamResult(tuple, () -> service.sendEmail(tuple.getT2())), streamMaxConcurrency);
+    }
+
+    @ApiOperation(value = "API to send stream of SMS using AWS SNS", nickname = "sendSMSStream", 
+    		notes = "API to send newline delimited stream of SMS requests using AWS SNS. Results are streamed back as they finish", 
+    		response = StreamResult.class, tags={ "AWSCommunication", })
+    @ApiResponses(value = { 
+        @ApiResponse(code = 200, message = "Success response", response = StreamResult.class),
+        @ApiResponse(code = 400, message = "Bad request", response = ErrorResponse.class) })
+    @PostMapping(value = "/sms/send-stream",
+    	consumes = { APPLICATION_NDJSON },
+        produces = { APPLICATION_NDJSON })
+    public Flux<StreamResult> sendSMSStream(@ApiParam(value = "Stream of SMS requests",required=true) 
+    @RequestBody Flux<SMSRequest> requests) {
+    	return requests.index()
+    			.flatMap(tuple -> toStreamResult(tuple, () -> service.sendSMS(tuple.getT2())), streamMaxConcurrency);
+    }
+
+    /**
+     * Method to adapt the service call to Mono. Validation failure raised by the
+     * service is propagated as error signal, so that it is mapped by the
+     * exception handler advice.
+     * 
+     * @param call - Service call to be adapted
+     * @return Mono<CommunicationResponse> - Adapted call
+     */
+    private Mono<CommunicationResponse> toMono(ServiceCall call) {
+    	try {
+    		return Mono.fromFuture(call.execute());
+    	} catch (APIException e) {
+    		return Mono.error(e);
+    	}
+    }
+
+    /**
+     * Method to map the outcome of the service call for a streamed request
+     * to the stream result. Failure of a single request is reported in its
+     * result instead of terminating the stream.
+     * 
+     * @param tuple - Index of the request in the stream along with the request
+     * @param call - Service call for the request
+     * @return Mono<StreamResult> - Result of the request
+     */
+    private Mono<StreamResult> toStreamResult(Tuple2<Long, ?> tuple, ServiceCall call) {
+    	return toMono(call)
+    			.map(response -> {
+    				StreamResult result = new StreamResult();
+    				result.setIndex(tuple.getT1());
+    				result.setMessageId(response.getMessageId());
+    				return result;
+    			})
+    			.onErrorResume(throwable -> {
+    				StreamResult result = new StreamResult();
+    				result.setIndex(tuple.getT1());
+    				if(throwable instanceof APIException) {
+    					APIException exception = (APIException) throwable;
+    					result.setError(GenericUtils.mapErrorResponse(exception.getCode(), exception.getReason(), 
+    							exception.getParameters()));
+    				} else {
+    					LOGGER.error("Streamed send failed for index {}", tuple.getT1(), throwable);
+    					result.setError(GenericUtils.mapErrorResponse(StatusCodes.INTERNAL_SERVER_ERROR.getCode(), 
+    							StatusCodes.INTERNAL_SERVER_ERROR.getReason()));
+    				}
+    				return Mono.just(result);
+    			});
+    }
+
+    /**
+     * Service call which can fail validation before returning the future
+     */
+    @FunctionalInterface
+    private interface ServiceCall {
+    	CompletableFuture<CommunicationResponse> execute() throws APIException;
+    }
+
+}
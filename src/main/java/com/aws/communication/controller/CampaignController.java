@@ -0,0 +1,102 @@
+package com.aws.communication.controller;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.aws.communication.exception.BadRequestException;
+import com.aws.communication.exception.NotFoundException;
+import com.aws.communication.exception.ServiceUnavailableException;
+import com.aws.communication.model.CampaignStatus;
+import com.aws.communication.model.ErrorResponse;
+import com.aws.communication.service.campaign.CampaignFormat;
+import com.aws.communication.service.campaign.CampaignService;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+/**
+ * Controller class for the upload of email campaigns
+ *
+ */
+
+@RestController
+@Validated
+@ConditionalOnWebApplication(type = Type.SERVLET)
+@Api(value = "aws-communication-campaign")
+@RequestMapping(value = "/aws-communication/v1/campaigns")
+public class CampaignController {
+
+    @Autowired
+    private CampaignService campaignService;
+
+    @ApiOperation(value = "API to send an email template to the recipients of an uploaded file", nickname = "uploadCampaign", 
+    		notes = "API to upload newline delimited JSON objects or CSV rows, each holding the emailAddress of a recipient "
+    				+ "and the values of the template placeholders. The upload is read as fast as its rows are sent, "
+    				+ "the response is returned once the upload is read while the last rows may still be sending", 
+    		response = CampaignStatus.class, tags={ "AWSCommunicationCampaign", })
+    @ApiResponses(value = { 
+        @ApiResponse(code = 202, message = "Upload read", response = CampaignStatus.class),
+        @ApiResponse(code = 400, message = "Bad request", response = ErrorResponse.class),
+        @ApiResponse(code = 500, message = "Server encountered unexpected condition", response = ErrorResponse.class),
+        @ApiResponse(code = 503, message = "Campaign pipeline is stopped", response = ErrorResponse.class) })
+    @PostMapping(value = "/email",
+    	consumes = { CampaignFormat.APPLICATION_NDJSON, CampaignFormat.TEXT_CSV },
+        produces = { "application/json; charset=UTF-8" })
+    public ResponseEntity<CampaignStatus> uploadCampaign(@ApiParam(value = "Name of the SES template",required=true) 
+    @RequestParam("templateName") String templateName, @ApiParam(value = "Email address of the sender",required=true) 
+    @RequestParam("senderEmailAddress") String senderEmailAddress, HttpServletRequest request) 
+    		throws BadRequestException, ServiceUnavailableException, IOException {
+    	Charset charset = request.getCharacterEncoding() != null 
+    			? Charset.forName(request.getCharacterEncoding()) : StandardCharsets.UTF_8;
+    	return ResponseEntity.status(HttpStatus.ACCEPTED).body(campaignService.upload(templateName, senderEmailAddress, 
+    			CampaignFormat.fromContentType(request.getContentType()), 
+    			new InputStreamReader(request.getInputStream(), charset)));
+    }
+
+    @ApiOperation(value = "API to retrieve the progress of a campaign", nickname = "getCampaign", 
+    		notes = "API to retrieve the progress, throughput and row errors of a campaign, while it is uploaded and sent", 
+    		response = CampaignStatus.class, tags={ "AWSCommunicationCampaign", })
+    @ApiResponses(value = { 
+        @ApiResponse(code = 200, message = "Success response", response = CampaignStatus.class),
+        @ApiResponse(code = 404, message = "Not found", response = ErrorResponse.class),
+        @ApiResponse(code = 500, message = "Server encountered unexpected condition", response = ErrorResponse.class) })
+    @GetMapping(value = "/{campaignId}",
+        produces = { "application/json; charset=UTF-8" })
+    public ResponseEntity<CampaignStatus> getCampaign(@ApiParam(value = "Campaign id returned by the upload API",required=true) 
+    @PathVariable("campaignId") String campaignId) throws NotFoundException {
+    	return ResponseEntity.ok(campaignService.getStatus(campaignId));
+    }
+
+    @ApiOperation(value = "API to list the campaigns", nickname = "getCampaigns", 
+    		notes = "API to retrieve the progress of the campaigns being uploaded or sent, and of the campaigns "
+    				+ "recently completed, oldest first", 
+    		response = CampaignStatus.class, responseContainer = "List", tags={ "AWSCommunicationCampaign", })
+    @ApiResponses(value = { 
+        @ApiResponse(code = 200, message = "Success response", response = CampaignStatus.class, responseContainer = "List"),
+        @ApiResponse(code = 500, message = "Server encountered unexpected condition", response = ErrorResponse.class) })
+    @GetMapping(produces = { "application/json; charset=UTF-8" })
+    public ResponseEntity<List<CampaignStatus>> getCampaigns() {
+    	return ResponseEntity.ok(campaignService.getStatuses());
+    }
+
+}
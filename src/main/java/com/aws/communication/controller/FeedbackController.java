@@ -0,0 +1,76 @@
+package com.aws.communication.controller;
+
+import java.io.IOException;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.aws.communication.exception.BadRequestException;
+import com.aws.communication.exception.ServiceUnavailableException;
+import com.aws.communication.model.ErrorResponse;
+import com.aws.communication.model.FeedbackResult;
+import com.aws.communication.service.feedback.FeedbackService;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+/**
+ * Controller class for the SES bounce and complaint feedback delivered through SNS
+ *
+ */
+
+@RestController
+@Validated
+@ConditionalOnWebApplication(type = Type.SERVLET)
+@ConditionalOnProperty(name = "feedback.enabled", havingValue = "true")
+@Api(value = "aws-communication-feedback")
+@RequestMapping(value = "/aws-communication/v1/feedback")
+public class FeedbackController {
+
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    @Autowired
+    private FeedbackService feedbackService;
+
+    @ApiOperation(value = "API to receive SES feedback notifications from an SNS HTTP(S) subscription", nickname = "receiveFeedback", 
+    		notes = "API to be subscribed to the SNS topic of SES bounce and complaint notifications, "
+    				+ "subscription confirmations are confirmed automatically", tags={ "AWSCommunicationFeedback", })
+    @ApiResponses(value = { 
+        @ApiResponse(code = 200, message = "Notification accepted"),
+        @ApiResponse(code = 400, message = "Bad request", response = ErrorResponse.class),
+        @ApiResponse(code = 503, message = "Feedback queue is full", response = ErrorResponse.class) })
+    @PostMapping(value = "/ses")
+    public ResponseEntity<Void> receiveFeedback(@ApiParam(value = "SNS message",required=true) 
+    @RequestBody byte[] body) throws BadRequestException, ServiceUnavailableException {
+    	feedbackService.ingest(body);
+    	return ResponseEntity.ok().build();
+    }
+
+    @ApiOperation(value = "API to upload a backlog of SES feedback notifications", nickname = "uploadFeedback", 
+    		notes = "API to upload newline delimited SNS messages, or SES notifications when signatures are not verified, "
+    				+ "the upload is read as fast as the notifications are processed", 
+    		response = FeedbackResult.class, tags={ "AWSCommunicationFeedback", })
+    @ApiResponses(value = { 
+        @ApiResponse(code = 200, message = "Success response", response = FeedbackResult.class),
+        @ApiResponse(code = 500, message = "Server encountered unexpected condition", response = ErrorResponse.class) })
+    @PostMapping(value = "/ses/stream",
+    	consumes = { APPLICATION_NDJSON },
+        produces = { "application/json; charset=UTF-8" })
+    public ResponseEntity<FeedbackResult> uploadFeedback(HttpServletRequest request) 
+    		throws IOException, ServiceUnavailableException {
+    	return ResponseEntity.ok(feedbackService.ingestStream(request.getInputStream()));
+    }
+
+}
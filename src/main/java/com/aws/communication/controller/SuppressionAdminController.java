@@ -0,0 +1,110 @@
+package com.aws.communication.controller;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.aws.communication.exception.InternalServerException;
+import com.aws.communication.model.ErrorResponse;
+import com.aws.communication.model.SuppressionStatus;
+import com.aws.communication.service.suppression.SuppressionService;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+/**
+ * Controller class for administration of the suppression list
+ *
+ */
+
+@RestController
+@Validated
+@ConditionalOnProperty(name = "admin.api.enabled", havingValue = "true")
+@Api(value = "aws-communication-admin")
+@RequestMapping(value = "/aws-communication/v1/admin")
+public class SuppressionAdminController {
+
+    @Autowired
+    private SuppressionService suppressionService;
+
+    @ApiOperation(value = "API to check if a recipient is on the suppression list", nickname = "getSuppression", 
+    		notes = "API to check if an email address or phone number is on the suppression list", 
+    		response = SuppressionStatus.class, tags={ "AWSCommunicationAdmin", })
+    @ApiResponses(value = { 
+        @ApiResponse(code = 200, message = "Success response", response = SuppressionStatus.class),
+        @ApiResponse(code = 500, message = "Server encountered unexpected condition", response = ErrorResponse.class) })
+    @GetMapping(value = "/suppressions/{recipient}",
+        produces = { "application/json; charset=UTF-8" })
+    public ResponseEntity<SuppressionStatus> getSuppression(@ApiParam(value = "Email address or phone number",required=true) 
+    @PathVariable("recipient") String recipient) {
+    	SuppressionStatus status = new SuppressionStatus();
+    	status.setRecipient(recipient);
+    	status.setSuppressed(suppressionService.isSuppressed(recipient));
+    	return ResponseEntity.ok(status);
+    }
+
+    @ApiOperation(value = "API to add recipients to the suppression list", nickname = "addSuppressions", 
+    		notes = "API to add email addresses or phone numbers to the suppression list", tags={ "AWSCommunicationAdmin", })
+    @ApiResponses(value = { 
+        @ApiResponse(code = 204, message = "Recipients added"),
+        @ApiResponse(code = 400, message = "Bad request", response = ErrorResponse.class),
+        @ApiResponse(code = 500, message = "Server encountered unexpected condition", response = ErrorResponse.class) })
+    @PostMapping(value = "/suppressions",
+    	consumes = { "application/json; charset=UTF-8" })
+    public ResponseEntity<Void> addSuppressions(@ApiParam(value = "Email addresses or phone numbers",required=true) 
+    @RequestBody List<String> recipients) throws InternalServerException {
+    	suppressionService.add(recipients);
+    	return ResponseEntity.noContent().build();
+    }
+
+    @ApiOperation(value = "API to remove a recipient from the suppression list", nickname = "removeSuppression", 
+    		notes = "API to remove an email address or phone number from the suppression list", tags={ "AWSCommunicationAdmin", })
+    @ApiResponses(value = { 
+        @ApiResponse(code = 204, message = "Recipient removed"),
+        @ApiResponse(code = 500, message = "Server encountered unexpected condition", response = ErrorResponse.class) })
+    @DeleteMapping(value = "/suppressions/{recipient}")
+    public ResponseEntity<Void> removeSuppression(@ApiParam(value = "Email address or phone number",required=true) 
+    @PathVariable("recipient") String recipient) throws InternalServerException {
+    	suppressionService.remove(Collections.singletonList(recipient));
+    	return ResponseEntity.noContent().build();
+    }
+
+    @ApiOperation(value = "API to reload the suppression list", nickname = "reloadSuppressions", 
+    		notes = "API to reload the suppression list from the snapshot file and the journal, to be called "
+    				+ "after the snapshot file is replaced", tags={ "AWSCommunicationAdmin", })
+    @ApiResponses(value = { 
+        @ApiResponse(code = 204, message = "Suppression list reloaded"),
+        @ApiResponse(code = 500, message = "Server encountered unexpected condition", response = ErrorResponse.class) })
+    @PostMapping(value = "/suppressions/reload")
+    public ResponseEntity<Void> reloadSuppressions() throws IOException {
+    	suppressionService.reload();
+    	return ResponseEntity.noContent().build();
+    }
+
+    @ApiOperation(value = "API to compact the suppression journal", nickname = "compactSuppressions", 
+    		notes = "API to fold the suppression journal into the snapshot file and truncate it", 
+    		tags={ "AWSCommunicationAdmin", })
+    @ApiResponses(value = { 
+        @ApiResponse(code = 204, message = "Suppression journal compacted"),
+        @ApiResponse(code = 500, message = "Server encountered unexpected condition", response = ErrorResponse.class) })
+    @PostMapping(value = "/suppressions/compact")
+    public ResponseEntity<Void> compactSuppressions() throws IOException {
+    	suppressionService.compact();
+    	return ResponseEntity.noContent().build();
+    }
+
+}
@@ -0,0 +1,59 @@
+package com.aws.communication.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.aws.communication.model.ErrorResponse;
+import com.aws.communication.service.TemplateRegistry;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+/**
+ * Controller class for administration of the cached SES templates
+ *
+ */
+
+@RestController
+@Validated
+@ConditionalOnProperty(name = "admin.api.enabled", havingValue = "true")
+@Api(value = "aws-communication-admin")
+@RequestMapping(value = "/aws-communication/v1/admin")
+public class TemplateAdminController {
+
+    @Autowired
+    private TemplateRegistry templateRegistry;
+
+    @ApiOperation(value = "API to invalidate the cached state of an SES template", nickname = "invalidateTemplate", 
+    		notes = "API to invalidate the cached state of an SES template, to be called after the template is "
+    				+ "created, updated or deleted", tags={ "AWSCommunicationAdmin", })
+    @ApiResponses(value = { 
+        @ApiResponse(code = 204, message = "Template invalidated"),
+        @ApiResponse(code = 500, message = "Server encountered unexpected condition", response = ErrorResponse.class) })
+    @DeleteMapping(value = "/templates/{templateName}")
+    public ResponseEntity<Void> invalidateTemplate(@ApiParam(value = "Name of the SES template",required=true) 
+    @PathVariable("templateName") String templateName) {
+    	templateRegistry.invalidate(templateName);
+    	return ResponseEntity.noContent().build();
+    }
+
+    @ApiOperation(value = "API to invalidate the cached state of all SES templates", nickname = "invalidateTemplates", 
+    		notes = "API to invalidate the cached state of all SES templates", tags={ "AWSCommunicationAdmin", })
+    @ApiResponses(value = { 
+        @ApiResponse(code = 204, message = "Templates invalidated"),
+        @ApiResponse(code = 500, message = "Server encountered unexpected condition", response = ErrorResponse.class) })
+    @DeleteMapping(value = "/templates")
+    public ResponseEntity<Void> invalidateTemplates() {
+    	templateRegistry.invalidateAll();
+    	return ResponseEntity.noContent().build();
+    }
+
+}
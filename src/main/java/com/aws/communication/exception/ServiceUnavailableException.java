@@ -0,0 +1,38 @@
+package com.aws.communication.exception;
+
+/**
+ * Exception class for 503 Service Unavailable error scenarios
+ *
+ */
+public class ServiceUnavailableException extends APIException {
+
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * Constructor for ServiceUnavailableException to instantiate code, reason with possible
+	 * parameters
+	 * 
+	 * @param code - Code of the exception
+	 * @param reason - Reason of the exception
+	 * @param parameters - Array of parameters that would be required
+	 * to map the reason with dynamic values
+	 */
+	public ServiceUnavailableException(String code, String reason, String... parameters) {
+		super(code, reason, parameters);
+	}
+	
+	/**
+	 * Constructor for ServiceUnavailableException to instantiate code, reason with possible
+	 * parameters and the original exception trace
+	 * 
+	 * @param code - Code of the exception
+	 * @param reason - Reason of the exception
+	 * @param exception - Original Exception
+	 * @param parameters - Array of parameters that would be required
+	 * to map the reason with dynamic values
+	 */
+	public ServiceUnavailableException(String code, String reason, Exception exception, String... parameters) {
+		super(code, reason, exception, parameters);
+	}
+
+}
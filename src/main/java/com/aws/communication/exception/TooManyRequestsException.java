@@ -0,0 +1,38 @@
+package com.aws.communication.exception;
+
+/**
+ * Exception class for 429 Too Many Requests error scenarios
+ *
+ */
+public class TooManyRequestsException extends APIException {
+
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * Constructor for TooManyRequestsException to instantiate code, reason with possible
+	 * parameters
+	 * 
+	 * @param code - Code of the exception
+	 * @param reason - Reason of the exception
+	 * @param parameters - Array of parameters that would be required
+	 * to map the reason with dynamic values
+	 */
+	public TooManyRequestsException(String code, String reason, String... parameters) {
+		super(code, reason, parameters);
+	}
+	
+	/**
+	 * Constructor for TooManyRequestsException to instantiate code, reason with possible
+	 * parameters and the original exception trace
+	 * 
+	 * @param code - Code of the exception
+	 * @param reason - Reason of the exception
+	 * @param exception - Original Exception
+	 * @param parameters - Array of parameters that would be required
+	 * to map the reason with dynamic values
+	 */
+	public TooManyRequestsException(String code, String reason, Exception exception, String... parameters) {
+		super(code, reason, exception, parameters);
+	}
+
+}
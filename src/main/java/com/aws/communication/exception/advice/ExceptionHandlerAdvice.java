@@ -9,15 +9,19 @@ import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.core.codec.DecodingException;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.server.ServerWebInputException;
 
 import com.aws.communication.exception.BadRequestException;
 import com.aws.communication.exception.InternalServerException;
 import com.aws.communication.exception.NotFoundException;
+import com.aws.communication.exception.ServiceUnavailableException;
+import com.aws.communication.exception.TooManyRequestsException;
 import com.aws.communication.model.ErrorResponse;
 import com.aws.communication.utils.Constants;
 import com.aws.communication.utils.GenericUtils;
@@ -80,6 +84,38 @@ public class ExceptionHandlerAdvice {
 				exception.getReason(), exception.getParameters()));
 	}
 	
+	/**
+	 * Method to handle Service Unavailable Exception raised for an API.
+	 * Method will form the error response body for the exception raised and
+	 * return the response with HTTP 503 status.
+	 *
+	 *
+	 * @param exception - ServiceUnavailableException object that needs to be
+	 * handled.
+	 * @return ResponseEntity<ErrorResponse> - Response entity being returned
+	 */
+	@ExceptionHandler(ServiceUnavailableException.class)
+	public ResponseEntity<ErrorResponse> handleServiceUnavailableException(ServiceUnavailableException exception) {
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(mapErrorResponse(exception.getCode(), 
+				exception.getReason(), exception.getParameters()));
+	}
+	
+	/**
+	 * Method to handle Too Many Requests Exception raised for an API.
+	 * Method will form the error response body for the exception raised and
+	 * return the response with HTTP 429 status.
+	 *
+	 *
+	 * @param exception - TooManyRequestsException object that needs to be
+	 * handled.
+	 * @return ResponseEntity<ErrorResponse> - Response entity being returned
+	 */
+	@ExceptionHandler(TooManyRequestsException.class)
+	public ResponseEntity<ErrorResponse> handleTooManyRequestsException(TooManyRequestsException exception) {
+		return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(mapErrorResponse(exception.getCode(), 
+				exception.getReason(), exception.getParameters()));
+	}
+	
 	/**
 	 * Method to handle HttpMessageNotReadableException.
 	 * HttpMessageNotReadableException will be thrown when the incoming
@@ -100,20 +136,51 @@ public class ExceptionHandlerAdvice {
 	@ExceptionHandler(HttpMessageNotReadableException.class)
 	public ResponseEntity<ErrorResponse> handleHttpMessageNotReadableException(HttpMessageNotReadableException exception) {
 		LOGGER.error("handleHttpMessageNotReadableException : ", exception);
+		return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(this.handleRequestBodyReadFailure(exception.getCause()));
+	}
+	
+	/**
+	 * Method to handle ServerWebInputException.
+	 * ServerWebInputException will be thrown by the reactive stack when the
+	 * incoming request body is not readable. Jackson failure is wrapped
+	 * in a DecodingException, thus it is unwrapped and the same error
+	 * response as for HttpMessageNotReadableException is returned.
+	 * 
+	 * @param exception - ServerWebInputException object that needs
+	 * to be handled
+	 * @return ResponseEntity<ErrorResponse> - Returned Response Entity object
+	 */
+	@ExceptionHandler(ServerWebInputException.class)
+	public ResponseEntity<ErrorResponse> handleServerWebInputException(ServerWebInputException exception) {
+		LOGGER.error("handleServerWebInputException : ", exception);
+		Throwable cause = exception.getCause() instanceof DecodingException 
+				? exception.getCause().getCause() : exception.getCause();
+		return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(this.handleRequestBodyReadFailure(cause));
+	}
+	
+	/**
+	 * Method to form the error response for the cause of failure in
+	 * reading the request body
+	 * 
+	 * @param cause - Cause of the failure
+	 * @return ErrorResponse - Response object indicating the issue with
+	 * the request body
+	 */
+	private ErrorResponse handleRequestBodyReadFailure(Throwable cause) {
 		ErrorResponse response = null;
 		
-		if(exception.getCause() instanceof InvalidFormatException) {
-			response = this.handleInvalidFormatException((InvalidFormatException)exception.getCause());
-		} else if(exception.getCause() instanceof JsonParseException) {
+		if(cause instanceof InvalidFormatException) {
+			response = this.handleInvalidFormatException((InvalidFormatException)cause);
+		} else if(cause instanceof JsonParseException) {
 			response = this.handleJsonParseException();
-		} else if(exception.getCause() instanceof JsonMappingException) {
-			response = this.handleJsonMappingException((JsonMappingException)exception.getCause());
+		} else if(cause instanceof JsonMappingException) {
+			response = this.handleJsonMappingException((JsonMappingException)cause);
 		} else {
 			response = this.mapErrorResponse(StatusCodes.UNABLE_TO_READ_REQUEST_BODY.getCode(), 
 					StatusCodes.UNABLE_TO_READ_REQUEST_BODY.getReason());
 		}
 		
-		return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+		return response;
 	}
 	
 	/**
@@ -0,0 +1,49 @@
+package com.aws.communication.interceptor;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+
+import com.aws.communication.model.EmailRequest;
+import com.aws.communication.model.SMSRequest;
+import com.aws.communication.service.SendStageMetrics;
+
+/**
+ * Request body advice timing the JSON binding of the send requests,
+ * recorded as the binding stage of the send path
+ *
+ */
+@ControllerAdvice("com.aws.communication")
+@ConditionalOnWebApplication(type = Type.SERVLET)
+public class BindingTimingAdvice extends RequestBodyAdviceAdapter {
+
+	@Autowired
+	private SendStageMetrics stageMetrics;
+
+	@Override
+	public boolean supports(MethodParameter methodParameter, java.lang.reflect.Type targetType,
+			Class<? extends HttpMessageConverter<?>> converterType) {
+		return targetType == EmailRequest.class || targetType == SMSRequest.class;
+	}
+
+	@Override
+	public HttpInputMessage beforeBodyRead(HttpInputMessage inputMessage, MethodParameter parameter,
+			java.lang.reflect.Type targetType, Class<? extends HttpMessageConverter<?>> converterType) {
+		stageMetrics.onBindingStarted();
+		return inputMessage;
+	}
+
+	@Override
+	public Object afterBodyRead(Object body, HttpInputMessage inputMessage, MethodParameter parameter,
+			java.lang.reflect.Type targetType, Class<? extends HttpMessageConverter<?>> converterType) {
+		stageMetrics.onBindingCompleted(body instanceof EmailRequest
+				? ((EmailRequest) body).getTemplateName() : SendStageMetrics.NO_TEMPLATE);
+		return body;
+	}
+
+}
@@ -3,9 +3,11 @@ package com.aws.communication.interceptor;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -14,6 +16,7 @@ import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestHeader;
@@ -24,7 +27,10 @@ import org.springframework.web.servlet.HandlerMapping;
 import org.springframework.web.servlet.ModelAndView;
 
 import com.aws.communication.exception.BadRequestException;
-import com.aws.communication.utils.Constants;
+import com.aws.communication.model.EmailRequest;
+import com.aws.communication.model.SMSRequest;
+import com.aws.communication.service.SendRateLimiter.Channel;
+import com.aws.communication.service.SendStageMetrics;
 import com.aws.communication.utils.StatusCodes;
 
 
@@ -39,6 +45,15 @@ public class ValidationInterceptor implements HandlerInterceptor {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(ValidationInterceptor.class);
 
+	@Autowired
+	private SendStageMetrics stageMetrics;
+
+	/**
+	 * Descriptors of the mandatory parameters per handler method, built on
+	 * first request to the handler method
+	 */
+	private final Map<Method, ParameterDescriptor> descriptors = new ConcurrentHashMap<>();
+
 	/**
 	 * Method to validate the incoming request. This method will check the method
 	 * being invoked in the Rest controller and validate if all the required
@@ -49,7 +64,12 @@ public class ValidationInterceptor implements HandlerInterceptor {
 	 * parameters.
 	 *
 	 * This method will only validate path, query and header parameters coming in
-	 * the request.
+	 * the request. The required parameter names of a method are resolved from
+	 * its annotations once and cached, so that validating a request does not
+	 * need any reflection.
+	 *
+	 * The time spent validating send requests is recorded as the interceptor
+	 * stage of the send path.
 	 *
 	 */
 	@Override
@@ -58,41 +78,70 @@ public class ValidationInterceptor implements HandlerInterceptor {
 
 		if (handler instanceof HandlerMethod) {
 			LOGGER.debug("handler instanceof HandlerMethod request {}", request);
-			HandlerMethod handlerMethod = (HandlerMethod) handler;
+			Method method = ((HandlerMethod) handler).getMethod();
 
-			Method method = handlerMethod.getMethod();
+			long start = System.nanoTime();
+			ParameterDescriptor descriptor = descriptors.get(method);
+			if (descriptor == null) {
+				descriptor = descriptors.computeIfAbsent(method, ParameterDescriptor::of);
+			}
+			if (descriptor.channel == null) {
+				validate(request, descriptor);
+				return true;
+			}
 
-			for (Parameter parameter : method.getParameters()) {
-				Map<String, Object> parameterDetails = retrieveParameterAttributes(parameter, request);
-				mandatoryParameterCheck(parameterDetails);
+			try {
+				validate(request, descriptor);
+			} catch (BadRequestException e) {
+				stageMetrics.onInterceptorFailed(descriptor.channel, start);
+				throw e;
 			}
+			stageMetrics.onInterceptorCompleted(descriptor.channel, start);
 		}
 		return true;
 	}
 
 	/**
-	 * Method to check mandatory parameter value
+	 * Method to validate the mandatory parameters of the handler method
 	 *
-	 * @param parameterDetails - parameterDetails
+	 * @param request - Incoming request
+	 * @param descriptor - Descriptor of the handler method
 	 * @throws BadRequestException - Exception caught in validation
 	 */
-	private void mandatoryParameterCheck(Map<String, Object> parameterDetails) throws BadRequestException {
-
-		String parameterName = (String) parameterDetails.get(Constants.NAME);
+	private void validate(HttpServletRequest request, ParameterDescriptor descriptor) throws BadRequestException {
+		if (descriptor.isEmpty()) {
+			return;
+		}
 
-		// Check if the given request parameter is required and if its required then
-		// validate that the value for the parameter is present in the request.
-		// If not provided, then throw Bad request exception for missing mandatory parameter
-		if ((parameterDetails.get(Constants.REQUIRED) != null) && Boolean.TRUE.equals(parameterDetails
-				.get(Constants.REQUIRED))) {
+		for (String name : descriptor.headers) {
+			mandatoryParameterCheck(name, request.getHeader(name));
+		}
+		for (String name : descriptor.queryParameters) {
+			mandatoryParameterCheck(name, request.getParameter(name));
+		}
+		if (descriptor.pathVariables.length > 0) {
+			Map pathVariables = (Map) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+			for (String name : descriptor.pathVariables) {
+				mandatoryParameterCheck(name, pathVariables == null ? null : pathVariables.get(name));
+			}
+		}
+	}
 
-			Object parameterValue = parameterDetails.get(Constants.VALUE);
+	/**
+	 * Method to check mandatory parameter value
+	 *
+	 * @param parameterName  - Name of the mandatory parameter
+	 * @param parameterValue - Value of the parameter in the request
+	 * @throws BadRequestException - Exception caught in validation
+	 */
+	private void mandatoryParameterCheck(String parameterName, Object parameterValue) throws BadRequestException {
 
-			if (this.isNullOrEmpty(parameterValue)) {
+		// Validate that the value for the required parameter is present in the request.
+		// If not provided, then throw Bad request exception for missing mandatory parameter
+		if (this.isNullOrEmpty(parameterValue)) {
 
-				throw new BadRequestException(StatusCodes.MISSING_MANDATORTY_PARAM.getCode(),
-						StatusCodes.MISSING_MANDATORTY_PARAM.getReason(), parameterName);
-			}
+			throw new BadRequestException(StatusCodes.MISSING_MANDATORTY_PARAM.getCode(),
+					StatusCodes.MISSING_MANDATORTY_PARAM.getReason(), parameterName);
 		}
 	}
 
@@ -105,48 +154,8 @@ public class ValidationInterceptor implements HandlerInterceptor {
 	@Override
 	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex)
 			throws Exception {
-		// over riding parent method
-	}
-
-	/**
-	 * Method to retrieve parameter details such as parameter name, parameter is
-	 * required and its value based on the parameter annotations and the request
-	 *
-	 * @param parameter - parameter value
-	 * @param request   - request coming to API
-	 * @return Map<String, Object>
-	 */
-	private Map<String, Object> retrieveParameterAttributes(Parameter parameter, HttpServletRequest request) {
-
-		Map<String, Object> parameterDetails = new HashMap<>();
-		Annotation[] annotations = parameter.getAnnotations();
-
-		for (Annotation ann : annotations) {
-
-			if (ann.annotationType().equals(RequestHeader.class)) {
-
-				RequestHeader dv = (RequestHeader) ann;
-				parameterDetails.put(Constants.REQUIRED, dv.required());
-				parameterDetails.put(Constants.NAME, dv.value());
-				parameterDetails.put(Constants.VALUE, request.getHeader(dv.value()));
-			}
-			if (ann.annotationType().equals(RequestParam.class)) {
-
-				RequestParam dv = (RequestParam) ann;
-				parameterDetails.put(Constants.REQUIRED, dv.required());
-				parameterDetails.put(Constants.NAME, dv.value());
-				parameterDetails.put(Constants.VALUE, request.getParameter(dv.value()));
-			}
-			if (ann.annotationType().equals(PathVariable.class)) {
-				PathVariable dv = (PathVariable) ann;
-				parameterDetails.put(Constants.REQUIRED, dv.required());
-				parameterDetails.put(Constants.NAME, dv.value());
-
-				Map pathVariables = (Map) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
-				parameterDetails.put(Constants.VALUE, pathVariables.get(dv.value()));
-			}
-		}
-		return parameterDetails;
+		// record the stages of a send request whose body could not be bound
+		stageMetrics.onRequestCompleted();
 	}
 
 	/**
@@ -173,4 +182,71 @@ public class ValidationInterceptor implements HandlerInterceptor {
 		return false;
 	}
 
+	/**
+	 * Names of the required header, query and path parameters of a handler
+	 * method, and the channel of the send request it takes if any
+	 *
+	 */
+	static final class ParameterDescriptor {
+
+		private static final String[] NONE = new String[0];
+
+		private final String[] headers;
+		private final String[] queryParameters;
+		private final String[] pathVariables;
+		private final Channel channel;
+
+		private ParameterDescriptor(String[] headers, String[] queryParameters, String[] pathVariables,
+				Channel channel) {
+			this.headers = headers;
+			this.queryParameters = queryParameters;
+			this.pathVariables = pathVariables;
+			this.channel = channel;
+		}
+
+		/**
+		 * Method to build the descriptor from the parameter annotations of the
+		 * given method. Only the parameters marked as required are retained.
+		 *
+		 * @param method - Handler method
+		 * @return ParameterDescriptor - Descriptor of the method
+		 */
+		static ParameterDescriptor of(Method method) {
+			List<String> headers = new ArrayList<>();
+			List<String> queryParameters = new ArrayList<>();
+			List<String> pathVariables = new ArrayList<>();
+			Channel channel = null;
+
+			for (Parameter parameter : method.getParameters()) {
+				if (parameter.getType() == EmailRequest.class) {
+					channel = Channel.EMAIL;
+				} else if (parameter.getType() == SMSRequest.class) {
+					channel = Channel.SMS;
+				}
+				for (Annotation ann : parameter.getAnnotations()) {
+					if (ann instanceof RequestHeader && ((RequestHeader) ann).required()) {
+						headers.add(((RequestHeader) ann).value());
+					} else if (ann instanceof RequestParam && ((RequestParam) ann).required()) {
+						queryParameters.add(((RequestParam) ann).value());
+					} else if (ann instanceof PathVariable && ((PathVariable) ann).required()) {
+						pathVariables.add(((PathVariable) ann).value());
+					}
+				}
+			}
+			return new ParameterDescriptor(toArray(headers), toArray(queryParameters), toArray(pathVariables),
+					channel);
+		}
+
+		private static String[] toArray(List<String> names) {
+			return names.isEmpty() ? NONE : names.toArray(new String[0]);
+		}
+
+		/**
+		 * @return true if the method has no required parameters to be validated
+		 */
+		boolean isEmpty() {
+			return headers.length == 0 && queryParameters.length == 0 && pathVariables.length == 0;
+		}
+	}
+
 }
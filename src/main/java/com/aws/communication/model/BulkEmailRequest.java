@@ -0,0 +1,36 @@
+package com.aws.communication.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.validation.annotation.Validated;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * SendBulkEmailRequest
+ */
+@Validated
+public class BulkEmailRequest {
+	
+	@JsonProperty("emailRequests")
+	private List<EmailRequest> emailRequests = null;
+
+	/**
+	 * @return the emailRequests
+	 */
+	public List<EmailRequest> getEmailRequests() {
+		if(emailRequests == null) {
+			emailRequests = new ArrayList<>();
+		}
+		return emailRequests;
+	}
+
+	/**
+	 * @param emailRequests the emailRequests to set
+	 */
+	public void setEmailRequests(List<EmailRequest> emailRequests) {
+		this.emailRequests = emailRequests;
+	}
+
+}
@@ -0,0 +1,36 @@
+package com.aws.communication.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.validation.annotation.Validated;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * BulkEmailResponse
+ */
+@Validated
+public class BulkEmailResponse {
+	
+	@JsonProperty("results")
+	private List<BulkEmailResult> results = null;
+
+	/**
+	 * @return the results
+	 */
+	public List<BulkEmailResult> getResults() {
+		if(results == null) {
+			results = new ArrayList<>();
+		}
+		return results;
+	}
+
+	/**
+	 * @param results the results to set
+	 */
+	public void setResults(List<BulkEmailResult> results) {
+		this.results = results;
+	}
+
+}
@@ -0,0 +1,65 @@
+package com.aws.communication.model;
+
+import org.springframework.validation.annotation.Validated;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Error of a single row of a campaign upload. line is the line of the
+ * row in the uploaded file, starting at 1.
+ */
+@Validated
+public class CampaignRowError {
+	
+	@JsonProperty("line")
+	private Long line = null;
+	
+	@JsonProperty("emailAddress")
+	private String emailAddress = null;
+	
+	@JsonProperty("error")
+	private ErrorResponse error = null;
+
+	/**
+	 * @return the line
+	 */
+	public Long getLine() {
+		return line;
+	}
+
+	/**
+	 * @param line the line to set
+	 */
+	public void setLine(Long line) {
+		this.line = line;
+	}
+
+	/**
+	 * @return the emailAddress
+	 */
+	public String getEmailAddress() {
+		return emailAddress;
+	}
+
+	/**
+	 * @param emailAddress the emailAddress to set
+	 */
+	public void setEmailAddress(String emailAddress) {
+		this.emailAddress = emailAddress;
+	}
+
+	/**
+	 * @return the error
+	 */
+	public ErrorResponse getError() {
+		return error;
+	}
+
+	/**
+	 * @param error the error to set
+	 */
+	public void setError(ErrorResponse error) {
+		this.error = error;
+	}
+
+}
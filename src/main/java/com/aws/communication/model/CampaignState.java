@@ -0,0 +1,13 @@
+package com.aws.communication.model;
+
+/**
+ * State of a campaign upload
+ */
+public enum CampaignState {
+	
+	RECEIVING,
+	SENDING,
+	COMPLETED,
+	FAILED;
+
+}
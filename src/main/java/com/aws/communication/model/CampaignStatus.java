@@ -0,0 +1,221 @@
+package com.aws.communication.model;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.validation.annotation.Validated;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Progress of a campaign upload, updated while the upload is read
+ * and its rows are sent
+ */
+@Validated
+public class CampaignStatus {
+	
+	@JsonProperty("campaignId")
+	private String campaignId = null;
+	
+	@JsonProperty("state")
+	private CampaignState state = null;
+	
+	@JsonProperty("templateName")
+	private String templateName = null;
+	
+	@JsonProperty("rowsRead")
+	private Long rowsRead = null;
+	
+	@JsonProperty("rowsInvalid")
+	private Long rowsInvalid = null;
+	
+	@JsonProperty("rowsSent")
+	private Long rowsSent = null;
+	
+	@JsonProperty("rowsFailed")
+	private Long rowsFailed = null;
+	
+	@JsonProperty("rowsPending")
+	private Long rowsPending = null;
+	
+	@JsonProperty("rowsPerSecond")
+	private Double rowsPerSecond = null;
+	
+	@JsonProperty("startedAt")
+	private Instant startedAt = null;
+	
+	@JsonProperty("completedAt")
+	private Instant completedAt = null;
+	
+	@JsonProperty("errors")
+	private List<CampaignRowError> errors = null;
+
+	/**
+	 * @return the campaignId
+	 */
+	public String getCampaignId() {
+		return campaignId;
+	}
+
+	/**
+	 * @param campaignId the campaignId to set
+	 */
+	public void setCampaignId(String campaignId) {
+		this.campaignId = campaignId;
+	}
+
+	/**
+	 * @return the state
+	 */
+	public CampaignState getState() {
+		return state;
+	}
+
+	/**
+	 * @param state the state to set
+	 */
+	public void setState(CampaignState state) {
+		this.state = state;
+	}
+
+	/**
+	 * @return the templateName
+	 */
+	public String getTemplateName() {
+		return templateName;
+	}
+
+	/**
+	 * @param templateName the templateName to set
+	 */
+	public void setTemplateName(String templateName) {
+		this.templateName = templateName;
+	}
+
+	/**
+	 * @return the rowsRead
+	 */
+	public Long getRowsRead() {
+		return rowsRead;
+	}
+
+	/**
+	 * @param rowsRead the rowsRead to set
+	 */
+	public void setRowsRead(Long rowsRead) {
+		this.rowsRead = rowsRead;
+	}
+
+	/**
+	 * @return the rowsInvalid
+	 */
+	public Long getRowsInvalid() {
+		return rowsInvalid;
+	}
+
+	/**
+	 * @param rowsInvalid the rowsInvalid to set
+	 */
+	public void setRowsInvalid(Long rowsInvalid) {
+		this.rowsInvalid = rowsInvalid;
+	}
+
+	/**
+	 * @return the rowsSent
+	 */
+	public Long getRowsSent() {
+		return rowsSent;
+	}
+
+	/**
+	 * @param rowsSent the rowsSent to set
+	 */
+	public void setRowsSent(Long rowsSent) {
+		this.rowsSent = rowsSent;
+	}
+
+	/**
+	 * @return the rowsFailed
+	 */
+	public Long getRowsFailed() {
+		return rowsFailed;
+	}
+
+	/**
+	 * @param rowsFailed the rowsFailed to set
+	 */
+	public void setRowsFailed(Long rowsFailed) {
+		this.rowsFailed = rowsFailed;
+	}
+
+	/**
+	 * @return the rowsPending
+	 */
+	public Long getRowsPending() {
+		return rowsPending;
+	}
+
+	/**
+	 * @param rowsPending the rowsPending to set
+	 */
+	public void setRowsPending(Long rowsPending) {
+		this.rowsPending = rowsPending;
+	}
+
+	/**
+	 * @return the rowsPerSecond
+	 */
+	public Double getRowsPerSecond() {
+		return rowsPerSecond;
+	}
+
+	/**
+	 * @param rowsPerSecond the rowsPerSecond to set
+	 */
+	public void setRowsPerSecond(Double rowsPerSecond) {
+		this.rowsPerSecond = rowsPerSecond;
+	}
+
+	/**
+	 * @return the startedAt
+	 */
+	public Instant getStartedAt() {
+		return startedAt;
+	}
+
+	/**
+	 * @param startedAt the startedAt to set
+	 */
+	public void setStartedAt(Instant startedAt) {
+		this.startedAt = startedAt;
+	}
+
+	/**
+	 * @return the completedAt
+	 */
+	public Instant getCompletedAt() {
+		return completedAt;
+	}
+
+	/**
+	 * @param completedAt the completedAt to set
+	 */
+	public void setCompletedAt(Instant completedAt) {
+		this.completedAt = completedAt;
+	}
+
+	/**
+	 * @return the errors
+	 */
+	public List<CampaignRowError> getErrors() {
+		return errors;
+	}
+
+	/**
+	 * @param errors the errors to set
+	 */
+	public void setErrors(List<CampaignRowError> errors) {
+		this.errors = errors;
+	}
+
+}
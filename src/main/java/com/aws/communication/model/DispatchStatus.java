@@ -0,0 +1,14 @@
+package com.aws.communication.model;
+
+/**
+ * Status of a communication request accepted for asynchronous dispatch
+ */
+public enum DispatchStatus {
+	
+	SCHEDULED,
+	QUEUED,
+	PROCESSING,
+	SENT,
+	FAILED;
+
+}
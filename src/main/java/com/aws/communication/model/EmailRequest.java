@@ -1,5 +1,6 @@
 package com.aws.communication.model;
 
+import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -24,6 +25,12 @@ public class EmailRequest {
 	 
 	 @JsonProperty("receiver")
 	 private Receiver receiver = null;
+	 
+	 @JsonProperty("renderMode")
+	 private RenderMode renderMode = null;
+	 
+	 @JsonProperty("sendAt")
+	 private OffsetDateTime sendAt = null;
 
 	/**
 	 * @return the templateName
@@ -84,4 +91,32 @@ public class EmailRequest {
 		this.receiver = receiver;
 	}
 
+	/**
+	 * @return the renderMode
+	 */
+	public RenderMode getRenderMode() {
+		return renderMode;
+	}
+
+	/**
+	 * @param renderMode the renderMode to set
+	 */
+	public void setRenderMode(RenderMode renderMode) {
+		this.renderMode = renderMode;
+	}
+
+	/**
+	 * @return the time to send at, null to send right away
+	 */
+	public OffsetDateTime getSendAt() {
+		return sendAt;
+	}
+
+	/**
+	 * @param sendAt the sendAt to set
+	 */
+	public void setSendAt(OffsetDateTime sendAt) {
+		this.sendAt = sendAt;
+	}
+
 }
@@ -0,0 +1,47 @@
+package com.aws.communication.model;
+
+import org.springframework.validation.annotation.Validated;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Outcome of a streamed upload of feedback notifications
+ */
+@Validated
+public class FeedbackResult {
+	
+	@JsonProperty("accepted")
+	private long accepted;
+	
+	@JsonProperty("rejected")
+	private long rejected;
+
+	/**
+	 * @return the number of notifications accepted for processing
+	 */
+	public long getAccepted() {
+		return accepted;
+	}
+
+	/**
+	 * @param accepted the number of notifications accepted to set
+	 */
+	public void setAccepted(long accepted) {
+		this.accepted = accepted;
+	}
+
+	/**
+	 * @return the number of lines rejected as invalid
+	 */
+	public long getRejected() {
+		return rejected;
+	}
+
+	/**
+	 * @param rejected the number of lines rejected to set
+	 */
+	public void setRejected(long rejected) {
+		this.rejected = rejected;
+	}
+
+}
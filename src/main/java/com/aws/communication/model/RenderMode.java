@@ -0,0 +1,22 @@
+package com.aws.communication.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Mode of rendering the template of an email request
+ */
+public enum RenderMode {
+	
+	/**
+	 * Template rendered in the application and sent as raw MIME message
+	 */
+	@JsonProperty("local")
+	LOCAL,
+	
+	/**
+	 * Template rendered by SES on a templated send
+	 */
+	@JsonProperty("ses")
+	SES;
+
+}
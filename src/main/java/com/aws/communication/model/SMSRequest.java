@@ -1,5 +1,7 @@
 package com.aws.communication.model;
 
+import java.time.OffsetDateTime;
+
 import org.springframework.validation.annotation.Validated;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -21,6 +23,9 @@ public class SMSRequest {
 
 	@JsonProperty("receiver")
 	private Receiver receiver = null;
+	
+	@JsonProperty("sendAt")
+	private OffsetDateTime sendAt = null;
 
 	/**
 	 * @return the message
@@ -78,4 +83,18 @@ public class SMSRequest {
 		this.receiver = receiver;
 	}
 
+	/**
+	 * @return the time to send at, null to send right away
+	 */
+	public OffsetDateTime getSendAt() {
+		return sendAt;
+	}
+
+	/**
+	 * @param sendAt the sendAt to set
+	 */
+	public void setSendAt(OffsetDateTime sendAt) {
+		this.sendAt = sendAt;
+	}
+
 }
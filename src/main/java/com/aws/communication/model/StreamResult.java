@@ -0,0 +1,66 @@
+package com.aws.communication.model;
+
+import org.springframework.validation.annotation.Validated;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Outcome of a single request of a streamed send. As results are
+ * streamed in completion order, index identifies the position of the
+ * request in the incoming stream.
+ */
+@Validated
+public class StreamResult {
+	
+	@JsonProperty("index")
+	private Long index = null;
+	
+	@JsonProperty("messageId")
+	private String messageId = null;
+	
+	@JsonProperty("error")
+	private ErrorResponse error = null;
+
+	/**
+	 * @return the index
+	 */
+	public Long getIndex() {
+		return index;
+	}
+
+	/**
+	 * @param index the index to set
+	 */
+	public void setIndex(Long index) {
+		this.index = index;
+	}
+
+	/**
+	 * @return the messageId
+	 */
+	public String getMessageId() {
+		return messageId;
+	}
+
+	/**
+	 * @param messageId the messageId to set
+	 */
+	public void setMessageId(String messageId) {
+		this.messageId = messageId;
+	}
+
+	/**
+	 * @return the error
+	 */
+	public ErrorResponse getError() {
+		return error;
+	}
+
+	/**
+	 * @param error the error to set
+	 */
+	public void setError(ErrorResponse error) {
+		this.error = error;
+	}
+
+}
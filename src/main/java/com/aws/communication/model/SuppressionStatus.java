@@ -0,0 +1,47 @@
+package com.aws.communication.model;
+
+import org.springframework.validation.annotation.Validated;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Response stating if a recipient is on the suppression list
+ */
+@Validated
+public class SuppressionStatus {
+	
+	@JsonProperty("recipient")
+	private String recipient = null;
+	
+	@JsonProperty("suppressed")
+	private boolean suppressed;
+
+	/**
+	 * @return the recipient
+	 */
+	public String getRecipient() {
+		return recipient;
+	}
+
+	/**
+	 * @param recipient the recipient to set
+	 */
+	public void setRecipient(String recipient) {
+		this.recipient = recipient;
+	}
+
+	/**
+	 * @return the suppressed
+	 */
+	public boolean isSuppressed() {
+		return suppressed;
+	}
+
+	/**
+	 * @param suppressed the suppressed to set
+	 */
+	public void setSuppressed(boolean suppressed) {
+		this.suppressed = suppressed;
+	}
+
+}
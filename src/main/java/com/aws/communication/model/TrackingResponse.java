@@ -0,0 +1,82 @@
+package com.aws.communication.model;
+
+import org.springframework.validation.annotation.Validated;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Response containing the tracking details of a communication request
+ * accepted for asynchronous dispatch
+ */
+@Validated
+public class TrackingResponse {
+	
+	@JsonProperty("trackingId")
+	private String trackingId = null;
+	
+	@JsonProperty("status")
+	private DispatchStatus status = null;
+	
+	@JsonProperty("messageId")
+	private String messageId = null;
+	
+	@JsonProperty("error")
+	private ErrorResponse error = null;
+
+	/**
+	 * @return the trackingId
+	 */
+	public String getTrackingId() {
+		return trackingId;
+	}
+
+	/**
+	 * @param trackingId the trackingId to set
+	 */
+	public void setTrackingId(String trackingId) {
+		this.trackingId = trackingId;
+	}
+
+	/**
+	 * @return the status
+	 */
+	public DispatchStatus getStatus() {
+		return status;
+	}
+
+	/**
+	 * @param status the status to set
+	 */
+	public void setStatus(DispatchStatus status) {
+		this.status = status;
+	}
+
+	/**
+	 * @return the messageId
+	 */
+	public String getMessageId() {
+		return messageId;
+	}
+
+	/**
+	 * @param messageId the messageId to set
+	 */
+	public void setMessageId(String messageId) {
+		this.messageId = messageId;
+	}
+
+	/**
+	 * @return the error
+	 */
+	public ErrorResponse getError() {
+		return error;
+	}
+
+	/**
+	 * @param error the error to set
+	 */
+	public void setError(ErrorResponse error) {
+		this.error = error;
+	}
+
+}
@@ -0,0 +1,433 @@
+package com.aws.communication.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import com.aws.communication.config.RegionalClients;
+import com.aws.communication.exception.BadRequestException;
+import com.aws.communication.exception.NotFoundException;
+import com.aws.communication.exception.ServiceUnavailableException;
+import com.aws.communication.exception.TooManyRequestsException;
+import com.aws.communication.model.CommunicationResponse;
+import com.aws.communication.model.EmailRequest;
+import com.aws.communication.model.SMSRequest;
+import com.aws.communication.service.SendRateLimiter.Channel;
+import com.aws.communication.service.SendStageMetrics.Stage;
+import com.aws.communication.service.resilience.FailureType;
+import com.aws.communication.service.resilience.ResilienceService;
+import com.aws.communication.service.suppression.SuppressionService;
+import com.aws.communication.utils.Constants;
+import com.aws.communication.utils.GenericUtils;
+import com.aws.communication.utils.RequestValidator;
+import com.aws.communication.utils.StatusCodes;
+
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.services.ses.SesAsyncClient;
+import software.amazon.awssdk.services.ses.model.Destination;
+import software.amazon.awssdk.services.ses.model.SendTemplatedEmailRequest;
+import software.amazon.awssdk.services.ses.model.TemplateDoesNotExistException;
+import software.amazon.awssdk.services.sns.SnsAsyncClient;
+import software.amazon.awssdk.services.sns.model.MessageAttributeValue;
+import software.amazon.awssdk.services.sns.model.PublishRequest;
+import software.amazon.awssdk.services.sns.model.PublishResponse;
+
+/**
+ * Service class to handle the AWS communication related operations
+ * using the non-blocking AWS SDK v2 clients. Validation is performed
+ * on the calling thread, the AWS call completes the returned future
+ * without holding any thread while AWS answers. Rate limiting does
+ * not wait, requests above the limit are rejected right away, and
+ * templates are only checked if already cached. As on the blocking
+ * path, calls fail over to the next region ranked by the region router
+ * on throttling and regional failures, the next attempt being chained
+ * on the future of the failed one.
+ *
+ */
+@Service
+@ConditionalOnProperty(name = "aws.transport.async.enabled", havingValue = "true")
+public class AwsAsyncCommunicationService {
+	
+	private static final Logger LOGGER = LoggerFactory.getLogger(AwsAsyncCommunicationService.class);
+	
+	@Autowired
+	private RegionalClients<SesAsyncClient> sesAsyncClients;
+	
+	@Autowired
+	private RegionalClients<SnsAsyncClient> snsAsyncClients;
+	
+	@Autowired
+	private SendRateLimiter rateLimiter;
+	
+	@Autowired(required = false)
+	private SmsPublishBatcher smsPublishBatcher;
+	
+	@Autowired
+	private TemplateRegistry templateRegistry;
+	
+	@Autowired
+	private SuppressionService suppressionService;
+	
+	@Autowired
+	private ResilienceService resilienceService;
+	
+	@Autowired
+	private RegionRouter regionRouter;
+	
+	@Autowired
+	private SendStageMetrics stageMetrics;
+	
+	@Autowired
+	private LaneClassifier laneClassifier;
+	
+	/**
+	 * Method to send email for given request
+	 * 
+	 * @param request - Email Request
+	 * @return CompletableFuture<CommunicationResponse> - Future completed with the
+	 * response, or completed exceptionally with NotFoundException when the
+	 * template does not exist, with TooManyRequestsException when throttled
+	 * by AWS, or with ServiceUnavailableException when the circuit breaker of
+	 * SES is open, in every region tried
+	 * @throws BadRequestException Thrown when mandatory parameter is missing in request,
+	 * data for a placeholder of a cached template is missing or the receiver is suppressed
+	 * @throws NotFoundException Thrown when the template is cached as not existing
+	 * @throws TooManyRequestsException Thrown when the send rate limit is exceeded
+	 */
+	public CompletableFuture<CommunicationResponse> sendEmail(EmailRequest request) throws BadRequestException, 
+			NotFoundException, TooManyRequestsException {
+		
+		LOGGER.debug("In async sendEmail method");
+		String template = request.getTemplateName();
+		long validationStart = System.nanoTime();
+		boolean valid = false;
+		try {
+			RequestValidator.validateSendEmailRequest(request);
+			RequestValidator.validateSendNow(request.getSendAt());
+			valid = true;
+		} finally {
+			stageMetrics.record(Stage.VALIDATION, Channel.EMAIL, template, valid, validationStart);
+		}
+		suppressionService.checkEmail(request.getReceiver().getEmailAddress());
+		templateRegistry.validateCached(request);
+		Lane lane = laneClassifier.classify(request);
+		
+		long mappingStart = System.nanoTime();
+		SendTemplatedEmailRequest emailRequest = SendTemplatedEmailRequest.builder()
+				.destination(Destination.builder().toAddresses(request.getReceiver().getEmailAddress()).build())
+				.source(request.getSender().getEmailAddress())
+				.template(template)
+				.templateData(GenericUtils.mapTemplateData(request.getCommunicationCharacteristics()))
+				.build();
+		stageMetrics.record(Stage.MAPPING, Channel.EMAIL, template, true, mappingStart);
+		
+		long start = System.nanoTime();
+		return callRouted(Channel.EMAIL, lane, request.getSender().getEmailAddress(), 
+				region -> withTemplate(region, template, sesAsyncClients.get(region).sendTemplatedEmail(emailRequest)))
+				.handle((result, throwable) -> {
+					if(throwable == null) {
+						stageMetrics.registerTemplate(Channel.EMAIL, template);
+					}
+					stageMetrics.record(Stage.AWS, Channel.EMAIL, template, throwable == null, start);
+					if(throwable != null) {
+						if(unwrap(throwable) instanceof TemplateDoesNotExistException) {
+							throw new CompletionException(new NotFoundException(StatusCodes.DATA_NOT_FOUND.getCode(), 
+									StatusCodes.DATA_NOT_FOUND.getReason(), Constants.TEMPLATE, template));
+						}
+						throw completion(throwable);
+					}
+					return mapResponse(result.messageId());
+				});
+	}
+	
+	/**
+	 * Method to send SMS for given request
+	 * 
+	 * @param request - SMS Request
+	 * @return CompletableFuture<CommunicationResponse> - Future completed with the
+	 * response, or with TooManyRequestsException when throttled by AWS, or
+	 * with ServiceUnavailableException when the circuit breaker of SNS is open,
+	 * in every region tried
+	 * @throws BadRequestException Thrown when mandatory parameter is missing in request
+	 * or the receiver is suppressed
+	 * @throws TooManyRequestsException Thrown when the send rate limit is exceeded
+	 */
+	public CompletableFuture<CommunicationResponse> sendSMS(SMSRequest request) throws BadRequestException, 
+			TooManyRequestsException {
+		
+		long validationStart = System.nanoTime();
+		boolean valid = false;
+		try {
+			RequestValidator.validateSendSMSRequest(request);
+			RequestValidator.validateSendNow(request.getSendAt());
+			valid = true;
+		} finally {
+			stageMetrics.record(Stage.VALIDATION, Channel.SMS, SendStageMetrics.NO_TEMPLATE, valid, validationStart);
+		}
+		suppressionService.checkSMS(request.getReceiver().getPhoneNumber());
+		Lane lane = laneClassifier.classify(request);
+		
+		long mappingStart = System.nanoTime();
+		PublishRequest publishRequest = PublishRequest.builder()
+				.message(request.getMessage())
+				.messageAttributes(mapSMSAttributes(request))
+				.phoneNumber(request.getReceiver().getPhoneNumber())
+				.build();
+		stageMetrics.record(Stage.MAPPING, Channel.SMS, SendStageMetrics.NO_TEMPLATE, true, mappingStart);
+		
+		long start = System.nanoTime();
+		return callRouted(Channel.SMS, lane, request.getSender().getSenderId(), 
+				region -> publish(region, publishRequest))
+				.handle((result, throwable) -> {
+					stageMetrics.record(Stage.AWS, Channel.SMS, SendStageMetrics.NO_TEMPLATE, throwable == null, start);
+					if(throwable != null) {
+						throw completion(throwable);
+					}
+					return mapResponse(result.messageId());
+				});
+	}
+	
+	/**
+	 * Method to publish the SMS, through the micro-batching stage when enabled
+	 * 
+	 * @param region - AWS region to publish in
+	 * @param publishRequest - Publish request
+	 * @return CompletableFuture<PublishResponse> - Response returned by SNS
+	 */
+	private CompletableFuture<PublishResponse> publish(String region, PublishRequest publishRequest) {
+		return smsPublishBatcher != null ? smsPublishBatcher.publish(region, publishRequest) 
+				: snsAsyncClients.get(region).publish(publishRequest);
+	}
+	
+	/**
+	 * Method to make a non-blocking AWS call in the region chosen by the region
+	 * router, failing over to the next region on throttling and regional
+	 * failures. Permits are acquired from the rate limiter of the region sent
+	 * to, the best region with permits available right away being preferred.
+	 * 
+	 * @param <T> - Result type of the call
+	 * @param channel - Channel of the call
+	 * @param lane - Lane of the request
+	 * @param sender - Sender of the request
+	 * @param call - AWS call against the client of a region
+	 * @return CompletableFuture<T> - Future completed with the result of the call,
+	 * or exceptionally with the failure in the last region tried, throttling
+	 * being mapped to TooManyRequestsException
+	 * @throws TooManyRequestsException Thrown when no region has permits available
+	 */
+	private <T> CompletableFuture<T> callRouted(Channel channel, Lane lane, String sender, 
+			RegionalCall<CompletableFuture<T>> call) throws TooManyRequestsException {
+		List<String> regions = regionRouter.route(channel);
+		int index = nextRegion(channel, lane, regions, -1, sender);
+		if(index < 0) {
+			String last = regions.get(regions.size() - 1);
+			rateLimiter.tryAcquire(channel, lane, last, sender, 1);
+			index = regions.size() - 1;
+		}
+		return attempt(channel, lane, sender, regions, index, call);
+	}
+	
+	/**
+	 * Method to make the call in a region, the permit of the region having been
+	 * acquired, and to chain the attempt in the next region on failure
+	 * 
+	 * @param <T> - Result type of the call
+	 * @param channel - Channel of the call
+	 * @param lane - Lane of the request
+	 * @param sender - Sender of the request
+	 * @param regions - Regions, best first
+	 * @param index - Index of the region to call
+	 * @param call - AWS call against the client of a region
+	 * @return CompletableFuture<T> - Future completed with the outcome of the call
+	 */
+	private <T> CompletableFuture<T> attempt(Channel channel, Lane lane, String sender, List<String> regions, 
+			int index, RegionalCall<CompletableFuture<T>> call) {
+		String region = regions.get(index);
+		long start = System.nanoTime();
+		CompletableFuture<T> future;
+		try {
+			future = resilienceService.callAsync(channel, region, () -> call.call(region));
+		} catch(ServiceUnavailableException e) {
+			future = new CompletableFuture<>();
+			future.completeExceptionally(e);
+		}
+		return future.<CompletableFuture<T>>handle((result, throwable) -> {
+			if(throwable == null) {
+				regionRouter.onSuccess(channel, region, System.nanoTime() - start);
+				rateLimiter.onSuccess(channel, region);
+				return CompletableFuture.completedFuture(result);
+			}
+			Throwable cause = unwrap(throwable);
+			FailureType type = FailureType.classify(cause);
+			Throwable failure;
+			if(cause instanceof ServiceUnavailableException || type == FailureType.TRANSIENT) {
+				regionRouter.onFailure(channel, region, System.nanoTime() - start);
+				failure = throwable;
+			} else if(type == FailureType.THROTTLED && cause instanceof AwsServiceException) {
+				regionRouter.onSuccess(channel, region, System.nanoTime() - start);
+				failure = throttled(channel, region, (AwsServiceException) cause);
+			} else {
+				regionRouter.onSuccess(channel, region, System.nanoTime() - start);
+				return failed(throwable);
+			}
+			int next = nextRegion(channel, lane, regions, index, sender);
+			if(next < 0) {
+				return failed(failure);
+			}
+			regionRouter.onFailover(channel, region);
+			return attempt(channel, lane, sender, regions, next, call);
+		}).thenCompose(Function.identity());
+	}
+	/**
+	 * Method to find the next region after the given one with a rate limiter
+	 * permit available right away, acquiring it
+	 * 
+	 * @param channel - Channel of the call
+	 * @param lane - Lane of the request
+	 * @param regions - Regions, best first
+	 * @param index - Index of the region to start after
+	 * @param sender - Sender of the request
+	 * @return int - Index of the region the permit was acquired in, -1 if none
+	 */
+	private int nextRegion(Channel channel, Lane lane, List<String> regions, int index, String sender) {
+		for(int next = index + 1; next < regions.size(); next++) {
+			try {
+				rateLimiter.tryAcquire(channel, lane, regions.get(next), sender, 1);
+				return next;
+			} catch(TooManyRequestsException e) {
+				LOGGER.debug("No send permits available in {}", regions.get(next));
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * Method to make an SES call using the template, recording the template
+	 * as missing when SES reports so for the region
+	 * 
+	 * @param <T> - Result type of the call
+	 * @param region - AWS region of the call
+	 * @param templateName - Template name
+	 * @param call - Future of the SES call
+	 * @return CompletableFuture<T> - Future of the SES call
+	 */
+	private <T> CompletableFuture<T> withTemplate(String region, String templateName, CompletableFuture<T> call) {
+		return call.whenComplete((result, throwable) -> {
+			if(throwable != null && unwrap(throwable) instanceof TemplateDoesNotExistException) {
+				templateRegistry.markMissing(templateName, region);
+			}
+		});
+	}
+	
+	/**
+	 * AWS call made against the client of a region
+	 * 
+	 * @param <T> - Result type of the call
+	 */
+	@FunctionalInterface
+	private interface RegionalCall<T> {
+		
+		/**
+		 * @param region - AWS region to call
+		 * @return T - Result of the call
+		 */
+		T call(String region);
+	}
+	
+	/**
+	 * Method to report the throttling of a call to the rate limiter and
+	 * map it to TooManyRequestsException
+	 * 
+	 * @param channel - Channel of the call
+	 * @param region - AWS region of the call
+	 * @param exception - Exception raised by the AWS client
+	 * @return TooManyRequestsException - Exception to complete the future with
+	 */
+	private TooManyRequestsException throttled(Channel channel, String region, AwsServiceException exception) {
+		rateLimiter.onThrottled(channel, region);
+		return new TooManyRequestsException(StatusCodes.AWS_THROTTLED.getCode(), StatusCodes.AWS_THROTTLED.getReason(), 
+				exception, channel.getService().toUpperCase());
+	}
+	
+	/**
+	 * @param <T> - Result type of the future
+	 * @param throwable - Failure to complete the future with
+	 * @return CompletableFuture<T> - Future completed exceptionally
+	 */
+	private static <T> CompletableFuture<T> failed(Throwable throwable) {
+		CompletableFuture<T> future = new CompletableFuture<>();
+		future.completeExceptionally(throwable);
+		return future;
+	}
+	
+	/**
+	 * @param throwable - Failure a future completed with
+	 * @return Throwable - Failure unwrapped from CompletionException
+	 */
+	private static Throwable unwrap(Throwable throwable) {
+		return throwable instanceof CompletionException && throwable.getCause() != null 
+				? throwable.getCause() : throwable;
+	}
+	
+	/**
+	 * @param throwable - Failure a future completed with
+	 * @return CompletionException - Exception to complete the dependent future with
+	 */
+	private static CompletionException completion(Throwable throwable) {
+		return throwable instanceof CompletionException 
+				? (CompletionException) throwable : new CompletionException(throwable);
+	}
+	
+	/**
+	 * Method to map SMS attributes
+	 * 
+	 * @param request - SMS Request
+	 * @return Map<String, MessageAttributeValue> - SMS Attributes
+	 */
+	private Map<String, MessageAttributeValue> mapSMSAttributes(SMSRequest request) {
+		Map<String, MessageAttributeValue> smsAttributes = new HashMap<>();
+		
+		smsAttributes.put(Constants.AWS_SNS_SMS_SENDERID, create(request.getSender().getSenderId(), 
+				Constants.STRING));
+		smsAttributes.put(Constants.AWS_SNS_SMS_TYPE, create(request.getMessageType(), 
+				Constants.STRING));
+		
+		return smsAttributes;
+	}
+	
+	/**
+	 * Method to create Message Attribute Value object
+	 * 
+	 * @param value - Value to be configured
+	 * @param dataType - Data type of value
+	 * @return MessageAttributeValue - Created object
+	 */
+	private MessageAttributeValue create(String value, String dataType) {
+		return MessageAttributeValue.builder()
+				.stringValue(value)
+				.dataType(dataType)
+				.build();
+	}
+	
+	/**
+	 * Method to map communication response for given message id
+	 * 
+	 * @param messageId - Message id returned by AWS
+	 * @return CommunicationResponse - Mapped object
+	 */
+	private CommunicationResponse mapResponse(String messageId) {
+		CommunicationResponse response = new CommunicationResponse();
+		response.setMessageId(messageId);
+		return response;
+	}
+
+}
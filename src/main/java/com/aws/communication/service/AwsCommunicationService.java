@@ -1,16 +1,33 @@
 package com.aws.communication.service;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.retry.RetryUtils;
 import com.amazonaws.services.simpleemail.AmazonSimpleEmailService;
+import com.amazonaws.services.simpleemail.model.BulkEmailDestination;
+import com.amazonaws.services.simpleemail.model.BulkEmailDestinationStatus;
+import com.amazonaws.services.simpleemail.model.BulkEmailStatus;
 import com.amazonaws.services.simpleemail.model.Destination;
+import com.amazonaws.services.simpleemail.model.RawMessage;
+import com.amazonaws.services.simpleemail.model.SendBulkTemplatedEmailRequest;
+import com.amazonaws.services.simpleemail.model.SendBulkTemplatedEmailResult;
+import com.amazonaws.services.simpleemail.model.SendRawEmailRequest;
+import com.amazonaws.services.simpleemail.model.SendRawEmailResult;
 import com.amazonaws.services.simpleemail.model.SendTemplatedEmailRequest;
 import com.amazonaws.services.simpleemail.model.SendTemplatedEmailResult;
 import com.amazonaws.services.simpleemail.model.TemplateDoesNotExistException;
@@ -18,16 +35,29 @@ import com.amazonaws.services.sns.AmazonSNS;
 import com.amazonaws.services.sns.model.MessageAttributeValue;
 import com.amazonaws.services.sns.model.PublishRequest;
 import com.amazonaws.services.sns.model.PublishResult;
+import com.aws.communication.config.RegionalClients;
 import com.aws.communication.exception.BadRequestException;
 import com.aws.communication.exception.NotFoundException;
-import com.aws.communication.model.CommunicationCharacteristic;
+import com.aws.communication.exception.ServiceUnavailableException;
+import com.aws.communication.exception.TooManyRequestsException;
+import com.aws.communication.model.BulkEmailRequest;
+import com.aws.communication.model.BulkEmailResponse;
+import com.aws.communication.model.BulkEmailResult;
 import com.aws.communication.model.CommunicationResponse;
 import com.aws.communication.model.EmailRequest;
+import com.aws.communication.model.RenderMode;
 import com.aws.communication.model.SMSRequest;
+import com.aws.communication.service.SendRateLimiter.Channel;
+import com.aws.communication.service.SendStageMetrics.Stage;
+import com.aws.communication.service.resilience.FailureType;
+import com.aws.communication.service.resilience.ResilienceService;
+import com.aws.communication.service.suppression.SuppressionService;
+import com.aws.communication.service.template.CompiledEmailTemplate;
+import com.aws.communication.service.template.MimeMessageWriter;
 import com.aws.communication.utils.Constants;
+import com.aws.communication.utils.GenericUtils;
 import com.aws.communication.utils.RequestValidator;
 import com.aws.communication.utils.StatusCodes;
-import com.google.gson.Gson;
 
 /**
  * Service class to handle the AWS communication related operations
@@ -39,51 +69,407 @@ public class AwsCommunicationService {
 	private static final Logger LOGGER = LoggerFactory.getLogger(AwsCommunicationService.class);
 	
 	@Autowired
-	private AmazonSimpleEmailService simpleEmailService;
+	private RegionalClients<AmazonSimpleEmailService> sesClients;
 	
 	@Autowired
-	private AmazonSNS snsClient;
+	private RegionalClients<AmazonSNS> snsClients;
 	
-	public CommunicationResponse sendEmail(EmailRequest request) throws NotFoundException, BadRequestException {
+	@Autowired
+	private SendRateLimiter rateLimiter;
+	
+	@Autowired
+	private TemplateRegistry templateRegistry;
+	
+	@Autowired
+	private SuppressionService suppressionService;
+	
+	@Autowired
+	private ResilienceService resilienceService;
+	
+	@Autowired
+	private RegionRouter regionRouter;
+	
+	@Autowired
+	private SendStageMetrics stageMetrics;
+	
+	@Autowired
+	private LaneClassifier laneClassifier;
+	
+	@Value("${template.render.default-mode:SES}")
+	private RenderMode defaultRenderMode;
+	
+	/**
+	 * Method to send email for given request
+	 * 
+	 * @param request - Email Request
+	 * @return CommunicationResponse - response
+	 * @throws NotFoundException Thrown when the template does not exist
+	 * @throws BadRequestException Thrown when mandatory parameter is missing in request,
+	 * data for a template placeholder is missing or the receiver is suppressed
+	 * @throws TooManyRequestsException Thrown when the send rate limit is exceeded
+	 * or the request is throttled by AWS
+	 * @throws ServiceUnavailableException Thrown when the circuit breaker of SES is open
+	 */
+	public CommunicationResponse sendEmail(EmailRequest request) throws NotFoundException, BadRequestException, 
+			TooManyRequestsException, ServiceUnavailableException {
 		
 		LOGGER.debug("In sendEmail method");
-		RequestValidator.validateSendEmailRequest(request);
+		String template = request.getTemplateName();
+		long start = System.nanoTime();
+		boolean success = false;
+		try {
+			RequestValidator.validateSendEmailRequest(request);
+			RequestValidator.validateSendNow(request.getSendAt());
+			success = true;
+		} finally {
+			stageMetrics.record(Stage.VALIDATION, Channel.EMAIL, template, success, start);
+		}
+		suppressionService.checkEmail(request.getReceiver().getEmailAddress());
+		templateRegistry.validate(request);
 		
+		CompiledEmailTemplate compiledTemplate = resolveRenderMode(request) == RenderMode.LOCAL 
+				? templateRegistry.compiledTemplate(template) : null;
+		start = System.nanoTime();
+		success = false;
+		byte[] rawMessage;
+		String templateData;
+		try {
+			rawMessage = compiledTemplate != null ? renderLocally(request, compiledTemplate) : null;
+			templateData = compiledTemplate == null 
+					? GenericUtils.mapTemplateData(request.getCommunicationCharacteristics()) : null;
+			success = true;
+		} finally {
+			stageMetrics.record(Stage.MAPPING, Channel.EMAIL, template, success, start);
+		}
+		
+		start = System.nanoTime();
+		success = false;
 		try {
 			
-			SendTemplatedEmailRequest emailRequest = new SendTemplatedEmailRequest()
-					.withDestination(new Destination().withToAddresses(request.getReceiver().getEmailAddress()))
-					.withSource(request.getSender().getEmailAddress())
-					.withTemplate(request.getTemplateName())
-					.withTemplateData(mapTemplateData(request.getCommunicationCharacteristics()));
-			SendTemplatedEmailResult result = simpleEmailService.sendTemplatedEmail(emailRequest);
+			String messageId = callRouted(Channel.EMAIL, laneClassifier.classify(request), 
+					request.getSender().getEmailAddress(), 1, 
+					region -> withTemplate(region, template, () -> rawMessage != null 
+							? sendRawEmail(region, request, rawMessage) 
+							: sendTemplatedEmail(region, request, templateData)));
+			success = true;
+			stageMetrics.registerTemplate(Channel.EMAIL, template);
 			
 			CommunicationResponse response = new CommunicationResponse();
-			response.setMessageId(result.getMessageId());
+			response.setMessageId(messageId);
 			
 			return response;
 		} catch(TemplateDoesNotExistException e) {
 			throw new NotFoundException(StatusCodes.DATA_NOT_FOUND.getCode(), 
 					StatusCodes.DATA_NOT_FOUND.getReason(), Constants.TEMPLATE, request.getTemplateName());
+		} finally {
+			stageMetrics.record(Stage.AWS, Channel.EMAIL, template, success, start);
+		}
+		
+	}
+	
+	/**
+	 * Method to send the email as SES templated email, rendered by SES
+	 * 
+	 * @param region - AWS region to send in
+	 * @param request - Email Request
+	 * @param templateData - Template data of the request as JSON
+	 * @return String - Message id returned by SES
+	 */
+	private String sendTemplatedEmail(String region, EmailRequest request, String templateData) {
+		SendTemplatedEmailRequest emailRequest = new SendTemplatedEmailRequest()
+				.withDestination(new Destination().withToAddresses(request.getReceiver().getEmailAddress()))
+				.withSource(request.getSender().getEmailAddress())
+				.withTemplate(request.getTemplateName())
+				.withTemplateData(templateData);
+		SendTemplatedEmailResult result = sesClients.get(region).sendTemplatedEmail(emailRequest);
+		return result.getMessageId();
+	}
+	
+	/**
+	 * Method to send the locally rendered email as raw MIME message
+	 * 
+	 * @param region - AWS region to send in
+	 * @param request - Email Request
+	 * @param rawMessage - Rendered MIME message
+	 * @return String - Message id returned by SES
+	 */
+	private String sendRawEmail(String region, EmailRequest request, byte[] rawMessage) {
+		SendRawEmailRequest emailRequest = new SendRawEmailRequest()
+				.withSource(request.getSender().getEmailAddress())
+				.withDestinations(request.getReceiver().getEmailAddress())
+				.withRawMessage(new RawMessage(ByteBuffer.wrap(rawMessage)));
+		SendRawEmailResult result = sesClients.get(region).sendRawEmail(emailRequest);
+		return result.getMessageId();
+	}
+	
+	/**
+	 * Method to get the render mode of the request, defaulting to
+	 * the configured mode
+	 * 
+	 * @param request - Email Request
+	 * @return RenderMode - Render mode to be used
+	 */
+	private RenderMode resolveRenderMode(EmailRequest request) {
+		return request.getRenderMode() != null ? request.getRenderMode() : defaultRenderMode;
+	}
+	
+	/**
+	 * Method to render the email locally with the compiled template
+	 * and write it as MIME message
+	 * 
+	 * @param request - Email Request
+	 * @param compiledTemplate - Compiled template
+	 * @return byte[] - Rendered MIME message
+	 * @throws BadRequestException Thrown when an email address contains a line break
+	 */
+	private byte[] renderLocally(EmailRequest request, CompiledEmailTemplate compiledTemplate) 
+			throws BadRequestException {
+		validateHeaderValue(request.getSender().getEmailAddress(), Constants.SENDER_EMAIL_ADDRESS);
+		validateHeaderValue(request.getReceiver().getEmailAddress(), Constants.RECEIVER_EMAIL_ADDRESS);
+		
+		String[] values = compiledTemplate.bind(request.getCommunicationCharacteristics());
+		return MimeMessageWriter.write(request.getSender().getEmailAddress(), 
+				request.getReceiver().getEmailAddress(), 
+				compiledTemplate.renderSubject(values), 
+				compiledTemplate.renderText(values), 
+				compiledTemplate.renderHtml(values));
+	}
+	
+	/**
+	 * Method to validate that a value written to a message header
+	 * does not contain line breaks
+	 * 
+	 * @param value - Value to be validated
+	 * @param parameter - Name of the parameter
+	 * @throws BadRequestException Thrown when the value contains a line break
+	 */
+	private void validateHeaderValue(String value, String parameter) throws BadRequestException {
+		if(value.indexOf('\r') >= 0 || value.indexOf('\n') >= 0) {
+			throw new BadRequestException(StatusCodes.INVALID_VALUE_FOR_PARAM.getCode(), 
+					StatusCodes.INVALID_VALUE_FOR_PARAM.getReason(), parameter);
+		}
+	}
+	
+	/**
+	 * Method to send bulk email for given request. Email requests are grouped
+	 * by template and sender, and each group is sent to SES as
+	 * SendBulkTemplatedEmail calls of up to 50 destinations.
+	 * 
+	 * Failure of a single SES call (e.g. template not found, throttling or
+	 * a socket timeout) is reported against the destinations of that call
+	 * only, so that the caller can identify which destinations need to be
+	 * retried.
+	 * 
+	 * @param request - Bulk Email Request
+	 * @return BulkEmailResponse - Status of each destination, in the order
+	 * of the email requests
+	 * @throws BadRequestException Thrown when mandatory parameter is missing in request
+	 */
+	public BulkEmailResponse sendBulkEmail(BulkEmailRequest request) throws BadRequestException {
+		
+		LOGGER.debug("In sendBulkEmail method");
+		RequestValidator.validateSendBulkEmailRequest(request);
+		
+		List<EmailRequest> emailRequests = request.getEmailRequests();
+		BulkEmailResult[] results = new BulkEmailResult[emailRequests.size()];
+		
+		for(List<Integer> candidates : groupByTemplateAndSender(emailRequests).values()) {
+			List<Integer> group = checkSuppression(emailRequests, candidates, results);
+			if(group.isEmpty()) {
+				continue;
+			}
+			group = checkTemplate(emailRequests, group, results);
+			for(int from = 0; from < group.size(); from += Constants.BULK_EMAIL_MAX_DESTINATIONS) {
+				List<Integer> batch = group.subList(from, Math.min(group.size(), 
+						from + Constants.BULK_EMAIL_MAX_DESTINATIONS));
+				sendBulkEmailBatch(emailRequests, batch, results);
+			}
+		}
+		
+		BulkEmailResponse response = new BulkEmailResponse();
+		response.setResults(new ArrayList<>(Arrays.asList(results)));
+		return response;
+	}
+	
+	/**
+	 * Method to check the email requests of a group against the template
+	 * registry. Requests are marked as failed without calling SES when
+	 * the template does not exist or template data is missing.
+	 * 
+	 * @param emailRequests - List of email requests
+	 * @param group - Indexes of the email requests of the group
+	 * @param results - Results array to be populated
+	 * @return List<Integer> - Indexes of the email requests to be sent
+	 */
+	private List<Integer> checkTemplate(List<EmailRequest> emailRequests, List<Integer> group, 
+			BulkEmailResult[] results) {
+		if(!templateRegistry.isEnabled()) {
+			return group;
+		}
+		TemplateEntry entry = templateRegistry.lookup(emailRequests.get(group.get(0)).getTemplateName());
+		if(entry == null) {
+			return group;
 		}
 		
+		List<Integer> sendable = new ArrayList<>(group.size());
+		for(Integer index : group) {
+			EmailRequest emailRequest = emailRequests.get(index);
+			if(!entry.exists()) {
+				results[index] = mapBulkEmailResult(emailRequest, BulkEmailStatus.TemplateDoesNotExist.toString(), 
+						null, GenericUtils.formatErrorMessage(StatusCodes.DATA_NOT_FOUND.getReason(), Constants.TEMPLATE, 
+								emailRequest.getTemplateName()));
+				continue;
+			}
+			String missing = templateRegistry.missingPlaceholders(entry, emailRequest.getCommunicationCharacteristics());
+			if(missing != null) {
+				results[index] = mapBulkEmailResult(emailRequest, BulkEmailStatus.InvalidParameterValue.toString(), 
+						null, GenericUtils.formatErrorMessage(StatusCodes.MISSING_TEMPLATE_DATA.getReason(), missing));
+				continue;
+			}
+			sendable.add(index);
+		}
+		return sendable;
+	}
+	
+	/**
+	 * Method to mark the email requests of a group addressed to a suppressed
+	 * email address as rejected without calling SES
+	 * 
+	 * @param emailRequests - List of email requests
+	 * @param group - Indexes of the email requests of the group
+	 * @param results - Results array to be populated
+	 * @return List<Integer> - Indexes of the email requests to be sent
+	 */
+	private List<Integer> checkSuppression(List<EmailRequest> emailRequests, List<Integer> group, 
+			BulkEmailResult[] results) {
+		List<Integer> sendable = new ArrayList<>(group.size());
+		for(Integer index : group) {
+			EmailRequest emailRequest = emailRequests.get(index);
+			try {
+				suppressionService.checkEmail(emailRequest.getReceiver().getEmailAddress());
+				sendable.add(index);
+			} catch(BadRequestException e) {
+				results[index] = mapBulkEmailResult(emailRequest, BulkEmailStatus.MessageRejected.toString(), 
+						null, GenericUtils.formatErrorMessage(e.getReason(), e.getParameters()));
+			}
+		}
+		return sendable;
 	}
 	
 	/**
-	 * Method to map the template data provided for the 
-	 * request
+	 * Method to group the indexes of the email requests by template
+	 * name and sender email address, retaining the request order
 	 * 
-	 * @param characterisitics - List of template placeholders
-	 * @return String - JSON payload containing the template
-	 * data
+	 * @param emailRequests - List of email requests
+	 * @return Map<String, List<Integer>> - Indexes of email requests per group
 	 */
-	private String mapTemplateData(List<CommunicationCharacteristic> characterisitics) {
-		Map<String, String> templateDataMap = new HashMap<>();
-		for(CommunicationCharacteristic characteristic : characterisitics) {
-			templateDataMap.put(characteristic.getName(), characteristic.getValue());
+	private Map<String, List<Integer>> groupByTemplateAndSender(List<EmailRequest> emailRequests) {
+		Map<String, List<Integer>> groups = new LinkedHashMap<>();
+		for(int i = 0; i < emailRequests.size(); i++) {
+			EmailRequest emailRequest = emailRequests.get(i);
+			String key = emailRequest.getTemplateName() + '\u0000' + emailRequest.getSender().getEmailAddress();
+			groups.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
 		}
-		Gson gson = new Gson();
-		return gson.toJson(templateDataMap);
+		return groups;
+	}
+	
+	/**
+	 * Method to send one SendBulkTemplatedEmail call for the given batch of
+	 * email requests, all sharing same template and sender, and record the
+	 * status of each destination in the results
+	 * 
+	 * @param emailRequests - List of email requests
+	 * @param batch - Indexes of the email requests to be sent in this call
+	 * @param results - Results array to be populated
+	 */
+	private void sendBulkEmailBatch(List<EmailRequest> emailRequests, List<Integer> batch, 
+			BulkEmailResult[] results) {
+		
+		EmailRequest first = emailRequests.get(batch.get(0));
+		List<BulkEmailDestination> destinations = new ArrayList<>(batch.size());
+		for(Integer index : batch) {
+			EmailRequest emailRequest = emailRequests.get(index);
+			destinations.add(new BulkEmailDestination()
+					.withDestination(new Destination().withToAddresses(emailRequest.getReceiver().getEmailAddress()))
+					.withReplacementTemplateData(GenericUtils.mapTemplateData(emailRequest.getCommunicationCharacteristics())));
+		}
+		
+		SendBulkTemplatedEmailRequest bulkRequest = new SendBulkTemplatedEmailRequest()
+				.withSource(first.getSender().getEmailAddress())
+				.withTemplate(first.getTemplateName())
+				.withDefaultTemplateData(Constants.EMPTY_JSON_OBJECT)
+				.withDestinations(destinations);
+		
+		try {
+			SendBulkTemplatedEmailResult result = callRouted(Channel.EMAIL, laneClassifier.classify(first), 
+					first.getSender().getEmailAddress(), batch.size(), region -> withTemplate(region, first.getTemplateName(), 
+							() -> sesClients.get(region).sendBulkTemplatedEmail(bulkRequest)));
+			List<BulkEmailDestinationStatus> statuses = result.getStatus();
+			
+			for(int i = 0; i < batch.size(); i++) {
+				BulkEmailDestinationStatus status = i < statuses.size() ? statuses.get(i) : null;
+				results[batch.get(i)] = status == null 
+						? mapBulkEmailResult(emailRequests.get(batch.get(i)), BulkEmailStatus.Failed.toString(), null, null)
+						: mapBulkEmailResult(emailRequests.get(batch.get(i)), status.getStatus(), status.getMessageId(), 
+								status.getError());
+			}
+		} catch(TemplateDoesNotExistException e) {
+			LOGGER.debug("Template {} not found for bulk email", first.getTemplateName());
+			for(Integer index : batch) {
+				results[index] = mapBulkEmailResult(emailRequests.get(index), BulkEmailStatus.TemplateDoesNotExist
+						.toString(), null, e.getErrorMessage());
+			}
+		} catch(TooManyRequestsException e) {
+			String error = GenericUtils.formatErrorMessage(e.getReason(), e.getParameters());
+			for(Integer index : batch) {
+				results[index] = mapBulkEmailResult(emailRequests.get(index), BulkEmailStatus.AccountThrottled.toString(), 
+						null, error);
+			}
+		} catch(ServiceUnavailableException e) {
+			String error = GenericUtils.formatErrorMessage(e.getReason(), e.getParameters());
+			for(Integer index : batch) {
+				results[index] = mapBulkEmailResult(emailRequests.get(index), BulkEmailStatus.TransientFailure.toString(), 
+						null, error);
+			}
+		} catch(AmazonServiceException e) {
+			LOGGER.error("Bulk email call failed for template {}", first.getTemplateName(), e);
+			for(Integer index : batch) {
+				results[index] = mapBulkEmailResult(emailRequests.get(index), BulkEmailStatus.Failed.toString(), 
+						null, e.getErrorCode());
+			}
+		} catch(AmazonClientException e) {
+			LOGGER.error("Bulk email call failed on the client side for template {}", first.getTemplateName(), e);
+			for(Integer index : batch) {
+				results[index] = mapBulkEmailResult(emailRequests.get(index), BulkEmailStatus.TransientFailure.toString(), 
+						null, e.getMessage());
+			}
+		} catch(RuntimeException e) {
+			LOGGER.error("Bulk email call failed for template {}", first.getTemplateName(), e);
+			for(Integer index : batch) {
+				results[index] = mapBulkEmailResult(emailRequests.get(index), BulkEmailStatus.Failed.toString(), 
+						null, StatusCodes.INTERNAL_SERVER_ERROR.getReason());
+			}
+		}
+	}
+	
+	/**
+	 * Method to map the status of a single bulk email destination
+	 * 
+	 * @param emailRequest - Email request of the destination
+	 * @param status - Status returned by SES
+	 * @param messageId - Message id returned by SES
+	 * @param error - Error description, if any
+	 * @return BulkEmailResult - Mapped object
+	 */
+	private BulkEmailResult mapBulkEmailResult(EmailRequest emailRequest, String status, String messageId, 
+			String error) {
+		BulkEmailResult result = new BulkEmailResult();
+		result.setEmailAddress(emailRequest.getReceiver().getEmailAddress());
+		result.setTemplateName(emailRequest.getTemplateName());
+		result.setStatus(status);
+		result.setMessageId(messageId);
+		result.setError(error);
+		return result;
 	}
 	
 	/**
@@ -92,17 +478,41 @@ public class AwsCommunicationService {
 	 * @param request - SMS Request
 	 * @return CommunicationResponse - response
 	 * @throws BadRequestException 
+	 * @throws TooManyRequestsException Thrown when the send rate limit is exceeded
+	 * or the request is throttled by AWS
+	 * @throws ServiceUnavailableException Thrown when the circuit breaker of SNS is open
 	 */
-	public CommunicationResponse sendSMS(SMSRequest request) throws BadRequestException {
+	public CommunicationResponse sendSMS(SMSRequest request) throws BadRequestException, TooManyRequestsException, 
+			ServiceUnavailableException {
 		
-		RequestValidator.validateSendSMSRequest(request);
+		long start = System.nanoTime();
+		boolean success = false;
+		try {
+			RequestValidator.validateSendSMSRequest(request);
+			RequestValidator.validateSendNow(request.getSendAt());
+			success = true;
+		} finally {
+			stageMetrics.record(Stage.VALIDATION, Channel.SMS, SendStageMetrics.NO_TEMPLATE, success, start);
+		}
+		suppressionService.checkSMS(request.getReceiver().getPhoneNumber());
 		
+		start = System.nanoTime();
 		PublishRequest publishRequest = new PublishRequest();
 		publishRequest.setMessage(request.getMessage());
 		publishRequest.setMessageAttributes(mapSMSAttributes(request));
 		publishRequest.setPhoneNumber(request.getReceiver().getPhoneNumber());
+		stageMetrics.record(Stage.MAPPING, Channel.SMS, SendStageMetrics.NO_TEMPLATE, true, start);
 		
-		PublishResult result = snsClient.publish(publishRequest);
+		start = System.nanoTime();
+		success = false;
+		PublishResult result;
+		try {
+			result = callRouted(Channel.SMS, laneClassifier.classify(request), request.getSender().getSenderId(), 1, 
+					region -> snsClients.get(region).publish(publishRequest));
+			success = true;
+		} finally {
+			stageMetrics.record(Stage.AWS, Channel.SMS, SendStageMetrics.NO_TEMPLATE, success, start);
+		}
 		
 		CommunicationResponse response = new CommunicationResponse();
 		response.setMessageId(result.getMessageId());
@@ -111,12 +521,180 @@ public class AwsCommunicationService {
 	}
 	
 	/**
-	 * Method to map SMS attributes
+	 * Method to make an AWS call in the region chosen by the region router,
+	 * failing over to the next region on throttling and regional failures.
+	 * Permits are acquired from the rate limiter of the region sent to, the
+	 * best region with available permits being preferred.
+	 * 
+	 * @param <T> - Result type of the call
+	 * @param channel - Channel of the call
+	 * @param lane - Lane of the request
+	 * @param sender - Sender of the request
+	 * @param permits - Number of permits, i.e. number of destinations
+	 * @param call - AWS call against the client of a region
+	 * @return T - Result of the call
+	 * @throws TooManyRequestsException Thrown when the send rate limit is exceeded
+	 * or the call is throttled by AWS in every region tried
+	 * @throws ServiceUnavailableException Thrown when the circuit breaker of the
+	 * last region tried is open
+	 */
+	private <T> T callRouted(Channel channel, Lane lane, String sender, int permits, RegionalCall<T> call) 
+			throws TooManyRequestsException, ServiceUnavailableException {
+		List<String> regions = regionRouter.route(channel);
+		int index = acquireRegion(channel, lane, regions, sender, permits);
+		while(true) {
+			String region = regions.get(index);
+			long start = System.nanoTime();
+			RuntimeException regionFailure = null;
+			TooManyRequestsException throttledFailure = null;
+			ServiceUnavailableException unavailableFailure = null;
+			try {
+				T result = resilienceService.call(channel, region, () -> call.call(region));
+				regionRouter.onSuccess(channel, region, System.nanoTime() - start);
+				rateLimiter.onSuccess(channel, region);
+				return result;
+			} catch(ServiceUnavailableException e) {
+				regionRouter.onFailure(channel, region, System.nanoTime() - start);
+				unavailableFailure = e;
+			} catch(RuntimeException e) {
+				FailureType type = FailureType.classify(e);
+				if(type == FailureType.TRANSIENT) {
+					regionRouter.onFailure(channel, region, System.nanoTime() - start);
+					regionFailure = e;
+				} else if(type == FailureType.THROTTLED && e instanceof AmazonServiceException) {
+					regionRouter.onSuccess(channel, region, System.nanoTime() - start);
+					throttledFailure = throttled(channel, region, (AmazonServiceException) e);
+				} else {
+					regionRouter.onSuccess(channel, region, System.nanoTime() - start);
+					throw e;
+				}
+			}
+			int next = nextRegion(channel, lane, regions, index, sender, permits);
+			if(next < 0) {
+				if(regionFailure != null) {
+					throw regionFailure;
+				}
+				if(throttledFailure != null) {
+					throw throttledFailure;
+				}
+				throw unavailableFailure;
+			}
+			regionRouter.onFailover(channel, region);
+			index = next;
+		}
+	}
+	
+	/**
+	 * Method to acquire rate limiter permits in the best region having them
+	 * available, else waiting for the permits of the best region
+	 * 
+	 * @param channel - Channel of the call
+	 * @param lane - Lane of the request
+	 * @param regions - Regions, best first
+	 * @param sender - Sender of the request
+	 * @param permits - Number of permits
+	 * @return int - Index of the region the permits were acquired in
+	 * @throws TooManyRequestsException Thrown when the permits of the best region
+	 * are not available within the maximum wait time
+	 */
+	private int acquireRegion(Channel channel, Lane lane, List<String> regions, String sender, int permits) 
+			throws TooManyRequestsException {
+		if(regions.size() > 1) {
+			int index = nextRegion(channel, lane, regions, -1, sender, permits);
+			if(index >= 0) {
+				return index;
+			}
+		}
+		rateLimiter.acquire(channel, lane, regions.get(0), sender, permits);
+		return 0;
+	}
+	
+	/**
+	 * Method to find the next region after the given one with rate limiter
+	 * permits available right away, acquiring them
+	 * 
+	 * @param channel - Channel of the call
+	 * @param lane - Lane of the request
+	 * @param regions - Regions, best first
+	 * @param index - Index of the region to start after
+	 * @param sender - Sender of the request
+	 * @param permits - Number of permits
+	 * @return int - Index of the region the permits were acquired in, -1 if none
+	 */
+	private int nextRegion(Channel channel, Lane lane, List<String> regions, int index, String sender, 
+			int permits) {
+		for(int next = index + 1; next < regions.size(); next++) {
+			try {
+				rateLimiter.tryAcquire(channel, lane, regions.get(next), sender, permits);
+				return next;
+			} catch(TooManyRequestsException e) {
+				LOGGER.debug("No send permits available in {}", regions.get(next));
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * Method to make an SES call using the template, recording the template
+	 * as missing when SES reports so for the region
+	 * 
+	 * @param <T> - Result type of the call
+	 * @param region - AWS region of the call
+	 * @param templateName - Template name
+	 * @param call - SES call
+	 * @return T - Result of the call
+	 */
+	private <T> T withTemplate(String region, String templateName, Supplier<T> call) {
+		try {
+			return call.get();
+		} catch(TemplateDoesNotExistException e) {
+			templateRegistry.markMissing(templateName, region);
+			throw e;
+		}
+	}
+	
+	/**
+	 * AWS call made against the client of a region
+	 * 
+	 * @param <T> - Result type of the call
+	 */
+	@FunctionalInterface
+	private interface RegionalCall<T> {
+		
+		/**
+		 * @param region - AWS region to call
+		 * @return T - Result of the call
+		 */
+		T call(String region);
+	}
+	
+	/**
+	 * Method to map the AWS service exception of a send call. Throttling is
+	 * reported to the rate limiter and mapped to TooManyRequestsException,
+	 * any other exception is rethrown as is.
+	 * 
+	 * @param channel - Channel of the call
+	 * @param region - AWS region of the call
+	 * @param exception - Exception raised by the AWS client
+	 * @return TooManyRequestsException - Exception to be thrown on throttling
+	 */
+	private TooManyRequestsException throttled(Channel channel, String region, AmazonServiceException exception) {
+		if(!RetryUtils.isThrottlingException(exception)) {
+			throw exception;
+		}
+		rateLimiter.onThrottled(channel, region);
+		return new TooManyRequestsException(StatusCodes.AWS_THROTTLED.getCode(), StatusCodes.AWS_THROTTLED.getReason(), 
+				exception, channel.getService().toUpperCase());
+	}
+	
+	/**
+	 * Method to map SMS attributes. Package-private to be
+	 * benchmarked.
 	 * 
 	 * @param request - SMS Request
 	 * @return Map<String, MessageAttributeValue> - SMS Attributes
 	 */
-	private Map<String, MessageAttributeValue> mapSMSAttributes(SMSRequest request) {
+	Map<String, MessageAttributeValue> mapSMSAttributes(SMSRequest request) {
 		Map<String, MessageAttributeValue> smsAttributes = new HashMap<>();
 		
 		smsAttributes.put(Constants.AWS_SNS_SMS_SENDERID, create(request.getSender().getSenderId(), 
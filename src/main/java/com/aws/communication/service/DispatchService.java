@@ -0,0 +1,709 @@
+package com.aws.communication.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import com.aws.communication.config.LaneProperties;
+import com.aws.communication.exception.APIException;
+import com.aws.communication.exception.BadRequestException;
+import com.aws.communication.exception.NotFoundException;
+import com.aws.communication.exception.ServiceUnavailableException;
+import com.aws.communication.model.CommunicationResponse;
+import com.aws.communication.model.EmailRequest;
+import com.aws.communication.model.SMSRequest;
+import com.aws.communication.model.TrackingResponse;
+import com.aws.communication.service.outbox.Outbox;
+import com.aws.communication.service.outbox.OutboxEntry;
+import com.aws.communication.service.schedule.DeliveryScheduler;
+import com.aws.communication.utils.Constants;
+import com.aws.communication.utils.GenericUtils;
+import com.aws.communication.utils.RequestValidator;
+import com.aws.communication.utils.StatusCodes;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Service class to accept communication requests for asynchronous dispatch.
+ * 
+ * Accepted requests are placed on the bounded in-memory queue of their
+ * priority lane, and the lanes are drained by a dedicated pool of dispatcher
+ * threads into {@link AwsCommunicationService}. When the queue of a lane is
+ * full, the request is either rejected right away or the caller is blocked
+ * for a configured time, based on the overflow policy.
+ * 
+ * Dispatchers pick the next lane by smooth weighted round robin among the
+ * lanes having requests waiting, so that a promotional blast does not hold
+ * back transactional requests queued behind it, while promotional requests
+ * still progress. A lane may occupy at most its configured number of
+ * dispatcher threads, leaving the other threads to the other lanes.
+ * 
+ * Dispatcher threads are virtual threads when virtual thread mode is enabled,
+ * in which case the number of dispatcher threads can be raised cheaply.
+ * 
+ * When the outbox is enabled, a request is persisted to the {@link Outbox}
+ * before it is accepted and acknowledged once dispatched, and the requests
+ * not acknowledged before the last shutdown are queued again on startup.
+ * 
+ * A request with a sendAt in the future is held by the {@link DeliveryScheduler}
+ * until its time, then released into its lane at the configured release rate.
+ * When the outbox is enabled, scheduled requests are read back from it when
+ * released rather than kept in memory, and are scheduled again on startup.
+ *
+ */
+@Service
+public class DispatchService {
+	
+	private static final Logger LOGGER = LoggerFactory.getLogger(DispatchService.class);
+	
+	private static final byte EMAIL = 'E';
+	private static final byte SMS = 'S';
+	
+	/**
+	 * Behaviour of the dispatch queue when it is full
+	 */
+	public enum OverflowPolicy {
+		REJECT,
+		BLOCK
+	}
+	
+	@Autowired
+	private AwsCommunicationService communicationService;
+	
+	@Autowired
+	private MeterRegistry meterRegistry;
+	
+	@Autowired
+	private ObjectMapper objectMapper;
+	
+	@Autowired
+	private LaneClassifier laneClassifier;
+	
+	@Autowired
+	private LaneProperties laneProperties;
+	
+	@Autowired(required = false)
+	private Outbox outbox;
+	
+	@Autowired(required = false)
+	@Qualifier("dispatchThreadFactory")
+	private ThreadFactory dispatchThreadFactory;
+	
+	@Value("${dispatch.queue.capacity:10000}")
+	private int queueCapacity;
+	
+	@Value("${dispatch.queue.overflow-policy:REJECT}")
+	private OverflowPolicy overflowPolicy;
+	
+	@Value("${dispatch.queue.block-timeout-ms:1000}")
+	private long blockTimeoutMillis;
+	
+	@Value("${dispatch.threads:8}")
+	private int dispatcherThreads;
+	
+	@Value("${dispatch.tracking.max-entries:100000}")
+	private int maxTrackedEntries;
+	
+	@Value("${schedule.tick-ms:100}")
+	private long scheduleTickMillis;
+	
+	@Value("${schedule.release-rate:100}")
+	private double scheduleReleaseRate;
+	
+	@Value("${schedule.max-scheduled:5000000}")
+	private int maxScheduled;
+	
+	private final Map<String, DispatchTask> trackedTasks = new ConcurrentHashMap<>();
+	
+	private final Queue<String> completionOrder = new ConcurrentLinkedQueue<>();
+	
+	private final AtomicInteger completedCount = new AtomicInteger();
+	
+	private final Map<Lane, LaneQueue> lanes = new EnumMap<>(Lane.class);
+	
+	private final ReentrantLock schedulerLock = new ReentrantLock();
+	
+	private final Condition dispatchable = schedulerLock.newCondition();
+	
+	private ExecutorService dispatchers;
+	
+	private DeliveryScheduler<DispatchTask> scheduler;
+	
+	private Timer releaseDelayTimer;
+	
+	private volatile boolean running;
+	
+	/**
+	 * Method to create the lane queues, register their metrics
+	 * and start the dispatcher threads
+	 */
+	@PostConstruct
+	public void start() {
+		lanes.put(Lane.TRANSACTIONAL, createLane(Lane.TRANSACTIONAL, laneProperties.getTransactional()));
+		lanes.put(Lane.PROMOTIONAL, createLane(Lane.PROMOTIONAL, laneProperties.getPromotional()));
+		
+		running = true;
+		dispatchers = Executors.newFixedThreadPool(dispatcherThreads, dispatchThreadFactory != null 
+				? dispatchThreadFactory : new CustomizableThreadFactory("dispatcher-"));
+		for(int i = 0; i < dispatcherThreads; i++) {
+			dispatchers.execute(this::dispatchLoop);
+		}
+		
+		scheduler = new DeliveryScheduler<>(scheduleTickMillis, scheduleReleaseRate, maxScheduled, 
+				this::releaseScheduled, new CustomizableThreadFactory("dispatch-scheduler-"));
+		Gauge.builder("aws.communication.schedule.waiting", scheduler, DeliveryScheduler::getWaitingCount)
+				.description("Number of scheduled requests waiting for their time")
+				.register(meterRegistry);
+		Gauge.builder("aws.communication.schedule.due", scheduler, DeliveryScheduler::getDueCount)
+				.description("Number of scheduled requests whose time is reached, waiting to be released")
+				.register(meterRegistry);
+		releaseDelayTimer = Timer.builder("aws.communication.schedule.release.delay")
+				.description("Time from the sendAt of scheduled requests to their release into the dispatch queue")
+				.register(meterRegistry);
+		
+		if(outbox != null) {
+			replay();
+		}
+	}
+	
+	/**
+	 * Method to stop the dispatcher threads. Requests still waiting in the
+	 * queue are not dispatched, unless persisted to the outbox.
+	 */
+	@PreDestroy
+	public void stop() {
+		running = false;
+		int scheduled = scheduler.getWaitingCount() + scheduler.getDueCount();
+		scheduler.close();
+		if(scheduled > 0 && outbox == null) {
+			LOGGER.warn("{} scheduled requests were dropped on shutdown as the outbox is disabled", scheduled);
+		}
+		dispatchers.shutdownNow();
+		try {
+			dispatchers.awaitTermination(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		for(LaneQueue lane : lanes.values()) {
+			if(!lane.queue.isEmpty()) {
+				LOGGER.warn("{} {} requests were not dispatched before shutdown", lane.queue.size(), 
+						lane.lane.getTag());
+			}
+		}
+	}
+	
+	/**
+	 * Method to accept an email request for asynchronous dispatch
+	 * 
+	 * @param request - Email Request
+	 * @return TrackingResponse - Tracking details of the accepted request
+	 * @throws BadRequestException Thrown when mandatory parameter is missing in request
+	 * @throws ServiceUnavailableException Thrown when the dispatch queue is full
+	 * or the maximum number of scheduled requests is reached
+	 */
+	public TrackingResponse submitEmail(EmailRequest request) throws BadRequestException, 
+			ServiceUnavailableException {
+		RequestValidator.validateSendEmailRequest(request);
+		return enqueue(new DispatchTask(UUID.randomUUID().toString(), request, laneClassifier.classify(request)));
+	}
+	
+	/**
+	 * Method to accept an SMS request for asynchronous dispatch
+	 * 
+	 * @param request - SMS Request
+	 * @return TrackingResponse - Tracking details of the accepted request
+	 * @throws BadRequestException Thrown when mandatory parameter is missing in request
+	 * @throws ServiceUnavailableException Thrown when the dispatch queue is full
+	 * or the maximum number of scheduled requests is reached
+	 */
+	public TrackingResponse submitSMS(SMSRequest request) throws BadRequestException, 
+			ServiceUnavailableException {
+		RequestValidator.validateSendSMSRequest(request);
+		return enqueue(new DispatchTask(UUID.randomUUID().toString(), request, laneClassifier.classify(request)));
+	}
+	
+	/**
+	 * Method to retrieve the dispatch status for given tracking id
+	 * 
+	 * @param trackingId - Tracking id returned when the request was accepted
+	 * @return TrackingResponse - Current tracking details
+	 * @throws NotFoundException Thrown when tracking id is not known
+	 */
+	public TrackingResponse getStatus(String trackingId) throws NotFoundException {
+		DispatchTask task = trackedTasks.get(trackingId);
+		if(task == null) {
+			throw new NotFoundException(StatusCodes.DATA_NOT_FOUND.getCode(), 
+					StatusCodes.DATA_NOT_FOUND.getReason(), Constants.TRACKING_ID, trackingId);
+		}
+		return task.toTrackingResponse();
+	}
+	
+	/**
+	 * Method to place the task on the queue of its lane as per the
+	 * overflow policy
+	 * 
+	 * @param task - Task to be queued
+	 * @return TrackingResponse - Tracking details of the queued task
+	 * @throws ServiceUnavailableException Thrown when the dispatch queue is full
+	 * or the task cannot be persisted
+	 */
+	private TrackingResponse enqueue(DispatchTask task) throws ServiceUnavailableException {
+		if(outbox != null) {
+			persist(task);
+		}
+		if(task.isScheduled()) {
+			return schedule(task);
+		}
+		
+		LaneQueue lane = lanes.get(task.getLane());
+		boolean queued;
+		try {
+			queued = overflowPolicy == OverflowPolicy.BLOCK 
+					? lane.queue.offer(task, blockTimeoutMillis, TimeUnit.MILLISECONDS) 
+					: lane.queue.offer(task);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			queued = false;
+		}
+		
+		if(!queued) {
+			lane.rejectedCounter.increment();
+			acknowledge(task);
+			throw new ServiceUnavailableException(StatusCodes.DISPATCH_QUEUE_FULL.getCode(), 
+					StatusCodes.DISPATCH_QUEUE_FULL.getReason());
+		}
+		
+		track(task);
+		signalDispatchable();
+		return task.toTrackingResponse();
+	}
+	
+	/**
+	 * Method to hand the task to the scheduler until its time
+	 * 
+	 * @param task - Task scheduled for later
+	 * @return TrackingResponse - Tracking details of the scheduled task
+	 * @throws ServiceUnavailableException Thrown when the maximum number of
+	 * scheduled requests is reached
+	 */
+	private TrackingResponse schedule(DispatchTask task) throws ServiceUnavailableException {
+		task.scheduled(task.getOutboxSequence() >= 0);
+		if(!scheduler.schedule(task.getSendAtMillis(), task)) {
+			acknowledge(task);
+			throw new ServiceUnavailableException(StatusCodes.SCHEDULE_FULL.getCode(), 
+					StatusCodes.SCHEDULE_FULL.getReason());
+		}
+		track(task);
+		return task.toTrackingResponse();
+	}
+	
+	/**
+	 * Method called by the scheduler to release a due task into the queue
+	 * of its lane, reading its request back from the outbox if needed
+	 * 
+	 * @param task - Due task
+	 * @return boolean - false if the queue of the lane is full and the task
+	 * is to be released later
+	 */
+	private boolean releaseScheduled(DispatchTask task) {
+		LaneQueue lane = lanes.get(task.getLane());
+		if(lane.queue.remainingCapacity() == 0) {
+			return false;
+		}
+		if(task.isLoaded()) {
+			task.released(task.getEmailRequest(), task.getSmsRequest());
+		} else if(!load(task)) {
+			return true;
+		}
+		if(!lane.queue.offer(task)) {
+			return false;
+		}
+		releaseDelayTimer.record(Math.max(0, System.currentTimeMillis() - task.getSendAtMillis()), 
+				TimeUnit.MILLISECONDS);
+		signalDispatchable();
+		return true;
+	}
+	
+	/**
+	 * Method to read the request of a scheduled task back from the outbox,
+	 * failing the task when it cannot be read
+	 * 
+	 * @param task - Scheduled task persisted to the outbox
+	 * @return boolean - true if the request was read back
+	 */
+	private boolean load(DispatchTask task) {
+		OutboxEntry entry = outbox.read(task.getOutboxSequence());
+		try {
+			if(entry == null) {
+				throw new IOException("Outbox entry " + task.getOutboxSequence() + " is no longer pending");
+			}
+			if(entry.getKind() == EMAIL) {
+				task.released(objectMapper.readValue(entry.getPayload(), EmailRequest.class), null);
+			} else {
+				task.released(null, objectMapper.readValue(entry.getPayload(), SMSRequest.class));
+			}
+			return true;
+		} catch (IOException e) {
+			LOGGER.error("Unable to read back scheduled tracking id {} from the outbox", task.getTrackingId(), e);
+			task.failed(GenericUtils.mapErrorResponse(StatusCodes.INTERNAL_SERVER_ERROR.getCode(), 
+					StatusCodes.INTERNAL_SERVER_ERROR.getReason()));
+			acknowledge(task);
+			complete(task);
+			return false;
+		}
+	}
+	
+	/**
+	 * Method to persist the task to the outbox, returning once it is durable
+	 * 
+	 * @param task - Task to be persisted
+	 * @throws ServiceUnavailableException Thrown when the task cannot be persisted
+	 */
+	private void persist(DispatchTask task) throws ServiceUnavailableException {
+		try {
+			byte[] payload = task.getEmailRequest() != null 
+					? objectMapper.writeValueAsBytes(task.getEmailRequest()) 
+					: objectMapper.writeValueAsBytes(task.getSmsRequest());
+			task.setOutboxSequence(outbox.append(task.getEmailRequest() != null ? EMAIL : SMS, 
+					task.getTrackingId(), payload));
+		} catch (IOException e) {
+			LOGGER.error("Unable to persist tracking id {} to the outbox", task.getTrackingId(), e);
+			throw new ServiceUnavailableException(StatusCodes.OUTBOX_UNAVAILABLE.getCode(), 
+					StatusCodes.OUTBOX_UNAVAILABLE.getReason());
+		}
+	}
+	
+	/**
+	 * Method to acknowledge the outbox entry of the task, so that it is not
+	 * queued again on restart
+	 * 
+	 * @param task - Task dispatched or rejected
+	 */
+	private void acknowledge(DispatchTask task) {
+		if(task.getOutboxSequence() < 0) {
+			return;
+		}
+		try {
+			outbox.acknowledge(task.getOutboxSequence());
+		} catch (IOException e) {
+			LOGGER.error("Unable to acknowledge tracking id {} in the outbox", task.getTrackingId(), e);
+		}
+	}
+	
+	/**
+	 * Method to queue again the requests found in the outbox on startup,
+	 * blocking until all of them are queued. Requests whose time is not
+	 * reached yet are scheduled again.
+	 */
+	private void replay() {
+		int replayed = 0;
+		int scheduled = 0;
+		for(OutboxEntry entry : outbox.getRecoveredEntries()) {
+			DispatchTask task;
+			try {
+				if(entry.getKind() == EMAIL) {
+					EmailRequest request = objectMapper.readValue(entry.getPayload(), EmailRequest.class);
+					task = new DispatchTask(entry.getTrackingId(), request, laneClassifier.classify(request));
+				} else {
+					SMSRequest request = objectMapper.readValue(entry.getPayload(), SMSRequest.class);
+					task = new DispatchTask(entry.getTrackingId(), request, laneClassifier.classify(request));
+				}
+			} catch (IOException e) {
+				LOGGER.error("Dropping unreadable outbox entry for tracking id {}", entry.getTrackingId(), e);
+				try {
+					outbox.acknowledge(entry.getSequence());
+				} catch (IOException ex) {
+					LOGGER.error("Unable to acknowledge tracking id {} in the outbox", entry.getTrackingId(), ex);
+				}
+				continue;
+			}
+			task.setOutboxSequence(entry.getSequence());
+			if(task.isScheduled()) {
+				task.scheduled(true);
+				if(scheduler.schedule(task.getSendAtMillis(), task)) {
+					track(task);
+					scheduled++;
+					continue;
+				}
+				LOGGER.warn("Scheduler is full, queueing scheduled tracking id {} right away", task.getTrackingId());
+				if(!load(task)) {
+					continue;
+				}
+			}
+			track(task);
+			try {
+				lanes.get(task.getLane()).queue.put(task);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+			signalDispatchable();
+			replayed++;
+		}
+		if(replayed > 0 || scheduled > 0) {
+			LOGGER.info("Queued {} and scheduled {} requests from the outbox", replayed, scheduled);
+		}
+	}
+	
+	/**
+	 * Method to register the task for tracking. Tasks queued, scheduled or
+	 * being processed are always tracked, their number being bounded by the
+	 * queue capacities and the maximum number of scheduled requests.
+	 * 
+	 * @param task - Task to be tracked
+	 */
+	private void track(DispatchTask task) {
+		trackedTasks.put(task.getTrackingId(), task);
+	}
+	
+	/**
+	 * Method to record that the task reached its outcome. Once the number of
+	 * completed tasks exceeds the configured maximum, the tasks completed
+	 * first are no longer tracked.
+	 * 
+	 * @param task - Task sent or failed
+	 */
+	private void complete(DispatchTask task) {
+		completionOrder.add(task.getTrackingId());
+		completedCount.incrementAndGet();
+		
+		while(completedCount.get() > maxTrackedEntries) {
+			String oldest = completionOrder.poll();
+			if(oldest == null) {
+				break;
+			}
+			completedCount.decrementAndGet();
+			trackedTasks.remove(oldest);
+		}
+	}
+	
+	/**
+	 * Dispatcher thread loop which drains the lanes until the
+	 * service is stopped
+	 */
+	private void dispatchLoop() {
+		while(running) {
+			DispatchTask task;
+			try {
+				task = take();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			if(task != null) {
+				LaneQueue lane = lanes.get(task.getLane());
+				try {
+					dispatch(task, lane);
+				} finally {
+					release(lane);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Method to take the next task to be dispatched, waiting until a lane
+	 * has a task waiting and a dispatcher thread available to it
+	 * 
+	 * @return DispatchTask - Next task, null when the service is stopped
+	 * @throws InterruptedException Thrown when the dispatcher is interrupted
+	 */
+	private DispatchTask take() throws InterruptedException {
+		schedulerLock.lockInterruptibly();
+		try {
+			while(running) {
+				LaneQueue lane = selectLane();
+				if(lane != null) {
+					lane.activeThreads++;
+					return lane.queue.poll();
+				}
+				dispatchable.await(1, TimeUnit.SECONDS);
+			}
+			return null;
+		} finally {
+			schedulerLock.unlock();
+		}
+	}
+	
+	/**
+	 * Method to select the lane to take the next task from by smooth weighted
+	 * round robin, among the lanes having tasks waiting and a dispatcher
+	 * thread available to them. Called with the scheduler lock held.
+	 * 
+	 * @return LaneQueue - Selected lane, null if no lane can be dispatched
+	 */
+	private LaneQueue selectLane() {
+		LaneQueue selected = null;
+		int totalWeight = 0;
+		for(LaneQueue lane : lanes.values()) {
+			if(lane.queue.isEmpty() || lane.activeThreads >= lane.maxThreads) {
+				continue;
+			}
+			lane.currentWeight += lane.weight;
+			totalWeight += lane.weight;
+			if(selected == null || lane.currentWeight > selected.currentWeight) {
+				selected = lane;
+			}
+		}
+		if(selected != null) {
+			selected.currentWeight -= totalWeight;
+		}
+		return selected;
+	}
+	
+	/**
+	 * Method to give back the dispatcher thread occupied by the lane
+	 * 
+	 * @param lane - Lane of the dispatched task
+	 */
+	private void release(LaneQueue lane) {
+		schedulerLock.lock();
+		try {
+			lane.activeThreads--;
+			dispatchable.signal();
+		} finally {
+			schedulerLock.unlock();
+		}
+	}
+	
+	/**
+	 * Method to wake up a dispatcher waiting for a task
+	 */
+	private void signalDispatchable() {
+		schedulerLock.lock();
+		try {
+			dispatchable.signal();
+		} finally {
+			schedulerLock.unlock();
+		}
+	}
+	
+	/**
+	 * Method to create the queue of the lane and register its metrics
+	 * 
+	 * @param lane - Lane
+	 * @param settings - Settings of the lane
+	 * @return LaneQueue - Queue of the lane
+	 */
+	private LaneQueue createLane(Lane lane, LaneProperties.Settings settings) {
+		int capacity = settings.getQueueCapacity() > 0 ? settings.getQueueCapacity() : queueCapacity;
+		int maxThreads = settings.getMaxThreads() > 0 
+				? Math.min(settings.getMaxThreads(), dispatcherThreads) : dispatcherThreads;
+		LaneQueue laneQueue = new LaneQueue(lane, new ArrayBlockingQueue<>(capacity), 
+				Math.max(1, settings.getWeight()), maxThreads, TimeUnit.MILLISECONDS.toNanos(settings.getSloMs()));
+		
+		Gauge.builder("aws.communication.dispatch.queue.depth", laneQueue.queue, BlockingQueue::size)
+				.description("Number of requests waiting in the dispatch queue")
+				.tag("lane", lane.getTag())
+				.register(meterRegistry);
+		laneQueue.rejectedCounter = Counter.builder("aws.communication.dispatch.rejected")
+				.description("Number of requests rejected as the dispatch queue was full")
+				.tag("lane", lane.getTag())
+				.register(meterRegistry);
+		laneQueue.waitTimer = Timer.builder("aws.communication.dispatch.queue.wait")
+				.description("Time requests waited in the dispatch queue")
+				.tag("lane", lane.getTag())
+				.register(meterRegistry);
+		laneQueue.latencyTimer = Timer.builder("aws.communication.dispatch.latency")
+				.description("Time from acceptance of a request to its outcome")
+				.tag("lane", lane.getTag())
+				.serviceLevelObjectives(Duration.ofMillis(settings.getSloMs()))
+				.register(meterRegistry);
+		laneQueue.sloMissedCounter = Counter.builder("aws.communication.dispatch.slo.missed")
+				.description("Number of requests whose outcome took longer than the latency objective of the lane")
+				.tag("lane", lane.getTag())
+				.register(meterRegistry);
+		return laneQueue;
+	}
+	
+	/**
+	 * Method to send the request of the task and record the outcome
+	 * 
+	 * @param task - Task to be dispatched
+	 * @param lane - Lane of the task
+	 */
+	private void dispatch(DispatchTask task, LaneQueue lane) {
+		lane.waitTimer.record(System.nanoTime() - task.getAcceptedNanos(), TimeUnit.NANOSECONDS);
+		task.processing();
+		try {
+			CommunicationResponse response = task.getEmailRequest() != null 
+					? communicationService.sendEmail(task.getEmailRequest()) 
+					: communicationService.sendSMS(task.getSmsRequest());
+			task.sent(response.getMessageId());
+		} catch (APIException e) {
+			task.failed(GenericUtils.mapErrorResponse(e.getCode(), e.getReason(), e.getParameters()));
+		} catch (RuntimeException e) {
+			LOGGER.error("Dispatch failed for tracking id {}", task.getTrackingId(), e);
+			task.failed(GenericUtils.mapErrorResponse(StatusCodes.INTERNAL_SERVER_ERROR.getCode(), 
+					StatusCodes.INTERNAL_SERVER_ERROR.getReason()));
+		} finally {
+			acknowledge(task);
+			complete(task);
+			long latency = System.nanoTime() - task.getAcceptedNanos();
+			lane.latencyTimer.record(latency, TimeUnit.NANOSECONDS);
+			if(latency > lane.sloNanos) {
+				lane.sloMissedCounter.increment();
+			}
+		}
+	}
+	
+	/**
+	 * Queue of a priority lane along with its scheduling state and metrics.
+	 * The scheduling state is guarded by the scheduler lock.
+	 */
+	private static final class LaneQueue {
+		
+		private final Lane lane;
+		private final BlockingQueue<DispatchTask> queue;
+		private final int weight;
+		private final int maxThreads;
+		private final long sloNanos;
+		
+		private Counter rejectedCounter;
+		private Timer waitTimer;
+		private Timer latencyTimer;
+		private Counter sloMissedCounter;
+		
+		private int currentWeight;
+		private int activeThreads;
+		
+		private LaneQueue(Lane lane, BlockingQueue<DispatchTask> queue, int weight, int maxThreads, long sloNanos) {
+			this.lane = lane;
+			this.queue = queue;
+			this.weight = weight;
+			this.maxThreads = maxThreads;
+			this.sloNanos = sloNanos;
+		}
+	}
+
+}
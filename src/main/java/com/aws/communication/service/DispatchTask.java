@@ -0,0 +1,210 @@
+package com.aws.communication.service;
+
+import java.time.OffsetDateTime;
+
+import com.aws.communication.model.DispatchStatus;
+import com.aws.communication.model.EmailRequest;
+import com.aws.communication.model.ErrorResponse;
+import com.aws.communication.model.SMSRequest;
+import com.aws.communication.model.TrackingResponse;
+
+/**
+ * Communication request accepted for asynchronous dispatch along with its
+ * current dispatch state. State is updated by the dispatcher threads and
+ * read by the tracking API, thus the mutable fields are volatile.
+ * 
+ * A scheduled task persisted to the outbox does not hold its request while
+ * waiting for its time, the request being read back from the outbox when
+ * the task is due.
+ *
+ */
+class DispatchTask {
+	
+	private final String trackingId;
+	private final Lane lane;
+	private final long sendAtMillis;
+	
+	private volatile EmailRequest emailRequest;
+	private volatile SMSRequest smsRequest;
+	private volatile long acceptedNanos = System.nanoTime();
+	private volatile DispatchStatus status = DispatchStatus.QUEUED;
+	private volatile String messageId;
+	private volatile ErrorResponse error;
+	
+	private long outboxSequence = -1;
+	
+	/**
+	 * Constructor for DispatchTask of an email request
+	 * 
+	 * @param trackingId - Tracking id assigned to the request
+	 * @param emailRequest - Email request to be dispatched
+	 * @param lane - Lane the request is dispatched in
+	 */
+	DispatchTask(String trackingId, EmailRequest emailRequest, Lane lane) {
+		this.trackingId = trackingId;
+		this.emailRequest = emailRequest;
+		this.smsRequest = null;
+		this.lane = lane;
+		this.sendAtMillis = toMillis(emailRequest.getSendAt());
+	}
+	
+	/**
+	 * Constructor for DispatchTask of an SMS request
+	 * 
+	 * @param trackingId - Tracking id assigned to the request
+	 * @param smsRequest - SMS request to be dispatched
+	 * @param lane - Lane the request is dispatched in
+	 */
+	DispatchTask(String trackingId, SMSRequest smsRequest, Lane lane) {
+		this.trackingId = trackingId;
+		this.emailRequest = null;
+		this.smsRequest = smsRequest;
+		this.lane = lane;
+		this.sendAtMillis = toMillis(smsRequest.getSendAt());
+	}
+	
+	/**
+	 * @return the trackingId
+	 */
+	String getTrackingId() {
+		return trackingId;
+	}
+	
+	/**
+	 * @return the emailRequest, null for SMS tasks
+	 */
+	EmailRequest getEmailRequest() {
+		return emailRequest;
+	}
+	
+	/**
+	 * @return the smsRequest, null for email tasks
+	 */
+	SMSRequest getSmsRequest() {
+		return smsRequest;
+	}
+	
+	/**
+	 * @return the lane
+	 */
+	Lane getLane() {
+		return lane;
+	}
+	
+	/**
+	 * @return the time to send at in milliseconds since the epoch, 0 to send right away
+	 */
+	long getSendAtMillis() {
+		return sendAtMillis;
+	}
+	
+	/**
+	 * @return true if the task is scheduled for later than the current time
+	 */
+	boolean isScheduled() {
+		return sendAtMillis > System.currentTimeMillis();
+	}
+	
+	/**
+	 * @return true if the request is held by the task, false while waiting
+	 * for its time after being persisted
+	 */
+	boolean isLoaded() {
+		return emailRequest != null || smsRequest != null;
+	}
+	
+	/**
+	 * @return the time the task was accepted, or released by the scheduler,
+	 * as returned by System.nanoTime()
+	 */
+	long getAcceptedNanos() {
+		return acceptedNanos;
+	}
+	
+	/**
+	 * @return the sequence of the outbox entry, -1 when not persisted
+	 */
+	long getOutboxSequence() {
+		return outboxSequence;
+	}
+	
+	/**
+	 * @param outboxSequence the outboxSequence to set
+	 */
+	void setOutboxSequence(long outboxSequence) {
+		this.outboxSequence = outboxSequence;
+	}
+	
+	/**
+	 * Mark the task as waiting for its time, dropping the request when
+	 * it can be read back from the outbox
+	 * 
+	 * @param persisted - true if the request is persisted to the outbox
+	 */
+	void scheduled(boolean persisted) {
+		this.status = DispatchStatus.SCHEDULED;
+		if(persisted) {
+			this.emailRequest = null;
+			this.smsRequest = null;
+		}
+	}
+	
+	/**
+	 * Mark the scheduled task as released to the dispatch queue
+	 * 
+	 * @param emailRequest - Email request read back, null for SMS tasks
+	 * @param smsRequest - SMS request read back, null for email tasks
+	 */
+	void released(EmailRequest emailRequest, SMSRequest smsRequest) {
+		this.emailRequest = emailRequest;
+		this.smsRequest = smsRequest;
+		this.acceptedNanos = System.nanoTime();
+		this.status = DispatchStatus.QUEUED;
+	}
+	
+	/**
+	 * Mark the task as picked up by a dispatcher
+	 */
+	void processing() {
+		this.status = DispatchStatus.PROCESSING;
+	}
+	
+	/**
+	 * Mark the task as sent
+	 * 
+	 * @param messageId - Message id returned by AWS
+	 */
+	void sent(String messageId) {
+		this.messageId = messageId;
+		this.status = DispatchStatus.SENT;
+	}
+	
+	/**
+	 * Mark the task as failed
+	 * 
+	 * @param error - Error details of the failure
+	 */
+	void failed(ErrorResponse error) {
+		this.error = error;
+		this.status = DispatchStatus.FAILED;
+	}
+	
+	/**
+	 * Method to map the current state of the task to tracking response
+	 * 
+	 * @return TrackingResponse - Mapped object
+	 */
+	TrackingResponse toTrackingResponse() {
+		TrackingResponse response = new TrackingResponse();
+		response.setTrackingId(trackingId);
+		response.setStatus(status);
+		response.setMessageId(messageId);
+		response.setError(error);
+		return response;
+	}
+
+	private static long toMillis(OffsetDateTime sendAt) {
+		return sendAt != null ? sendAt.toInstant().toEpochMilli() : 0;
+	}
+	
+}
@@ -0,0 +1,346 @@
+package com.aws.communication.service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.aws.communication.exception.APIException;
+import com.aws.communication.exception.BadRequestException;
+import com.aws.communication.exception.InternalServerException;
+import com.aws.communication.exception.ServiceUnavailableException;
+import com.aws.communication.model.CommunicationResponse;
+import com.aws.communication.utils.Constants;
+import com.aws.communication.utils.StatusCodes;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Service class to de-duplicate send requests carrying an Idempotency-Key header.
+ *
+ * The response of the first request with a key is kept for the configured time
+ * along with a hash of its payload. A repeated request with the same key and
+ * payload gets the kept response without calling AWS, and a request arriving
+ * while the first one is still in flight waits for its outcome instead of
+ * sending again, for at most the configured wait time. Reusing a key with a different payload is rejected. Failed
+ * sends are not kept, so that the caller can retry them.
+ *
+ * The number of kept responses is bounded; once exceeded, the oldest are
+ * dropped first.
+ *
+ */
+@Service
+public class IdempotencyService {
+
+	private static final int MAX_KEY_LENGTH = 255;
+
+	/**
+	 * Blocking send of a request
+	 */
+	@FunctionalInterface
+	public interface SendOperation {
+
+		/**
+		 * @return CommunicationResponse - Response of the send
+		 * @throws APIException Thrown when the send fails
+		 */
+		CommunicationResponse send() throws APIException;
+	}
+
+	/**
+	 * Non-blocking send of a request
+	 */
+	@FunctionalInterface
+	public interface AsyncSendOperation {
+
+		/**
+		 * @return CompletableFuture<CommunicationResponse> - Response of the send
+		 * @throws APIException Thrown when the request is rejected before sending
+		 */
+		CompletableFuture<CommunicationResponse> send() throws APIException;
+	}
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${idempotency.enabled:true}")
+	private boolean enabled;
+
+	@Value("${idempotency.ttl-ms:86400000}")
+	private long ttlMillis;
+
+	@Value("${idempotency.max-entries:100000}")
+	private int maxEntries;
+
+	@Value("${idempotency.wait-timeout-ms:60000}")
+	private long waitTimeoutMillis;
+
+	private final Map<String, IdempotencyEntry> entries = new ConcurrentHashMap<>();
+
+	private final Deque<IdempotencyEntry> insertionOrder = new ConcurrentLinkedDeque<>();
+
+	private final AtomicInteger insertionOrderSize = new AtomicInteger();
+
+	private long ttlNanos;
+
+	private Counter hitCounter;
+
+	private Counter missCounter;
+
+	/**
+	 * Method to register the metrics of the cache
+	 */
+	@PostConstruct
+	public void init() {
+		ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+		Gauge.builder("aws.communication.idempotency.entries", entries, Map::size)
+				.description("Number of idempotency keys kept")
+				.register(meterRegistry);
+		hitCounter = Counter.builder("aws.communication.idempotency.hits")
+				.description("Number of requests answered from an earlier request with the same idempotency key")
+				.register(meterRegistry);
+		missCounter = Counter.builder("aws.communication.idempotency.misses")
+				.description("Number of requests sent for a new idempotency key")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Method to send the request unless a request with the same idempotency key
+	 * was already sent or is in flight
+	 *
+	 * @param scope - Scope of the key, so that the same key can be used per channel
+	 * @param idempotencyKey - Idempotency key of the request, may be null
+	 * @param request - Request, hashed to detect a key reused for a different request
+	 * @param operation - Send of the request
+	 * @return CommunicationResponse - Response of the send
+	 * @throws APIException Thrown when the key is invalid or the send fails
+	 */
+	public CommunicationResponse execute(String scope, String idempotencyKey, Object request,
+			SendOperation operation) throws APIException {
+		if(!enabled || idempotencyKey == null) {
+			return operation.send();
+		}
+		IdempotencyEntry entry = newEntry(scope, idempotencyKey, request);
+		IdempotencyEntry existing = claim(entry);
+		if(existing != null) {
+			return await(existing);
+		}
+		try {
+			CommunicationResponse response = operation.send();
+			entry.result.complete(response);
+			return response;
+		} catch (APIException | RuntimeException e) {
+			release(entry, e);
+			throw e;
+		}
+	}
+
+	/**
+	 * Method to send the request without blocking, unless a request with the same
+	 * idempotency key was already sent or is in flight
+	 *
+	 * @param scope - Scope of the key, so that the same key can be used per channel
+	 * @param idempotencyKey - Idempotency key of the request, may be null
+	 * @param request - Request, hashed to detect a key reused for a different request
+	 * @param operation - Send of the request
+	 * @return CompletableFuture<CommunicationResponse> - Response of the send
+	 * @throws APIException Thrown when the key is invalid or the request is rejected before sending
+	 */
+	public CompletableFuture<CommunicationResponse> executeAsync(String scope, String idempotencyKey,
+			Object request, AsyncSendOperation operation) throws APIException {
+		if(!enabled || idempotencyKey == null) {
+			return operation.send();
+		}
+		IdempotencyEntry entry = newEntry(scope, idempotencyKey, request);
+		IdempotencyEntry existing = claim(entry);
+		if(existing != null) {
+			return existing.result;
+		}
+		try {
+			operation.send().whenComplete((response, error) -> {
+				if(error != null) {
+					release(entry, error instanceof CompletionException && error.getCause() != null
+							? error.getCause() : error);
+				} else {
+					entry.result.complete(response);
+				}
+			});
+		} catch (APIException | RuntimeException e) {
+			release(entry, e);
+			throw e;
+		}
+		return entry.result;
+	}
+
+	/**
+	 * Method to create the entry for the request after validating its key
+	 *
+	 * @param scope - Scope of the key
+	 * @param idempotencyKey - Idempotency key of the request
+	 * @param request - Request
+	 * @return IdempotencyEntry - Entry of the request
+	 * @throws APIException Thrown when the key is invalid
+	 */
+	private IdempotencyEntry newEntry(String scope, String idempotencyKey, Object request) throws APIException {
+		if(idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+			throw new BadRequestException(StatusCodes.INVALID_VALUE_FOR_PARAM.getCode(),
+					StatusCodes.INVALID_VALUE_FOR_PARAM.getReason(), Constants.IDEMPOTENCY_KEY_HEADER);
+		}
+		return new IdempotencyEntry(scope + Constants.DOT + idempotencyKey, idempotencyKey, 
+				hash(request), System.nanoTime());
+	}
+
+	/**
+	 * Method to register the entry, unless an earlier request with the same
+	 * key is kept
+	 *
+	 * @param entry - Entry of the request
+	 * @return IdempotencyEntry - Entry of the earlier request, null when registered
+	 * @throws BadRequestException Thrown when the key was used for a different request
+	 */
+	private IdempotencyEntry claim(IdempotencyEntry entry) throws BadRequestException {
+		IdempotencyEntry existing;
+		while((existing = entries.putIfAbsent(entry.key, entry)) != null) {
+			if(existing.isExpired(entry.createdAtNanos, ttlNanos)) {
+				entries.remove(entry.key, existing);
+				continue;
+			}
+			if(!Arrays.equals(existing.payloadHash, entry.payloadHash)) {
+				throw new BadRequestException(StatusCodes.IDEMPOTENCY_KEY_REUSED.getCode(),
+						StatusCodes.IDEMPOTENCY_KEY_REUSED.getReason(), entry.idempotencyKey);
+			}
+			hitCounter.increment();
+			return existing;
+		}
+		missCounter.increment();
+		insertionOrder.add(entry);
+		insertionOrderSize.incrementAndGet();
+		evict(entry.createdAtNanos);
+		return null;
+	}
+
+	/**
+	 * Method to drop the entry of a failed send, passing the failure on to the
+	 * requests waiting for it
+	 *
+	 * @param entry - Entry of the failed send
+	 * @param error - Failure
+	 */
+	private void release(IdempotencyEntry entry, Throwable error) {
+		// the entry was added recently, so it is looked up from the newest end
+		if(entries.remove(entry.key, entry) && insertionOrder.removeLastOccurrence(entry)) {
+			insertionOrderSize.decrementAndGet();
+		}
+		entry.result.completeExceptionally(error);
+	}
+
+	/**
+	 * Method to drop the oldest entries while there are more than the configured
+	 * maximum or they are expired
+	 *
+	 * @param now - Current time in nanoseconds
+	 */
+	private void evict(long now) {
+		IdempotencyEntry oldest;
+		while((oldest = insertionOrder.peek()) != null
+				&& (insertionOrderSize.get() > maxEntries || oldest.isExpired(now, ttlNanos))) {
+			if(insertionOrder.removeFirstOccurrence(oldest)) {
+				insertionOrderSize.decrementAndGet();
+				entries.remove(oldest.key, oldest);
+			}
+		}
+	}
+
+	/**
+	 * Method to wait for the outcome of the earlier request with the same key
+	 *
+	 * @param entry - Entry of the earlier request
+	 * @return CommunicationResponse - Response of the earlier request
+	 * @throws APIException Thrown when the earlier request failed, or with
+	 * ServiceUnavailableException when it is still in flight after the wait time
+	 */
+	private CommunicationResponse await(IdempotencyEntry entry) throws APIException {
+		try {
+			return entry.result.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			throw new ServiceUnavailableException(StatusCodes.IDEMPOTENCY_KEY_IN_FLIGHT.getCode(),
+					StatusCodes.IDEMPOTENCY_KEY_IN_FLIGHT.getReason(), e, entry.idempotencyKey);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ServiceUnavailableException(StatusCodes.IDEMPOTENCY_KEY_IN_FLIGHT.getCode(),
+					StatusCodes.IDEMPOTENCY_KEY_IN_FLIGHT.getReason(), e, entry.idempotencyKey);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if(cause instanceof APIException) {
+				throw (APIException) cause;
+			}
+			if(cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new CompletionException(cause);
+		}
+	}
+
+	/**
+	 * Method to hash the JSON representation of the request
+	 *
+	 * @param request - Request
+	 * @return byte[] - SHA-256 hash
+	 * @throws InternalServerException Thrown when the request cannot be serialized
+	 */
+	private byte[] hash(Object request) throws InternalServerException {
+		try {
+			return MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+		} catch (JsonProcessingException | NoSuchAlgorithmException e) {
+			throw new InternalServerException(StatusCodes.INTERNAL_SERVER_ERROR.getCode(),
+					StatusCodes.INTERNAL_SERVER_ERROR.getReason(), e);
+		}
+	}
+
+	/**
+	 * Request kept for an idempotency key along with its outcome
+	 *
+	 */
+	private static final class IdempotencyEntry {
+
+		private final String key;
+		private final String idempotencyKey;
+		private final byte[] payloadHash;
+		private final long createdAtNanos;
+		private final CompletableFuture<CommunicationResponse> result = new CompletableFuture<>();
+
+		private IdempotencyEntry(String key, String idempotencyKey, byte[] payloadHash, long createdAtNanos) {
+			this.key = key;
+			this.idempotencyKey = idempotencyKey;
+			this.payloadHash = payloadHash;
+			this.createdAtNanos = createdAtNanos;
+		}
+
+		private boolean isExpired(long now, long ttlNanos) {
+			return now - createdAtNanos >= ttlNanos;
+		}
+	}
+
+}
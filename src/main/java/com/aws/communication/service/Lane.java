@@ -0,0 +1,25 @@
+package com.aws.communication.service;
+
+/**
+ * Priority lanes of the send traffic. Transactional traffic such as one
+ * time passwords is dispatched ahead of promotional traffic and has a share
+ * of the send rate reserved for it.
+ *
+ */
+public enum Lane {
+	TRANSACTIONAL("transactional"),
+	PROMOTIONAL("promotional");
+	
+	private final String tag;
+	
+	private Lane(String tag) {
+		this.tag = tag;
+	}
+	
+	/**
+	 * @return the tag of the lane used in metrics
+	 */
+	public String getTag() {
+		return tag;
+	}
+}
@@ -0,0 +1,65 @@
+package com.aws.communication.service;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.aws.communication.config.LaneProperties;
+import com.aws.communication.model.EmailRequest;
+import com.aws.communication.model.SMSRequest;
+import com.aws.communication.utils.Constants;
+
+/**
+ * Service class assigning the send requests to their priority lane
+ *
+ */
+@Service
+public class LaneClassifier {
+	
+	@Autowired
+	private LaneProperties properties;
+	
+	private Set<String> transactionalTemplates;
+	
+	/**
+	 * Method to load the transactional templates
+	 */
+	@PostConstruct
+	public void init() {
+		transactionalTemplates = new HashSet<>();
+		for(String template : properties.getTransactionalTemplates()) {
+			if(!template.trim().isEmpty()) {
+				transactionalTemplates.add(template.trim());
+			}
+		}
+	}
+	
+	/**
+	 * Method to get the lane of the email request, transactional when its
+	 * template is tagged as transactional
+	 * 
+	 * @param request - Email Request
+	 * @return Lane - Lane of the request
+	 */
+	public Lane classify(EmailRequest request) {
+		return request.getTemplateName() != null && transactionalTemplates.contains(request.getTemplateName()) 
+				? Lane.TRANSACTIONAL : Lane.PROMOTIONAL;
+	}
+	
+	/**
+	 * Method to get the lane of the SMS request, transactional when its
+	 * message type is Transactional
+	 * 
+	 * @param request - SMS Request
+	 * @return Lane - Lane of the request
+	 */
+	public Lane classify(SMSRequest request) {
+		return Constants.SMS_TYPE_TRANSACTIONAL.equalsIgnoreCase(request.getMessageType()) 
+				? Lane.TRANSACTIONAL : Lane.PROMOTIONAL;
+	}
+
+}
@@ -0,0 +1,233 @@
+package com.aws.communication.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.amazonaws.services.simpleemail.AmazonSimpleEmailService;
+import com.amazonaws.services.sns.AmazonSNS;
+import com.aws.communication.config.RegionalClients;
+import com.aws.communication.service.SendRateLimiter.Channel;
+import com.aws.communication.service.resilience.ResilienceService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Router choosing the AWS region of each SES and SNS call.
+ *
+ * The latency and error rate of the calls to each region are tracked as
+ * exponentially weighted moving averages, and the regions are ranked by their
+ * latency scaled up by their error rate. Regions whose circuit breaker is open
+ * are ranked last. A small share of the calls is sent to a random region, so
+ * that the averages of the regions not ranked first are kept up to date and
+ * a region which recovered is noticed.
+ *
+ * With a single region configured, the region is returned as is.
+ *
+ */
+@Service
+public class RegionRouter {
+
+	@Autowired
+	private RegionalClients<AmazonSimpleEmailService> sesClients;
+
+	@Autowired
+	private RegionalClients<AmazonSNS> snsClients;
+
+	@Autowired
+	private ResilienceService resilienceService;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${routing.ewma-alpha:0.2}")
+	private double ewmaAlpha;
+
+	@Value("${routing.error-penalty:10}")
+	private double errorPenalty;
+
+	@Value("${routing.probe-ratio:0.02}")
+	private double probeRatio;
+
+	@Value("${routing.failure-latency-ms:1000}")
+	private long failureLatencyMillis;
+
+	private final Map<Channel, List<RegionStats>> regionStats = new EnumMap<>(Channel.class);
+
+	/**
+	 * Method to create the statistics of the regions of each channel
+	 * and register their metrics
+	 */
+	@PostConstruct
+	public void init() {
+		regionStats.put(Channel.EMAIL, createStats(Channel.EMAIL, sesClients.getRegions()));
+		regionStats.put(Channel.SMS, createStats(Channel.SMS, snsClients.getRegions()));
+	}
+
+	/**
+	 * Method to rank the regions of the channel for a call, best first.
+	 * The call is sent to the first region and fails over to the next ones.
+	 *
+	 * @param channel - Channel of the call
+	 * @return List<String> - Regions of the channel, best first
+	 */
+	public List<String> route(Channel channel) {
+		List<RegionStats> stats = regionStats.get(channel);
+		if(stats.size() == 1) {
+			return Collections.singletonList(stats.get(0).region);
+		}
+		List<RegionStats> ranked = new ArrayList<>(stats);
+		ranked.sort((first, second) -> Double.compare(rank(channel, first), rank(channel, second)));
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		if(random.nextDouble() < probeRatio) {
+			Collections.swap(ranked, 0, 1 + random.nextInt(ranked.size() - 1));
+		}
+		List<String> regions = new ArrayList<>(ranked.size());
+		for(RegionStats regionStat : ranked) {
+			regions.add(regionStat.region);
+		}
+		return regions;
+	}
+
+	/**
+	 * Method to record a call answered by the region
+	 *
+	 * @param channel - Channel of the call
+	 * @param region - AWS region of the call
+	 * @param latencyNanos - Latency of the call
+	 */
+	public void onSuccess(Channel channel, String region, long latencyNanos) {
+		RegionStats stats = find(channel, region);
+		if(stats != null) {
+			stats.update(latencyNanos, 0);
+		}
+	}
+
+	/**
+	 * Method to record a call failed for a reason of the region. The failure
+	 * counts at least as the configured failure latency, so that a region
+	 * failing fast does not look fast.
+	 *
+	 * @param channel - Channel of the call
+	 * @param region - AWS region of the call
+	 * @param latencyNanos - Time until the call failed
+	 */
+	public void onFailure(Channel channel, String region, long latencyNanos) {
+		RegionStats stats = find(channel, region);
+		if(stats != null) {
+			stats.update(Math.max(latencyNanos, TimeUnit.MILLISECONDS.toNanos(failureLatencyMillis)), 1);
+		}
+	}
+
+	/**
+	 * Method to record a call failed over from the region to the next one
+	 *
+	 * @param channel - Channel of the call
+	 * @param region - AWS region failed over from
+	 */
+	public void onFailover(Channel channel, String region) {
+		RegionStats stats = find(channel, region);
+		if(stats != null) {
+			stats.failoverCounter.increment();
+		}
+	}
+
+	/**
+	 * Method to get the rank of the region, lower is better
+	 *
+	 * @param channel - Channel of the call
+	 * @param stats - Statistics of the region
+	 * @return double - Rank of the region
+	 */
+	private double rank(Channel channel, RegionStats stats) {
+		double score = stats.score(errorPenalty);
+		return resilienceService.isCallPermitted(channel, stats.region) ? score : Double.MAX_VALUE / 2 + score;
+	}
+
+	private RegionStats find(Channel channel, String region) {
+		for(RegionStats stats : regionStats.get(channel)) {
+			if(stats.region.equals(region)) {
+				return stats;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Method to create the statistics of the regions and register their metrics
+	 *
+	 * @param channel - Channel of the regions
+	 * @param regions - AWS regions
+	 * @return List<RegionStats> - Statistics of the regions
+	 */
+	private List<RegionStats> createStats(Channel channel, List<String> regions) {
+		List<RegionStats> stats = new ArrayList<>(regions.size());
+		for(String region : regions) {
+			RegionStats regionStat = new RegionStats(region, ewmaAlpha, Counter.builder("aws.communication.routing.failover")
+					.description("Calls failed over from the region to the next one")
+					.tags("channel", channel.name(), "region", region)
+					.register(meterRegistry));
+			Gauge.builder("aws.communication.routing.latency", regionStat, RegionStats::latencyMillis)
+					.description("Moving average of the latency of the calls to the region")
+					.tags("channel", channel.name(), "region", region)
+					.baseUnit("milliseconds")
+					.register(meterRegistry);
+			Gauge.builder("aws.communication.routing.error.rate", regionStat, RegionStats::errorRate)
+					.description("Moving average of the share of the calls to the region failing")
+					.tags("channel", channel.name(), "region", region)
+					.register(meterRegistry);
+			stats.add(regionStat);
+		}
+		return stats;
+	}
+
+	/**
+	 * Moving averages of the latency and error rate of a region
+	 */
+	private static final class RegionStats {
+
+		private final String region;
+		private final double alpha;
+		private final Counter failoverCounter;
+
+		private double latencyNanos;
+		private double errorRate;
+
+		private RegionStats(String region, double alpha, Counter failoverCounter) {
+			this.region = region;
+			this.alpha = alpha;
+			this.failoverCounter = failoverCounter;
+		}
+
+		private synchronized void update(long latency, int failed) {
+			// the first sample replaces the initial zero latency, which ranks untried regions first
+			latencyNanos = latencyNanos == 0 ? latency : latencyNanos + alpha * (latency - latencyNanos);
+			errorRate += alpha * (failed - errorRate);
+		}
+
+		private synchronized double score(double errorPenalty) {
+			return latencyNanos * (1 + errorPenalty * errorRate);
+		}
+
+		private synchronized double latencyMillis() {
+			return latencyNanos / TimeUnit.MILLISECONDS.toNanos(1);
+		}
+
+		private synchronized double errorRate() {
+			return errorRate;
+		}
+	}
+
+}
@@ -0,0 +1,372 @@
+package com.aws.communication.service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.aws.communication.config.SendRateLimitProperties;
+import com.aws.communication.exception.TooManyRequestsException;
+import com.aws.communication.utils.StatusCodes;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Client-side rate limiter placed in front of the SES and SNS calls, so
+ * that bursts are smoothed to the account quota instead of being
+ * throttled by AWS.
+ * 
+ * Every request acquires from the bucket of its channel and region and,
+ * when a limit is configured for its sender, from the bucket of the sender
+ * as well. In adaptive mode the region bucket backs off on throttling
+ * responses of AWS and slowly ramps back up to the configured rate.
+ * 
+ * Promotional requests also acquire from a promotional bucket of the region,
+ * limited to the region rate less the transactional reserve, so that
+ * promotional traffic cannot take the whole region rate and transactional
+ * requests always find capacity.
+ *
+ */
+@Service
+public class SendRateLimiter {
+	
+	private static final Logger LOGGER = LoggerFactory.getLogger(SendRateLimiter.class);
+	
+	/**
+	 * Channels being limited
+	 */
+	public enum Channel {
+		EMAIL("ses"),
+		SMS("sns");
+		
+		private final String service;
+		
+		private Channel(String service) {
+			this.service = service;
+		}
+		
+		/**
+		 * @return the AWS service of the channel
+		 */
+		public String getService() {
+			return service;
+		}
+	}
+	
+	@Autowired
+	private SendRateLimitProperties properties;
+	
+	@Autowired
+	private MeterRegistry meterRegistry;
+	
+	private final Map<Channel, Map<String, TokenBucket>> regionBuckets = new EnumMap<>(Channel.class);
+	
+	private final Map<Channel, Map<String, TokenBucket>> promotionalBuckets = new EnumMap<>(Channel.class);
+	
+	private final Map<String, TokenBucket> senderBuckets = new ConcurrentHashMap<>();
+	
+	private final Map<Channel, Timer[]> waitTimers = new EnumMap<>(Channel.class);
+	
+	private final Map<Channel, Counter> rejectedCounters = new EnumMap<>(Channel.class);
+	
+	private final Map<Channel, Counter> throttledCounters = new EnumMap<>(Channel.class);
+	
+	private long maxWaitNanos;
+	
+	private long holdNanos;
+	
+	/**
+	 * Method to register the limiter metrics of each channel
+	 */
+	@PostConstruct
+	public void init() {
+		maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(properties.getMaxWaitMs());
+		holdNanos = TimeUnit.MILLISECONDS.toNanos(properties.getAdaptive().getHoldMs());
+		
+		for(Channel channel : Channel.values()) {
+			regionBuckets.put(channel, new ConcurrentHashMap<>());
+			promotionalBuckets.put(channel, new ConcurrentHashMap<>());
+			Timer[] laneTimers = new Timer[Lane.values().length];
+			for(Lane lane : Lane.values()) {
+				laneTimers[lane.ordinal()] = Timer.builder("aws.communication.ratelimit.wait")
+						.description("Time requests waited for the send rate limiter")
+						.tag("channel", channel.name())
+						.tag("lane", lane.getTag())
+						.register(meterRegistry);
+			}
+			waitTimers.put(channel, laneTimers);
+			rejectedCounters.put(channel, Counter.builder("aws.communication.ratelimit.rejected")
+					.description("Requests rejected by the send rate limiter")
+					.tag("channel", channel.name())
+					.register(meterRegistry));
+			throttledCounters.put(channel, Counter.builder("aws.communication.ratelimit.throttled")
+					.description("Requests throttled by AWS")
+					.tag("channel", channel.name())
+					.register(meterRegistry));
+		}
+	}
+	
+	/**
+	 * Method to acquire permits for sending, waiting up to the configured
+	 * maximum wait time
+	 * 
+	 * @param channel - Channel of the request
+	 * @param lane - Lane of the request
+	 * @param region - AWS region the request is sent to
+	 * @param sender - Sender of the request
+	 * @param permits - Number of permits, i.e. number of destinations
+	 * @throws TooManyRequestsException Thrown when the permits are not available
+	 * within the maximum wait time
+	 */
+	public void acquire(Channel channel, Lane lane, String region, String sender, int permits) 
+			throws TooManyRequestsException {
+		acquire(channel, lane, region, sender, permits, maxWaitNanos);
+	}
+	
+	/**
+	 * Method to acquire permits for sending without waiting, for callers
+	 * that must not block
+	 * 
+	 * @param channel - Channel of the request
+	 * @param lane - Lane of the request
+	 * @param region - AWS region the request is sent to
+	 * @param sender - Sender of the request
+	 * @param permits - Number of permits, i.e. number of destinations
+	 * @throws TooManyRequestsException Thrown when the permits are not
+	 * available right away
+	 */
+	public void tryAcquire(Channel channel, Lane lane, String region, String sender, int permits) 
+			throws TooManyRequestsException {
+		acquire(channel, lane, region, sender, permits, 0);
+	}
+	
+	/**
+	 * Method to record a request that was accepted by AWS, ramping the
+	 * rate back up in adaptive mode
+	 * 
+	 * @param channel - Channel of the request
+	 * @param region - AWS region the request was sent to
+	 */
+	public void onSuccess(Channel channel, String region) {
+		if(!properties.isEnabled() || !properties.getAdaptive().isEnabled()) {
+			return;
+		}
+		TokenBucket bucket = regionBucket(channel, region);
+		bucket.increase(bucket.getConfiguredRate() * properties.getAdaptive().getIncreaseFraction(), holdNanos);
+		TokenBucket promotionalBucket = promotionalBucket(channel, region);
+		if(promotionalBucket != null) {
+			promotionalBucket.increase(promotionalBucket.getConfiguredRate() 
+					* properties.getAdaptive().getIncreaseFraction(), holdNanos);
+		}
+	}
+	
+	/**
+	 * Method to record a request that was throttled by AWS, backing off
+	 * the rate in adaptive mode
+	 * 
+	 * @param channel - Channel of the request
+	 * @param region - AWS region the request was sent to
+	 */
+	public void onThrottled(Channel channel, String region) {
+		throttledCounters.get(channel).increment();
+		if(!properties.isEnabled() || !properties.getAdaptive().isEnabled()) {
+			return;
+		}
+		TokenBucket bucket = regionBucket(channel, region);
+		if(bucket.decrease(properties.getAdaptive().getDecreaseFactor(), 
+				bucket.getConfiguredRate() * properties.getAdaptive().getMinRateFraction(), holdNanos)) {
+			LOGGER.warn("Throttled by AWS {} in {}, send rate lowered to {}/s", channel.getService(), region, 
+					bucket.getRate());
+		}
+		TokenBucket promotionalBucket = promotionalBucket(channel, region);
+		if(promotionalBucket != null) {
+			promotionalBucket.decrease(properties.getAdaptive().getDecreaseFactor(), promotionalBucket
+					.getConfiguredRate() * properties.getAdaptive().getMinRateFraction(), holdNanos);
+		}
+	}
+	
+	/**
+	 * Method to acquire permits from the region bucket, the sender bucket
+	 * and the promotional bucket, if any, and wait for them
+	 * 
+	 * @param channel - Channel of the request
+	 * @param lane - Lane of the request
+	 * @param region - AWS region the request is sent to
+	 * @param sender - Sender of the request
+	 * @param permits - Number of permits
+	 * @param maxWait - Maximum wait in nanoseconds
+	 * @throws TooManyRequestsException Thrown when the permits are not available
+	 * within the maximum wait time
+	 */
+	private void acquire(Channel channel, Lane lane, String region, String sender, int permits, long maxWait) 
+			throws TooManyRequestsException {
+		if(!properties.isEnabled()) {
+			return;
+		}
+		
+		long wait = 0;
+		TokenBucket senderBucket = senderBucket(channel, region, sender);
+		if(senderBucket != null) {
+			wait = senderBucket.reserve(permits, maxWait);
+			if(wait < 0) {
+				reject(channel, sender);
+			}
+		}
+		
+		// promotional requests wait for their promotional permits before reserving
+		// from the region bucket, so that their reservations do not run ahead of
+		// the promotional rate and fill the region bucket transactional requests need
+		long waited = 0;
+		TokenBucket promotionalBucket = lane == Lane.PROMOTIONAL ? promotionalBucket(channel, region) : null;
+		if(promotionalBucket != null) {
+			waited = promotionalBucket.reserve(permits, maxWait);
+			if(waited < 0) {
+				if(senderBucket != null) {
+					senderBucket.release(permits);
+				}
+				reject(channel, region);
+			}
+			if(waited > 0) {
+				park(waited);
+			}
+		}
+		
+		long regionWait = regionBucket(channel, region).reserve(permits, maxWait - waited);
+		if(regionWait < 0) {
+			if(senderBucket != null) {
+				senderBucket.release(permits);
+			}
+			if(promotionalBucket != null) {
+				promotionalBucket.release(permits);
+			}
+			reject(channel, region);
+		}
+		
+		wait = Math.max(wait - waited, regionWait);
+		if(wait > 0) {
+			park(wait);
+		}
+		waitTimers.get(channel)[lane.ordinal()].record(waited + Math.max(0, wait), TimeUnit.NANOSECONDS);
+	}
+	
+	/**
+	 * Method to record and raise a rejection
+	 * 
+	 * @param channel - Channel of the request
+	 * @param limit - Region or sender whose limit was exceeded
+	 * @throws TooManyRequestsException Always thrown
+	 */
+	private void reject(Channel channel, String limit) throws TooManyRequestsException {
+		rejectedCounters.get(channel).increment();
+		throw new TooManyRequestsException(StatusCodes.RATE_LIMIT_EXCEEDED.getCode(), 
+				StatusCodes.RATE_LIMIT_EXCEEDED.getReason(), limit);
+	}
+	
+	/**
+	 * Method to get the bucket of the region, creating it on first use
+	 * 
+	 * @param channel - Channel of the request
+	 * @param region - AWS region
+	 * @return TokenBucket - Bucket of the region
+	 */
+	private TokenBucket regionBucket(Channel channel, String region) {
+		Map<String, TokenBucket> buckets = regionBuckets.get(channel);
+		TokenBucket existing = buckets.get(region);
+		if(existing != null) {
+			return existing;
+		}
+		return buckets.computeIfAbsent(region, key -> {
+			SendRateLimitProperties.Limit limit = limit(channel);
+			TokenBucket bucket = new TokenBucket(limit.getRegionRate(region), limit.getBurst(), holdNanos);
+			Gauge.builder("aws.communication.ratelimit.rate", bucket, TokenBucket::getRate)
+					.description("Current send rate of the limiter in requests per second")
+					.tag("channel", channel.name())
+					.tag("region", region)
+					.register(meterRegistry);
+			return bucket;
+		});
+	}
+	
+	/**
+	 * Method to get the promotional bucket of the region, creating it on
+	 * first use
+	 * 
+	 * @param channel - Channel of the request
+	 * @param region - AWS region
+	 * @return TokenBucket - Promotional bucket of the region, null if no
+	 * capacity is reserved for transactional traffic
+	 */
+	private TokenBucket promotionalBucket(Channel channel, String region) {
+		if(properties.getTransactionalReserve() <= 0) {
+			return null;
+		}
+		Map<String, TokenBucket> buckets = promotionalBuckets.get(channel);
+		TokenBucket existing = buckets.get(region);
+		if(existing != null) {
+			return existing;
+		}
+		return buckets.computeIfAbsent(region, key -> {
+			SendRateLimitProperties.Limit limit = limit(channel);
+			double share = 1 - Math.min(properties.getTransactionalReserve(), 0.99);
+			return new TokenBucket(limit.getRegionRate(region) * share, 
+					Math.max(1, (int) (limit.getBurst() * share)), holdNanos);
+		});
+	}
+	
+	/**
+	 * Method to get the bucket of the sender, creating it on first use
+	 * 
+	 * @param channel - Channel of the request
+	 * @param region - AWS region
+	 * @param sender - Sender of the request
+	 * @return TokenBucket - Bucket of the sender, null if no limit is
+	 * configured for the sender
+	 */
+	private TokenBucket senderBucket(Channel channel, String region, String sender) {
+		SendRateLimitProperties.Limit limit = limit(channel);
+		if(sender == null || limit.getSenders().isEmpty()) {
+			return null;
+		}
+		Double rate = limit.getSenders().get(sender);
+		if(rate == null) {
+			return null;
+		}
+		return senderBuckets.computeIfAbsent(channel.getService() + '|' + region + '|' + sender, 
+				key -> new TokenBucket(rate, limit.getBurst(), holdNanos));
+	}
+	
+	/**
+	 * @param channel - Channel
+	 * @return SendRateLimitProperties.Limit - Limit of the channel
+	 */
+	private SendRateLimitProperties.Limit limit(Channel channel) {
+		return channel == Channel.EMAIL ? properties.getSes() : properties.getSns();
+	}
+	
+	/**
+	 * Method to wait for the given time, restoring the interrupt
+	 * status if interrupted
+	 * 
+	 * @param nanos - Time to wait in nanoseconds
+	 */
+	private static void park(long nanos) {
+		long deadline = System.nanoTime() + nanos;
+		long remaining = nanos;
+		while(remaining > 0 && !Thread.currentThread().isInterrupted()) {
+			LockSupport.parkNanos(remaining);
+			remaining = deadline - System.nanoTime();
+		}
+	}
+
+}
@@ -0,0 +1,259 @@
+package com.aws.communication.service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.aws.communication.service.SendRateLimiter.Channel;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Service class timing the stages of the send path, published as the
+ * aws.communication.send.stage timer tagged by stage, channel, template
+ * and outcome.
+ *
+ * The timers of a template are registered once the template is known to
+ * exist, confirmed by the template registry or by a successful send, and then
+ * looked up by template name, so that recording a stage does not allocate
+ * tags. Names not confirmed yet are recorded under the template "unknown", so
+ * that requests naming junk templates cannot use up the template slots. Once
+ * the configured number of templates is reached, further templates are
+ * recorded under the template "other". SMS have no template and are recorded
+ * under the template "none".
+ *
+ * The validation interceptor and JSON binding run before the template of the
+ * request is known. Their durations are kept per thread until the request body
+ * is bound, and recorded under the template "unknown" when binding fails.
+ *
+ */
+@Service
+public class SendStageMetrics {
+
+	public static final String NO_TEMPLATE = "none";
+	public static final String UNKNOWN_TEMPLATE = "unknown";
+	public static final String OTHER_TEMPLATE = "other";
+
+	private static final ThreadLocal<RequestClock> REQUEST_CLOCK = ThreadLocal.withInitial(RequestClock::new);
+
+	/**
+	 * Stages of the send path
+	 */
+	public enum Stage {
+		INTERCEPTOR("interceptor"),
+		BINDING("binding"),
+		VALIDATION("validation"),
+		MAPPING("mapping"),
+		AWS("aws");
+
+		private final String tag;
+
+		Stage(String tag) {
+			this.tag = tag;
+		}
+
+		/**
+		 * @return the tag of the stage
+		 */
+		public String getTag() {
+			return tag;
+		}
+	}
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${metrics.stage.max-templates:200}")
+	private int maxTemplates;
+
+	private final Map<Channel, Map<String, Timer[]>> timers = new EnumMap<>(Channel.class);
+
+	/**
+	 * Method to register the timers of the templates used by every channel
+	 */
+	@PostConstruct
+	public void init() {
+		for(Channel channel : Channel.values()) {
+			Map<String, Timer[]> channelTimers = new ConcurrentHashMap<>();
+			channelTimers.put(NO_TEMPLATE, register(channel, NO_TEMPLATE));
+			channelTimers.put(UNKNOWN_TEMPLATE, register(channel, UNKNOWN_TEMPLATE));
+			channelTimers.put(OTHER_TEMPLATE, register(channel, OTHER_TEMPLATE));
+			timers.put(channel, channelTimers);
+		}
+	}
+
+	/**
+	 * Method to record the duration of a stage
+	 *
+	 * @param stage - Stage of the send path
+	 * @param channel - Channel of the request
+	 * @param template - Template of the request, null if not known
+	 * @param success - true if the stage completed successfully
+	 * @param startNanos - Start of the stage, as returned by System.nanoTime()
+	 */
+	public void record(Stage stage, Channel channel, String template, boolean success, long startNanos) {
+		recordDuration(stage, channel, template, success, System.nanoTime() - startNanos);
+	}
+
+	/**
+	 * Method to register the timers of a template known to exist. Once the
+	 * configured number of templates is reached the template is mapped to
+	 * the timers of "other" instead.
+	 *
+	 * @param channel - Channel of the template
+	 * @param template - Template name
+	 */
+	public void registerTemplate(Channel channel, String template) {
+		Map<String, Timer[]> channelTimers = timers.get(channel);
+		if(template == null || channelTimers.containsKey(template)) {
+			return;
+		}
+		if(channelTimers.size() >= maxTemplates) {
+			channelTimers.putIfAbsent(template, channelTimers.get(OTHER_TEMPLATE));
+		} else {
+			channelTimers.computeIfAbsent(template, key -> register(channel, key));
+		}
+	}
+
+	/**
+	 * Method to keep the duration of the validation interceptor until the
+	 * request body is bound, called when the interceptor let the request through
+	 *
+	 * @param channel - Channel of the request
+	 * @param startNanos - Start of the interceptor
+	 */
+	public void onInterceptorCompleted(Channel channel, long startNanos) {
+		RequestClock clock = REQUEST_CLOCK.get();
+		clock.channel = channel;
+		clock.interceptorNanos = System.nanoTime() - startNanos;
+		clock.bindingStart = 0;
+		clock.pending = true;
+	}
+
+	/**
+	 * Method to record the duration of the validation interceptor rejecting
+	 * the request
+	 *
+	 * @param channel - Channel of the request
+	 * @param startNanos - Start of the interceptor
+	 */
+	public void onInterceptorFailed(Channel channel, long startNanos) {
+		REQUEST_CLOCK.get().pending = false;
+		record(Stage.INTERCEPTOR, channel, UNKNOWN_TEMPLATE, false, startNanos);
+	}
+
+	/**
+	 * Method to mark the start of the binding of the request body
+	 */
+	public void onBindingStarted() {
+		RequestClock clock = REQUEST_CLOCK.get();
+		if(clock.pending) {
+			clock.bindingStart = System.nanoTime();
+		}
+	}
+
+	/**
+	 * Method to record the durations of the validation interceptor and the
+	 * binding of the request body, once the template of the request is known
+	 *
+	 * @param template - Template of the bound request
+	 */
+	public void onBindingCompleted(String template) {
+		RequestClock clock = REQUEST_CLOCK.get();
+		if(clock.pending && clock.bindingStart != 0) {
+			clock.pending = false;
+			recordDuration(Stage.INTERCEPTOR, clock.channel, template, true, clock.interceptorNanos);
+			record(Stage.BINDING, clock.channel, template, true, clock.bindingStart);
+		}
+	}
+
+	/**
+	 * Method to record the durations kept for a request whose body was not
+	 * bound, called when the request completed
+	 */
+	public void onRequestCompleted() {
+		RequestClock clock = REQUEST_CLOCK.get();
+		if(clock.pending) {
+			clock.pending = false;
+			recordDuration(Stage.INTERCEPTOR, clock.channel, UNKNOWN_TEMPLATE, true, clock.interceptorNanos);
+			if(clock.bindingStart != 0) {
+				record(Stage.BINDING, clock.channel, UNKNOWN_TEMPLATE, false, clock.bindingStart);
+			}
+		}
+	}
+
+	/**
+	 * Method to record the duration of a stage
+	 *
+	 * @param stage - Stage of the send path
+	 * @param channel - Channel of the request
+	 * @param template - Template of the request, null if not known
+	 * @param success - true if the stage completed successfully
+	 * @param durationNanos - Duration of the stage
+	 */
+	private void recordDuration(Stage stage, Channel channel, String template, boolean success, long durationNanos) {
+		timers(channel, template)[stage.ordinal() * 2 + (success ? 0 : 1)].record(durationNanos, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Method to get the timers of the template, those of "unknown" when the
+	 * template is not registered
+	 *
+	 * @param channel - Channel of the request
+	 * @param template - Template of the request, null if not known
+	 * @return Timer[] - Timers of the template, per stage and outcome
+	 */
+	private Timer[] timers(Channel channel, String template) {
+		Map<String, Timer[]> channelTimers = timers.get(channel);
+		Timer[] templateTimers = template != null ? channelTimers.get(template) : null;
+		if(templateTimers != null) {
+			return templateTimers;
+		}
+		return channelTimers.get(UNKNOWN_TEMPLATE);
+	}
+
+	/**
+	 * Method to register the timers of the template
+	 *
+	 * @param channel - Channel of the request
+	 * @param template - Template of the request
+	 * @return Timer[] - Timers of the template, per stage and outcome
+	 */
+	private Timer[] register(Channel channel, String template) {
+		Stage[] stages = Stage.values();
+		Timer[] templateTimers = new Timer[stages.length * 2];
+		for(Stage stage : stages) {
+			templateTimers[stage.ordinal() * 2] = register(stage, channel, template, "success");
+			templateTimers[stage.ordinal() * 2 + 1] = register(stage, channel, template, "error");
+		}
+		return templateTimers;
+	}
+
+	private Timer register(Stage stage, Channel channel, String template, String outcome) {
+		return Timer.builder("aws.communication.send.stage")
+				.description("Time spent in a stage of the send path")
+				.tags("stage", stage.getTag(), "channel", channel.name(), "template", template, "outcome", outcome)
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Durations of the stages run before the template of the request is
+	 * known, kept per thread
+	 */
+	private static final class RequestClock {
+
+		private Channel channel;
+		private long interceptorNanos;
+		private long bindingStart;
+		private boolean pending;
+	}
+
+}
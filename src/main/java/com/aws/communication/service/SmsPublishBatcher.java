@@ -0,0 +1,301 @@
+package com.aws.communication.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import com.aws.communication.config.RegionalClients;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import software.amazon.awssdk.services.sns.SnsAsyncClient;
+import software.amazon.awssdk.services.sns.model.PublishRequest;
+import software.amazon.awssdk.services.sns.model.PublishResponse;
+
+/**
+ * Micro-batching stage in front of the non-blocking SNS SMS publishing.
+ *
+ * SMS publish requests are collected until either the batch is full or
+ * the batch window since the first request of the batch has elapsed. The
+ * batch is then published as pipelined calls of the asynchronous SNS client
+ * over its pooled connections, and the future of each caller is completed
+ * as its call finishes. SNS PublishBatch only supports topics, not phone
+ * numbers, thus each SMS is still one Publish call.
+ *
+ * Callers are never blocked: they get a future right away, and when the
+ * buffer is full the request is published immediately instead. Only the
+ * flusher thread waits, while the maximum number of calls is in flight.
+ *
+ */
+@Service
+@ConditionalOnProperty(name = {"aws.transport.async.enabled", "sms.batch.enabled"}, havingValue = "true")
+public class SmsPublishBatcher {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(SmsPublishBatcher.class);
+
+	@Autowired
+	private RegionalClients<SnsAsyncClient> snsAsyncClients;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${sms.batch.max-size:100}")
+	private int maxBatchSize;
+
+	@Value("${sms.batch.window-ms:5}")
+	private long windowMillis;
+
+	@Value("${sms.batch.max-in-flight:256}")
+	private int maxInFlight;
+
+	@Value("${sms.batch.queue-capacity:10000}")
+	private int queueCapacity;
+
+	private BlockingQueue<PendingPublish> queue;
+
+	private Semaphore inFlight;
+
+	private Thread flusher;
+
+	private long windowNanos;
+
+	private DistributionSummary batchSize;
+
+	private Timer flushLatency;
+
+	private DistributionSummary batchFailures;
+
+	private Counter overflowCounter;
+
+	private volatile boolean running;
+
+	/**
+	 * Publish request waiting in the batch buffer along with the
+	 * future of its caller
+	 */
+	private static class PendingPublish {
+
+		private final String region;
+		private final PublishRequest request;
+		private final CompletableFuture<PublishResponse> future = new CompletableFuture<>();
+		private final long enqueuedNanos = System.nanoTime();
+
+		private PendingPublish(String region, PublishRequest request) {
+			this.region = region;
+			this.request = request;
+		}
+	}
+
+	/**
+	 * Method to create the batch buffer, register the metrics and start
+	 * the flusher thread
+	 */
+	@PostConstruct
+	public void start() {
+		queue = new ArrayBlockingQueue<>(queueCapacity);
+		inFlight = new Semaphore(maxInFlight);
+		windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+
+		batchSize = DistributionSummary.builder("aws.communication.sms.batch.size")
+				.description("Number of SMS published per batch")
+				.register(meterRegistry);
+		flushLatency = Timer.builder("aws.communication.sms.batch.flush.latency")
+				.description("Time the first SMS of a batch waited in the buffer before the batch was flushed")
+				.register(meterRegistry);
+		batchFailures = DistributionSummary.builder("aws.communication.sms.batch.failures")
+				.description("Number of failed SMS publishes per batch")
+				.register(meterRegistry);
+		overflowCounter = Counter.builder("aws.communication.sms.batch.overflow")
+				.description("Number of SMS published right away as the batch buffer was full")
+				.register(meterRegistry);
+
+		running = true;
+		flusher = new CustomizableThreadFactory("sms-batch-flusher-").newThread(this::flushLoop);
+		flusher.setDaemon(true);
+		flusher.start();
+	}
+
+	/**
+	 * Method to stop the batcher. Requests already buffered are flushed
+	 * before the flusher thread ends.
+	 */
+	@PreDestroy
+	public void stop() {
+		running = false;
+		try {
+			flusher.join(TimeUnit.SECONDS.toMillis(5));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Method to submit an SMS publish request to the next batch
+	 *
+	 * @param region - AWS region to publish in
+	 * @param request - Publish request
+	 * @return CompletableFuture<PublishResponse> - Future completed with the
+	 * publish response, or exceptionally with the failure of the call
+	 */
+	public CompletableFuture<PublishResponse> publish(String region, PublishRequest request) {
+		PendingPublish pending = new PendingPublish(region, request);
+		if(!running || !queue.offer(pending)) {
+			overflowCounter.increment();
+			send(pending, null);
+		}
+		return pending.future;
+	}
+
+	/**
+	 * Flusher thread loop collecting the batches until the batcher
+	 * is stopped and the buffer is drained
+	 */
+	private void flushLoop() {
+		List<PendingPublish> batch = new ArrayList<>(maxBatchSize);
+		while(running || !queue.isEmpty()) {
+			try {
+				PendingPublish first = queue.poll(100, TimeUnit.MILLISECONDS);
+				if(first == null) {
+					continue;
+				}
+				batch.add(first);
+				collect(batch, first.enqueuedNanos + windowNanos);
+				flush(batch);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				fail(batch, e);
+				return;
+			} catch (RuntimeException e) {
+				LOGGER.error("SMS batch flush failed", e);
+				fail(batch, e);
+			} finally {
+				batch.clear();
+			}
+		}
+	}
+
+	/**
+	 * Method to complete the futures of the batch not completed yet
+	 * with the given exception
+	 *
+	 * @param batch - Batch that could not be flushed
+	 * @param exception - Cause of the failure
+	 */
+	private static void fail(List<PendingPublish> batch, Exception exception) {
+		for(PendingPublish pending : batch) {
+			pending.future.completeExceptionally(exception);
+		}
+	}
+
+	/**
+	 * Method to collect requests into the batch until the batch is full
+	 * or the batch window has elapsed
+	 *
+	 * @param batch - Batch holding at least the first request
+	 * @param deadline - End of the batch window
+	 * @throws InterruptedException Thrown when the flusher thread is interrupted
+	 */
+	private void collect(List<PendingPublish> batch, long deadline) throws InterruptedException {
+		while(batch.size() < maxBatchSize) {
+			queue.drainTo(batch, maxBatchSize - batch.size());
+			long remaining = deadline - System.nanoTime();
+			if(batch.size() >= maxBatchSize || remaining <= 0) {
+				return;
+			}
+			PendingPublish next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+			if(next == null) {
+				return;
+			}
+			batch.add(next);
+		}
+	}
+
+	/**
+	 * Method to publish the batch as pipelined asynchronous calls, the
+	 * future of each request being completed as its call finishes. Waits
+	 * while the maximum number of calls is in flight.
+	 *
+	 * @param batch - Requests to be published
+	 * @throws InterruptedException Thrown when the flusher thread is interrupted
+	 */
+	private void flush(List<PendingPublish> batch) throws InterruptedException {
+		batchSize.record(batch.size());
+		flushLatency.record(System.nanoTime() - batch.get(0).enqueuedNanos, TimeUnit.NANOSECONDS);
+
+		BatchOutcome outcome = new BatchOutcome(batch.size());
+		for(PendingPublish pending : batch) {
+			inFlight.acquire();
+			send(pending, outcome);
+		}
+	}
+
+	/**
+	 * Method to make the asynchronous publish call of a request
+	 *
+	 * @param pending - Request to be published
+	 * @param outcome - Outcome of the batch of the request, null when published
+	 * outside of a batch
+	 */
+	private void send(PendingPublish pending, BatchOutcome outcome) {
+		CompletableFuture<PublishResponse> call;
+		try {
+			call = snsAsyncClients.get(pending.region).publish(pending.request);
+		} catch (RuntimeException e) {
+			call = new CompletableFuture<>();
+			call.completeExceptionally(e);
+		}
+		call.whenComplete((response, error) -> {
+			if(outcome != null) {
+				inFlight.release();
+				outcome.completed(error != null);
+			}
+			if(error == null) {
+				pending.future.complete(response);
+			} else {
+				pending.future.completeExceptionally(error);
+			}
+		});
+	}
+
+	/**
+	 * Number of calls of a batch still in flight and failed, the failures
+	 * being recorded once the last call of the batch finished
+	 */
+	private final class BatchOutcome {
+
+		private final AtomicInteger remaining;
+		private final AtomicInteger failures = new AtomicInteger();
+
+		private BatchOutcome(int size) {
+			this.remaining = new AtomicInteger(size);
+		}
+
+		private void completed(boolean failed) {
+			if(failed) {
+				failures.incrementAndGet();
+			}
+			if(remaining.decrementAndGet() == 0) {
+				batchFailures.record(failures.get());
+			}
+		}
+	}
+
+}
@@ -0,0 +1,145 @@
+package com.aws.communication.service;
+
+import java.util.Collections;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.amazonaws.services.simpleemail.model.Template;
+import com.aws.communication.service.template.CompiledEmailTemplate;
+import com.aws.communication.service.template.TemplateCompileException;
+import com.aws.communication.utils.TemplatePlaceholderParser;
+
+/**
+ * Cached state of an SES template: either the template with its required
+ * placeholders, or the fact that the template does not exist. The template
+ * is compiled for local rendering on first use.
+ *
+ */
+class TemplateEntry {
+	
+	private static final Logger LOGGER = LoggerFactory.getLogger(TemplateEntry.class);
+	
+	private final String name;
+	private final Template template;
+	private final Set<String> placeholders;
+	private final long loadedAtNanos;
+	
+	private volatile CompiledEmailTemplate compiled;
+	private volatile boolean compileFailed;
+	
+	/**
+	 * Constructor for TemplateEntry
+	 * 
+	 * @param name - Template name
+	 * @param template - Template returned by SES, null if it does not exist
+	 */
+	private TemplateEntry(String name, Template template) {
+		this.name = name;
+		this.template = template;
+		this.placeholders = template == null ? Collections.emptySet() 
+				: Collections.unmodifiableSet(TemplatePlaceholderParser.requiredPlaceholders(
+						template.getSubjectPart(), template.getTextPart(), template.getHtmlPart()));
+		this.loadedAtNanos = System.nanoTime();
+	}
+	
+	/**
+	 * Method to create the entry of an existing template
+	 * 
+	 * @param name - Template name
+	 * @param template - Template returned by SES
+	 * @return TemplateEntry - Created entry
+	 */
+	static TemplateEntry found(String name, Template template) {
+		return new TemplateEntry(name, template);
+	}
+	
+	/**
+	 * Method to create the entry of a template that does not exist
+	 * 
+	 * @param name - Template name
+	 * @return TemplateEntry - Created entry
+	 */
+	static TemplateEntry missing(String name) {
+		return new TemplateEntry(name, null);
+	}
+	
+	/**
+	 * Method to check if the entry is younger than its time to live
+	 * 
+	 * @param ttlNanos - Time to live of an existing template
+	 * @param negativeTtlNanos - Time to live of a missing template
+	 * @return boolean - true if fresh
+	 */
+	boolean isFresh(long ttlNanos, long negativeTtlNanos) {
+		return getAgeNanos() < (exists() ? ttlNanos : negativeTtlNanos);
+	}
+	
+	/**
+	 * Method to get the template compiled for local rendering, compiling
+	 * it on first use. Concurrent first uses may compile more than once,
+	 * which is harmless as compiled templates are immutable.
+	 * 
+	 * @return CompiledEmailTemplate - Compiled template, null if the template
+	 * does not exist or cannot be rendered locally
+	 */
+	CompiledEmailTemplate getCompiledTemplate() {
+		CompiledEmailTemplate result = compiled;
+		if(result != null || compileFailed || template == null) {
+			return result;
+		}
+		try {
+			result = CompiledEmailTemplate.compile(template.getSubjectPart(), template.getTextPart(), 
+					template.getHtmlPart());
+			compiled = result;
+		} catch(TemplateCompileException e) {
+			LOGGER.info("Template {} cannot be rendered locally, SES rendering is used: {}", name, e.getMessage());
+			compileFailed = true;
+		}
+		return result;
+	}
+	
+	/**
+	 * @return the age of the entry
+	 */
+	long getAgeNanos() {
+		return System.nanoTime() - loadedAtNanos;
+	}
+	
+	/**
+	 * @return the time the entry was loaded at, in System.nanoTime()
+	 */
+	long getLoadedAtNanos() {
+		return loadedAtNanos;
+	}
+	
+	/**
+	 * @return true if the template exists
+	 */
+	boolean exists() {
+		return template != null;
+	}
+
+	/**
+	 * @return the name
+	 */
+	String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the template, null if it does not exist
+	 */
+	Template getTemplate() {
+		return template;
+	}
+
+	/**
+	 * @return the required placeholders
+	 */
+	Set<String> getPlaceholders() {
+		return placeholders;
+	}
+
+}
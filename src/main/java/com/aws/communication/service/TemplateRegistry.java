@@ -0,0 +1,435 @@
+package com.aws.communication.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.simpleemail.AmazonSimpleEmailService;
+import com.amazonaws.services.simpleemail.model.GetTemplateRequest;
+import com.amazonaws.services.simpleemail.model.ListTemplatesRequest;
+import com.amazonaws.services.simpleemail.model.ListTemplatesResult;
+import com.amazonaws.services.simpleemail.model.TemplateDoesNotExistException;
+import com.amazonaws.services.simpleemail.model.TemplateMetadata;
+import com.aws.communication.exception.BadRequestException;
+import com.aws.communication.exception.NotFoundException;
+import com.aws.communication.model.CommunicationCharacteristic;
+import com.aws.communication.model.EmailRequest;
+import com.aws.communication.service.SendRateLimiter.Channel;
+import com.aws.communication.service.resilience.ResilienceService;
+import com.aws.communication.service.template.CompiledEmailTemplate;
+import com.aws.communication.utils.Constants;
+import com.aws.communication.utils.StatusCodes;
+
+/**
+ * Registry caching the existence and the required placeholders of SES
+ * templates, so that unknown templates and missing template data are
+ * rejected before calling SES.
+ * 
+ * Templates are loaded with GetTemplate on first use and kept for the
+ * configured time to live; templates found missing are kept for a shorter
+ * time. A background refresh lists the templates of the account with
+ * ListTemplates to pick up deleted and created templates, and reloads the
+ * cached templates before they expire, oldest first and paced to the
+ * configured reload rate. When SES cannot be reached the template is treated
+ * as unknown and the send proceeds as usual; lookups are then skipped for a
+ * short time, and while the SES circuit breaker of the region is open, so
+ * that a failing region is not called once more for every send.
+ *
+ */
+@Service
+public class TemplateRegistry {
+	
+	private static final Logger LOGGER = LoggerFactory.getLogger(TemplateRegistry.class);
+	
+	private static final int LIST_TEMPLATES_PAGE_SIZE = 100;
+	
+	@Autowired
+	private AmazonSimpleEmailService simpleEmailService;
+	
+	@Autowired
+	private ResilienceService resilienceService;
+	
+	@Autowired
+	private SendStageMetrics stageMetrics;
+	
+	@Value("${ses.region}")
+	private String region;
+	
+	@Value("${template.cache.enabled:true}")
+	private boolean enabled;
+	
+	@Value("${template.cache.validate-placeholders:true}")
+	private boolean validatePlaceholders;
+	
+	@Value("${template.cache.ttl-ms:300000}")
+	private long ttlMillis;
+	
+	@Value("${template.cache.negative-ttl-ms:30000}")
+	private long negativeTtlMillis;
+	
+	@Value("${template.cache.unavailable-ttl-ms:5000}")
+	private long unavailableTtlMillis;
+	
+	@Value("${template.cache.refresh-ms:60000}")
+	private long refreshMillis;
+	
+	@Value("${template.cache.reload-rate:1}")
+	private double reloadRate;
+	
+	private volatile long unavailableUntilNanos = System.nanoTime();
+	
+	private final Map<String, TemplateEntry> entries = new ConcurrentHashMap<>();
+	
+	private final Map<String, CompletableFuture<TemplateEntry>> loading = new ConcurrentHashMap<>();
+	
+	/**
+	 * Method to validate the template and template data of the request,
+	 * loading the template from SES if not cached
+	 * 
+	 * @param request - Email Request
+	 * @throws NotFoundException Thrown when the template does not exist
+	 * @throws BadRequestException Thrown when data for a placeholder of the
+	 * template is missing
+	 */
+	public void validate(EmailRequest request) throws NotFoundException, BadRequestException {
+		if(enabled) {
+			validate(request, lookup(request.getTemplateName()));
+		}
+	}
+	
+	/**
+	 * Method to validate the template and template data of the request
+	 * against the cached template only, for callers that must not block
+	 * 
+	 * @param request - Email Request
+	 * @throws NotFoundException Thrown when the template does not exist
+	 * @throws BadRequestException Thrown when data for a placeholder of the
+	 * template is missing
+	 */
+	public void validateCached(EmailRequest request) throws NotFoundException, BadRequestException {
+		if(enabled) {
+			TemplateEntry entry = entries.get(request.getTemplateName());
+			if(entry != null && entry.isFresh(ttlNanos(), negativeTtlNanos())) {
+				validate(request, entry);
+			}
+		}
+	}
+	
+	/**
+	 * Method to record a template reported missing by SES on send. Only
+	 * the primary region the templates are cached for is recorded, as a
+	 * failover region may lack a template the primary region has.
+	 * 
+	 * @param templateName - Template name
+	 * @param sentRegion - AWS region that reported the template missing
+	 */
+	public void markMissing(String templateName, String sentRegion) {
+		if(enabled && region.trim().equals(sentRegion)) {
+			entries.put(templateName, TemplateEntry.missing(templateName));
+		}
+	}
+	
+	/**
+	 * Method to invalidate the cached state of a template
+	 * 
+	 * @param templateName - Template name
+	 */
+	public void invalidate(String templateName) {
+		entries.remove(templateName);
+	}
+	
+	/**
+	 * Method to invalidate the cached state of all templates
+	 */
+	public void invalidateAll() {
+		entries.clear();
+	}
+	
+	/**
+	 * Method to refresh the cached templates in the background. Templates
+	 * deleted or created since they were cached are updated from the
+	 * template list, and existing templates are reloaded once half of
+	 * their time to live has elapsed. Reloads are made oldest first at
+	 * the reload rate, for at most half of the refresh interval; the
+	 * templates left are reloaded by the next refresh.
+	 */
+	@Scheduled(initialDelayString = "${template.cache.refresh-ms:60000}", 
+			fixedDelayString = "${template.cache.refresh-ms:60000}")
+	public void refresh() {
+		if(!enabled || entries.isEmpty() || !isAvailable()) {
+			return;
+		}
+		
+		Set<String> templateNames;
+		try {
+			templateNames = listTemplateNames();
+		} catch(AmazonClientException e) {
+			LOGGER.warn("Unable to list SES templates, cached templates are not refreshed: {}", e.getMessage());
+			return;
+		}
+		
+		long reloadAgeNanos = ttlNanos() / 2;
+		List<TemplateEntry> aged = new ArrayList<>();
+		for(TemplateEntry entry : entries.values()) {
+			boolean listed = templateNames.contains(entry.getName());
+			if(entry.exists() && !listed) {
+				entries.put(entry.getName(), TemplateEntry.missing(entry.getName()));
+			} else if(!entry.exists() && listed) {
+				entries.remove(entry.getName(), entry);
+			} else if(entry.exists() && entry.getAgeNanos() >= reloadAgeNanos) {
+				aged.add(entry);
+			}
+		}
+		reload(aged);
+	}
+	
+	/**
+	 * Method to reload the aged templates, oldest first, one every reload
+	 * interval. Stops once half of the refresh interval has elapsed or SES
+	 * becomes unavailable.
+	 * 
+	 * @param aged - Templates to be reloaded
+	 */
+	private void reload(List<TemplateEntry> aged) {
+		aged.sort(Comparator.comparingLong(TemplateEntry::getLoadedAtNanos));
+		long intervalMillis = reloadRate > 0 ? (long) (1000 / reloadRate) : 0;
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(refreshMillis / 2);
+		for(int i = 0; i < aged.size(); i++) {
+			if(i > 0) {
+				if(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(intervalMillis) - deadline > 0) {
+					LOGGER.debug("{} aged templates left to the next refresh", aged.size() - i);
+					return;
+				}
+				try {
+					Thread.sleep(intervalMillis);
+				} catch(InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+			if(!isAvailable()) {
+				return;
+			}
+			load(aged.get(i).getName());
+		}
+	}
+	
+	/**
+	 * Method to get the state of the template, loading it from SES when
+	 * not cached or expired. While SES is unavailable the expired entry of
+	 * an existing template is used instead.
+	 * 
+	 * @param templateName - Template name
+	 * @return TemplateEntry - State of the template, null if unknown as
+	 * SES could not be reached
+	 */
+	TemplateEntry lookup(String templateName) {
+		TemplateEntry entry = entries.get(templateName);
+		if(entry != null && entry.isFresh(ttlNanos(), negativeTtlNanos())) {
+			return entry;
+		}
+		TemplateEntry loaded = isAvailable() ? load(templateName) : null;
+		if(loaded == null && entry != null && entry.exists()) {
+			return entry;
+		}
+		return loaded;
+	}
+	
+	/**
+	 * Method to get the template compiled for local rendering
+	 * 
+	 * @param templateName - Template name
+	 * @return CompiledEmailTemplate - Compiled template, null if the registry
+	 * is disabled, the template is unknown or cannot be rendered locally
+	 */
+	CompiledEmailTemplate compiledTemplate(String templateName) {
+		if(!enabled) {
+			return null;
+		}
+		TemplateEntry entry = lookup(templateName);
+		return entry == null ? null : entry.getCompiledTemplate();
+	}
+	
+	/**
+	 * Method to check if the registry is enabled
+	 * 
+	 * @return boolean - true if enabled
+	 */
+	boolean isEnabled() {
+		return enabled;
+	}
+	
+	/**
+	 * Method to check that data is provided for every required placeholder
+	 * of the template
+	 * 
+	 * @param entry - Template entry
+	 * @param characteristics - Template data of the request
+	 * @return String - Comma separated missing placeholders, null if none
+	 */
+	String missingPlaceholders(TemplateEntry entry, List<CommunicationCharacteristic> characteristics) {
+		if(!validatePlaceholders || entry.getPlaceholders().isEmpty()) {
+			return null;
+		}
+		StringBuilder missing = null;
+		for(String placeholder : entry.getPlaceholders()) {
+			if(!hasCharacteristic(characteristics, placeholder)) {
+				missing = missing == null ? new StringBuilder(placeholder) 
+						: missing.append(Constants.COMMA).append(placeholder);
+			}
+		}
+		return missing == null ? null : missing.toString();
+	}
+	
+	/**
+	 * Method to validate the request against the template entry
+	 * 
+	 * @param request - Email Request
+	 * @param entry - Template entry, null if unknown
+	 * @throws NotFoundException Thrown when the template does not exist
+	 * @throws BadRequestException Thrown when data for a placeholder of the
+	 * template is missing
+	 */
+	private void validate(EmailRequest request, TemplateEntry entry) throws NotFoundException, BadRequestException {
+		if(entry == null) {
+			return;
+		}
+		if(!entry.exists()) {
+			throw new NotFoundException(StatusCodes.DATA_NOT_FOUND.getCode(), 
+					StatusCodes.DATA_NOT_FOUND.getReason(), Constants.TEMPLATE, request.getTemplateName());
+		}
+		String missing = missingPlaceholders(entry, request.getCommunicationCharacteristics());
+		if(missing != null) {
+			throw new BadRequestException(StatusCodes.MISSING_TEMPLATE_DATA.getCode(), 
+					StatusCodes.MISSING_TEMPLATE_DATA.getReason(), missing);
+		}
+	}
+	
+	/**
+	 * Method to load the template from SES. Concurrent loads of the same
+	 * template share a single GetTemplate call.
+	 * 
+	 * @param templateName - Template name
+	 * @return TemplateEntry - Loaded entry, null if SES could not be reached
+	 */
+	private TemplateEntry load(String templateName) {
+		CompletableFuture<TemplateEntry> future = new CompletableFuture<>();
+		CompletableFuture<TemplateEntry> inProgress = loading.putIfAbsent(templateName, future);
+		if(inProgress != null) {
+			return inProgress.join();
+		}
+		
+		TemplateEntry entry = null;
+		try {
+			entry = fetch(templateName);
+			if(entry != null) {
+				entries.put(templateName, entry);
+				if(entry.exists()) {
+					stageMetrics.registerTemplate(Channel.EMAIL, templateName);
+				}
+			}
+		} finally {
+			loading.remove(templateName, future);
+			future.complete(entry);
+		}
+		return entry;
+	}
+	
+	/**
+	 * Method to fetch the template from SES
+	 * 
+	 * @param templateName - Template name
+	 * @return TemplateEntry - Fetched entry, null if SES could not be reached
+	 */
+	private TemplateEntry fetch(String templateName) {
+		try {
+			return TemplateEntry.found(templateName, simpleEmailService.getTemplate(new GetTemplateRequest()
+					.withTemplateName(templateName)).getTemplate());
+		} catch(TemplateDoesNotExistException e) {
+			return TemplateEntry.missing(templateName);
+		} catch(AmazonClientException e) {
+			LOGGER.warn("Unable to load SES template {}, skipping template lookups for {} ms: {}", templateName, 
+					unavailableTtlMillis, e.getMessage());
+			unavailableUntilNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(unavailableTtlMillis);
+			return null;
+		}
+	}
+	
+	/**
+	 * Method to check if SES may be called for templates, i.e. no lookup
+	 * failed recently and the circuit breaker of the region is closed
+	 * 
+	 * @return boolean - true if SES may be called
+	 */
+	private boolean isAvailable() {
+		return System.nanoTime() - unavailableUntilNanos >= 0 
+				&& resilienceService.isCallPermitted(Channel.EMAIL, region.trim());
+	}
+	
+	/**
+	 * Method to list the names of all templates of the account
+	 * 
+	 * @return Set<String> - Template names
+	 */
+	private Set<String> listTemplateNames() {
+		Set<String> templateNames = new HashSet<>();
+		String nextToken = null;
+		do {
+			ListTemplatesResult result = simpleEmailService.listTemplates(new ListTemplatesRequest()
+					.withMaxItems(LIST_TEMPLATES_PAGE_SIZE)
+					.withNextToken(nextToken));
+			for(TemplateMetadata metadata : result.getTemplatesMetadata()) {
+				templateNames.add(metadata.getName());
+			}
+			nextToken = result.getNextToken();
+		} while(nextToken != null);
+		return templateNames;
+	}
+	
+	/**
+	 * Method to check if the template data contains the given name
+	 * 
+	 * @param characteristics - Template data
+	 * @param name - Placeholder name
+	 * @return boolean - true if present
+	 */
+	private static boolean hasCharacteristic(List<CommunicationCharacteristic> characteristics, String name) {
+		if(characteristics != null) {
+			for(CommunicationCharacteristic characteristic : characteristics) {
+				if(name.equals(characteristic.getName())) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * @return the time to live of an existing template
+	 */
+	private long ttlNanos() {
+		return TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+	}
+	
+	/**
+	 * @return the time to live of a missing template
+	 */
+	private long negativeTtlNanos() {
+		return TimeUnit.MILLISECONDS.toNanos(negativeTtlMillis);
+	}
+
+}
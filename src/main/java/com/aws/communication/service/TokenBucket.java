@@ -0,0 +1,169 @@
+package com.aws.communication.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Lock-free token bucket, implemented as a generic cell rate algorithm.
+ * 
+ * Instead of a token count the bucket keeps the theoretical arrival time
+ * of the next request, which is advanced by one emission interval per
+ * permit with a single compare-and-set. A request may be admitted while
+ * the theoretical arrival time is at most burst - 1 intervals ahead of now,
+ * otherwise it has to wait for the difference. Permits are reserved up
+ * front, so a large request is admitted and delays the ones after it.
+ * 
+ * The rate can be lowered on throttling and ramped back up to the
+ * configured rate (additive increase, multiplicative decrease), with at
+ * most one adjustment per hold period.
+ *
+ */
+class TokenBucket {
+	
+	private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+	
+	private final double configuredRate;
+	
+	private final int burst;
+	
+	private final AtomicLong rateBits;
+	
+	private final AtomicLong theoreticalArrival;
+	
+	private final AtomicLong lastAdjustment;
+	
+	/**
+	 * Constructor for TokenBucket
+	 * 
+	 * @param rate - Permits per second
+	 * @param burst - Permits that can be acquired at once
+	 * @param holdNanos - Minimum time between two rate adjustments
+	 */
+	TokenBucket(double rate, int burst, long holdNanos) {
+		if(rate <= 0) {
+			throw new IllegalArgumentException("Rate must be positive: " + rate);
+		}
+		long now = System.nanoTime();
+		this.configuredRate = rate;
+		this.burst = Math.max(1, burst);
+		this.rateBits = new AtomicLong(Double.doubleToRawLongBits(rate));
+		this.theoreticalArrival = new AtomicLong(now);
+		this.lastAdjustment = new AtomicLong(now - holdNanos);
+	}
+	
+	/**
+	 * Method to reserve permits
+	 * 
+	 * @param permits - Number of permits
+	 * @param maxWaitNanos - Maximum time the caller is willing to wait
+	 * @return long - Time in nanoseconds the caller has to wait before
+	 * using the permits, or -1 if the wait would exceed the maximum and
+	 * nothing was reserved
+	 */
+	long reserve(int permits, long maxWaitNanos) {
+		long interval = intervalNanos();
+		long tolerance = interval * (burst - 1);
+		long now = System.nanoTime();
+		
+		while(true) {
+			long arrival = theoreticalArrival.get();
+			long wait = arrival - now - tolerance;
+			if(wait > maxWaitNanos) {
+				return -1;
+			}
+			long next = (arrival - now > 0 ? arrival : now) + interval * permits;
+			if(theoreticalArrival.compareAndSet(arrival, next)) {
+				return Math.max(0, wait);
+			}
+		}
+	}
+	
+	/**
+	 * Method to give back permits reserved but not used
+	 * 
+	 * @param permits - Number of permits
+	 */
+	void release(int permits) {
+		theoreticalArrival.addAndGet(-intervalNanos() * permits);
+	}
+	
+	/**
+	 * Method to lower the rate after a throttling response
+	 * 
+	 * @param factor - Factor the rate is multiplied with
+	 * @param minRate - Rate not to go below
+	 * @param holdNanos - Minimum time since the previous adjustment
+	 * @return boolean - true if the rate was lowered
+	 */
+	boolean decrease(double factor, double minRate, long holdNanos) {
+		if(!claimAdjustment(holdNanos)) {
+			return false;
+		}
+		updateRate(rate -> Math.max(minRate, rate * factor));
+		return true;
+	}
+	
+	/**
+	 * Method to ramp the rate back up towards the configured rate after
+	 * a successful request
+	 * 
+	 * @param step - Rate to be added
+	 * @param holdNanos - Minimum time since the previous adjustment
+	 */
+	void increase(double step, long holdNanos) {
+		if(getRate() >= configuredRate || !claimAdjustment(holdNanos)) {
+			return;
+		}
+		updateRate(rate -> Math.min(configuredRate, rate + step));
+	}
+	
+	/**
+	 * @return the current rate
+	 */
+	double getRate() {
+		return Double.longBitsToDouble(rateBits.get());
+	}
+	
+	/**
+	 * @return the configured rate
+	 */
+	double getConfiguredRate() {
+		return configuredRate;
+	}
+	
+	/**
+	 * Method to claim the right to adjust the rate, allowing
+	 * one adjustment per hold period
+	 * 
+	 * @param holdNanos - Hold period
+	 * @return boolean - true if claimed
+	 */
+	private boolean claimAdjustment(long holdNanos) {
+		long now = System.nanoTime();
+		long last = lastAdjustment.get();
+		return now - last >= holdNanos && lastAdjustment.compareAndSet(last, now);
+	}
+	
+	/**
+	 * Method to atomically update the rate
+	 * 
+	 * @param function - Function computing the new rate
+	 */
+	private void updateRate(DoubleUnaryOperator function) {
+		long current;
+		long updated;
+		do {
+			current = rateBits.get();
+			updated = Double.doubleToRawLongBits(function.applyAsDouble(Double.longBitsToDouble(current)));
+		} while(!rateBits.compareAndSet(current, updated));
+	}
+	
+	/**
+	 * @return the emission interval of the current rate
+	 */
+	private long intervalNanos() {
+		return (long) (NANOS_PER_SECOND / getRate());
+	}
+
+}
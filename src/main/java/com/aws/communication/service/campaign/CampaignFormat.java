@@ -0,0 +1,41 @@
+package com.aws.communication.service.campaign;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Formats of a campaign upload
+ */
+public enum CampaignFormat {
+
+	NDJSON(CampaignFormat.APPLICATION_NDJSON),
+	CSV(CampaignFormat.TEXT_CSV);
+
+	public static final String APPLICATION_NDJSON = "application/x-ndjson";
+	public static final String TEXT_CSV = "text/csv";
+
+	private final MediaType mediaType;
+
+	CampaignFormat(String mediaType) {
+		this.mediaType = MediaType.parseMediaType(mediaType);
+	}
+
+	/**
+	 * Method to get the format of an upload from its content type
+	 *
+	 * @param contentType - Content type of the upload
+	 * @return CampaignFormat - Format of the upload, null if not supported
+	 */
+	public static CampaignFormat fromContentType(String contentType) {
+		if(contentType == null) {
+			return null;
+		}
+		MediaType type = MediaType.parseMediaType(contentType);
+		for(CampaignFormat format : values()) {
+			if(format.mediaType.includes(type)) {
+				return format;
+			}
+		}
+		return null;
+	}
+
+}
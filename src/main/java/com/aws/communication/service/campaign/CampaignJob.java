@@ -0,0 +1,184 @@
+package com.aws.communication.service.campaign;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.aws.communication.model.CampaignRowError;
+import com.aws.communication.model.CampaignState;
+import com.aws.communication.model.CampaignStatus;
+import com.aws.communication.model.ErrorResponse;
+
+/**
+ * Progress of a campaign upload, updated by the upload thread reading
+ * the rows and by the sender threads sending them.
+ *
+ * Only the first errors of the rows are kept, up to the configured number,
+ * while all of them are counted.
+ *
+ */
+final class CampaignJob {
+
+	private final String campaignId;
+	private final String templateName;
+	private final int maxErrors;
+	private final Instant startedAt = Instant.now();
+	private final long startNanos = System.nanoTime();
+
+	private final AtomicLong rowsRead = new AtomicLong();
+	private final AtomicLong rowsInvalid = new AtomicLong();
+	private final AtomicLong rowsQueued = new AtomicLong();
+	private final AtomicLong rowsSent = new AtomicLong();
+	private final AtomicLong rowsFailed = new AtomicLong();
+
+	private final List<CampaignRowError> errors = new ArrayList<>();
+
+	private volatile CampaignState state = CampaignState.RECEIVING;
+	private volatile boolean readCompleted;
+	private boolean readFailed;
+	private Instant completedAt;
+	private long completedNanos;
+
+	/**
+	 * @param campaignId - Id of the campaign
+	 * @param templateName - Template of the campaign
+	 * @param maxErrors - Number of row errors kept
+	 */
+	CampaignJob(String campaignId, String templateName, int maxErrors) {
+		this.campaignId = campaignId;
+		this.templateName = templateName;
+		this.maxErrors = maxErrors;
+	}
+
+	/**
+	 * @return the campaignId
+	 */
+	String getCampaignId() {
+		return campaignId;
+	}
+
+	/**
+	 * @return the templateName
+	 */
+	String getTemplateName() {
+		return templateName;
+	}
+
+	/**
+	 * @return true once all rows are read and all queued rows are sent or failed
+	 */
+	boolean isDone() {
+		CampaignState current = state;
+		return current == CampaignState.COMPLETED || current == CampaignState.FAILED;
+	}
+
+	void onRowRead() {
+		rowsRead.incrementAndGet();
+	}
+
+	void onRowQueued() {
+		rowsQueued.incrementAndGet();
+	}
+
+	/**
+	 * Method to record a row rejected before sending
+	 *
+	 * @param line - Line of the row
+	 * @param emailAddress - Email address of the row, if read
+	 * @param error - Reason of the rejection
+	 */
+	void onRowInvalid(long line, String emailAddress, ErrorResponse error) {
+		rowsInvalid.incrementAndGet();
+		addError(line, emailAddress, error);
+	}
+
+	void onRowSent() {
+		rowsSent.incrementAndGet();
+		completeIfDone();
+	}
+
+	/**
+	 * Method to record a row whose send failed
+	 *
+	 * @param line - Line of the row
+	 * @param emailAddress - Email address of the row
+	 * @param error - Reason of the failure
+	 */
+	void onRowFailed(long line, String emailAddress, ErrorResponse error) {
+		rowsFailed.incrementAndGet();
+		addError(line, emailAddress, error);
+		completeIfDone();
+	}
+
+	/**
+	 * Method to record the end of the upload, the campaign is complete
+	 * once the rows still queued are sent
+	 *
+	 * @param failed - true if the upload could not be read to its end
+	 */
+	synchronized void onReadCompleted(boolean failed) {
+		readFailed = failed;
+		state = CampaignState.SENDING;
+		readCompleted = true;
+		completeIfDone();
+	}
+
+	private void completeIfDone() {
+		// rows are counted before readCompleted is checked, so either this thread or the upload thread completes
+		if(!readCompleted || rowsSent.get() + rowsFailed.get() < rowsQueued.get()) {
+			return;
+		}
+		synchronized(this) {
+			if(state == CampaignState.SENDING) {
+				completedAt = Instant.now();
+				completedNanos = System.nanoTime();
+				state = readFailed ? CampaignState.FAILED : CampaignState.COMPLETED;
+			}
+		}
+	}
+
+	private void addError(long line, String emailAddress, ErrorResponse error) {
+		synchronized(errors) {
+			if(errors.size() < maxErrors) {
+				CampaignRowError rowError = new CampaignRowError();
+				rowError.setLine(line);
+				rowError.setEmailAddress(emailAddress);
+				rowError.setError(error);
+				errors.add(rowError);
+			}
+		}
+	}
+
+	/**
+	 * Method to map the progress of the campaign
+	 *
+	 * @return CampaignStatus - Progress of the campaign
+	 */
+	CampaignStatus toCampaignStatus() {
+		CampaignStatus status = new CampaignStatus();
+		long sent = rowsSent.get();
+		long failed = rowsFailed.get();
+		long elapsedNanos;
+		synchronized(this) {
+			status.setState(state);
+			status.setCompletedAt(completedAt);
+			elapsedNanos = (completedAt != null ? completedNanos : System.nanoTime()) - startNanos;
+		}
+		status.setCampaignId(campaignId);
+		status.setTemplateName(templateName);
+		status.setRowsRead(rowsRead.get());
+		status.setRowsInvalid(rowsInvalid.get());
+		status.setRowsSent(sent);
+		status.setRowsFailed(failed);
+		status.setRowsPending(Math.max(0, rowsQueued.get() - sent - failed));
+		status.setRowsPerSecond(elapsedNanos > 0 ? (sent + failed) * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos : 0);
+		status.setStartedAt(startedAt);
+		synchronized(errors) {
+			status.setErrors(new ArrayList<>(errors));
+		}
+		return status;
+	}
+
+}
@@ -0,0 +1,447 @@
+package com.aws.communication.service.campaign;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import com.amazonaws.services.simpleemail.model.BulkEmailStatus;
+import com.aws.communication.exception.BadRequestException;
+import com.aws.communication.exception.NotFoundException;
+import com.aws.communication.exception.ServiceUnavailableException;
+import com.aws.communication.model.BulkEmailRequest;
+import com.aws.communication.model.BulkEmailResult;
+import com.aws.communication.model.CampaignStatus;
+import com.aws.communication.model.EmailRequest;
+import com.aws.communication.model.ErrorResponse;
+import com.aws.communication.model.Receiver;
+import com.aws.communication.model.Sender;
+import com.aws.communication.service.AwsCommunicationService;
+import com.aws.communication.utils.Constants;
+import com.aws.communication.utils.GenericUtils;
+import com.aws.communication.utils.RequestValidator;
+import com.aws.communication.utils.StatusCodes;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Service class to send an email template to the recipients of a campaign
+ * upload, an NDJSON or CSV file of one recipient per row.
+ *
+ * The upload is read row by row on the request thread and each row is
+ * validated as a send email request. Valid rows are placed on a bounded queue
+ * shared by all campaigns, which is drained by the sender threads in SES bulk
+ * batches. When the senders fall behind, the upload thread waits for room in
+ * the queue, so that the client is slowed down instead of the upload being
+ * buffered, and memory does not depend on the size of the upload.
+ *
+ * Rows throttled by the rate limiter or AWS are retried by the sender after
+ * a delay, as a campaign is sent at the pace the account allows.
+ *
+ * The progress of a campaign is available while the upload is read and sent,
+ * and is kept for the configured number of campaigns once completed.
+ *
+ */
+@Service
+public class CampaignService {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(CampaignService.class);
+
+	private static final String SUCCESS = BulkEmailStatus.Success.toString();
+	private static final String ACCOUNT_THROTTLED = BulkEmailStatus.AccountThrottled.toString();
+	private static final String TRANSIENT_FAILURE = BulkEmailStatus.TransientFailure.toString();
+
+	@Autowired
+	private AwsCommunicationService communicationService;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${campaign.queue.capacity:1000}")
+	private int queueCapacity;
+
+	@Value("${campaign.senders:2}")
+	private int senderThreads;
+
+	@Value("${campaign.batch-size:50}")
+	private int batchSize;
+
+	@Value("${campaign.max-attempts:5}")
+	private int maxAttempts;
+
+	@Value("${campaign.retry-delay-ms:1000}")
+	private long retryDelayMillis;
+
+	@Value("${campaign.max-row-length:65536}")
+	private int maxRowLength;
+
+	@Value("${campaign.max-row-errors:1000}")
+	private int maxRowErrors;
+
+	@Value("${campaign.max-campaigns:100}")
+	private int maxCampaigns;
+
+	private final Map<String, CampaignJob> campaigns = new ConcurrentHashMap<>();
+
+	private final Queue<String> campaignOrder = new ConcurrentLinkedQueue<>();
+
+	private BlockingQueue<CampaignRow> queue;
+
+	private ExecutorService senders;
+
+	private Counter sentCounter;
+
+	private Counter failedCounter;
+
+	private Counter invalidCounter;
+
+	private Counter retriedCounter;
+
+	private volatile boolean running;
+
+	/**
+	 * Method to create the campaign queue, register its metrics
+	 * and start the sender threads
+	 */
+	@PostConstruct
+	public void start() {
+		queue = new ArrayBlockingQueue<>(queueCapacity);
+		batchSize = Math.max(1, Math.min(batchSize, Constants.BULK_EMAIL_MAX_DESTINATIONS));
+
+		Gauge.builder("aws.communication.campaign.queue.depth", queue, BlockingQueue::size)
+				.description("Number of campaign rows waiting to be sent")
+				.register(meterRegistry);
+		sentCounter = rowCounter("sent");
+		failedCounter = rowCounter("failed");
+		invalidCounter = rowCounter("invalid");
+		retriedCounter = Counter.builder("aws.communication.campaign.retries")
+				.description("Number of campaign rows retried after being throttled")
+				.register(meterRegistry);
+
+		running = true;
+		senders = Executors.newFixedThreadPool(senderThreads, new CustomizableThreadFactory("campaign-sender-"));
+		for(int i = 0; i < senderThreads; i++) {
+			senders.execute(this::sendLoop);
+		}
+	}
+
+	/**
+	 * Method to stop the sender threads once the rows already queued are sent
+	 */
+	@PreDestroy
+	public void stop() {
+		running = false;
+		senders.shutdown();
+		try {
+			senders.awaitTermination(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		if(!queue.isEmpty()) {
+			LOGGER.warn("{} campaign rows were not sent before shutdown", queue.size());
+		}
+	}
+
+	/**
+	 * Method to read a campaign upload and queue its rows for sending. Returns
+	 * once the upload is read, while the last rows may still be sending.
+	 *
+	 * @param templateName - Template of the campaign
+	 * @param senderEmailAddress - Email address of the sender of the campaign
+	 * @param format - Format of the upload
+	 * @param upload - Upload stream
+	 * @return CampaignStatus - Progress of the campaign
+	 * @throws BadRequestException Thrown when the campaign parameters or the upload header are invalid
+	 * @throws ServiceUnavailableException Thrown when the campaign pipeline is stopped
+	 * @throws IOException Thrown when the upload cannot be read
+	 */
+	public CampaignStatus upload(String templateName, String senderEmailAddress, CampaignFormat format, Reader upload) 
+			throws BadRequestException, ServiceUnavailableException, IOException {
+		RequestValidator.validateCampaignUpload(templateName, senderEmailAddress);
+		if(!running) {
+			throw unavailable();
+		}
+
+		CampaignJob job = register(templateName);
+		LOGGER.info("Campaign {} started for template {}", job.getCampaignId(), templateName);
+		boolean failed = true;
+		try(RecipientReader reader = format == CampaignFormat.CSV ? new CsvRecipientReader(upload, maxRowLength) 
+				: new NdjsonRecipientReader(upload, maxRowLength, objectMapper.getFactory())) {
+			Sender sender = new Sender();
+			sender.setEmailAddress(senderEmailAddress);
+			RecipientRow row;
+			while((row = reader.next()) != null) {
+				job.onRowRead();
+				if(row.getError() != null) {
+					invalid(job, row, GenericUtils.mapErrorResponse(StatusCodes.INVALID_CAMPAIGN_ROW.getCode(), 
+							StatusCodes.INVALID_CAMPAIGN_ROW.getReason(), row.getError()));
+					continue;
+				}
+				EmailRequest request = toEmailRequest(templateName, sender, row);
+				try {
+					RequestValidator.validateSendEmailRequest(request);
+				} catch (BadRequestException e) {
+					invalid(job, row, GenericUtils.mapErrorResponse(e.getCode(), e.getReason(), e.getParameters()));
+					continue;
+				}
+				CampaignRow campaignRow = new CampaignRow(job, row.getLine(), request);
+				job.onRowQueued();
+				if(!enqueue(campaignRow)) {
+					failed(campaignRow, GenericUtils.mapErrorResponse(
+							StatusCodes.CAMPAIGN_UNAVAILABLE.getCode(), StatusCodes.CAMPAIGN_UNAVAILABLE.getReason()));
+					throw unavailable();
+				}
+			}
+			failed = false;
+		} finally {
+			job.onReadCompleted(failed);
+			LOGGER.info("Campaign {} read {}", job.getCampaignId(), failed ? "failed" : "completed");
+		}
+		return job.toCampaignStatus();
+	}
+
+	/**
+	 * Method to retrieve the progress of a campaign
+	 *
+	 * @param campaignId - Id of the campaign
+	 * @return CampaignStatus - Progress of the campaign
+	 * @throws NotFoundException Thrown when the campaign id is not known
+	 */
+	public CampaignStatus getStatus(String campaignId) throws NotFoundException {
+		CampaignJob job = campaigns.get(campaignId);
+		if(job == null) {
+			throw new NotFoundException(StatusCodes.DATA_NOT_FOUND.getCode(), 
+					StatusCodes.DATA_NOT_FOUND.getReason(), Constants.CAMPAIGN_ID, campaignId);
+		}
+		return job.toCampaignStatus();
+	}
+
+	/**
+	 * Method to retrieve the progress of the campaigns in progress and of
+	 * the campaigns recently completed, oldest first
+	 *
+	 * @return List<CampaignStatus> - Progress of the campaigns
+	 */
+	public List<CampaignStatus> getStatuses() {
+		List<CampaignStatus> statuses = new ArrayList<>();
+		for(String campaignId : campaignOrder) {
+			CampaignJob job = campaigns.get(campaignId);
+			if(job != null) {
+				statuses.add(job.toCampaignStatus());
+			}
+		}
+		return statuses;
+	}
+
+	/**
+	 * Method to register a new campaign, evicting the oldest completed
+	 * campaigns beyond the configured number
+	 *
+	 * @param templateName - Template of the campaign
+	 * @return CampaignJob - Progress of the campaign
+	 */
+	private CampaignJob register(String templateName) {
+		CampaignJob job = new CampaignJob(UUID.randomUUID().toString(), templateName, maxRowErrors);
+		campaigns.put(job.getCampaignId(), job);
+		campaignOrder.add(job.getCampaignId());
+		Iterator<String> oldest = campaignOrder.iterator();
+		while(campaigns.size() > maxCampaigns && oldest.hasNext()) {
+			String campaignId = oldest.next();
+			CampaignJob candidate = campaigns.get(campaignId);
+			if(candidate == null || candidate.isDone()) {
+				campaigns.remove(campaignId);
+				oldest.remove();
+			}
+		}
+		return job;
+	}
+
+	/**
+	 * Method to wait for room in the campaign queue
+	 *
+	 * @param row - Row to be sent
+	 * @return boolean - false if interrupted while waiting
+	 */
+	private boolean enqueue(CampaignRow row) {
+		try {
+			queue.put(row);
+			return true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	/**
+	 * Method run by the sender threads, sending the queued rows in
+	 * bulk batches until stopped
+	 */
+	private void sendLoop() {
+		List<CampaignRow> batch = new ArrayList<>(batchSize);
+		while(running || !queue.isEmpty()) {
+			try {
+				CampaignRow first = queue.poll(100, TimeUnit.MILLISECONDS);
+				if(first == null) {
+					continue;
+				}
+				batch.add(first);
+				queue.drainTo(batch, batchSize - 1);
+				send(batch);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				for(CampaignRow row : batch) {
+					failed(row, GenericUtils.mapErrorResponse(StatusCodes.CAMPAIGN_UNAVAILABLE.getCode(), 
+							StatusCodes.CAMPAIGN_UNAVAILABLE.getReason()));
+				}
+				return;
+			} finally {
+				batch.clear();
+			}
+		}
+	}
+
+	/**
+	 * Method to send a batch of rows, retrying the throttled rows after
+	 * the retry delay until the maximum number of attempts
+	 *
+	 * @param batch - Rows to be sent
+	 * @throws InterruptedException Thrown when interrupted while waiting to retry
+	 */
+	private void send(List<CampaignRow> batch) throws InterruptedException {
+		List<CampaignRow> pending = batch;
+		for(int attempt = 1; !pending.isEmpty(); attempt++) {
+			List<BulkEmailResult> results = sendBulk(pending);
+			List<CampaignRow> throttled = new ArrayList<>();
+			for(int i = 0; i < pending.size(); i++) {
+				CampaignRow row = pending.get(i);
+				BulkEmailResult result = results != null && i < results.size() ? results.get(i) : null;
+				if(result != null && SUCCESS.equals(result.getStatus())) {
+					row.job.onRowSent();
+					sentCounter.increment();
+				} else if(result != null && attempt < maxAttempts && isRetryable(result.getStatus())) {
+					throttled.add(row);
+				} else {
+					failed(row, result != null 
+							? new ErrorResponse().code(result.getStatus()).reason(result.getError())
+							: GenericUtils.mapErrorResponse(StatusCodes.INTERNAL_SERVER_ERROR.getCode(), 
+									StatusCodes.INTERNAL_SERVER_ERROR.getReason()));
+				}
+			}
+			if(!throttled.isEmpty()) {
+				retriedCounter.increment(throttled.size());
+				TimeUnit.MILLISECONDS.sleep(retryDelayMillis);
+			}
+			pending = throttled;
+		}
+	}
+
+	/**
+	 * Method to send the rows as a bulk email request
+	 *
+	 * @param rows - Rows to be sent
+	 * @return List<BulkEmailResult> - Results of the rows in order, null if the batch failed
+	 */
+	private List<BulkEmailResult> sendBulk(List<CampaignRow> rows) {
+		List<EmailRequest> emailRequests = new ArrayList<>(rows.size());
+		for(CampaignRow row : rows) {
+			emailRequests.add(row.request);
+		}
+		BulkEmailRequest bulkRequest = new BulkEmailRequest();
+		bulkRequest.setEmailRequests(emailRequests);
+		try {
+			return communicationService.sendBulkEmail(bulkRequest).getResults();
+		} catch (BadRequestException | RuntimeException e) {
+			LOGGER.error("Failed to send {} campaign rows", rows.size(), e);
+			return null;
+		}
+	}
+
+	private static boolean isRetryable(String status) {
+		return ACCOUNT_THROTTLED.equals(status) || TRANSIENT_FAILURE.equals(status);
+	}
+
+	private void invalid(CampaignJob job, RecipientRow row, ErrorResponse error) {
+		job.onRowInvalid(row.getLine(), row.getEmailAddress(), error);
+		invalidCounter.increment();
+	}
+
+	private void failed(CampaignRow row, ErrorResponse error) {
+		row.job.onRowFailed(row.line, row.request.getReceiver().getEmailAddress(), error);
+		failedCounter.increment();
+	}
+
+	/**
+	 * Method to map a row to a send email request
+	 *
+	 * @param templateName - Template of the campaign
+	 * @param sender - Sender of the campaign
+	 * @param row - Row of the upload
+	 * @return EmailRequest - Send email request of the row
+	 */
+	private static EmailRequest toEmailRequest(String templateName, Sender sender, RecipientRow row) {
+		Receiver receiver = new Receiver();
+		receiver.setEmailAddress(row.getEmailAddress());
+		EmailRequest request = new EmailRequest();
+		request.setTemplateName(templateName);
+		request.setSender(sender);
+		request.setReceiver(receiver);
+		request.setCommunicationCharacteristics(row.getCharacteristics());
+		return request;
+	}
+
+	private Counter rowCounter(String outcome) {
+		return Counter.builder("aws.communication.campaign.rows")
+				.description("Number of campaign rows processed")
+				.tag("outcome", outcome)
+				.register(meterRegistry);
+	}
+
+	private static ServiceUnavailableException unavailable() {
+		return new ServiceUnavailableException(StatusCodes.CAMPAIGN_UNAVAILABLE.getCode(),
+				StatusCodes.CAMPAIGN_UNAVAILABLE.getReason());
+	}
+
+	/**
+	 * Row of a campaign queued for sending
+	 */
+	private static final class CampaignRow {
+
+		private final CampaignJob job;
+		private final long line;
+		private final EmailRequest request;
+
+		private CampaignRow(CampaignJob job, long line, EmailRequest request) {
+			this.job = job;
+			this.line = line;
+			this.request = request;
+		}
+	}
+
+}
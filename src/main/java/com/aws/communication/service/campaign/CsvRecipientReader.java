@@ -0,0 +1,216 @@
+package com.aws.communication.service.campaign;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.aws.communication.exception.BadRequestException;
+import com.aws.communication.model.CommunicationCharacteristic;
+import com.aws.communication.utils.Constants;
+import com.aws.communication.utils.StatusCodes;
+
+/**
+ * Reader of a CSV campaign upload (RFC 4180). The header row names the
+ * columns, one of which is emailAddress, the other columns holding the
+ * values of the template placeholders. Empty values are left out.
+ *
+ * Quoted values may hold commas, doubled quotes and line breaks, so rows
+ * are read character by character rather than line by line.
+ *
+ */
+final class CsvRecipientReader extends RecipientReader {
+
+	private static final char BYTE_ORDER_MARK = '\uFEFF';
+
+	private final List<String> fields = new ArrayList<>();
+
+	private final StringBuilder field = new StringBuilder();
+
+	private String[] header;
+
+	private int emailColumn;
+
+	private int length;
+
+	private boolean malformed;
+
+	/**
+	 * @param reader - Upload stream
+	 * @param maxRowLength - Longest row accepted, in characters
+	 */
+	CsvRecipientReader(Reader reader, int maxRowLength) {
+		super(reader, maxRowLength);
+	}
+
+	@Override
+	RecipientRow next() throws IOException, BadRequestException {
+		if(header == null && !readHeader()) {
+			return null;
+		}
+		while(true) {
+			long rowLine = line;
+			if(!readRow()) {
+				return null;
+			}
+			if(fields.size() == 1 && fields.get(0).isEmpty()) {
+				continue;
+			}
+			String emailAddress = emailColumn < fields.size() ? fields.get(emailColumn) : null;
+			if(length > maxRowLength) {
+				return RecipientRow.invalid(rowLine, null, "row is longer than " + maxRowLength + " characters");
+			}
+			if(malformed) {
+				return RecipientRow.invalid(rowLine, emailAddress, "row has a malformed quoted value");
+			}
+			if(fields.size() != header.length) {
+				return RecipientRow.invalid(rowLine, emailAddress, "row has " + fields.size() 
+						+ " columns instead of " + header.length);
+			}
+			List<CommunicationCharacteristic> characteristics = new ArrayList<>(header.length - 1);
+			for(int i = 0; i < header.length; i++) {
+				if(i != emailColumn && !fields.get(i).isEmpty()) {
+					characteristics.add(characteristic(header[i], fields.get(i)));
+				}
+			}
+			return RecipientRow.of(rowLine, emailAddress, characteristics);
+		}
+	}
+
+	/**
+	 * Method to read the header row and find the emailAddress column
+	 *
+	 * @return boolean - false if the upload is empty
+	 * @throws IOException Thrown when the upload cannot be read
+	 * @throws BadRequestException Thrown when the header row has no emailAddress column
+	 */
+	private boolean readHeader() throws IOException, BadRequestException {
+		if(!readRow()) {
+			return false;
+		}
+		String first = fields.get(0);
+		if(!first.isEmpty() && first.charAt(0) == BYTE_ORDER_MARK) {
+			fields.set(0, first.substring(1));
+		}
+		header = new String[fields.size()];
+		emailColumn = -1;
+		for(int i = 0; i < header.length; i++) {
+			header[i] = fields.get(i).trim();
+			if(Constants.EMAIL_ADDRESS.equals(header[i])) {
+				emailColumn = i;
+			}
+		}
+		if(length > maxRowLength || malformed) {
+			throw new BadRequestException(StatusCodes.INVALID_CAMPAIGN_ROW.getCode(), 
+					StatusCodes.INVALID_CAMPAIGN_ROW.getReason(), "header row is malformed");
+		}
+		if(emailColumn < 0) {
+			throw new BadRequestException(StatusCodes.INVALID_CAMPAIGN_ROW.getCode(), 
+					StatusCodes.INVALID_CAMPAIGN_ROW.getReason(), "header row has no " + Constants.EMAIL_ADDRESS + " column");
+		}
+		return true;
+	}
+
+	/**
+	 * Method to read the values of the next row. Characters beyond the
+	 * maximum row length are counted but not kept.
+	 *
+	 * @return boolean - false at the end of the upload
+	 * @throws IOException Thrown when the upload cannot be read
+	 */
+	private boolean readRow() throws IOException {
+		fields.clear();
+		length = 0;
+		malformed = false;
+		int c = readChar();
+		if(c == -1) {
+			return false;
+		}
+		while(true) {
+			field.setLength(0);
+			c = c == '"' ? readQuoted() : readUnquoted(c);
+			fields.add(field.toString());
+			if(c != ',') {
+				return true;
+			}
+			c = readChar();
+		}
+	}
+
+	/**
+	 * Method to read an unquoted value
+	 *
+	 * @param first - First character of the value
+	 * @return int - Character ending the value: ',', '\n' or -1
+	 * @throws IOException Thrown when the upload cannot be read
+	 */
+	private int readUnquoted(int first) throws IOException {
+		int c = first;
+		while(c != ',' && c != '\n' && c != -1) {
+			if(c == '"') {
+				malformed = true;
+			}
+			append(c);
+			c = readChar();
+		}
+		if(field.length() > 0 && field.charAt(field.length() - 1) == '\r') {
+			field.setLength(field.length() - 1);
+		}
+		return c;
+	}
+
+	/**
+	 * Method to read a quoted value, the opening quote already read
+	 *
+	 * @return int - Character ending the value: ',', '\n' or -1
+	 * @throws IOException Thrown when the upload cannot be read
+	 */
+	private int readQuoted() throws IOException {
+		while(true) {
+			int c = readChar();
+			if(c == -1) {
+				malformed = true;
+				return c;
+			}
+			if(c != '"') {
+				append(c);
+				continue;
+			}
+			c = readChar();
+			if(c == '"') {
+				append(c);
+				continue;
+			}
+			if(c == '\r') {
+				c = readChar();
+			}
+			if(c != ',' && c != '\n' && c != -1) {
+				// text after the closing quote, kept up to the end of the value
+				malformed = true;
+				return readUnquoted(c);
+			}
+			return c;
+		}
+	}
+
+	private void append(int c) {
+		if(++length <= maxRowLength) {
+			field.append((char) c);
+		}
+	}
+
+	/**
+	 * Method to read the next character, counting lines
+	 *
+	 * @return int - Next character, -1 at the end of the upload
+	 * @throws IOException Thrown when the upload cannot be read
+	 */
+	private int readChar() throws IOException {
+		int c = read();
+		if(c == '\n') {
+			line++;
+		}
+		return c;
+	}
+
+}
@@ -0,0 +1,116 @@
+package com.aws.communication.service.campaign;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.aws.communication.model.CommunicationCharacteristic;
+import com.aws.communication.utils.Constants;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Reader of a newline delimited JSON campaign upload. Each line is a flat
+ * JSON object holding the emailAddress of the recipient, and the values of
+ * the template placeholders as the other fields.
+ *
+ * Each line is read into a buffer reused for all lines and walked with a
+ * streaming parser, so that a malformed line only invalidates its own row.
+ *
+ */
+final class NdjsonRecipientReader extends RecipientReader {
+
+	private final JsonFactory jsonFactory;
+
+	private final char[] row;
+
+	/**
+	 * @param reader - Upload stream
+	 * @param maxRowLength - Longest line accepted, in characters
+	 * @param jsonFactory - Factory of the JSON parsers
+	 */
+	NdjsonRecipientReader(Reader reader, int maxRowLength, JsonFactory jsonFactory) {
+		super(reader, maxRowLength);
+		this.jsonFactory = jsonFactory;
+		this.row = new char[maxRowLength];
+	}
+
+	@Override
+	RecipientRow next() throws IOException {
+		while(true) {
+			long rowLine = line;
+			int length = 0;
+			int c;
+			while((c = read()) != -1 && c != '\n') {
+				if(length == row.length) {
+					skipLine();
+					line++;
+					return RecipientRow.invalid(rowLine, null, "line is longer than " + maxRowLength + " characters");
+				}
+				row[length++] = (char) c;
+			}
+			if(c == -1 && length == 0) {
+				return null;
+			}
+			line++;
+			if(length > 0 && row[length - 1] == '\r') {
+				length--;
+			}
+			if(!isBlank(length)) {
+				return parse(rowLine, length);
+			}
+		}
+	}
+
+	/**
+	 * Method to parse the JSON object of a line
+	 *
+	 * @param rowLine - Line of the row
+	 * @param length - Length of the line in the row buffer
+	 * @return RecipientRow - Recipient of the row
+	 * @throws IOException Thrown when the parser cannot be created
+	 */
+	private RecipientRow parse(long rowLine, int length) throws IOException {
+		String emailAddress = null;
+		try(JsonParser parser = jsonFactory.createParser(row, 0, length)) {
+			if(parser.nextToken() != JsonToken.START_OBJECT) {
+				return RecipientRow.invalid(rowLine, null, "line is not a JSON object");
+			}
+			List<CommunicationCharacteristic> characteristics = new ArrayList<>();
+			while(parser.nextToken() == JsonToken.FIELD_NAME) {
+				String name = parser.getCurrentName();
+				JsonToken value = parser.nextToken();
+				if(value == JsonToken.START_OBJECT || value == JsonToken.START_ARRAY) {
+					return RecipientRow.invalid(rowLine, emailAddress, "value of " + name + " is not a string or number");
+				}
+				if(value == JsonToken.VALUE_NULL) {
+					continue;
+				}
+				if(Constants.EMAIL_ADDRESS.equals(name)) {
+					emailAddress = parser.getText();
+				} else {
+					characteristics.add(characteristic(name, parser.getText()));
+				}
+			}
+			if(parser.nextToken() != null) {
+				return RecipientRow.invalid(rowLine, emailAddress, "line holds more than one JSON value");
+			}
+			return RecipientRow.of(rowLine, emailAddress, characteristics);
+		} catch (JsonProcessingException e) {
+			return RecipientRow.invalid(rowLine, emailAddress, "line is not valid JSON");
+		}
+	}
+
+	private boolean isBlank(int length) {
+		for(int i = 0; i < length; i++) {
+			if(!Character.isWhitespace(row[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
@@ -0,0 +1,104 @@
+package com.aws.communication.service.campaign;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+import com.aws.communication.exception.BadRequestException;
+import com.aws.communication.model.CommunicationCharacteristic;
+
+/**
+ * Reader of the recipients of a campaign upload, reading one row at a time
+ * from the upload stream through a fixed size buffer, so that the memory
+ * used does not depend on the size of the upload.
+ *
+ * A row longer than the maximum row length is skipped and returned as
+ * invalid, without being buffered.
+ *
+ */
+abstract class RecipientReader implements Closeable {
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private final Reader reader;
+
+	private final char[] buffer = new char[BUFFER_SIZE];
+
+	private int position;
+
+	private int limit;
+
+	protected final int maxRowLength;
+
+	protected long line = 1;
+
+	/**
+	 * @param reader - Upload stream
+	 * @param maxRowLength - Longest row accepted, in characters
+	 */
+	protected RecipientReader(Reader reader, int maxRowLength) {
+		this.reader = reader;
+		this.maxRowLength = maxRowLength;
+	}
+
+	/**
+	 * Method to read the next row of the upload
+	 *
+	 * @return RecipientRow - Recipient of the row, null at the end of the upload
+	 * @throws IOException Thrown when the upload cannot be read
+	 * @throws BadRequestException Thrown when the upload does not describe recipients
+	 */
+	abstract RecipientRow next() throws IOException, BadRequestException;
+
+	/**
+	 * Method to read the next character of the upload
+	 *
+	 * @return int - Next character, -1 at the end of the upload
+	 * @throws IOException Thrown when the upload cannot be read
+	 */
+	protected final int read() throws IOException {
+		if(position == limit) {
+			limit = reader.read(buffer, 0, buffer.length);
+			position = 0;
+			if(limit <= 0) {
+				limit = 0;
+				return -1;
+			}
+		}
+		return buffer[position++];
+	}
+
+	/**
+	 * Method to skip the rest of the current line
+	 *
+	 * @return int - Last character read, '\n' or -1 at the end of the upload
+	 * @throws IOException Thrown when the upload cannot be read
+	 */
+	protected final int skipLine() throws IOException {
+		int c;
+		while((c = read()) != -1 && c != '\n') {
+			// skipped
+		}
+		return c;
+	}
+
+	/**
+	 * Method to create the value of a template placeholder of a row
+	 *
+	 * @param name - Name of the placeholder
+	 * @param value - Value of the placeholder
+	 * @return CommunicationCharacteristic - Value of the placeholder
+	 */
+	protected static CommunicationCharacteristic characteristic(String name, String value) {
+		CommunicationCharacteristic characteristic = new CommunicationCharacteristic();
+		characteristic.setName(name);
+		characteristic.setValue(value);
+		return characteristic;
+	}
+
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+
+}
@@ -0,0 +1,63 @@
+package com.aws.communication.service.campaign;
+
+import java.util.List;
+
+import com.aws.communication.model.CommunicationCharacteristic;
+
+/**
+ * Recipient read from a row of a campaign upload, with the values of the
+ * template placeholders of the row, or the reason the row could not be read
+ *
+ */
+final class RecipientRow {
+
+	private final long line;
+	private final String emailAddress;
+	private final List<CommunicationCharacteristic> characteristics;
+	private final String error;
+
+	private RecipientRow(long line, String emailAddress, List<CommunicationCharacteristic> characteristics, 
+			String error) {
+		this.line = line;
+		this.emailAddress = emailAddress;
+		this.characteristics = characteristics;
+		this.error = error;
+	}
+
+	static RecipientRow of(long line, String emailAddress, List<CommunicationCharacteristic> characteristics) {
+		return new RecipientRow(line, emailAddress, characteristics, null);
+	}
+
+	static RecipientRow invalid(long line, String emailAddress, String error) {
+		return new RecipientRow(line, emailAddress, null, error);
+	}
+
+	/**
+	 * @return the line of the row in the upload, starting at 1
+	 */
+	long getLine() {
+		return line;
+	}
+
+	/**
+	 * @return the email address of the recipient, null if not read
+	 */
+	String getEmailAddress() {
+		return emailAddress;
+	}
+
+	/**
+	 * @return the values of the template placeholders of the row
+	 */
+	List<CommunicationCharacteristic> getCharacteristics() {
+		return characteristics;
+	}
+
+	/**
+	 * @return the reason the row could not be read, null for a valid row
+	 */
+	String getError() {
+		return error;
+	}
+
+}
@@ -0,0 +1,415 @@
+package com.aws.communication.service.feedback;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import com.amazonaws.SdkClientException;
+import com.amazonaws.services.sns.AmazonSNS;
+import com.amazonaws.services.sns.message.SnsMessageManager;
+import com.aws.communication.exception.BadRequestException;
+import com.aws.communication.exception.InternalServerException;
+import com.aws.communication.exception.ServiceUnavailableException;
+import com.aws.communication.model.FeedbackResult;
+import com.aws.communication.service.suppression.SuppressionService;
+import com.aws.communication.utils.Constants;
+import com.aws.communication.utils.StatusCodes;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Service class to ingest the SES bounce and complaint notifications delivered
+ * through an SNS HTTP(S) subscription, and feed them into the suppression list.
+ *
+ * Notifications are parsed on the request thread and placed on a bounded queue,
+ * which is drained in batches by a single processor thread, so that the send
+ * path never waits on feedback and each batch is written to the suppression
+ * journal at once. Permanent bounces and complaints suppress the recipient right
+ * away; transient bounces suppress the recipient once the configured number is
+ * reached without a delivery in between.
+ *
+ * A single notification is rejected with 503 when the queue is full, which SNS
+ * retries later, while a streamed upload of a backlog waits for room in the
+ * queue instead.
+ *
+ * Only messages of the configured topics are confirmed or accepted, and the
+ * service refuses to start without a topic allowlist or a suppression journal,
+ * as any topic could otherwise suppress arbitrary recipients and the suppressed
+ * recipients would be lost on restart.
+ *
+ */
+@Service
+@ConditionalOnProperty(name = "feedback.enabled", havingValue = "true")
+public class FeedbackService {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(FeedbackService.class);
+
+	private static final String TYPE = "Type";
+	private static final String TYPE_NOTIFICATION = "Notification";
+	private static final String TYPE_SUBSCRIPTION_CONFIRMATION = "SubscriptionConfirmation";
+	private static final String TYPE_UNSUBSCRIBE_CONFIRMATION = "UnsubscribeConfirmation";
+
+	@Autowired
+	private SuppressionService suppressionService;
+
+	@Autowired
+	private AmazonSNS snsClient;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${sns.region}")
+	private String snsRegion;
+
+	@Value("${feedback.verify-signature:true}")
+	private boolean verifySignature;
+
+	@Value("#{'${feedback.topic-arns:}'.split(',')}")
+	private Set<String> topicArns;
+
+	@Value("${feedback.queue.capacity:100000}")
+	private int queueCapacity;
+
+	@Value("${feedback.queue.offer-timeout-ms:100}")
+	private long offerTimeoutMillis;
+
+	@Value("${feedback.batch-size:1000}")
+	private int batchSize;
+
+	@Value("${feedback.soft-bounce-threshold:3}")
+	private int softBounceThreshold;
+
+	@Value("${feedback.soft-bounce.max-entries:100000}")
+	private int maxSoftBounceEntries;
+
+	private BlockingQueue<SesFeedback> queue;
+
+	private SnsMessageManager messageManager;
+
+	private Map<String, Integer> softBounces;
+
+	private Thread processor;
+
+	private final Map<SesFeedback.Kind, Counter> notificationCounters = new EnumMap<>(SesFeedback.Kind.class);
+
+	private Counter invalidCounter;
+
+	private Counter suppressedCounter;
+
+	private DistributionSummary batchSizeSummary;
+
+	private volatile boolean running;
+
+	/**
+	 * Method to create the feedback queue, register its metrics
+	 * and start the processor thread
+	 */
+	@PostConstruct
+	public void start() {
+		topicArns.remove("");
+		if(topicArns.isEmpty()) {
+			throw new IllegalStateException("feedback.enabled requires feedback.topic-arns to list the SES notification topics");
+		}
+		if(!suppressionService.isJournaled()) {
+			throw new IllegalStateException("feedback.enabled requires suppression.journal-file, "
+					+ "otherwise recipients suppressed from feedback are lost on restart");
+		}
+		queue = new ArrayBlockingQueue<>(queueCapacity);
+		if(verifySignature) {
+			messageManager = new SnsMessageManager(snsRegion);
+		}
+		// only touched by the processor thread
+		softBounces = new LinkedHashMap<String, Integer>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+				return size() > maxSoftBounceEntries;
+			}
+		};
+
+		Gauge.builder("aws.communication.feedback.queue.depth", queue, BlockingQueue::size)
+				.description("Number of feedback notifications waiting to be processed")
+				.register(meterRegistry);
+		for(SesFeedback.Kind kind : SesFeedback.Kind.values()) {
+			notificationCounters.put(kind, Counter.builder("aws.communication.feedback.notifications")
+					.description("Number of SES feedback notifications processed")
+					.tag("type", kind.name().toLowerCase(Locale.ROOT))
+					.register(meterRegistry));
+		}
+		invalidCounter = Counter.builder("aws.communication.feedback.invalid")
+				.description("Number of feedback notifications rejected as invalid")
+				.register(meterRegistry);
+		suppressedCounter = Counter.builder("aws.communication.feedback.suppressed")
+				.description("Number of recipients added to the suppression list from feedback")
+				.register(meterRegistry);
+		batchSizeSummary = DistributionSummary.builder("aws.communication.feedback.batch.size")
+				.description("Number of feedback notifications processed per batch")
+				.register(meterRegistry);
+
+		running = true;
+		processor = new CustomizableThreadFactory("feedback-processor-").newThread(this::processLoop);
+		processor.start();
+	}
+
+	/**
+	 * Method to stop the processor thread once the notifications
+	 * already queued are processed
+	 */
+	@PreDestroy
+	public void stop() {
+		running = false;
+		try {
+			processor.join(TimeUnit.SECONDS.toMillis(5));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		if(!queue.isEmpty()) {
+			LOGGER.warn("{} feedback notifications were not processed before shutdown", queue.size());
+		}
+	}
+
+	/**
+	 * Method to ingest a single SNS message posted by the SNS subscription
+	 *
+	 * @param body - SNS message
+	 * @throws BadRequestException Thrown when the message is invalid
+	 * @throws ServiceUnavailableException Thrown when the feedback queue is full
+	 */
+	public void ingest(byte[] body) throws BadRequestException, ServiceUnavailableException {
+		SesFeedback feedback = parseEnvelope(readTree(body), body);
+		if(feedback == null) {
+			return;
+		}
+		boolean queued;
+		try {
+			queued = queue.offer(feedback, offerTimeoutMillis, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			queued = false;
+		}
+		if(!queued) {
+			throw queueFull();
+		}
+	}
+
+	/**
+	 * Method to ingest a stream of newline delimited notifications, each either
+	 * an SNS message or, when signatures are not verified, an SES notification.
+	 * Invalid lines are skipped and counted.
+	 *
+	 * @param stream - Newline delimited JSON notifications
+	 * @return FeedbackResult - Number of notifications accepted and rejected
+	 * @throws IOException Thrown when the stream cannot be read
+	 * @throws ServiceUnavailableException Thrown when interrupted while waiting for the feedback queue
+	 */
+	public FeedbackResult ingestStream(InputStream stream) throws IOException, ServiceUnavailableException {
+		FeedbackResult result = new FeedbackResult();
+		BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+		String line;
+		while((line = reader.readLine()) != null) {
+			if(line.trim().isEmpty()) {
+				continue;
+			}
+			SesFeedback feedback;
+			try {
+				byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+				JsonNode node = readTree(bytes);
+				feedback = node.has(TYPE) || verifySignature ? parseEnvelope(node, bytes) : SesFeedback.parse(node);
+			} catch (BadRequestException e) {
+				result.setRejected(result.getRejected() + 1);
+				continue;
+			}
+			if(feedback == null) {
+				continue;
+			}
+			try {
+				queue.put(feedback);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw queueFull();
+			}
+			result.setAccepted(result.getAccepted() + 1);
+		}
+		return result;
+	}
+
+	/**
+	 * Method to read the SNS message, confirming subscriptions
+	 *
+	 * @param envelope - SNS message
+	 * @param body - SNS message as received, for signature verification
+	 * @return SesFeedback - SES notification carried by the message, null for other messages
+	 * @throws BadRequestException Thrown when the message is invalid or not from an allowed topic
+	 */
+	private SesFeedback parseEnvelope(JsonNode envelope, byte[] body) throws BadRequestException {
+		String type = envelope.path(TYPE).asText();
+		String topicArn = envelope.path(Constants.TOPIC_ARN).asText();
+		if(!topicArns.contains(topicArn)) {
+			throw invalid(Constants.TOPIC_ARN);
+		}
+		if(verifySignature) {
+			try {
+				messageManager.parseMessage(new ByteArrayInputStream(body));
+			} catch (SdkClientException e) {
+				throw invalid(e.getMessage());
+			}
+		}
+		switch(type) {
+			case TYPE_NOTIFICATION:
+				return SesFeedback.parse(readTree(envelope.path("Message").asText().getBytes(StandardCharsets.UTF_8)));
+			case TYPE_SUBSCRIPTION_CONFIRMATION:
+				snsClient.confirmSubscription(topicArn, envelope.path("Token").asText());
+				LOGGER.info("Confirmed subscription to {}", topicArn);
+				return null;
+			case TYPE_UNSUBSCRIBE_CONFIRMATION:
+				LOGGER.warn("Unsubscribed from {}", topicArn);
+				return null;
+			default:
+				throw invalid(TYPE);
+		}
+	}
+
+	/**
+	 * Method to parse the JSON, counting it as invalid if it cannot be parsed
+	 *
+	 * @param json - JSON
+	 * @return JsonNode - Parsed JSON
+	 * @throws BadRequestException Thrown when the JSON is invalid
+	 */
+	private JsonNode readTree(byte[] json) throws BadRequestException {
+		try {
+			return objectMapper.readTree(json);
+		} catch (IOException e) {
+			invalidCounter.increment();
+			throw new BadRequestException(StatusCodes.INVALID_JSON_REQUEST.getCode(),
+					StatusCodes.INVALID_JSON_REQUEST.getReason());
+		}
+	}
+
+	/**
+	 * Method run by the processor thread, processing the queued notifications
+	 * in batches until stopped
+	 */
+	private void processLoop() {
+		List<SesFeedback> batch = new ArrayList<>(batchSize);
+		while(running || !queue.isEmpty()) {
+			try {
+				SesFeedback first = queue.poll(100, TimeUnit.MILLISECONDS);
+				if(first == null) {
+					continue;
+				}
+				batch.add(first);
+				queue.drainTo(batch, batchSize - 1);
+				process(batch);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (RuntimeException e) {
+				LOGGER.error("Failed to process {} feedback notifications", batch.size(), e);
+			} finally {
+				batch.clear();
+			}
+		}
+	}
+
+	/**
+	 * Method to update the recipient state for the batch and suppress
+	 * the recipients with a single write to the suppression list
+	 *
+	 * @param batch - Notifications to be processed
+	 */
+	private void process(List<SesFeedback> batch) {
+		Set<String> suppressed = new HashSet<>();
+		for(SesFeedback feedback : batch) {
+			notificationCounters.get(feedback.getKind()).increment();
+			for(String recipient : feedback.getRecipients()) {
+				String emailAddress = recipient.trim().toLowerCase(Locale.ROOT);
+				switch(feedback.getKind()) {
+					case PERMANENT_BOUNCE:
+					case COMPLAINT:
+						suppressed.add(emailAddress);
+						softBounces.remove(emailAddress);
+						break;
+					case TRANSIENT_BOUNCE:
+						int count = softBounces.merge(emailAddress, 1, Integer::sum);
+						if(count >= softBounceThreshold) {
+							suppressed.add(emailAddress);
+							softBounces.remove(emailAddress);
+						}
+						break;
+					case DELIVERY:
+						softBounces.remove(emailAddress);
+						break;
+					default:
+						break;
+				}
+			}
+		}
+		batchSizeSummary.record(batch.size());
+		if(suppressed.isEmpty()) {
+			return;
+		}
+		try {
+			suppressedCounter.increment(suppressionService.add(suppressed));
+		} catch (InternalServerException e) {
+			LOGGER.error("Failed to journal {} suppressed recipients", suppressed.size(), e);
+		}
+	}
+
+	/**
+	 * Method to create the exception for an invalid SNS message
+	 *
+	 * @param detail - Invalid part of the message
+	 * @return BadRequestException
+	 */
+	private BadRequestException invalid(String detail) {
+		invalidCounter.increment();
+		return new BadRequestException(StatusCodes.INVALID_SNS_MESSAGE.getCode(),
+				StatusCodes.INVALID_SNS_MESSAGE.getReason(), detail);
+	}
+
+	/**
+	 * Method to create the exception for a full feedback queue
+	 *
+	 * @return ServiceUnavailableException
+	 */
+	private static ServiceUnavailableException queueFull() {
+		return new ServiceUnavailableException(StatusCodes.FEEDBACK_QUEUE_FULL.getCode(),
+				StatusCodes.FEEDBACK_QUEUE_FULL.getReason());
+	}
+
+}
@@ -0,0 +1,99 @@
+package com.aws.communication.service.feedback;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * SES feedback notification reduced to its kind and the recipients it
+ * applies to. Both the notification format of SES identities
+ * (notificationType) and of SES event publishing (eventType) are read.
+ *
+ */
+final class SesFeedback {
+	
+	/**
+	 * Kind of the notification
+	 */
+	enum Kind {
+		PERMANENT_BOUNCE,
+		TRANSIENT_BOUNCE,
+		COMPLAINT,
+		DELIVERY,
+		OTHER
+	}
+	
+	private final Kind kind;
+	private final List<String> recipients;
+	
+	/**
+	 * Constructor for SesFeedback
+	 * 
+	 * @param kind - Kind of the notification
+	 * @param recipients - Email addresses the notification applies to
+	 */
+	private SesFeedback(Kind kind, List<String> recipients) {
+		this.kind = kind;
+		this.recipients = recipients;
+	}
+	
+	/**
+	 * Method to read the SES notification
+	 * 
+	 * @param notification - SES notification
+	 * @return SesFeedback - Parsed notification
+	 */
+	static SesFeedback parse(JsonNode notification) {
+		String type = notification.path("notificationType").asText(notification.path("eventType").asText());
+		switch(type) {
+			case "Bounce":
+				JsonNode bounce = notification.path("bounce");
+				return new SesFeedback("Permanent".equals(bounce.path("bounceType").asText()) 
+						? Kind.PERMANENT_BOUNCE : Kind.TRANSIENT_BOUNCE, 
+						emailAddresses(bounce.path("bouncedRecipients")));
+			case "Complaint":
+				return new SesFeedback(Kind.COMPLAINT, 
+						emailAddresses(notification.path("complaint").path("complainedRecipients")));
+			case "Delivery":
+				List<String> recipients = new ArrayList<>();
+				notification.path("delivery").path("recipients").forEach(recipient -> recipients.add(recipient.asText()));
+				return new SesFeedback(Kind.DELIVERY, recipients);
+			default:
+				return new SesFeedback(Kind.OTHER, Collections.emptyList());
+		}
+	}
+	
+	/**
+	 * Method to read the email addresses of bounced or complained recipients
+	 * 
+	 * @param recipients - Array of recipient objects
+	 * @return List<String> - Email addresses
+	 */
+	private static List<String> emailAddresses(JsonNode recipients) {
+		List<String> emailAddresses = new ArrayList<>(recipients.size());
+		for(JsonNode recipient : recipients) {
+			String emailAddress = recipient.path("emailAddress").asText(null);
+			if(emailAddress != null) {
+				emailAddresses.add(emailAddress);
+			}
+		}
+		return emailAddresses;
+	}
+	
+	/**
+	 * @return the kind
+	 */
+	Kind getKind() {
+		return kind;
+	}
+	
+	/**
+	 * @return the recipients
+	 */
+	List<String> getRecipients() {
+		return recipients;
+	}
+
+}
@@ -0,0 +1,684 @@
+package com.aws.communication.service.outbox;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Durable write-ahead outbox for accepted requests.
+ *
+ * Records are appended to memory-mapped segment files. An append returns
+ * once the record has been flushed to disk; concurrent appends share a
+ * single flush (group commit) performed by a dedicated syncer thread.
+ * Acknowledgements are appended as records as well and are not waited
+ * for, so an entry whose acknowledgement was lost is replayed again after
+ * a crash (at-least-once delivery).
+ *
+ * Record layout: length (int, bytes after this field), crc32 (int, of the
+ * bytes after this field), type (byte), sequence (long), body. The length
+ * is written last, so a torn record reads as the end of the segment.
+ * Corrupt records in earlier segments are skipped on recovery.
+ *
+ * Segments are rolled over when full. Compaction deletes the oldest
+ * segments once all of their entries are acknowledged, and moves the few
+ * entries still pending in a mostly acknowledged segment forward into the
+ * active one, so that a single stuck entry does not hold back deletion.
+ *
+ */
+public class Outbox implements Closeable {
+
+	private static final Logger logger = LoggerFactory.getLogger(Outbox.class);
+
+	private static final byte ENTRY = 1;
+	private static final byte ACK = 2;
+	private static final int HEADER_SIZE = 4 + 4 + 1 + 8;
+	private static final int CHECKED_OFFSET = 8;
+	private static final int RELOCATION_RATIO = 10;
+
+	private final Path directory;
+	private final int segmentSize;
+	private final long compactionIntervalNanos;
+
+	private final ConcurrentSkipListMap<Long, OutboxSegment> segments = new ConcurrentSkipListMap<>();
+	private final Map<Long, PendingEntry> pending = new ConcurrentHashMap<>();
+	private final Map<Long, Long> relocated = new ConcurrentHashMap<>();
+	private final List<OutboxEntry> recovered;
+
+	private final ReentrantLock appendLock = new ReentrantLock();
+	private final List<OutboxSegment> unsynced = new ArrayList<>();
+	private OutboxSegment active;
+	private long nextSequence;
+	private volatile long writtenSequence;
+
+	private final ReentrantLock syncLock = new ReentrantLock();
+	private final Condition syncRequested = syncLock.newCondition();
+	private final Condition synced = syncLock.newCondition();
+	private volatile long syncedSequence;
+	private volatile IOException syncFailure;
+
+	private final Thread syncer;
+	private volatile boolean running = true;
+
+	private int corruptRecords;
+
+	/**
+	 * Constructor for Outbox
+	 *
+	 * @param directory - Directory holding the segment files
+	 * @param segmentSize - Size of a segment file in bytes
+	 * @param compactionIntervalMillis - Interval between compaction passes
+	 * @throws IOException Thrown when the segment files cannot be read or created
+	 */
+	public Outbox(Path directory, int segmentSize, long compactionIntervalMillis) throws IOException {
+		this.directory = directory;
+		this.segmentSize = segmentSize;
+		this.compactionIntervalNanos = TimeUnit.MILLISECONDS.toNanos(compactionIntervalMillis);
+		Files.createDirectories(directory);
+		this.recovered = recover();
+		if(active == null) {
+			active = OutboxSegment.create(directory, nextSequence, segmentSize);
+			segments.put(active.getBaseSequence(), active);
+		}
+		syncedSequence = writtenSequence = nextSequence - 1;
+		syncer = new Thread(this::syncLoop, "outbox-syncer");
+		syncer.setDaemon(true);
+		syncer.start();
+		logger.info("Outbox opened at {} with {} segment(s), {} entries to replay", directory, segments.size(), recovered.size());
+	}
+
+	/**
+	 * Method to append an entry, returning once it is durable
+	 *
+	 * @param kind - Kind of the request, defined by the caller
+	 * @param trackingId - Tracking id of the request
+	 * @param payload - Serialized request
+	 * @return long - Sequence of the entry, used to acknowledge it
+	 * @throws IOException Thrown when the entry cannot be written or flushed
+	 */
+	public long append(byte kind, String trackingId, byte[] payload) throws IOException {
+		byte[] trackingIdBytes = trackingId.getBytes(StandardCharsets.UTF_8);
+		long sequence;
+		appendLock.lock();
+		try {
+			sequence = writeEntry(kind, trackingIdBytes, payload);
+		} finally {
+			appendLock.unlock();
+		}
+		awaitSync(sequence);
+		return sequence;
+	}
+
+	/**
+	 * Method to acknowledge an entry once it has been dispatched, so that it
+	 * is not replayed on restart
+	 *
+	 * @param sequence - Sequence returned by append
+	 * @throws IOException Thrown when the acknowledgement cannot be written
+	 */
+	public void acknowledge(long sequence) throws IOException {
+		appendLock.lock();
+		try {
+			Long current = sequence;
+			Long moved;
+			while((moved = relocated.remove(current)) != null) {
+				current = moved;
+			}
+			release(current);
+		} finally {
+			appendLock.unlock();
+		}
+	}
+
+	/**
+	 * Method to read back a pending entry, following it when it was moved
+	 * forward by compaction
+	 *
+	 * @param sequence - Sequence returned by append
+	 * @return OutboxEntry - Entry, null if it is acknowledged
+	 */
+	public OutboxEntry read(long sequence) {
+		appendLock.lock();
+		try {
+			Long current = sequence;
+			Long moved;
+			while((moved = relocated.get(current)) != null) {
+				current = moved;
+			}
+			PendingEntry entry = pending.get(current);
+			return entry != null ? read(entry.segment.getBuffer(), entry.position, current) : null;
+		} finally {
+			appendLock.unlock();
+		}
+	}
+
+	/**
+	 * Method to get the entries found unacknowledged when the outbox was opened
+	 *
+	 * @return List<OutboxEntry> - Entries to replay, in append order
+	 */
+	public List<OutboxEntry> getRecoveredEntries() {
+		return recovered;
+	}
+
+	/**
+	 * Method to get the number of entries not acknowledged yet
+	 *
+	 * @return int - Number of pending entries
+	 */
+	public int getPendingCount() {
+		return pending.size();
+	}
+
+	/**
+	 * Method to get the number of corrupt runs of records skipped in the
+	 * segments read back on startup
+	 *
+	 * @return int - Number of corrupt runs skipped
+	 */
+	public int getCorruptRecordCount() {
+		return corruptRecords;
+	}
+
+	/**
+	 * Method to get the number of segment files
+	 *
+	 * @return int - Number of segments
+	 */
+	public int getSegmentCount() {
+		return segments.size();
+	}
+
+	/**
+	 * Method to stop the syncer thread after a last flush
+	 */
+	@Override
+	public void close() {
+		running = false;
+		syncLock.lock();
+		try {
+			syncRequested.signalAll();
+		} finally {
+			syncLock.unlock();
+		}
+		try {
+			syncer.join(TimeUnit.SECONDS.toMillis(10));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		appendLock.lock();
+		try {
+			unsynced.forEach(OutboxSegment::force);
+			active.force();
+		} finally {
+			appendLock.unlock();
+		}
+	}
+
+	/**
+	 * Method to write an entry record, must hold the append lock
+	 *
+	 * @param kind - Kind of the request
+	 * @param trackingId - Encoded tracking id
+	 * @param payload - Serialized request
+	 * @return long - Sequence of the entry
+	 * @throws IOException Thrown when a new segment cannot be created
+	 */
+	private long writeEntry(byte kind, byte[] trackingId, byte[] payload) throws IOException {
+		int bodyLength = 1 + 2 + trackingId.length + payload.length;
+		int position = reserve(bodyLength);
+		long sequence = nextSequence++;
+		ByteBuffer buffer = active.getBuffer();
+		int offset = position + HEADER_SIZE;
+		buffer.put(offset, kind);
+		buffer.putShort(offset + 1, (short) trackingId.length);
+		putBytes(buffer, offset + 3, trackingId);
+		putBytes(buffer, offset + 3 + trackingId.length, payload);
+		commitRecord(position, ENTRY, sequence, bodyLength);
+		pending.put(sequence, new PendingEntry(active, position));
+		active.entryAdded();
+		return sequence;
+	}
+
+	/**
+	 * Method to acknowledge a pending entry, must hold the append lock
+	 *
+	 * @param sequence - Sequence of the entry
+	 * @throws IOException Thrown when a new segment cannot be created
+	 */
+	private void release(long sequence) throws IOException {
+		PendingEntry entry = pending.remove(sequence);
+		if(entry == null) {
+			return;
+		}
+		int position = reserve(8);
+		long ackSequence = nextSequence++;
+		active.getBuffer().putLong(position + HEADER_SIZE, sequence);
+		commitRecord(position, ACK, ackSequence, 8);
+		entry.segment.setLastReleaseSequence(ackSequence);
+		entry.segment.entryReleased();
+	}
+
+	/**
+	 * Method to reserve room for a record in the active segment, rolling it
+	 * over when full
+	 *
+	 * @param bodyLength - Length of the record body
+	 * @return int - Position of the record
+	 * @throws IOException Thrown when a new segment cannot be created
+	 */
+	private int reserve(int bodyLength) throws IOException {
+		int recordLength = HEADER_SIZE + bodyLength;
+		if(recordLength + 4 > segmentSize) {
+			throw new IOException("Record of " + recordLength + " bytes exceeds the outbox segment size");
+		}
+		if(active.getWritePosition() + recordLength + 4 > segmentSize) {
+			active.seal();
+			unsynced.add(active);
+			active = OutboxSegment.create(directory, nextSequence, segmentSize);
+			segments.put(active.getBaseSequence(), active);
+		}
+		int position = active.getWritePosition();
+		active.setWritePosition(position + recordLength);
+		return position;
+	}
+
+	/**
+	 * Method to complete a record whose body is written, writing the length last
+	 *
+	 * @param position - Position of the record
+	 * @param type - Type of the record
+	 * @param sequence - Sequence of the record
+	 * @param bodyLength - Length of the record body
+	 */
+	private void commitRecord(int position, byte type, long sequence, int bodyLength) {
+		ByteBuffer buffer = active.getBuffer();
+		buffer.put(position + CHECKED_OFFSET, type);
+		buffer.putLong(position + CHECKED_OFFSET + 1, sequence);
+		buffer.putInt(position + 4, checksum(buffer, position, HEADER_SIZE + bodyLength));
+		buffer.putInt(position, HEADER_SIZE - 4 + bodyLength);
+		writtenSequence = sequence;
+	}
+
+	/**
+	 * Method to compute the checksum of a record
+	 *
+	 * @param buffer - Segment buffer
+	 * @param position - Position of the record
+	 * @param recordLength - Length of the record
+	 * @return int - Checksum
+	 */
+	private static int checksum(ByteBuffer buffer, int position, int recordLength) {
+		CRC32 crc = new CRC32();
+		ByteBuffer view = buffer.duplicate();
+		view.limit(position + recordLength).position(position + CHECKED_OFFSET);
+		crc.update(view);
+		return (int) crc.getValue();
+	}
+
+	/**
+	 * Method to copy bytes into the buffer at an absolute position
+	 *
+	 * @param buffer - Segment buffer
+	 * @param position - Position
+	 * @param bytes - Bytes to copy
+	 */
+	private static void putBytes(ByteBuffer buffer, int position, byte[] bytes) {
+		ByteBuffer view = buffer.duplicate();
+		view.position(position);
+		view.put(bytes);
+	}
+
+	/**
+	 * Method to wait until the record is flushed by the syncer thread
+	 *
+	 * @param sequence - Sequence of the record
+	 * @throws IOException Thrown when the flush failed or the outbox is closed
+	 */
+	private void awaitSync(long sequence) throws IOException {
+		if(syncedSequence >= sequence) {
+			return;
+		}
+		syncLock.lock();
+		try {
+			syncRequested.signal();
+			while(syncedSequence < sequence) {
+				if(syncFailure != null) {
+					throw new IOException("Unable to flush the outbox", syncFailure);
+				}
+				if(!running) {
+					throw new IOException("Outbox is closed");
+				}
+				synced.awaitUninterruptibly();
+			}
+		} finally {
+			syncLock.unlock();
+		}
+	}
+
+	/**
+	 * Method run by the syncer thread, flushing everything written since the
+	 * last flush in one go and running compaction in between
+	 */
+	private void syncLoop() {
+		long lastCompaction = System.nanoTime();
+		while(running) {
+			syncLock.lock();
+			try {
+				if(writtenSequence == syncedSequence && running) {
+					syncRequested.awaitNanos(compactionIntervalNanos);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} finally {
+				syncLock.unlock();
+			}
+			sync();
+			if(System.nanoTime() - lastCompaction >= compactionIntervalNanos) {
+				lastCompaction = System.nanoTime();
+				try {
+					compact();
+				} catch (IOException e) {
+					logger.error("Outbox compaction failed", e);
+				}
+			}
+		}
+		syncLock.lock();
+		try {
+			synced.signalAll();
+		} finally {
+			syncLock.unlock();
+		}
+	}
+
+	/**
+	 * Method to flush the written records and release the waiting appenders
+	 */
+	private void sync() {
+		long target;
+		List<OutboxSegment> toForce;
+		appendLock.lock();
+		try {
+			target = writtenSequence;
+			if(target == syncedSequence) {
+				return;
+			}
+			toForce = new ArrayList<>(unsynced);
+			toForce.add(active);
+			unsynced.clear();
+		} finally {
+			appendLock.unlock();
+		}
+		try {
+			toForce.forEach(OutboxSegment::force);
+		} catch (RuntimeException e) {
+			logger.error("Outbox flush failed", e);
+			syncFailure = new IOException(e);
+		}
+		syncLock.lock();
+		try {
+			if(syncFailure == null) {
+				syncedSequence = target;
+			}
+			synced.signalAll();
+		} finally {
+			syncLock.unlock();
+		}
+	}
+
+	/**
+	 * Method to delete the oldest segments whose entries are all acknowledged,
+	 * moving the few entries still pending in sealed segments forward. Segments
+	 * are only deleted oldest first, as acknowledgements of the entries of a
+	 * segment are held by the segments following it.
+	 *
+	 * @throws IOException Thrown when entries cannot be moved or a file cannot be deleted
+	 */
+	void compact() throws IOException {
+		boolean deletable = true;
+		Iterator<OutboxSegment> iterator = segments.values().iterator();
+		while(iterator.hasNext()) {
+			OutboxSegment segment = iterator.next();
+			if(segment == active) {
+				return;
+			}
+			if(segment.getLiveEntries() > 0) {
+				if(segment.getLiveEntries() * RELOCATION_RATIO <= segment.getEntryCount()
+						&& System.nanoTime() - segment.getSealedAtNanos() >= compactionIntervalNanos) {
+					relocate(segment);
+				}
+				deletable = false;
+			} else if(segment.getLastReleaseSequence() > syncedSequence) {
+				deletable = false;
+			} else if(deletable) {
+				iterator.remove();
+				segment.delete();
+				logger.debug("Deleted outbox segment {}", segment.getPath());
+			}
+		}
+	}
+
+	/**
+	 * Method to move the pending entries of a segment into the active segment
+	 *
+	 * @param segment - Sealed segment
+	 * @throws IOException Thrown when a new segment cannot be created
+	 */
+	private void relocate(OutboxSegment segment) throws IOException {
+		int moved = 0;
+		appendLock.lock();
+		try {
+			List<Long> sequences = pending.entrySet().stream()
+					.filter(e -> e.getValue().segment == segment)
+					.map(Map.Entry::getKey)
+					.sorted()
+					.collect(Collectors.toList());
+			for(Long sequence : sequences) {
+				OutboxEntry entry = read(segment.getBuffer(), pending.get(sequence).position, sequence);
+				long newSequence = writeEntry(entry.getKind(), entry.getTrackingId().getBytes(StandardCharsets.UTF_8), entry.getPayload());
+				relocated.put(sequence, newSequence);
+				release(sequence);
+				moved++;
+			}
+		} finally {
+			appendLock.unlock();
+		}
+		logger.info("Moved {} pending outbox entries out of segment {}", moved, segment.getPath());
+	}
+
+	/**
+	 * Method to read the segment files, rebuilding the pending entries.
+	 *
+	 * The first invalid record of the last segment is its end, as a record
+	 * torn by a crash can only be found there. In an earlier segment, which
+	 * was complete when rolled over, an invalid record is corruption: it is
+	 * logged and counted, and reading resumes at the next valid record.
+	 *
+	 * @return List<OutboxEntry> - Entries not acknowledged, in append order
+	 * @throws IOException Thrown when a segment file cannot be read
+	 */
+	private List<OutboxEntry> recover() throws IOException {
+		List<Path> files;
+		try(Stream<Path> stream = Files.list(directory)) {
+			files = stream.filter(OutboxSegment::isSegment).sorted().collect(Collectors.toList());
+		}
+		TreeMap<Long, OutboxEntry> entries = new TreeMap<>();
+		for(int index = 0; index < files.size(); index++) {
+			OutboxSegment segment = OutboxSegment.open(files.get(index), segmentSize);
+			segments.put(segment.getBaseSequence(), segment);
+			active = segment;
+			boolean last = index == files.size() - 1;
+			ByteBuffer buffer = segment.getBuffer();
+			int position = 0;
+			while(position + HEADER_SIZE + 4 <= buffer.capacity()) {
+				int length = recordLength(buffer, position, nextSequence);
+				if(length < 0) {
+					if(last) {
+						break;
+					}
+					int next = nextRecord(buffer, position, nextSequence);
+					if(next < 0 && isZero(buffer, position)) {
+						break;
+					}
+					corruptRecords++;
+					logger.error("Skipped corrupt outbox records in segment {} from offset {} to {}", 
+							segment.getPath(), position, next < 0 ? buffer.capacity() : next);
+					if(next < 0) {
+						break;
+					}
+					position = next;
+					length = recordLength(buffer, position, nextSequence);
+				}
+				long sequence = buffer.getLong(position + CHECKED_OFFSET + 1);
+				if(buffer.get(position + CHECKED_OFFSET) == ENTRY) {
+					entries.put(sequence, read(buffer, position, sequence));
+					pending.put(sequence, new PendingEntry(segment, position));
+					segment.entryAdded();
+				} else {
+					long acknowledged = buffer.getLong(position + HEADER_SIZE);
+					PendingEntry entry = pending.remove(acknowledged);
+					if(entry != null) {
+						entries.remove(acknowledged);
+						entry.segment.setLastReleaseSequence(sequence);
+						entry.segment.entryReleased();
+					}
+				}
+				nextSequence = Math.max(nextSequence, sequence + 1);
+				position += 4 + length;
+			}
+			segment.setWritePosition(position);
+			segment.seal();
+		}
+		if(active != null) {
+			clearTail(active);
+		}
+		return Collections.unmodifiableList(new ArrayList<>(entries.values()));
+	}
+
+	/**
+	 * Method to validate the record at the position
+	 *
+	 * @param buffer - Segment buffer
+	 * @param position - Position of the record
+	 * @param minSequence - Lowest sequence the record may have
+	 * @return int - Length of the record, or -1 if there is no valid record at the position
+	 */
+	private static int recordLength(ByteBuffer buffer, int position, long minSequence) {
+		int length = buffer.getInt(position);
+		if(length < HEADER_SIZE - 4 || length > buffer.capacity() - position - 8) {
+			return -1;
+		}
+		byte type = buffer.get(position + CHECKED_OFFSET);
+		if(type != ENTRY && type != ACK || buffer.getLong(position + CHECKED_OFFSET + 1) < minSequence
+				|| buffer.getInt(position + 4) != checksum(buffer, position, 4 + length)) {
+			return -1;
+		}
+		return length;
+	}
+
+	/**
+	 * Method to find the next valid record after a corrupt one
+	 *
+	 * @param buffer - Segment buffer
+	 * @param position - Position of the corrupt record
+	 * @param minSequence - Lowest sequence the next record may have
+	 * @return int - Position of the next valid record, or -1 if there is none
+	 */
+	private static int nextRecord(ByteBuffer buffer, int position, long minSequence) {
+		for(int next = position + 1; next + HEADER_SIZE + 4 <= buffer.capacity(); next++) {
+			if(recordLength(buffer, next, minSequence) >= 0) {
+				return next;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Method to check that the rest of the segment is zero, i.e. was never written
+	 *
+	 * @param buffer - Segment buffer
+	 * @param position - Position to check from
+	 * @return boolean - true if every byte from the position is zero
+	 */
+	private static boolean isZero(ByteBuffer buffer, int position) {
+		for(int index = position; index < buffer.capacity(); index++) {
+			if(buffer.get(index) != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Method to zero out whatever follows the last valid record of the
+	 * segment appended to, so that a torn record is never read back
+	 *
+	 * @param segment - Last segment
+	 */
+	private static void clearTail(OutboxSegment segment) {
+		ByteBuffer buffer = segment.getBuffer();
+		for(int position = segment.getWritePosition(); position < buffer.capacity(); position++) {
+			buffer.put(position, (byte) 0);
+		}
+		segment.force();
+	}
+
+	/**
+	 * Method to read an entry record
+	 *
+	 * @param buffer - Segment buffer
+	 * @param position - Position of the record
+	 * @param sequence - Sequence of the record
+	 * @return OutboxEntry - Entry
+	 */
+	private static OutboxEntry read(ByteBuffer buffer, int position, long sequence) {
+		int length = buffer.getInt(position);
+		int offset = position + HEADER_SIZE;
+		byte kind = buffer.get(offset);
+		short trackingIdLength = buffer.getShort(offset + 1);
+		ByteBuffer view = buffer.duplicate();
+		view.position(offset + 3);
+		byte[] trackingId = new byte[trackingIdLength];
+		view.get(trackingId);
+		byte[] payload = new byte[length - (HEADER_SIZE - 4) - 3 - trackingIdLength];
+		view.get(payload);
+		return new OutboxEntry(sequence, kind, new String(trackingId, StandardCharsets.UTF_8), payload);
+	}
+
+	/**
+	 * Location of an entry not acknowledged yet
+	 *
+	 */
+	private static final class PendingEntry {
+
+		private final OutboxSegment segment;
+		private final int position;
+
+		private PendingEntry(OutboxSegment segment, int position) {
+			this.segment = segment;
+			this.position = position;
+		}
+
+	}
+
+}
@@ -0,0 +1,57 @@
+package com.aws.communication.service.outbox;
+
+/**
+ * Entry of the outbox: an accepted request waiting to be dispatched
+ *
+ */
+public final class OutboxEntry {
+	
+	private final long sequence;
+	private final byte kind;
+	private final String trackingId;
+	private final byte[] payload;
+	
+	/**
+	 * Constructor for OutboxEntry
+	 * 
+	 * @param sequence - Sequence assigned by the outbox
+	 * @param kind - Kind of the request, defined by the caller
+	 * @param trackingId - Tracking id of the request
+	 * @param payload - Serialized request
+	 */
+	OutboxEntry(long sequence, byte kind, String trackingId, byte[] payload) {
+		this.sequence = sequence;
+		this.kind = kind;
+		this.trackingId = trackingId;
+		this.payload = payload;
+	}
+
+	/**
+	 * @return the sequence, used to acknowledge the entry
+	 */
+	public long getSequence() {
+		return sequence;
+	}
+
+	/**
+	 * @return the kind
+	 */
+	public byte getKind() {
+		return kind;
+	}
+
+	/**
+	 * @return the trackingId
+	 */
+	public String getTrackingId() {
+		return trackingId;
+	}
+
+	/**
+	 * @return the payload
+	 */
+	public byte[] getPayload() {
+		return payload;
+	}
+
+}
@@ -0,0 +1,214 @@
+package com.aws.communication.service.outbox;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Segment file of the outbox, mapped into memory as a whole. Segment
+ * files are named after the sequence of their first record, so that
+ * they sort in write order.
+ *
+ */
+final class OutboxSegment {
+	
+	private static final String PREFIX = "segment-";
+	private static final String SUFFIX = ".log";
+	
+	private final Path path;
+	private final long baseSequence;
+	private final MappedByteBuffer buffer;
+	private final AtomicInteger liveEntries = new AtomicInteger();
+	
+	private volatile int entryCount;
+	
+	private volatile long lastReleaseSequence = -1;
+	private volatile long sealedAtNanos;
+	
+	private int writePosition;
+	
+	/**
+	 * Constructor for OutboxSegment
+	 * 
+	 * @param path - Segment file
+	 * @param baseSequence - Sequence of the first record
+	 * @param buffer - Mapped segment file
+	 */
+	private OutboxSegment(Path path, long baseSequence, MappedByteBuffer buffer) {
+		this.path = path;
+		this.baseSequence = baseSequence;
+		this.buffer = buffer;
+	}
+	
+	/**
+	 * Method to create and map a new segment file of the given size
+	 * 
+	 * @param directory - Outbox directory
+	 * @param baseSequence - Sequence of the first record
+	 * @param size - Size of the segment in bytes
+	 * @return OutboxSegment - Created segment
+	 * @throws IOException Thrown when the file cannot be created
+	 */
+	static OutboxSegment create(Path directory, long baseSequence, int size) throws IOException {
+		Path path = directory.resolve(String.format("%s%020d%s", PREFIX, baseSequence, SUFFIX));
+		return new OutboxSegment(path, baseSequence, map(path, size));
+	}
+	
+	/**
+	 * Method to map an existing segment file, extending a file cut short by
+	 * a crash back to the segment size so that appends can resume in it
+	 * 
+	 * @param path - Segment file
+	 * @param size - Size of a segment in bytes
+	 * @return OutboxSegment - Mapped segment
+	 * @throws IOException Thrown when the file cannot be mapped
+	 */
+	static OutboxSegment open(Path path, int size) throws IOException {
+		String name = path.getFileName().toString();
+		long baseSequence = Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+		return new OutboxSegment(path, baseSequence, map(path, (int) Math.max(Files.size(path), size)));
+	}
+	
+	/**
+	 * Method to check if the file is a segment file
+	 * 
+	 * @param path - File
+	 * @return boolean - true if segment file
+	 */
+	static boolean isSegment(Path path) {
+		String name = path.getFileName().toString();
+		return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+	}
+	
+	/**
+	 * Method to map the file, extending it to the given size
+	 * 
+	 * @param path - File
+	 * @param size - Size in bytes
+	 * @return MappedByteBuffer - Mapped file
+	 * @throws IOException Thrown when the file cannot be mapped
+	 */
+	private static MappedByteBuffer map(Path path, int size) throws IOException {
+		try(RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+			if(file.length() < size) {
+				file.setLength(size);
+			}
+			return file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+		}
+	}
+	
+	/**
+	 * Method to flush the written records to disk
+	 */
+	void force() {
+		buffer.force();
+	}
+	
+	/**
+	 * Method to delete the segment file
+	 * 
+	 * @throws IOException Thrown when the file cannot be deleted
+	 */
+	void delete() throws IOException {
+		Files.deleteIfExists(path);
+	}
+	
+	/**
+	 * @return the mapped segment file
+	 */
+	MappedByteBuffer getBuffer() {
+		return buffer;
+	}
+	
+	/**
+	 * @return the path
+	 */
+	Path getPath() {
+		return path;
+	}
+	
+	/**
+	 * @return the sequence of the first record
+	 */
+	long getBaseSequence() {
+		return baseSequence;
+	}
+	
+	/**
+	 * Method to count an entry written to the segment, must hold the
+	 * append lock of the outbox
+	 */
+	void entryAdded() {
+		entryCount++;
+		liveEntries.incrementAndGet();
+	}
+	
+	/**
+	 * Method to count an entry of the segment acknowledged
+	 */
+	void entryReleased() {
+		liveEntries.decrementAndGet();
+	}
+	
+	/**
+	 * @return the number of entries not acknowledged yet
+	 */
+	int getLiveEntries() {
+		return liveEntries.get();
+	}
+	
+	/**
+	 * @return the number of entries written to the segment
+	 */
+	int getEntryCount() {
+		return entryCount;
+	}
+	
+	/**
+	 * @return the sequence of the latest record releasing an entry of this
+	 * segment, which must be durable before the segment is deleted
+	 */
+	long getLastReleaseSequence() {
+		return lastReleaseSequence;
+	}
+	
+	/**
+	 * @param lastReleaseSequence the lastReleaseSequence to set
+	 */
+	void setLastReleaseSequence(long lastReleaseSequence) {
+		this.lastReleaseSequence = lastReleaseSequence;
+	}
+	
+	/**
+	 * @return the time the segment was rolled over, 0 while active
+	 */
+	long getSealedAtNanos() {
+		return sealedAtNanos;
+	}
+	
+	/**
+	 * Method to mark the segment as rolled over
+	 */
+	void seal() {
+		sealedAtNanos = System.nanoTime();
+	}
+	
+	/**
+	 * @return the position the next record is written at
+	 */
+	int getWritePosition() {
+		return writePosition;
+	}
+	
+	/**
+	 * @param writePosition the writePosition to set
+	 */
+	void setWritePosition(int writePosition) {
+		this.writePosition = writePosition;
+	}
+
+}
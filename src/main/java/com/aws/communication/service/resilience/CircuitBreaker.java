@@ -0,0 +1,193 @@
+package com.aws.communication.service.resilience;
+
+import java.util.function.Consumer;
+
+/**
+ * Circuit breaker of a channel and region, opening when the failure rate
+ * over a sliding time window reaches the threshold.
+ *
+ * While open, calls are rejected until the open time has elapsed; a limited
+ * number of trial calls are then let through (half open), closing the breaker
+ * when all of them succeed and opening it again on the first failure. The
+ * window is kept as ten buckets of calls and failures, so that recording a
+ * call does not allocate.
+ *
+ */
+final class CircuitBreaker {
+	
+	/**
+	 * State of the breaker, ordered from healthy to unhealthy
+	 */
+	enum State {
+		CLOSED,
+		HALF_OPEN,
+		OPEN
+	}
+	
+	private static final int BUCKETS = 10;
+	
+	private final double failureRateThreshold;
+	private final int minimumCalls;
+	private final long bucketNanos;
+	private final long openNanos;
+	private final int halfOpenCalls;
+	private final Consumer<State> transitionListener;
+	
+	private final long[] bucketEpochs = new long[BUCKETS];
+	private final int[] bucketCalls = new int[BUCKETS];
+	private final int[] bucketFailures = new int[BUCKETS];
+	
+	private volatile State state = State.CLOSED;
+	private long openedAtNanos;
+	private int trialsStarted;
+	private int trialsSucceeded;
+	
+	/**
+	 * Constructor for CircuitBreaker
+	 * 
+	 * @param failureRateThreshold - Failure rate at which the breaker opens
+	 * @param minimumCalls - Number of calls within the window before the failure rate is evaluated
+	 * @param windowNanos - Sliding window the failure rate is measured over
+	 * @param openNanos - Time the breaker stays open
+	 * @param halfOpenCalls - Number of successful trial calls closing the breaker
+	 * @param transitionListener - Listener notified of the new state on every transition
+	 */
+	CircuitBreaker(double failureRateThreshold, int minimumCalls, long windowNanos, long openNanos, 
+			int halfOpenCalls, Consumer<State> transitionListener) {
+		this.failureRateThreshold = failureRateThreshold;
+		this.minimumCalls = Math.max(1, minimumCalls);
+		this.bucketNanos = Math.max(1, windowNanos / BUCKETS);
+		this.openNanos = openNanos;
+		this.halfOpenCalls = Math.max(1, halfOpenCalls);
+		this.transitionListener = transitionListener;
+	}
+	
+	/**
+	 * Method to check if a call may be made
+	 * 
+	 * @param now - Current time in nanoseconds
+	 * @return boolean - true if the call may be made, false if rejected
+	 */
+	synchronized boolean tryAcquire(long now) {
+		if(state == State.CLOSED) {
+			return true;
+		}
+		if(state == State.OPEN) {
+			if(now - openedAtNanos < openNanos) {
+				return false;
+			}
+			trialsStarted = 0;
+			trialsSucceeded = 0;
+			transition(State.HALF_OPEN);
+		}
+		if(trialsStarted >= halfOpenCalls) {
+			return false;
+		}
+		trialsStarted++;
+		return true;
+	}
+	
+	/**
+	 * Method to check if a call would be let through, without acquiring
+	 * a trial call
+	 * 
+	 * @param now - Current time in nanoseconds
+	 * @return boolean - true if a call would be let through
+	 */
+	synchronized boolean isCallPermitted(long now) {
+		switch(state) {
+			case OPEN:
+				return now - openedAtNanos >= openNanos;
+			case HALF_OPEN:
+				return trialsStarted < halfOpenCalls;
+			default:
+				return true;
+		}
+	}
+	
+	/**
+	 * Method to record a call answered by AWS
+	 * 
+	 * @param now - Current time in nanoseconds
+	 */
+	synchronized void onSuccess(long now) {
+		if(state == State.HALF_OPEN) {
+			if(++trialsSucceeded >= halfOpenCalls) {
+				clearWindow();
+				transition(State.CLOSED);
+			}
+		} else if(state == State.CLOSED) {
+			record(now, false);
+		}
+	}
+	
+	/**
+	 * Method to record a call failed for a reason of the region
+	 * 
+	 * @param now - Current time in nanoseconds
+	 */
+	synchronized void onFailure(long now) {
+		if(state == State.HALF_OPEN) {
+			open(now);
+		} else if(state == State.CLOSED) {
+			record(now, true);
+			int calls = 0;
+			int failures = 0;
+			long epoch = now / bucketNanos;
+			for(int i = 0; i < BUCKETS; i++) {
+				if(epoch - bucketEpochs[i] < BUCKETS) {
+					calls += bucketCalls[i];
+					failures += bucketFailures[i];
+				}
+			}
+			if(calls >= minimumCalls && failures >= failureRateThreshold * calls) {
+				open(now);
+			}
+		}
+	}
+	
+	/**
+	 * @return the state
+	 */
+	State getState() {
+		return state;
+	}
+	
+	/**
+	 * Method to add the call to the bucket of the current time
+	 * 
+	 * @param now - Current time in nanoseconds
+	 * @param failure - true if the call failed
+	 */
+	private void record(long now, boolean failure) {
+		long epoch = now / bucketNanos;
+		int bucket = (int) Math.floorMod(epoch, (long) BUCKETS);
+		if(bucketEpochs[bucket] != epoch) {
+			bucketEpochs[bucket] = epoch;
+			bucketCalls[bucket] = 0;
+			bucketFailures[bucket] = 0;
+		}
+		bucketCalls[bucket]++;
+		if(failure) {
+			bucketFailures[bucket]++;
+		}
+	}
+	
+	private void open(long now) {
+		openedAtNanos = now;
+		transition(State.OPEN);
+	}
+	
+	private void clearWindow() {
+		for(int i = 0; i < BUCKETS; i++) {
+			bucketCalls[i] = 0;
+			bucketFailures[i] = 0;
+		}
+	}
+	
+	private void transition(State next) {
+		state = next;
+		transitionListener.accept(next);
+	}
+
+}
@@ -0,0 +1,93 @@
+package com.aws.communication.service.resilience;
+
+import java.util.concurrent.CompletionException;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.retry.RetryUtils;
+
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+
+/**
+ * Classification of the failure of an AWS call, for both the synchronous
+ * (1.x) and the asynchronous (2.x) SDK.
+ *
+ */
+public enum FailureType {
+	
+	/**
+	 * Rejected as invalid, e.g. unknown template or unverified sender.
+	 * Not retried, and the region counts as healthy as it answered.
+	 */
+	CLIENT_ERROR(false, false),
+	
+	/**
+	 * Throttled by AWS. Not retried in place, as a retry would bypass the
+	 * rate limiter: the caller backs the limiter off and fails over with
+	 * new permits instead. The region counts as healthy.
+	 */
+	THROTTLED(false, false),
+	
+	/**
+	 * Server error, timeout or connection failure. Retried, and counted
+	 * as failure of the region by the circuit breaker.
+	 */
+	TRANSIENT(true, true);
+	
+	private final boolean retryable;
+	private final boolean regionFailure;
+	
+	private FailureType(boolean retryable, boolean regionFailure) {
+		this.retryable = retryable;
+		this.regionFailure = regionFailure;
+	}
+	
+	/**
+	 * Method to classify the failure of an AWS call
+	 * 
+	 * @param failure - Exception raised by the AWS client
+	 * @return FailureType - Classification of the failure
+	 */
+	public static FailureType classify(Throwable failure) {
+		Throwable cause = failure instanceof CompletionException && failure.getCause() != null 
+				? failure.getCause() : failure;
+		if(cause instanceof AmazonServiceException) {
+			AmazonServiceException exception = (AmazonServiceException) cause;
+			if(RetryUtils.isThrottlingException(exception)) {
+				return THROTTLED;
+			}
+			return exception.getStatusCode() >= 500 || RetryUtils.isRetryableServiceException(exception) 
+					? TRANSIENT : CLIENT_ERROR;
+		}
+		if(cause instanceof AmazonClientException) {
+			return ((AmazonClientException) cause).isRetryable() ? TRANSIENT : CLIENT_ERROR;
+		}
+		if(cause instanceof SdkServiceException) {
+			SdkServiceException exception = (SdkServiceException) cause;
+			if(exception.isThrottlingException()) {
+				return THROTTLED;
+			}
+			return exception.statusCode() >= 500 ? TRANSIENT : CLIENT_ERROR;
+		}
+		if(cause instanceof SdkClientException) {
+			return TRANSIENT;
+		}
+		return CLIENT_ERROR;
+	}
+	
+	/**
+	 * @return true if the call is retried
+	 */
+	public boolean isRetryable() {
+		return retryable;
+	}
+	
+	/**
+	 * @return true if counted as failure by the circuit breaker
+	 */
+	public boolean isRegionFailure() {
+		return regionFailure;
+	}
+
+}
@@ -0,0 +1,342 @@
+package com.aws.communication.service.resilience;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import com.aws.communication.config.ResilienceProperties;
+import com.aws.communication.exception.ServiceUnavailableException;
+import com.aws.communication.service.SendRateLimiter.Channel;
+import com.aws.communication.utils.StatusCodes;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Service class to make the SES and SNS calls with retries and a circuit
+ * breaker per channel and region.
+ *
+ * Failures are classified by {@link FailureType}: transient failures are
+ * retried after an exponential backoff with decorrelated jitter, as long as
+ * the retry budget of the region allows, while invalid requests are not.
+ * Throttling is not retried here, as the retry would not take rate limiter
+ * permits: it is left to the caller to back the rate limiter off and to fail
+ * over to another region. Transient failures count towards the circuit breaker of the region,
+ * and calls are rejected right away with 503 while the breaker is open, instead
+ * of holding a thread until the AWS client times out.
+ *
+ */
+@Service
+public class ResilienceService {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ResilienceService.class);
+
+	@Autowired
+	private ResilienceProperties properties;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private final Map<Channel, Map<String, RegionGuard>> guards = new EnumMap<>(Channel.class);
+
+	private ScheduledExecutorService retryScheduler;
+
+	/**
+	 * Method to create the scheduler of asynchronous retries
+	 */
+	@PostConstruct
+	public void init() {
+		for(Channel channel : Channel.values()) {
+			guards.put(channel, new ConcurrentHashMap<>());
+		}
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("retry-scheduler-");
+		threadFactory.setDaemon(true);
+		retryScheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+	}
+
+	/**
+	 * Method to stop the scheduler of asynchronous retries
+	 */
+	@PreDestroy
+	public void stop() {
+		retryScheduler.shutdownNow();
+	}
+
+	/**
+	 * Method to make a blocking AWS call, retrying it on transient failures
+	 *
+	 * @param <T> - Result type of the call
+	 * @param channel - Channel of the call
+	 * @param region - AWS region of the call
+	 * @param call - AWS call
+	 * @return T - Result of the call
+	 * @throws ServiceUnavailableException Thrown when the circuit breaker of the region is open
+	 */
+	public <T> T call(Channel channel, String region, Supplier<T> call) throws ServiceUnavailableException {
+		if(!properties.isEnabled()) {
+			return call.get();
+		}
+		RegionGuard guard = guard(channel, region);
+		long delayMillis = properties.getRetry().getBaseDelayMs();
+		for(int attempt = 1; ; attempt++) {
+			acquire(guard, attempt, null);
+			try {
+				T result = call.get();
+				guard.breaker.onSuccess(System.nanoTime());
+				return result;
+			} catch (RuntimeException e) {
+				if(!shouldRetry(guard, FailureType.classify(e), attempt)) {
+					throw e;
+				}
+				delayMillis = nextDelay(delayMillis);
+				try {
+					Thread.sleep(delayMillis);
+				} catch (InterruptedException interrupted) {
+					Thread.currentThread().interrupt();
+					throw e;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Method to make a non-blocking AWS call, retrying it on transient
+	 * failures from the retry scheduler
+	 *
+	 * @param <T> - Result type of the call
+	 * @param channel - Channel of the call
+	 * @param region - AWS region of the call
+	 * @param call - AWS call
+	 * @return CompletableFuture<T> - Result of the call, completed with the failure of the
+	 * last attempt when not retried, or with ServiceUnavailableException when the circuit
+	 * breaker opened in between
+	 * @throws ServiceUnavailableException Thrown when the circuit breaker of the region is open
+	 */
+	public <T> CompletableFuture<T> callAsync(Channel channel, String region,
+			Supplier<CompletableFuture<T>> call) throws ServiceUnavailableException {
+		if(!properties.isEnabled()) {
+			return call.get();
+		}
+		RegionGuard guard = guard(channel, region);
+		acquire(guard, 1, null);
+		CompletableFuture<T> result = new CompletableFuture<>();
+		attempt(guard, call, 1, properties.getRetry().getBaseDelayMs(), result);
+		return result;
+	}
+
+	/**
+	 * Method to check if the circuit breaker of the region would let a call through
+	 *
+	 * @param channel - Channel of the call
+	 * @param region - AWS region of the call
+	 * @return boolean - true if a call would be let through
+	 */
+	public boolean isCallPermitted(Channel channel, String region) {
+		if(!properties.isEnabled()) {
+			return true;
+		}
+		RegionGuard guard = guards.get(channel).get(region);
+		return guard == null || guard.breaker.isCallPermitted(System.nanoTime());
+	}
+
+	/**
+	 * Method to make one attempt of a non-blocking call, the circuit breaker
+	 * having been acquired
+	 *
+	 * @param <T> - Result type of the call
+	 * @param guard - Circuit breaker and retry budget of the region
+	 * @param call - AWS call
+	 * @param attempt - Number of the attempt, starting from 1
+	 * @param delayMillis - Delay before the previous attempt
+	 * @param result - Future to be completed with the outcome of the call
+	 */
+	private <T> void attempt(RegionGuard guard, Supplier<CompletableFuture<T>> call, int attempt,
+			long delayMillis, CompletableFuture<T> result) {
+		CompletableFuture<T> future;
+		try {
+			future = call.get();
+		} catch (RuntimeException e) {
+			future = new CompletableFuture<>();
+			future.completeExceptionally(e);
+		}
+		future.whenComplete((value, error) -> {
+			if(error == null) {
+				guard.breaker.onSuccess(System.nanoTime());
+				result.complete(value);
+				return;
+			}
+			if(!shouldRetry(guard, FailureType.classify(error), attempt)) {
+				result.completeExceptionally(error);
+				return;
+			}
+			long nextDelayMillis = nextDelay(delayMillis);
+			retryScheduler.schedule(() -> {
+				try {
+					acquire(guard, attempt + 1, error);
+				} catch (ServiceUnavailableException e) {
+					result.completeExceptionally(new CompletionException(e));
+					return;
+				}
+				attempt(guard, call, attempt + 1, nextDelayMillis, result);
+			}, nextDelayMillis, TimeUnit.MILLISECONDS);
+		});
+	}
+
+	/**
+	 * Method to acquire the circuit breaker for an attempt
+	 *
+	 * @param guard - Circuit breaker and retry budget of the region
+	 * @param attempt - Number of the attempt, starting from 1
+	 * @param previousFailure - Failure of the previous attempt, if any
+	 * @throws ServiceUnavailableException Thrown when the circuit breaker is open
+	 */
+	private void acquire(RegionGuard guard, int attempt, Throwable previousFailure)
+			throws ServiceUnavailableException {
+		long now = System.nanoTime();
+		if(attempt == 1) {
+			guard.budget.onCall(now);
+		}
+		if(!guard.breaker.tryAcquire(now)) {
+			guard.rejectedCounter.increment();
+			Exception cause = previousFailure instanceof Exception ? (Exception) previousFailure : null;
+			throw new ServiceUnavailableException(StatusCodes.CIRCUIT_OPEN.getCode(),
+					StatusCodes.CIRCUIT_OPEN.getReason(), cause,
+					guard.channel.getService().toUpperCase(Locale.ROOT), guard.region);
+		}
+	}
+
+	/**
+	 * Method to record the failure of an attempt and decide if the call is retried
+	 *
+	 * @param guard - Circuit breaker and retry budget of the region
+	 * @param type - Classification of the failure
+	 * @param attempt - Number of the failed attempt, starting from 1
+	 * @return boolean - true if the call is retried
+	 */
+	private boolean shouldRetry(RegionGuard guard, FailureType type, int attempt) {
+		long now = System.nanoTime();
+		if(type.isRegionFailure()) {
+			guard.breaker.onFailure(now);
+		} else {
+			guard.breaker.onSuccess(now);
+		}
+		if(!type.isRetryable()) {
+			return false;
+		}
+		if(attempt >= properties.getRetry().getMaxAttempts()) {
+			guard.attemptsExhaustedCounter.increment();
+			return false;
+		}
+		if(!guard.budget.tryRetry(now)) {
+			guard.budgetExhaustedCounter.increment();
+			return false;
+		}
+		guard.transientRetryCounter.increment();
+		return true;
+	}
+
+	/**
+	 * Method to get the delay before the next retry, a random value between the
+	 * base delay and three times the previous delay, capped at the maximum delay
+	 *
+	 * @param previousDelayMillis - Delay before the previous attempt, base delay for the first
+	 * @return long - Delay in milliseconds
+	 */
+	long nextDelay(long previousDelayMillis) {
+		long baseDelayMillis = properties.getRetry().getBaseDelayMs();
+		long upperMillis = Math.max(baseDelayMillis, previousDelayMillis * 3);
+		long delayMillis = baseDelayMillis + ThreadLocalRandom.current().nextLong(upperMillis - baseDelayMillis + 1);
+		return Math.min(properties.getRetry().getMaxDelayMs(), delayMillis);
+	}
+
+	/**
+	 * Method to get the circuit breaker and retry budget of the region,
+	 * creating them and their metrics on first use
+	 *
+	 * @param channel - Channel of the call
+	 * @param region - AWS region of the call
+	 * @return RegionGuard - Circuit breaker and retry budget of the region
+	 */
+	private RegionGuard guard(Channel channel, String region) {
+		return guards.get(channel).computeIfAbsent(region, key -> new RegionGuard(channel, region));
+	}
+
+	/**
+	 * Circuit breaker, retry budget and metrics of a channel and region
+	 */
+	private final class RegionGuard {
+
+		private final Channel channel;
+		private final String region;
+		private final CircuitBreaker breaker;
+		private final RetryBudget budget;
+		private final Counter rejectedCounter;
+		private final Counter transientRetryCounter;
+		private final Counter attemptsExhaustedCounter;
+		private final Counter budgetExhaustedCounter;
+
+		private RegionGuard(Channel channel, String region) {
+			this.channel = channel;
+			this.region = region;
+			ResilienceProperties.Breaker breakerProperties = properties.getBreaker();
+			this.breaker = new CircuitBreaker(breakerProperties.getFailureRateThreshold(),
+					breakerProperties.getMinimumCalls(),
+					TimeUnit.MILLISECONDS.toNanos(breakerProperties.getWindowMs()),
+					TimeUnit.MILLISECONDS.toNanos(breakerProperties.getOpenMs()),
+					breakerProperties.getHalfOpenCalls(), this::onTransition);
+			this.budget = new RetryBudget(properties.getRetry().getBudgetRatio(),
+					properties.getRetry().getBudgetMinPerSecond(), System.nanoTime());
+
+			Gauge.builder("aws.communication.circuit.state", breaker, guarded -> guarded.getState().ordinal())
+					.description("State of the circuit breaker: 0 closed, 1 half open, 2 open")
+					.tags("channel", channel.name(), "region", region)
+					.register(meterRegistry);
+			this.rejectedCounter = Counter.builder("aws.communication.circuit.rejected")
+					.description("Calls rejected as the circuit breaker was open")
+					.tags("channel", channel.name(), "region", region)
+					.register(meterRegistry);
+			this.transientRetryCounter = retryCounter("transient");
+			this.attemptsExhaustedCounter = exhaustedCounter("attempts");
+			this.budgetExhaustedCounter = exhaustedCounter("budget");
+		}
+
+		private Counter retryCounter(String reason) {
+			return Counter.builder("aws.communication.retry.attempts")
+					.description("Calls retried")
+					.tags("channel", channel.name(), "region", region, "reason", reason)
+					.register(meterRegistry);
+		}
+
+		private Counter exhaustedCounter(String reason) {
+			return Counter.builder("aws.communication.retry.exhausted")
+					.description("Calls not retried as the attempts or the retry budget were used up")
+					.tags("channel", channel.name(), "region", region, "reason", reason)
+					.register(meterRegistry);
+		}
+
+		private void onTransition(CircuitBreaker.State state) {
+			LOGGER.warn("Circuit breaker of {} in {} is now {}", channel.getService(), region, state);
+			meterRegistry.counter("aws.communication.circuit.transitions",
+					"channel", channel.name(), "region", region, "state", state.name()).increment();
+		}
+	}
+
+}
@@ -0,0 +1,96 @@
+package com.aws.communication.service.resilience;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free budget limiting retries to a fraction of the calls made, so
+ * that retries cannot multiply the load on a region which is already failing.
+ *
+ * Every call deposits the ratio into a token bucket and every retry takes a
+ * whole token. A minimum number of retries per second is refilled over time,
+ * so that low traffic can still be retried. The bucket holds at most ten
+ * seconds worth of the minimum.
+ *
+ * Tokens are kept in millionths in an atomic counter updated with
+ * compare-and-set, and the time elapsed since the last refill is claimed by
+ * a single compare-and-set of the refill time, so that it is credited once.
+ *
+ */
+final class RetryBudget {
+	
+	private static final double NANOS_PER_SECOND = 1_000_000_000L;
+	
+	private static final long UNITS_PER_TOKEN = 1_000_000L;
+	
+	private final long ratioUnits;
+	private final double minPerSecond;
+	private final long maxUnits;
+	
+	private final AtomicLong units;
+	private final AtomicLong refilledAtNanos;
+	
+	/**
+	 * Constructor for RetryBudget
+	 * 
+	 * @param ratio - Number of retries allowed per call made
+	 * @param minPerSecond - Number of retries allowed per second regardless of the calls made
+	 * @param now - Current time in nanoseconds
+	 */
+	RetryBudget(double ratio, double minPerSecond, long now) {
+		this.ratioUnits = Math.round(ratio * UNITS_PER_TOKEN);
+		this.minPerSecond = minPerSecond;
+		this.maxUnits = Math.round(Math.max(10, minPerSecond * 10) * UNITS_PER_TOKEN);
+		this.units = new AtomicLong(Math.min(maxUnits, Math.round(minPerSecond * UNITS_PER_TOKEN)));
+		this.refilledAtNanos = new AtomicLong(now);
+	}
+	
+	/**
+	 * Method to deposit the share of a call made
+	 * 
+	 * @param now - Current time in nanoseconds
+	 */
+	void onCall(long now) {
+		refill(now);
+		deposit(ratioUnits);
+	}
+	
+	/**
+	 * Method to take a token for a retry
+	 * 
+	 * @param now - Current time in nanoseconds
+	 * @return boolean - true if the retry is within the budget
+	 */
+	boolean tryRetry(long now) {
+		refill(now);
+		while(true) {
+			long current = units.get();
+			if(current < UNITS_PER_TOKEN) {
+				return false;
+			}
+			if(units.compareAndSet(current, current - UNITS_PER_TOKEN)) {
+				return true;
+			}
+		}
+	}
+	
+	/**
+	 * @return double - Number of retries currently allowed
+	 */
+	double getTokens() {
+		return (double) units.get() / UNITS_PER_TOKEN;
+	}
+	
+	private void refill(long now) {
+		long refilledAt = refilledAtNanos.get();
+		long credit = (long) ((now - refilledAt) * minPerSecond * UNITS_PER_TOKEN / NANOS_PER_SECOND);
+		// below one unit the elapsed time is left to accumulate instead of being rounded away
+		if(credit > 0 && refilledAtNanos.compareAndSet(refilledAt, now)) {
+			deposit(credit);
+		}
+	}
+	
+	private void deposit(long credit) {
+		units.getAndUpdate(current -> Math.min(maxUnits, current + credit));
+	}
+
+}
@@ -0,0 +1,190 @@
+package com.aws.communication.service.schedule;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Scheduler holding values in a {@link TimingWheel} until their time, then
+ * handing them to a release function at a steady rate.
+ *
+ * Values reaching their time are moved to a due queue on each tick, and at
+ * most the release rate is handed over per second, spread over the ticks.
+ * Sends scheduled for the same minute, such as a morning campaign, thus
+ * reach the dispatcher as an even flow instead of all at once. A value the
+ * release function does not accept, as its destination is full, stays at
+ * the head of the due queue and is handed over again on the next tick.
+ *
+ * @param <T> - Type of the values
+ */
+public class DeliveryScheduler<T> implements Closeable {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(DeliveryScheduler.class);
+
+	private static final int WHEEL_BITS = 9;
+	private static final int WHEEL_LEVELS = 4;
+
+	private final long tickMillis;
+	private final double releasePerTick;
+	private final int maxScheduled;
+	private final Predicate<T> release;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final TimingWheel<T> wheel;
+	private final ArrayDeque<T> due = new ArrayDeque<>();
+
+	private final Thread ticker;
+	private volatile boolean running = true;
+
+	private double releaseBudget;
+
+	/**
+	 * Constructor for DeliveryScheduler, starting the ticker thread
+	 *
+	 * @param tickMillis - Interval between ticks, the resolution of the schedule
+	 * @param releaseRatePerSecond - Number of values handed over per second at most
+	 * @param maxScheduled - Number of values held at most, waiting or due
+	 * @param release - Function handing a due value over, returning false
+	 * when the value cannot be accepted yet
+	 * @param threadFactory - Factory of the ticker thread
+	 */
+	public DeliveryScheduler(long tickMillis, double releaseRatePerSecond, int maxScheduled, Predicate<T> release, 
+			ThreadFactory threadFactory) {
+		this.tickMillis = tickMillis;
+		this.releasePerTick = releaseRatePerSecond * tickMillis / TimeUnit.SECONDS.toMillis(1);
+		this.maxScheduled = maxScheduled;
+		this.release = release;
+		this.wheel = new TimingWheel<>(tickMillis, WHEEL_BITS, WHEEL_LEVELS, System.currentTimeMillis());
+		this.ticker = threadFactory.newThread(this::tickLoop);
+		this.ticker.start();
+	}
+
+	/**
+	 * Method to schedule a value. A value whose time is already reached is
+	 * due right away, and handed over at the release rate.
+	 *
+	 * @param sendAtMillis - Time of the value in milliseconds since the epoch
+	 * @param value - Value
+	 * @return boolean - false if the maximum number of values is held and the value was not scheduled
+	 */
+	public boolean schedule(long sendAtMillis, T value) {
+		lock.lock();
+		try {
+			if(wheel.size() + due.size() >= maxScheduled) {
+				return false;
+			}
+			if(!wheel.add(sendAtMillis, value)) {
+				due.add(value);
+			}
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return the number of values waiting for their time
+	 */
+	public int getWaitingCount() {
+		lock.lock();
+		try {
+			return wheel.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return the number of values whose time is reached, waiting to be handed over
+	 */
+	public int getDueCount() {
+		lock.lock();
+		try {
+			return due.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Method to stop the ticker thread. Values still held are dropped.
+	 */
+	@Override
+	public void close() {
+		running = false;
+		ticker.interrupt();
+		try {
+			ticker.join(TimeUnit.SECONDS.toMillis(5));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Method run by the ticker thread, advancing the wheel and handing the
+	 * due values over on every tick until stopped
+	 */
+	private void tickLoop() {
+		List<T> batch = new ArrayList<>();
+		while(running) {
+			try {
+				TimeUnit.MILLISECONDS.sleep(tickMillis - System.currentTimeMillis() % tickMillis);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			try {
+				tick(batch);
+			} catch (RuntimeException e) {
+				LOGGER.error("Scheduler tick failed", e);
+			} finally {
+				batch.clear();
+			}
+		}
+	}
+
+	/**
+	 * Method to advance the wheel and hand over the share of the due values
+	 * allowed by the release rate. Values are handed over outside the lock,
+	 * so that scheduling is not held up by the release function.
+	 *
+	 * @param batch - List to collect the values to hand over
+	 */
+	private void tick(List<T> batch) {
+		lock.lock();
+		try {
+			wheel.advance(System.currentTimeMillis(), due::add);
+			// the budget does not build up while idle, so that a backlog is not released in a burst
+			releaseBudget = due.isEmpty() ? 0 : Math.min(releaseBudget + releasePerTick, Math.max(1, releasePerTick));
+			while(releaseBudget >= 1 && !due.isEmpty()) {
+				batch.add(due.poll());
+				releaseBudget--;
+			}
+		} finally {
+			lock.unlock();
+		}
+		int released = 0;
+		while(released < batch.size() && release.test(batch.get(released))) {
+			released++;
+		}
+		if(released < batch.size()) {
+			lock.lock();
+			try {
+				for(int i = batch.size() - 1; i >= released; i--) {
+					due.addFirst(batch.get(i));
+				}
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+
+}
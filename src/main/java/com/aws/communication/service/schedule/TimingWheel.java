@@ -0,0 +1,154 @@
+package com.aws.communication.service.schedule;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel holding values until their deadline.
+ *
+ * Each level is a ring of slots, a slot of level 0 spanning one tick and a
+ * slot of each level above spanning a full turn of the level below. A value
+ * is added to the lowest level whose turn covers its delay, in constant time.
+ * When the wheel advances into the span of a slot above level 0, the values
+ * of the slot are moved down to the levels covering their remaining delay,
+ * and the values of each level 0 slot expire as the wheel reaches its tick.
+ * Each value is thus moved at most once per level, however many values are
+ * held, whereas a priority queue would pay a logarithmic cost per value.
+ *
+ * Delays beyond the span of the top level are held in the top level and
+ * placed again on each of its turns.
+ *
+ * Not thread safe, guarded by the owning {@link DeliveryScheduler}.
+ *
+ * @param <T> - Type of the values
+ */
+final class TimingWheel<T> {
+
+	private final long tickMillis;
+	private final int bits;
+	private final int mask;
+	private final Node<T>[][] slots;
+
+	private long currentTick;
+	private int size;
+
+	/**
+	 * @param tickMillis - Duration of a tick, the resolution of the deadlines
+	 * @param bits - Number of slots of each level as a power of two
+	 * @param levels - Number of levels
+	 * @param nowMillis - Current time in milliseconds since the epoch
+	 */
+	@SuppressWarnings("unchecked")
+	TimingWheel(long tickMillis, int bits, int levels, long nowMillis) {
+		this.tickMillis = tickMillis;
+		this.bits = bits;
+		this.mask = (1 << bits) - 1;
+		this.slots = new Node[levels][1 << bits];
+		this.currentTick = nowMillis / tickMillis;
+	}
+
+	/**
+	 * Method to add a value. Deadlines are rounded up to the next tick,
+	 * so that a value never expires before its deadline.
+	 *
+	 * @param deadlineMillis - Deadline in milliseconds since the epoch
+	 * @param value - Value
+	 * @return boolean - false if the deadline is already reached and the value was not added
+	 */
+	boolean add(long deadlineMillis, T value) {
+		long deadlineTick = (deadlineMillis + tickMillis - 1) / tickMillis;
+		if(deadlineTick <= currentTick) {
+			return false;
+		}
+		place(new Node<>(deadlineTick, value));
+		size++;
+		return true;
+	}
+
+	/**
+	 * Method to advance the wheel up to the current time, expiring the
+	 * values whose deadline is reached
+	 *
+	 * @param nowMillis - Current time in milliseconds since the epoch
+	 * @param expired - Consumer of the expired values, in deadline order
+	 */
+	void advance(long nowMillis, Consumer<T> expired) {
+		long targetTick = nowMillis / tickMillis;
+		while(currentTick < targetTick) {
+			currentTick++;
+			// higher levels first, so that values cascade down through every level in one tick
+			for(int level = slots.length - 1; level > 0; level--) {
+				if((currentTick & ((1L << (level * bits)) - 1)) == 0) {
+					cascade(level, expired);
+				}
+			}
+			int index = (int) (currentTick & mask);
+			Node<T> node = slots[0][index];
+			slots[0][index] = null;
+			while(node != null) {
+				size--;
+				expired.accept(node.value);
+				node = node.next;
+			}
+		}
+	}
+
+	/**
+	 * @return the number of values held
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Method to move the values of the current slot of the level down
+	 * to the levels covering their remaining delay
+	 *
+	 * @param level - Level above 0
+	 * @param expired - Consumer of the values whose deadline is reached
+	 */
+	private void cascade(int level, Consumer<T> expired) {
+		int index = (int) ((currentTick >>> (level * bits)) & mask);
+		Node<T> node = slots[level][index];
+		slots[level][index] = null;
+		while(node != null) {
+			Node<T> next = node.next;
+			if(node.deadlineTick <= currentTick) {
+				size--;
+				expired.accept(node.value);
+			} else {
+				place(node);
+			}
+			node = next;
+		}
+	}
+
+	/**
+	 * Method to link the node into the slot of the lowest level covering
+	 * its delay
+	 *
+	 * @param node - Node whose deadline is after the current tick
+	 */
+	private void place(Node<T> node) {
+		long delay = node.deadlineTick - currentTick;
+		int level = Math.min((63 - Long.numberOfLeadingZeros(delay)) / bits, slots.length - 1);
+		int index = (int) ((node.deadlineTick >>> (level * bits)) & mask);
+		node.next = slots[level][index];
+		slots[level][index] = node;
+	}
+
+	/**
+	 * Value linked into a slot
+	 */
+	private static final class Node<T> {
+
+		private final long deadlineTick;
+		private final T value;
+		private Node<T> next;
+
+		private Node(long deadlineTick, T value) {
+			this.deadlineTick = deadlineTick;
+			this.value = value;
+		}
+	}
+
+}
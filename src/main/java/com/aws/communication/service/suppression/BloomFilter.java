@@ -0,0 +1,92 @@
+package com.aws.communication.service.suppression;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Blocked Bloom filter over 64-bit hashes. All bits of an entry are set
+ * within one 512-bit block, so that a lookup touches a single cache line.
+ * Bits are set with compare-and-set, thus adds may run concurrently with
+ * lookups. Entries cannot be removed.
+ *
+ */
+final class BloomFilter {
+	
+	private static final int BLOCK_LONGS = 8;
+	private static final int BLOCK_BITS = BLOCK_LONGS * Long.SIZE;
+	private static final int HASHES = 7;
+	
+	private final AtomicLongArray bits;
+	private final int blocks;
+	private final long capacity;
+	
+	/**
+	 * Constructor for BloomFilter
+	 * 
+	 * @param capacity - Expected number of entries
+	 * @param bitsPerEntry - Bits per expected entry, 10 gives about 1% false positives
+	 */
+	BloomFilter(long capacity, int bitsPerEntry) {
+		long blockCount = Math.max(1, (capacity * bitsPerEntry + BLOCK_BITS - 1) / BLOCK_BITS);
+		if(blockCount * BLOCK_LONGS > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Bloom filter capacity too large: " + capacity);
+		}
+		this.blocks = (int) blockCount;
+		this.bits = new AtomicLongArray(blocks * BLOCK_LONGS);
+		this.capacity = capacity;
+	}
+	
+	/**
+	 * Method to add the hash to the filter
+	 * 
+	 * @param hash - 64-bit hash of the entry
+	 */
+	void add(long hash) {
+		int base = block(hash);
+		long bitHash = SuppressionHash.mix(hash);
+		for(int i = 0; i < HASHES; i++) {
+			int bit = (int) (bitHash >>> (i * 9)) & (BLOCK_BITS - 1);
+			int index = base + (bit >>> 6);
+			long mask = 1L << bit;
+			long word;
+			while(((word = bits.get(index)) & mask) == 0 && !bits.compareAndSet(index, word, word | mask)) {
+				// retry, a concurrent add changed the word
+			}
+		}
+	}
+	
+	/**
+	 * Method to check if the hash might have been added
+	 * 
+	 * @param hash - 64-bit hash of the entry
+	 * @return boolean - false if the hash was never added
+	 */
+	boolean mightContain(long hash) {
+		int base = block(hash);
+		long bitHash = SuppressionHash.mix(hash);
+		for(int i = 0; i < HASHES; i++) {
+			int bit = (int) (bitHash >>> (i * 9)) & (BLOCK_BITS - 1);
+			if((bits.get(base + (bit >>> 6)) & (1L << bit)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * @return the expected number of entries the filter was sized for
+	 */
+	long getCapacity() {
+		return capacity;
+	}
+	
+	/**
+	 * Method to get the index of the first word of the block of the hash
+	 * 
+	 * @param hash - 64-bit hash of the entry
+	 * @return int - Index of the block
+	 */
+	private int block(long hash) {
+		return (int) (((hash >>> 32) * blocks) >>> 32) * BLOCK_LONGS;
+	}
+
+}
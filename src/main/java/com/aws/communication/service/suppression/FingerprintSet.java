@@ -0,0 +1,235 @@
+package com.aws.communication.service.suppression;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongConsumer;
+
+/**
+ * Open addressing hash set of 64-bit fingerprints, held in a direct buffer
+ * outside of the Java heap, 8 bytes per slot. Slots are probed linearly and
+ * the table is doubled once it is three quarters full. Removal shifts the
+ * following entries back, so that no tombstones are left.
+ *
+ * Lookups are optimistic reads of a stamped lock and only fall back to the
+ * read lock when they overlap a change; changes take the write lock.
+ *
+ */
+final class FingerprintSet {
+
+	private static final long EMPTY = 0;
+	private static final int MAX_SLOTS = 1 << 27;
+
+	private final StampedLock lock = new StampedLock();
+
+	private ByteBuffer table;
+	private volatile int size;
+
+	/**
+	 * Constructor for FingerprintSet
+	 *
+	 * @param expectedEntries - Number of entries to size the table for
+	 */
+	FingerprintSet(long expectedEntries) {
+		this.table = ByteBuffer.allocateDirect(slotsFor(expectedEntries) * Long.BYTES);
+	}
+
+	/**
+	 * Method to check if the fingerprint is in the set
+	 *
+	 * @param fingerprint - Non zero fingerprint
+	 * @return boolean - true if present
+	 */
+	boolean contains(long fingerprint) {
+		long stamp = lock.tryOptimisticRead();
+		boolean found = find(table, fingerprint) >= 0;
+		if(lock.validate(stamp)) {
+			return found;
+		}
+		stamp = lock.readLock();
+		try {
+			return find(table, fingerprint) >= 0;
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Method to add the fingerprint to the set
+	 *
+	 * @param fingerprint - Non zero fingerprint
+	 * @return boolean - true if added, false if already present
+	 */
+	boolean add(long fingerprint) {
+		long stamp = lock.writeLock();
+		try {
+			if((size + 1L) * 4 > (long) slots(table) * 3) {
+				grow();
+			}
+			if(!insert(table, fingerprint)) {
+				return false;
+			}
+			size++;
+			return true;
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Method to remove the fingerprint from the set
+	 *
+	 * @param fingerprint - Non zero fingerprint
+	 * @return boolean - true if removed, false if not present
+	 */
+	boolean remove(long fingerprint) {
+		long stamp = lock.writeLock();
+		try {
+			int slot = find(table, fingerprint);
+			if(slot < 0) {
+				return false;
+			}
+			int mask = slots(table) - 1;
+			int hole = slot;
+			int next = (hole + 1) & mask;
+			long value;
+			while((value = get(table, next)) != EMPTY) {
+				int home = home(value, mask);
+				// move the entry into the hole unless its home slot lies cyclically within (hole, next]
+				if(((next - home) & mask) >= ((next - hole) & mask)) {
+					put(table, hole, value);
+					hole = next;
+				}
+				next = (next + 1) & mask;
+			}
+			put(table, hole, EMPTY);
+			size--;
+			return true;
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Method to pass every fingerprint of the set to the consumer
+	 *
+	 * @param consumer - Consumer of the fingerprints
+	 */
+	void forEach(LongConsumer consumer) {
+		long stamp = lock.readLock();
+		try {
+			for(int slot = 0; slot < slots(table); slot++) {
+				long value = get(table, slot);
+				if(value != EMPTY) {
+					consumer.accept(value);
+				}
+			}
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * @return the number of fingerprints in the set
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * @return the off-heap memory held by the table in bytes
+	 */
+	long memoryBytes() {
+		return table.capacity();
+	}
+
+	/**
+	 * Method to double the table, must hold the write lock
+	 */
+	private void grow() {
+		int slots = slots(table);
+		if(slots >= MAX_SLOTS) {
+			throw new IllegalStateException("Suppression index is full");
+		}
+		ByteBuffer grown = ByteBuffer.allocateDirect(slots * 2 * Long.BYTES);
+		for(int slot = 0; slot < slots; slot++) {
+			long value = get(table, slot);
+			if(value != EMPTY) {
+				insert(grown, value);
+			}
+		}
+		table = grown;
+	}
+
+	/**
+	 * Method to find the slot of the fingerprint
+	 *
+	 * @param table - Table
+	 * @param fingerprint - Fingerprint
+	 * @return int - Slot, -1 if not present
+	 */
+	private static int find(ByteBuffer table, long fingerprint) {
+		int mask = slots(table) - 1;
+		int slot = home(fingerprint, mask);
+		for(int probes = 0; probes <= mask; probes++) {
+			long value = get(table, slot);
+			if(value == fingerprint) {
+				return slot;
+			}
+			if(value == EMPTY) {
+				return -1;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * Method to insert the fingerprint into the first free slot
+	 *
+	 * @param table - Table with at least one free slot
+	 * @param fingerprint - Fingerprint
+	 * @return boolean - true if inserted, false if already present
+	 */
+	private static boolean insert(ByteBuffer table, long fingerprint) {
+		int mask = slots(table) - 1;
+		int slot = home(fingerprint, mask);
+		long value;
+		while((value = get(table, slot)) != EMPTY) {
+			if(value == fingerprint) {
+				return false;
+			}
+			slot = (slot + 1) & mask;
+		}
+		put(table, slot, fingerprint);
+		return true;
+	}
+
+	private static int home(long fingerprint, int mask) {
+		return (int) fingerprint & mask;
+	}
+
+	private static int slots(ByteBuffer table) {
+		return table.capacity() / Long.BYTES;
+	}
+
+	private static long get(ByteBuffer table, int slot) {
+		return table.getLong(slot * Long.BYTES);
+	}
+
+	private static void put(ByteBuffer table, int slot, long value) {
+		table.putLong(slot * Long.BYTES, value);
+	}
+
+	/**
+	 * Method to get the number of slots, a power of two, keeping the given
+	 * number of entries below three quarters of the slots
+	 *
+	 * @param expectedEntries - Number of entries
+	 * @return int - Number of slots
+	 */
+	private static int slotsFor(long expectedEntries) {
+		long needed = Math.max(16, expectedEntries * 4 / 3 + 1);
+		return (int) Math.min(MAX_SLOTS, Long.highestOneBit(needed - 1) << 1);
+	}
+
+}
@@ -0,0 +1,59 @@
+package com.aws.communication.service.suppression;
+
+/**
+ * Hash functions of the suppression index
+ *
+ */
+final class SuppressionHash {
+	
+	private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+	private static final long GOLDEN_RATIO = 0x9e3779b97f4a7c15L;
+	
+	private SuppressionHash() {
+		super();
+	}
+	
+	/**
+	 * Method to compute the 64-bit fingerprint of a normalized recipient,
+	 * never 0 as 0 marks an empty slot of the fingerprint set
+	 * 
+	 * @param value - Normalized recipient
+	 * @return long - Fingerprint
+	 */
+	static long fingerprint(String value) {
+		long hash = FNV_OFFSET_BASIS;
+		for(int i = 0; i < value.length(); i++) {
+			hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+		}
+		hash = fmix(hash);
+		return hash == 0 ? 1 : hash;
+	}
+	
+	/**
+	 * Method to derive a second, independent hash from a fingerprint
+	 * 
+	 * @param hash - Fingerprint
+	 * @return long - Derived hash
+	 */
+	static long mix(long hash) {
+		return fmix(hash + GOLDEN_RATIO);
+	}
+	
+	/**
+	 * Finalization step of MurmurHash3, spreading every input bit over
+	 * the whole output
+	 * 
+	 * @param hash - Hash
+	 * @return long - Mixed hash
+	 */
+	private static long fmix(long hash) {
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+
+}
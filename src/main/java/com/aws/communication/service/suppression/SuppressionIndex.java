@@ -0,0 +1,123 @@
+package com.aws.communication.service.suppression;
+
+/**
+ * Index of suppressed recipients by fingerprint. A Bloom filter answers most
+ * lookups of recipients not suppressed from a small on-heap bit array, and
+ * only the remaining lookups probe the off-heap fingerprint set.
+ *
+ * Fingerprints are 64-bit hashes of the normalized recipients, so that an
+ * entry takes 8 bytes whatever the length of the address. Two recipients
+ * sharing a fingerprint is unlikely, about one in ten thousand for a list
+ * of 50 million recipients, and would suppress both.
+ *
+ * Bits cannot be cleared from the Bloom filter, so removed fingerprints
+ * keep their bits set and more lookups reach the fingerprint set. The
+ * filter is rebuilt from the remaining fingerprints once the removals
+ * since it was built reach a quarter of its capacity.
+ *
+ */
+final class SuppressionIndex {
+	
+	private final int bloomBitsPerEntry;
+	private final FingerprintSet fingerprints;
+	
+	private volatile BloomFilter bloomFilter;
+	
+	private volatile int staleEntries;
+	
+	/**
+	 * Constructor for SuppressionIndex
+	 * 
+	 * @param expectedEntries - Number of entries to size the index for
+	 * @param bloomBitsPerEntry - Bits of the Bloom filter per entry
+	 */
+	SuppressionIndex(long expectedEntries, int bloomBitsPerEntry) {
+		this.bloomBitsPerEntry = bloomBitsPerEntry;
+		this.fingerprints = new FingerprintSet(expectedEntries);
+		this.bloomFilter = new BloomFilter(expectedEntries, bloomBitsPerEntry);
+	}
+	
+	/**
+	 * Method to check if the fingerprint is suppressed
+	 * 
+	 * @param fingerprint - Fingerprint of the normalized recipient
+	 * @return boolean - true if suppressed
+	 */
+	boolean contains(long fingerprint) {
+		return bloomFilter.mightContain(fingerprint) && fingerprints.contains(fingerprint);
+	}
+	
+	/**
+	 * Method to add the fingerprint. The Bloom filter is rebuilt twice as
+	 * large once the entries exceed the number it was sized for. Changes
+	 * must not run concurrently.
+	 * 
+	 * @param fingerprint - Fingerprint of the normalized recipient
+	 * @return boolean - true if added, false if already present
+	 */
+	boolean add(long fingerprint) {
+		bloomFilter.add(fingerprint);
+		if(!fingerprints.add(fingerprint)) {
+			return false;
+		}
+		if(fingerprints.size() > bloomFilter.getCapacity()) {
+			rebuild(bloomFilter.getCapacity() * 2);
+		}
+		return true;
+	}
+	
+	/**
+	 * Method to remove the fingerprint. Its Bloom filter bits are kept
+	 * until the filter is rebuilt, which happens once the removals since
+	 * it was built reach a quarter of its capacity. Changes must not run
+	 * concurrently.
+	 * 
+	 * @param fingerprint - Fingerprint of the normalized recipient
+	 * @return boolean - true if removed, false if not present
+	 */
+	boolean remove(long fingerprint) {
+		if(!fingerprints.remove(fingerprint)) {
+			return false;
+		}
+		if(++staleEntries >= bloomFilter.getCapacity() / 4) {
+			rebuild(bloomFilter.getCapacity());
+		}
+		return true;
+	}
+	
+	/**
+	 * Method to replace the Bloom filter with one built from the
+	 * fingerprints present, clearing the bits of the removed ones
+	 * 
+	 * @param capacity - Number of entries to size the filter for
+	 */
+	private void rebuild(long capacity) {
+		BloomFilter rebuilt = new BloomFilter(capacity, bloomBitsPerEntry);
+		fingerprints.forEach(rebuilt::add);
+		bloomFilter = rebuilt;
+		staleEntries = 0;
+	}
+	
+	/**
+	 * @return the number of fingerprints removed since the Bloom filter was
+	 * built, whose bits are still set
+	 */
+	int staleEntries() {
+		return staleEntries;
+	}
+	
+	/**
+	 * @return the number of suppressed recipients
+	 */
+	int size() {
+		return fingerprints.size();
+	}
+	
+	/**
+	 * @return the off-heap memory held by the fingerprint set in bytes
+	 */
+	long offHeapBytes() {
+		return fingerprints.memoryBytes();
+	}
+
+}
@@ -0,0 +1,426 @@
+package com.aws.communication.service.suppression;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import com.aws.communication.exception.BadRequestException;
+import com.aws.communication.exception.InternalServerException;
+import com.aws.communication.utils.StatusCodes;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Service class holding the suppression list, the email addresses and phone
+ * numbers which must not be sent to, such as hard bounced addresses and
+ * numbers which opted out.
+ *
+ * The list is loaded from a snapshot file, one recipient per line, followed
+ * by a journal of the changes made since through the admin API. Journal lines
+ * are "A recipient" for an added and "R recipient" for a removed recipient.
+ * Recipients are normalized before lookup: email addresses are lower cased and
+ * phone numbers are stripped of spaces, dashes, dots and parentheses, leaving
+ * the E.164 form.
+ *
+ * Once the journal exceeds the configured size it is compacted: the snapshot
+ * is rewritten with the journal changes applied, or the journal rewritten to
+ * the recipients it adds when there is no snapshot, and the journal truncated.
+ *
+ */
+@Service
+public class SuppressionService {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(SuppressionService.class);
+
+	private static final String JOURNAL_ADD = "A ";
+	private static final String JOURNAL_REMOVE = "R ";
+	private static final int SNAPSHOT_BYTES_PER_ENTRY = 16;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${suppression.enabled:true}")
+	private boolean enabled;
+
+	@Value("${suppression.snapshot-file:}")
+	private String snapshotFile;
+
+	@Value("${suppression.journal-file:}")
+	private String journalFile;
+
+	@Value("${suppression.expected-entries:1000000}")
+	private long expectedEntries;
+
+	@Value("${suppression.bloom-bits-per-entry:10}")
+	private int bloomBitsPerEntry;
+
+	@Value("${suppression.journal-compact-bytes:67108864}")
+	private long journalCompactBytes;
+
+	private volatile SuppressionIndex index;
+
+	private Counter blockedEmailCounter;
+
+	private Counter blockedSmsCounter;
+
+	/**
+	 * Method to load the suppression list and register its metrics
+	 *
+	 * @throws IOException Thrown when the snapshot or journal cannot be read
+	 */
+	@PostConstruct
+	public void init() throws IOException {
+		index = new SuppressionIndex(expectedEntries, bloomBitsPerEntry);
+		if(enabled) {
+			reload();
+			compactIfNeeded();
+		}
+
+		Gauge.builder("aws.communication.suppression.entries", this, service -> service.index.size())
+				.description("Number of recipients on the suppression list")
+				.register(meterRegistry);
+		Gauge.builder("aws.communication.suppression.offheap", this, service -> service.index.offHeapBytes())
+				.description("Off-heap memory held by the suppression list")
+				.baseUnit("bytes")
+				.register(meterRegistry);
+		Gauge.builder("aws.communication.suppression.bloom.stale", this, service -> service.index.staleEntries())
+				.description("Recipients removed since the Bloom filter was built, whose bits are still set")
+				.register(meterRegistry);
+		blockedEmailCounter = Counter.builder("aws.communication.suppression.blocked")
+				.description("Number of sends blocked as the recipient is suppressed")
+				.tag("channel", "email")
+				.register(meterRegistry);
+		blockedSmsCounter = Counter.builder("aws.communication.suppression.blocked")
+				.description("Number of sends blocked as the recipient is suppressed")
+				.tag("channel", "sms")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Method to check if changes to the suppression list are journaled,
+	 * and so survive a restart
+	 *
+	 * @return boolean - true if a journal file is configured
+	 */
+	public boolean isJournaled() {
+		return StringUtils.hasText(journalFile);
+	}
+
+	/**
+	 * Method to check if the recipient is suppressed
+	 *
+	 * @param recipient - Email address or phone number
+	 * @return boolean - true if suppressed
+	 */
+	public boolean isSuppressed(String recipient) {
+		return enabled && recipient != null && index.contains(SuppressionHash.fingerprint(normalize(recipient)));
+	}
+
+	/**
+	 * Method to reject an email to a suppressed email address
+	 *
+	 * @param emailAddress - Email address of the receiver
+	 * @throws BadRequestException Thrown when the email address is suppressed
+	 */
+	public void checkEmail(String emailAddress) throws BadRequestException {
+		if(isSuppressed(emailAddress)) {
+			blockedEmailCounter.increment();
+			throw suppressed(emailAddress);
+		}
+	}
+
+	/**
+	 * Method to reject an SMS to a suppressed phone number
+	 *
+	 * @param phoneNumber - Phone number of the receiver
+	 * @throws BadRequestException Thrown when the phone number is suppressed
+	 */
+	public void checkSMS(String phoneNumber) throws BadRequestException {
+		if(isSuppressed(phoneNumber)) {
+			blockedSmsCounter.increment();
+			throw suppressed(phoneNumber);
+		}
+	}
+
+	/**
+	 * Method to add recipients to the suppression list
+	 *
+	 * @param recipients - Email addresses or phone numbers
+	 * @return int - Number of recipients added, not counting those already suppressed
+	 * @throws InternalServerException Thrown when the journal cannot be written
+	 */
+	public synchronized int add(Collection<String> recipients) throws InternalServerException {
+		int added = update(recipients, JOURNAL_ADD);
+		compactIfNeeded();
+		return added;
+	}
+
+	/**
+	 * Method to remove recipients from the suppression list
+	 *
+	 * @param recipients - Email addresses or phone numbers
+	 * @return int - Number of recipients removed
+	 * @throws InternalServerException Thrown when the journal cannot be written
+	 */
+	public synchronized int remove(Collection<String> recipients) throws InternalServerException {
+		int removed = update(recipients, JOURNAL_REMOVE);
+		compactIfNeeded();
+		return removed;
+	}
+
+	/**
+	 * Method to load the snapshot and the journal into a new index, replacing
+	 * the current one once complete
+	 *
+	 * @throws IOException Thrown when the snapshot or journal cannot be read
+	 */
+	public synchronized void reload() throws IOException {
+		Path snapshot = StringUtils.hasText(snapshotFile) ? Paths.get(snapshotFile) : null;
+		long expected = expectedEntries;
+		if(snapshot != null && Files.exists(snapshot)) {
+			expected = Math.max(expected, Files.size(snapshot) / SNAPSHOT_BYTES_PER_ENTRY);
+		}
+
+		SuppressionIndex loaded = new SuppressionIndex(expected, bloomBitsPerEntry);
+		if(snapshot != null) {
+			readLines(snapshot, line -> loaded.add(SuppressionHash.fingerprint(normalize(line))));
+		}
+		if(StringUtils.hasText(journalFile)) {
+			readLines(Paths.get(journalFile), line -> {
+				long fingerprint = SuppressionHash.fingerprint(normalize(line.substring(JOURNAL_ADD.length())));
+				if(line.startsWith(JOURNAL_REMOVE)) {
+					loaded.remove(fingerprint);
+				} else {
+					loaded.add(fingerprint);
+				}
+			});
+		}
+		index = loaded;
+		LOGGER.info("Loaded {} suppressed recipients", loaded.size());
+	}
+
+	/**
+	 * Method to fold the journal into the snapshot and truncate it. Without
+	 * a snapshot file the journal is rewritten to the recipients it adds.
+	 * Each file is replaced atomically, and replaying the journal on top of
+	 * the compacted snapshot yields the same list, so a crash in between
+	 * loses nothing.
+	 *
+	 * @throws IOException Thrown when the snapshot or journal cannot be read or written
+	 */
+	public synchronized void compact() throws IOException {
+		if(!StringUtils.hasText(journalFile) || !Files.exists(Paths.get(journalFile))) {
+			return;
+		}
+		Path journal = Paths.get(journalFile);
+		// last operation of each recipient of the journal, true if added
+		Map<String, Boolean> changes = new LinkedHashMap<>();
+		readLines(journal, line -> changes.put(normalize(line.substring(JOURNAL_ADD.length())), 
+				!line.startsWith(JOURNAL_REMOVE)));
+		if(!StringUtils.hasText(snapshotFile)) {
+			List<String> added = new ArrayList<>(changes.size());
+			changes.forEach((recipient, add) -> {
+				if(add) {
+					added.add(JOURNAL_ADD + recipient);
+				}
+			});
+			replace(journal, writer -> {
+				for(String line : added) {
+					writer.write(line);
+					writer.newLine();
+				}
+			});
+			LOGGER.info("Compacted suppression journal to {} recipients", added.size());
+			return;
+		}
+
+		Path snapshot = Paths.get(snapshotFile);
+		replace(snapshot, writer -> {
+			if(Files.exists(snapshot)) {
+				try(BufferedReader reader = Files.newBufferedReader(snapshot, StandardCharsets.UTF_8)) {
+					String line;
+					while((line = reader.readLine()) != null) {
+						Boolean add = line.trim().isEmpty() || line.startsWith("#") ? null : changes.remove(normalize(line));
+						if(add == null || add) {
+							writer.write(line);
+							writer.newLine();
+						}
+					}
+				}
+			}
+			for(Map.Entry<String, Boolean> change : changes.entrySet()) {
+				if(change.getValue()) {
+					writer.write(change.getKey());
+					writer.newLine();
+				}
+			}
+		});
+		Files.write(journal, new byte[0], StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.DSYNC);
+		LOGGER.info("Compacted suppression journal into snapshot {}", snapshot);
+	}
+
+	/**
+	 * Method to compact the journal once it exceeds the configured size.
+	 * A failed compaction is logged and retried with the next change.
+	 */
+	private void compactIfNeeded() {
+		if(!StringUtils.hasText(journalFile) || journalCompactBytes <= 0) {
+			return;
+		}
+		try {
+			Path journal = Paths.get(journalFile);
+			if(Files.exists(journal) && Files.size(journal) > journalCompactBytes) {
+				compact();
+			}
+		} catch (IOException e) {
+			LOGGER.error("Failed to compact suppression journal {}", journalFile, e);
+		}
+	}
+
+	/**
+	 * Method to replace the file atomically with the content written to
+	 * a temporary file next to it
+	 *
+	 * @param file - File to be replaced
+	 * @param content - Writer of the content
+	 * @throws IOException Thrown when the file cannot be written
+	 */
+	private static void replace(Path file, FileContent content) throws IOException {
+		Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+		try(BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+			content.write(writer);
+		}
+		try(FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+			channel.force(true);
+		}
+		Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Content of a file written on compaction
+	 */
+	@FunctionalInterface
+	private interface FileContent {
+
+		/**
+		 * @param writer - Writer of the file
+		 * @throws IOException Thrown when the content cannot be written
+		 */
+		void write(BufferedWriter writer) throws IOException;
+	}
+
+	/**
+	 * Method to normalize the recipient for lookup
+	 *
+	 * @param recipient - Email address or phone number
+	 * @return String - Normalized recipient
+	 */
+	static String normalize(String recipient) {
+		String trimmed = recipient.trim();
+		if(trimmed.indexOf('@') >= 0) {
+			return trimmed.toLowerCase(Locale.ROOT);
+		}
+		StringBuilder phoneNumber = new StringBuilder(trimmed.length());
+		for(int i = 0; i < trimmed.length(); i++) {
+			char c = trimmed.charAt(i);
+			if(c != ' ' && c != '-' && c != '.' && c != '(' && c != ')') {
+				phoneNumber.append(c);
+			}
+		}
+		return phoneNumber.toString();
+	}
+
+	/**
+	 * Method to apply the change to the index and the journal
+	 *
+	 * @param recipients - Email addresses or phone numbers
+	 * @param operation - Journal operation
+	 * @return int - Number of recipients changed
+	 * @throws InternalServerException Thrown when the journal cannot be written
+	 */
+	private int update(Collection<String> recipients, String operation) throws InternalServerException {
+		List<String> journal = new ArrayList<>(recipients.size());
+		int changed = 0;
+		for(String recipient : recipients) {
+			if(!StringUtils.hasText(recipient)) {
+				continue;
+			}
+			String normalized = normalize(recipient);
+			long fingerprint = SuppressionHash.fingerprint(normalized);
+			if(JOURNAL_ADD.equals(operation) ? index.add(fingerprint) : index.remove(fingerprint)) {
+				journal.add(operation + normalized);
+				changed++;
+			}
+		}
+		if(!journal.isEmpty() && StringUtils.hasText(journalFile)) {
+			try {
+				Files.write(Paths.get(journalFile), journal, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+						StandardOpenOption.APPEND, StandardOpenOption.DSYNC);
+			} catch (IOException e) {
+				throw new InternalServerException(StatusCodes.INTERNAL_SERVER_ERROR.getCode(),
+						StatusCodes.INTERNAL_SERVER_ERROR.getReason(), e);
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * Method to pass the non blank lines of the file, except comments,
+	 * to the consumer
+	 *
+	 * @param file - File, skipped when missing
+	 * @param consumer - Consumer of the lines
+	 * @throws IOException Thrown when the file cannot be read
+	 */
+	private static void readLines(Path file, Consumer<String> consumer) throws IOException {
+		if(!Files.exists(file)) {
+			LOGGER.warn("Suppression file {} not found", file);
+			return;
+		}
+		try(BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			String line;
+			while((line = reader.readLine()) != null) {
+				if(!line.trim().isEmpty() && !line.startsWith("#")) {
+					consumer.accept(line);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Method to create the exception for a suppressed recipient
+	 *
+	 * @param recipient - Suppressed recipient
+	 * @return BadRequestException
+	 */
+	private static BadRequestException suppressed(String recipient) {
+		return new BadRequestException(StatusCodes.RECIPIENT_SUPPRESSED.getCode(),
+				StatusCodes.RECIPIENT_SUPPRESSED.getReason(), recipient);
+	}
+
+}
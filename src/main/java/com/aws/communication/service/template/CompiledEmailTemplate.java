@@ -0,0 +1,132 @@
+package com.aws.communication.service.template;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.aws.communication.model.CommunicationCharacteristic;
+
+/**
+ * Email template compiled for local rendering: subject, text and HTML
+ * parts sharing one set of variable slots, so that the template data is
+ * bound once per email.
+ *
+ */
+public final class CompiledEmailTemplate {
+	
+	private final String[] variables;
+	private final CompiledTemplate subject;
+	private final CompiledTemplate text;
+	private final CompiledTemplate html;
+	
+	/**
+	 * Constructor for CompiledEmailTemplate
+	 * 
+	 * @param variables - Variable names indexed by slot
+	 * @param subject - Compiled subject
+	 * @param text - Compiled text part, null if none
+	 * @param html - Compiled HTML part, null if none
+	 */
+	private CompiledEmailTemplate(String[] variables, CompiledTemplate subject, CompiledTemplate text, 
+			CompiledTemplate html) {
+		this.variables = variables;
+		this.subject = subject;
+		this.text = text;
+		this.html = html;
+	}
+	
+	/**
+	 * Method to compile the parts of an SES template
+	 * 
+	 * @param subjectPart - Subject of the template
+	 * @param textPart - Text part of the template, may be null
+	 * @param htmlPart - HTML part of the template, may be null
+	 * @return CompiledEmailTemplate - Compiled template
+	 * @throws TemplateCompileException Thrown when a part uses unsupported
+	 * syntax or is malformed
+	 */
+	public static CompiledEmailTemplate compile(String subjectPart, String textPart, String htmlPart) {
+		if(textPart == null && htmlPart == null) {
+			throw new TemplateCompileException("Template has neither text nor HTML part");
+		}
+		TemplateCompiler compiler = new TemplateCompiler();
+		CompiledTemplate subject = compiler.compile(subjectPart == null ? "" : subjectPart);
+		CompiledTemplate text = textPart == null ? null : compiler.compile(textPart);
+		CompiledTemplate html = htmlPart == null ? null : compiler.compile(htmlPart);
+		return new CompiledEmailTemplate(compiler.getVariables(), subject, text, html);
+	}
+	
+	/**
+	 * Method to bind the template data to the variable slots. When a name
+	 * occurs more than once the last value wins and null values are skipped,
+	 * same as the template data sent to SES.
+	 * 
+	 * @param characteristics - Template data
+	 * @return String[] - Values indexed by slot, null for missing
+	 */
+	public String[] bind(List<CommunicationCharacteristic> characteristics) {
+		String[] values = new String[variables.length];
+		if(characteristics == null || variables.length == 0) {
+			return values;
+		}
+		for(CommunicationCharacteristic characteristic : characteristics) {
+			if(characteristic == null || characteristic.getValue() == null) {
+				continue;
+			}
+			String name = characteristic.getName();
+			for(int slot = 0; slot < variables.length; slot++) {
+				if(variables[slot].equals(name)) {
+					values[slot] = characteristic.getValue();
+					break;
+				}
+			}
+		}
+		return values;
+	}
+	
+	/**
+	 * Method to render the subject. Line breaks are replaced by spaces
+	 * as the subject is a single header line.
+	 * 
+	 * @param values - Bound values
+	 * @return String - Rendered subject
+	 */
+	public String renderSubject(String[] values) {
+		StringBuilder out = new StringBuilder(64);
+		subject.render(values, out);
+		for(int i = 0; i < out.length(); i++) {
+			char c = out.charAt(i);
+			if(c == '\r' || c == '\n') {
+				out.setCharAt(i, ' ');
+			}
+		}
+		return out.toString();
+	}
+	
+	/**
+	 * Method to render the text part
+	 * 
+	 * @param values - Bound values
+	 * @return String - Rendered text part, null if the template has none
+	 */
+	public String renderText(String[] values) {
+		return text == null ? null : text.render(values);
+	}
+	
+	/**
+	 * Method to render the HTML part
+	 * 
+	 * @param values - Bound values
+	 * @return String - Rendered HTML part, null if the template has none
+	 */
+	public String renderHtml(String[] values) {
+		return html == null ? null : html.render(values);
+	}
+	
+	/**
+	 * @return the variable names indexed by slot
+	 */
+	public String[] getVariables() {
+		return Arrays.copyOf(variables, variables.length);
+	}
+
+}
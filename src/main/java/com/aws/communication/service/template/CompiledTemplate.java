@@ -0,0 +1,185 @@
+package com.aws.communication.service.template;
+
+/**
+ * Template compiled by {@link TemplateCompiler} into a tree of nodes.
+ * Variables are resolved at compile time to slots, so rendering only
+ * indexes into the bound values and appends to the output buffer.
+ * Compiled templates are immutable and safe for concurrent use.
+ *
+ */
+public final class CompiledTemplate {
+	
+	private final Node[] nodes;
+	
+	/**
+	 * Constructor for CompiledTemplate
+	 * 
+	 * @param nodes - Top level nodes
+	 */
+	CompiledTemplate(Node[] nodes) {
+		this.nodes = nodes;
+	}
+	
+	/**
+	 * Method to render the template
+	 * 
+	 * @param values - Values bound to the variable slots, null for missing
+	 * @param out - Buffer the output is appended to
+	 */
+	public void render(String[] values, StringBuilder out) {
+		renderNodes(nodes, values, out);
+	}
+	
+	/**
+	 * Method to render the template to a string
+	 * 
+	 * @param values - Values bound to the variable slots, null for missing
+	 * @return String - Rendered output
+	 */
+	public String render(String[] values) {
+		StringBuilder out = new StringBuilder();
+		render(values, out);
+		return out.toString();
+	}
+	
+	/**
+	 * Method to render the given nodes
+	 * 
+	 * @param nodes - Nodes to be rendered
+	 * @param values - Values bound to the variable slots
+	 * @param out - Output buffer
+	 */
+	private static void renderNodes(Node[] nodes, String[] values, StringBuilder out) {
+		for(Node node : nodes) {
+			node.render(values, out);
+		}
+	}
+	
+	/**
+	 * Method to append the value with HTML characters escaped, the same
+	 * way as Handlebars does for {{variable}}
+	 * 
+	 * @param value - Value to be escaped
+	 * @param out - Output buffer
+	 */
+	static void appendEscaped(String value, StringBuilder out) {
+		int length = value.length();
+		int from = 0;
+		for(int i = 0; i < length; i++) {
+			String replacement;
+			switch(value.charAt(i)) {
+			case '&':
+				replacement = "&amp;";
+				break;
+			case '<':
+				replacement = "&lt;";
+				break;
+			case '>':
+				replacement = "&gt;";
+				break;
+			case '"':
+				replacement = "&quot;";
+				break;
+			case '\'':
+				replacement = "&#x27;";
+				break;
+			case '`':
+				replacement = "&#x60;";
+				break;
+			case '=':
+				replacement = "&#x3D;";
+				break;
+			default:
+				continue;
+			}
+			out.append(value, from, i).append(replacement);
+			from = i + 1;
+		}
+		out.append(value, from, length);
+	}
+	
+	/**
+	 * Node of a compiled template
+	 */
+	abstract static class Node {
+		
+		/**
+		 * Method to render the node
+		 * 
+		 * @param values - Values bound to the variable slots
+		 * @param out - Output buffer
+		 */
+		abstract void render(String[] values, StringBuilder out);
+	}
+	
+	/**
+	 * Literal text
+	 */
+	static final class Text extends Node {
+		
+		private final String text;
+		
+		Text(String text) {
+			this.text = text;
+		}
+		
+		@Override
+		void render(String[] values, StringBuilder out) {
+			out.append(text);
+		}
+	}
+	
+	/**
+	 * Variable reference, {{name}} escaped or {{{name}}} raw
+	 */
+	static final class Variable extends Node {
+		
+		private final int slot;
+		private final boolean escape;
+		
+		Variable(int slot, boolean escape) {
+			this.slot = slot;
+			this.escape = escape;
+		}
+		
+		@Override
+		void render(String[] values, StringBuilder out) {
+			String value = values[slot];
+			if(value == null) {
+				return;
+			}
+			if(escape) {
+				appendEscaped(value, out);
+			} else {
+				out.append(value);
+			}
+		}
+	}
+	
+	/**
+	 * Conditional block, {{#if name}} or {{#unless name}} with
+	 * optional {{else}}
+	 */
+	static final class Conditional extends Node {
+		
+		private final int slot;
+		private final boolean negate;
+		private final Node[] then;
+		private final Node[] otherwise;
+		
+		Conditional(int slot, boolean negate, Node[] then, Node[] otherwise) {
+			this.slot = slot;
+			this.negate = negate;
+			this.then = then;
+			this.otherwise = otherwise;
+		}
+		
+		@Override
+		void render(String[] values, StringBuilder out) {
+			String value = values[slot];
+			boolean truthy = value != null && !value.isEmpty();
+			renderNodes(truthy != negate ? then : otherwise, values, out);
+		}
+	}
+
+}
@@ -0,0 +1,201 @@
+package com.aws.communication.service.template;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Writer of the raw MIME message of a locally rendered email, as sent
+ * with SES SendRawEmail. Bodies are UTF-8 with base64 transfer encoding,
+ * and a message with both text and HTML parts is written as
+ * multipart/alternative. Date and Message-ID headers are added by SES.
+ *
+ */
+public final class MimeMessageWriter {
+	
+	private static final String CRLF = "\r\n";
+	
+	private static final int ENCODED_WORD_MAX_BYTES = 45;
+	
+	private static final Base64.Encoder BODY_ENCODER = Base64.getMimeEncoder(76, CRLF.getBytes(StandardCharsets.US_ASCII));
+	
+	private static final Base64.Encoder WORD_ENCODER = Base64.getEncoder();
+	
+	private MimeMessageWriter() {
+		
+	}
+	
+	/**
+	 * Method to write the MIME message
+	 * 
+	 * @param from - Sender address
+	 * @param to - Receiver address
+	 * @param subject - Rendered subject
+	 * @param text - Rendered text part, may be null
+	 * @param html - Rendered HTML part, may be null
+	 * @return byte[] - Raw message
+	 * @throws IllegalArgumentException Thrown when an address contains a line break
+	 */
+	public static byte[] write(String from, String to, String subject, String text, String html) {
+		byte[] textBytes = text == null ? null : text.getBytes(StandardCharsets.UTF_8);
+		byte[] htmlBytes = html == null ? null : html.getBytes(StandardCharsets.UTF_8);
+		
+		StringBuilder headers = new StringBuilder(256);
+		header(headers, "From", address(from));
+		header(headers, "To", address(to));
+		headers.append("Subject: ");
+		appendEncodedHeaderValue(headers, subject);
+		headers.append(CRLF);
+		header(headers, "MIME-Version", "1.0");
+		
+		ByteArrayOutputStream message = new ByteArrayOutputStream(512 
+				+ encodedLength(textBytes) + encodedLength(htmlBytes));
+		if(textBytes != null && htmlBytes != null) {
+			String boundary = "=_" + UUID.randomUUID().toString().replace("-", "");
+			header(headers, "Content-Type", "multipart/alternative; boundary=\"" + boundary + "\"");
+			headers.append(CRLF);
+			headers.append("--").append(boundary).append(CRLF);
+			ascii(message, headers);
+			part(message, "text/plain", textBytes);
+			ascii(message, "--" + boundary + CRLF);
+			part(message, "text/html", htmlBytes);
+			ascii(message, "--" + boundary + "--" + CRLF);
+		} else {
+			ascii(message, headers);
+			part(message, textBytes != null ? "text/plain" : "text/html", textBytes != null ? textBytes : htmlBytes);
+		}
+		return message.toByteArray();
+	}
+	
+	/**
+	 * Method to append a header line
+	 * 
+	 * @param message - Message buffer
+	 * @param name - Header name
+	 * @param value - Header value, ASCII only
+	 */
+	private static void header(StringBuilder message, String name, String value) {
+		message.append(name).append(": ").append(value).append(CRLF);
+	}
+	
+	/**
+	 * Method to write a body part with its headers
+	 * 
+	 * @param message - Message buffer
+	 * @param contentType - Content type of the part
+	 * @param body - UTF-8 body of the part
+	 */
+	private static void part(ByteArrayOutputStream message, String contentType, byte[] body) {
+		ascii(message, "Content-Type: " + contentType + "; charset=UTF-8" + CRLF 
+				+ "Content-Transfer-Encoding: base64" + CRLF + CRLF);
+		byte[] encoded = BODY_ENCODER.encode(body);
+		message.write(encoded, 0, encoded.length);
+		ascii(message, CRLF);
+	}
+	
+	/**
+	 * Method to write ASCII characters
+	 * 
+	 * @param message - Message buffer
+	 * @param value - ASCII characters
+	 */
+	private static void ascii(ByteArrayOutputStream message, CharSequence value) {
+		byte[] bytes = value.toString().getBytes(StandardCharsets.US_ASCII);
+		message.write(bytes, 0, bytes.length);
+	}
+	
+	/**
+	 * @param body - UTF-8 body, may be null
+	 * @return int - Length of the body in base64 with line breaks
+	 */
+	private static int encodedLength(byte[] body) {
+		if(body == null) {
+			return 0;
+		}
+		int encoded = (body.length + 2) / 3 * 4;
+		return encoded + encoded / 76 * CRLF.length();
+	}
+	
+	/**
+	 * Method to validate an address for use in a header
+	 * 
+	 * @param address - Email address
+	 * @return String - The address
+	 * @throws IllegalArgumentException Thrown when the address contains a line break
+	 */
+	private static String address(String address) {
+		if(address.indexOf('\r') >= 0 || address.indexOf('\n') >= 0) {
+			throw new IllegalArgumentException("Line break in address");
+		}
+		return address;
+	}
+	
+	/**
+	 * Method to append a header value, as is when printable ASCII, else as
+	 * RFC 2047 encoded words not splitting multi-byte characters
+	 * 
+	 * @param message - Message buffer
+	 * @param value - Header value
+	 */
+	private static void appendEncodedHeaderValue(StringBuilder message, String value) {
+		if(isPrintableAscii(value)) {
+			message.append(value);
+			return;
+		}
+		int from = 0;
+		int bytes = 0;
+		for(int i = 0; i < value.length(); ) {
+			int codePoint = value.codePointAt(i);
+			int length = utf8Length(codePoint);
+			if(bytes + length > ENCODED_WORD_MAX_BYTES) {
+				appendEncodedWord(message, value.substring(from, i), from > 0);
+				from = i;
+				bytes = 0;
+			}
+			bytes += length;
+			i += Character.charCount(codePoint);
+		}
+		appendEncodedWord(message, value.substring(from), from > 0);
+	}
+	
+	/**
+	 * Method to append an encoded word, folded onto a new line when not
+	 * the first word
+	 * 
+	 * @param message - Message buffer
+	 * @param word - Text of the word
+	 * @param fold - true to start a continuation line
+	 */
+	private static void appendEncodedWord(StringBuilder message, String word, boolean fold) {
+		if(fold) {
+			message.append(CRLF).append(' ');
+		}
+		message.append("=?UTF-8?B?")
+				.append(WORD_ENCODER.encodeToString(word.getBytes(StandardCharsets.UTF_8)))
+				.append("?=");
+	}
+	
+	/**
+	 * @param value - Header value
+	 * @return boolean - true if only printable ASCII
+	 */
+	private static boolean isPrintableAscii(String value) {
+		for(int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if(c < 0x20 || c > 0x7e) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * @param codePoint - Unicode code point
+	 * @return int - Number of bytes in UTF-8
+	 */
+	private static int utf8Length(int codePoint) {
+		return codePoint < 0x80 ? 1 : codePoint < 0x800 ? 2 : codePoint < 0x10000 ? 3 : 4;
+	}
+
+}
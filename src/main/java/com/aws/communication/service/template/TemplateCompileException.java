@@ -0,0 +1,21 @@
+package com.aws.communication.service.template;
+
+/**
+ * Exception raised when a template uses syntax not supported by the
+ * local template engine or is malformed
+ *
+ */
+public class TemplateCompileException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * Constructor for TemplateCompileException
+	 * 
+	 * @param message - Description of the issue
+	 */
+	public TemplateCompileException(String message) {
+		super(message);
+	}
+
+}
@@ -0,0 +1,318 @@
+package com.aws.communication.service.template;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.aws.communication.service.template.CompiledTemplate.Conditional;
+import com.aws.communication.service.template.CompiledTemplate.Node;
+import com.aws.communication.service.template.CompiledTemplate.Text;
+import com.aws.communication.service.template.CompiledTemplate.Variable;
+
+/**
+ * Compiler of the subset of Handlebars used by SES templates with flat
+ * template data:
+ * <ul>
+ * <li>{{name}} (HTML escaped), {{{name}}} and {{&amp;name}} (raw)</li>
+ * <li>{{#if name}}, {{#unless name}} with optional {{else}}</li>
+ * <li>{{! comment}} and {{!-- comment --}}</li>
+ * <li>whitespace control (~) and removal of standalone block lines</li>
+ * </ul>
+ * Other helpers, partials and nested paths are rejected with
+ * {@link TemplateCompileException}, such templates are left to SES.
+ * 
+ * The variable slots are shared by all templates compiled with the same
+ * compiler, so that the parts of an email are bound to the template data
+ * once. A compiler instance is not thread safe.
+ *
+ */
+public final class TemplateCompiler {
+	
+	private static final String OPEN = "{{";
+	private static final String OPEN_RAW = "{{{";
+	private static final String OPEN_COMMENT = "{{!--";
+	private static final String CLOSE = "}}";
+	private static final String CLOSE_RAW = "}}}";
+	private static final String CLOSE_COMMENT = "--}}";
+	
+	private static final String ELSE = "else";
+	
+	private final List<String> variables = new ArrayList<>();
+	
+	private String source;
+	
+	private int position;
+	
+	private String terminator;
+	
+	/**
+	 * Method to compile the template source
+	 * 
+	 * @param templateSource - Template source
+	 * @return CompiledTemplate - Compiled template
+	 * @throws TemplateCompileException Thrown when the template uses unsupported
+	 * syntax or is malformed
+	 */
+	public CompiledTemplate compile(String templateSource) {
+		source = templateSource;
+		position = 0;
+		Node[] nodes = parse();
+		if(terminator != null) {
+			throw new TemplateCompileException("Unexpected {{" + terminator + "}}");
+		}
+		return new CompiledTemplate(nodes);
+	}
+	
+	/**
+	 * @return the variable names, indexed by slot
+	 */
+	public String[] getVariables() {
+		return variables.toArray(new String[0]);
+	}
+	
+	/**
+	 * Method to parse nodes until the end of the source or a closing
+	 * or else tag, which is left in the terminator
+	 * 
+	 * @return Node[] - Parsed nodes
+	 */
+	private Node[] parse() {
+		List<Node> nodes = new ArrayList<>();
+		terminator = null;
+		
+		while(true) {
+			int start = source.indexOf(OPEN, position);
+			if(start < 0) {
+				addText(nodes, position, source.length());
+				position = source.length();
+				return nodes.toArray(new Node[0]);
+			}
+			
+			String close = source.startsWith(OPEN_COMMENT, start) ? CLOSE_COMMENT 
+					: source.startsWith(OPEN_RAW, start) ? CLOSE_RAW : CLOSE;
+			int open = start + (close == CLOSE_RAW ? OPEN_RAW.length() : OPEN.length());
+			int end = source.indexOf(close, open);
+			if(end < 0) {
+				throw new TemplateCompileException("Unclosed expression at " + start);
+			}
+			int after = end + close.length();
+			
+			boolean stripBefore = open < end && source.charAt(open) == '~';
+			boolean stripAfter = end > open && source.charAt(end - 1) == '~';
+			String expression = source.substring(stripBefore ? open + 1 : open, 
+					stripAfter ? end - 1 : end).trim();
+			boolean raw = close == CLOSE_RAW;
+			
+			int textEnd = stripBefore ? skipWhitespaceBackward(start) : start;
+			int next = stripAfter ? skipWhitespaceForward(after) : after;
+			if(!raw && isStandaloneTag(expression)) {
+				int lineStart = skipBlanksBackward(start);
+				int lineEnd = skipLineEnd(skipBlanksForward(after));
+				if((lineStart == 0 || source.charAt(lineStart - 1) == '\n') && lineEnd >= 0) {
+					textEnd = Math.min(textEnd, lineStart);
+					next = Math.max(next, lineEnd);
+				}
+			}
+			addText(nodes, position, textEnd);
+			position = next;
+			
+			if(expression.isEmpty()) {
+				throw new TemplateCompileException("Empty expression at " + start);
+			}
+			char first = expression.charAt(0);
+			if(raw) {
+				nodes.add(new Variable(slot(expression), false));
+			} else if(first == '!') {
+				continue;
+			} else if(first == '#') {
+				nodes.add(parseBlock(expression.substring(1).trim()));
+			} else if(first == '/' || ELSE.equals(expression)) {
+				terminator = expression;
+				return nodes.toArray(new Node[0]);
+			} else if(first == '&') {
+				nodes.add(new Variable(slot(expression.substring(1).trim()), false));
+			} else {
+				nodes.add(new Variable(slot(expression), true));
+			}
+		}
+	}
+	
+	/**
+	 * Method to parse an if or unless block up to its closing tag
+	 * 
+	 * @param expression - Block expression without the #
+	 * @return Node - Parsed block
+	 */
+	private Node parseBlock(String expression) {
+		int space = expression.indexOf(' ');
+		String helper = space < 0 ? expression : expression.substring(0, space);
+		if(!"if".equals(helper) && !"unless".equals(helper)) {
+			throw new TemplateCompileException("Unsupported block helper: " + helper);
+		}
+		if(space < 0) {
+			throw new TemplateCompileException("Missing condition of " + helper);
+		}
+		int conditionSlot = slot(expression.substring(space + 1).trim());
+		
+		Node[] then = parse();
+		Node[] otherwise = new Node[0];
+		if(ELSE.equals(terminator)) {
+			otherwise = parse();
+		}
+		if(terminator == null || !terminator.startsWith("/") 
+				|| !helper.equals(terminator.substring(1).trim())) {
+			throw new TemplateCompileException("Block " + helper + " closed by " + terminator);
+		}
+		terminator = null;
+		return new Conditional(conditionSlot, "unless".equals(helper), then, otherwise);
+	}
+	
+	/**
+	 * Method to get the slot of a variable, assigning a new slot on first use
+	 * 
+	 * @param name - Variable name
+	 * @return int - Slot of the variable
+	 */
+	private int slot(String name) {
+		if(name.isEmpty() || !isIdentifier(name)) {
+			throw new TemplateCompileException("Unsupported expression: " + name);
+		}
+		int slot = variables.indexOf(name);
+		if(slot < 0) {
+			slot = variables.size();
+			variables.add(name);
+		}
+		return slot;
+	}
+	
+	/**
+	 * Method to add a text node for the given range, if not empty
+	 * 
+	 * @param nodes - Nodes being parsed
+	 * @param from - Begin index
+	 * @param to - End index
+	 */
+	private void addText(List<Node> nodes, int from, int to) {
+		if(to > from) {
+			nodes.add(new Text(source.substring(from, to)));
+		}
+	}
+	
+	/**
+	 * Method to check if the tag is removed with its line when it
+	 * stands alone on the line, as Handlebars does for block tags
+	 * and comments
+	 * 
+	 * @param expression - Tag expression
+	 * @return boolean - true if standalone tag
+	 */
+	private static boolean isStandaloneTag(String expression) {
+		if(expression.isEmpty()) {
+			return false;
+		}
+		char first = expression.charAt(0);
+		return first == '#' || first == '/' || first == '!' || ELSE.equals(expression);
+	}
+	
+	/**
+	 * Method to check if the name is a plain identifier, as only flat
+	 * template data is supported
+	 * 
+	 * @param name - Variable name
+	 * @return boolean - true if plain identifier
+	 */
+	private static boolean isIdentifier(String name) {
+		if(ELSE.equals(name) || "this".equals(name)) {
+			return false;
+		}
+		for(int i = 0; i < name.length(); i++) {
+			char c = name.charAt(i);
+			if(!Character.isLetterOrDigit(c) && c != '_' && c != '-') {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Method to skip whitespace before the index, not going before
+	 * the current position
+	 * 
+	 * @param index - Index to start from
+	 * @return int - Index of the first skipped character
+	 */
+	private int skipWhitespaceBackward(int index) {
+		while(index > position && Character.isWhitespace(source.charAt(index - 1))) {
+			index--;
+		}
+		return index;
+	}
+	
+	/**
+	 * Method to skip whitespace from the index
+	 * 
+	 * @param index - Index to start from
+	 * @return int - Index of the first non whitespace character
+	 */
+	private int skipWhitespaceForward(int index) {
+		while(index < source.length() && Character.isWhitespace(source.charAt(index))) {
+			index++;
+		}
+		return index;
+	}
+	
+	/**
+	 * Method to skip spaces and tabs before the index, not going before
+	 * the current position
+	 * 
+	 * @param index - Index to start from
+	 * @return int - Index of the first skipped character
+	 */
+	private int skipBlanksBackward(int index) {
+		while(index > position && isBlank(source.charAt(index - 1))) {
+			index--;
+		}
+		return index;
+	}
+	
+	/**
+	 * Method to skip spaces and tabs from the index
+	 * 
+	 * @param index - Index to start from
+	 * @return int - Index of the first other character
+	 */
+	private int skipBlanksForward(int index) {
+		while(index < source.length() && isBlank(source.charAt(index))) {
+			index++;
+		}
+		return index;
+	}
+	
+	/**
+	 * Method to skip the line break at the given index
+	 * 
+	 * @param index - Index after the tag and trailing blanks
+	 * @return int - Index of the next line, the end of the source, or -1
+	 * if the line continues
+	 */
+	private int skipLineEnd(int index) {
+		if(index == source.length()) {
+			return index;
+		}
+		if(source.charAt(index) == '\n') {
+			return index + 1;
+		}
+		if(source.startsWith("\r\n", index)) {
+			return index + 2;
+		}
+		return -1;
+	}
+	
+	/**
+	 * @param c - Character
+	 * @return boolean - true if space or tab
+	 */
+	private static boolean isBlank(char c) {
+		return c == ' ' || c == '\t';
+	}
+
+}
@@ -21,9 +21,17 @@ public final class Constants {
 	
 	public static final String AWS_SNS_SMS_SENDERID = "AWS.SNS.SMS.SenderID";
 	public static final String AWS_SNS_SMS_TYPE = "AWS.SNS.SMS.SMSType";
+	public static final String SMS_TYPE_TRANSACTIONAL = "Transactional";
 	
 	public static final String STRING = "String";
 	public static final String TEMPLATE = "Template";
+	public static final String TRACKING_ID = "Tracking id";
+	public static final String CAMPAIGN_ID = "Campaign id";
+	public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+	public static final String IDEMPOTENCY_SCOPE_EMAIL = "email";
+	public static final String IDEMPOTENCY_SCOPE_SMS = "sms";
+	public static final String SNS_MESSAGE_TYPE_HEADER = "x-amz-sns-message-type";
+	public static final String TOPIC_ARN = "TopicArn";
 	
 	public static final String TEMPLATE_NAME = "templateName";
 	public static final String SENDER = "sender";
@@ -34,6 +42,14 @@ public final class Constants {
 	public static final String RECEIVER_PHONE_NUMBER = "receiver.phoneNumber";
 	public static final String MESSAGE = "message"; 
 	public static final String MESSAGE_TYPE = "messageType";
+	public static final String SEND_AT = "sendAt";
+	public static final String EMAIL_REQUESTS = "emailRequests";
+	public static final String EMAIL_ADDRESS = "emailAddress";
+	public static final String SENDER_EMAIL_ADDRESS_PARAM = "senderEmailAddress";
+	
+	public static final String EMPTY_JSON_OBJECT = "{}";
+	public static final int BULK_EMAIL_MAX_DESTINATIONS = 50;
+	public static final long SEND_AT_TOLERANCE_MS = 1000;
 	
 	
 	
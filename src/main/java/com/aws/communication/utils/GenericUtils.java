@@ -1,9 +1,13 @@
 package com.aws.communication.utils;
 
 import java.text.MessageFormat;
+import java.util.List;
 
 import org.apache.commons.lang3.ArrayUtils;
 
+import com.aws.communication.model.CommunicationCharacteristic;
+import com.aws.communication.model.ErrorResponse;
+
 /**
  * Utility class containing the utility methods
  * to be used by application
@@ -34,5 +38,34 @@ public final class GenericUtils {
 		
 		return errorMessage;
 	}
+	
+	/**
+	 * Method to map error response with the given code, reason,
+	 * and parameters
+	 * 
+	 * @param code - Code that needs to be set in response
+	 * @param reason - Reason that needs to be set in response
+	 * @param parameters - Array of parameters that needs to be
+	 * used to format the error reason
+	 * @return ErrorResponse - Mapped object
+	 */
+	public static ErrorResponse mapErrorResponse(String code, String reason, String... parameters) {
+		ErrorResponse response = new ErrorResponse();
+		response.setCode(code);
+		response.setReason(formatErrorMessage(reason, parameters));
+		return response;
+	}
+	
+	/**
+	 * Method to map the template data provided for the 
+	 * request
+	 * 
+	 * @param characterisitics - List of template placeholders
+	 * @return String - JSON payload containing the template
+	 * data
+	 */
+	public static String mapTemplateData(List<CommunicationCharacteristic> characterisitics) {
+		return TemplateDataSerializer.toJson(characterisitics);
+	}
 
 }
@@ -1,9 +1,12 @@
 package com.aws.communication.utils;
 
+import java.time.OffsetDateTime;
+
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 
 import com.aws.communication.exception.BadRequestException;
+import com.aws.communication.model.BulkEmailRequest;
 import com.aws.communication.model.CommunicationCharacteristic;
 import com.aws.communication.model.EmailRequest;
 import com.aws.communication.model.SMSRequest;
@@ -52,6 +55,60 @@ public final class RequestValidator {
 		
 	}
 	
+	/**
+	 * Method to validate send bulk email request. Each of the
+	 * email requests is validated as an individual send email request,
+	 * and cannot be scheduled for later.
+	 * 
+	 * @param request - Request to be validated
+	 * @throws BadRequestException Thrown when mandatory parameter is missing in request
+	 * or an email request is scheduled for later
+	 */
+	public static void validateSendBulkEmailRequest(BulkEmailRequest request) throws BadRequestException {
+		if(CollectionUtils.isEmpty(request.getEmailRequests())) {
+			throw new BadRequestException(StatusCodes.MISSING_MANDATORTY_PARAM.getCode(), 
+					StatusCodes.MISSING_MANDATORTY_PARAM.getReason(), Constants.EMAIL_REQUESTS);
+		}
+		for(EmailRequest emailRequest : request.getEmailRequests()) {
+			if(emailRequest == null) {
+				throw new BadRequestException(StatusCodes.MISSING_MANDATORTY_PARAM.getCode(), 
+						StatusCodes.MISSING_MANDATORTY_PARAM.getReason(), Constants.EMAIL_REQUESTS);
+			}
+			validateSendEmailRequest(emailRequest);
+			validateSendNow(emailRequest.getSendAt());
+		}
+	}
+	
+	
+	/**
+	 * Method to validate that a request sent synchronously is not scheduled
+	 * for later. A sendAt slightly in the future is accepted, allowing for
+	 * clock differences with the client.
+	 * 
+	 * @param sendAt - Time to send at, null to send right away
+	 * @throws BadRequestException Thrown when sendAt is in the future
+	 */
+	public static void validateSendNow(OffsetDateTime sendAt) throws BadRequestException {
+		if(sendAt != null && sendAt.toInstant().toEpochMilli() > System.currentTimeMillis() 
+				+ Constants.SEND_AT_TOLERANCE_MS) {
+			throw new BadRequestException(StatusCodes.SCHEDULED_SEND_NOT_SUPPORTED.getCode(), 
+					StatusCodes.SCHEDULED_SEND_NOT_SUPPORTED.getReason(), sendAt.toString());
+		}
+	}
+	
+	/**
+	 * Method to validate the parameters of a campaign upload, shared by all
+	 * of its rows. Each row is validated as an individual send email request.
+	 * 
+	 * @param templateName - Template of the campaign
+	 * @param senderEmailAddress - Email address of the sender of the campaign
+	 * @throws BadRequestException Thrown when mandatory parameter is missing in request
+	 */
+	public static void validateCampaignUpload(String templateName, String senderEmailAddress) 
+			throws BadRequestException {
+		validateMandatoryParameter(templateName, Constants.TEMPLATE_NAME);
+		validateMandatoryParameter(senderEmailAddress, Constants.SENDER_EMAIL_ADDRESS_PARAM);
+	}
 	
 	/**
 	 * Method to validate send SMS request
@@ -15,12 +15,31 @@ public enum StatusCodes {
 	INVALID_JSON_REQUEST("400003","Invalid JSON Request"),
 	INVALID_DATA_FORMAT_JSON("400004","Invalid data format provided in JSON request for {0}"),
 	UNABLE_TO_READ_REQUEST_BODY("400005","Unable to parse the request body"),
+	MISSING_TEMPLATE_DATA("400006","Missing communication characteristics for template placeholders: {0}"),
+	IDEMPOTENCY_KEY_REUSED("400007","Idempotency key {0} was already used for a different request"),
+	RECIPIENT_SUPPRESSED("400008","Recipient {0} is on the suppression list"),
+	INVALID_SNS_MESSAGE("400009","Invalid SNS message: {0}"),
+	INVALID_CAMPAIGN_ROW("400010","Invalid campaign row: {0}"),
+	SCHEDULED_SEND_NOT_SUPPORTED("400011","sendAt {0} is in the future, scheduled sends are only accepted by the asynchronous APIs"),
 	
 	// HTTP status 404 related status codes
 	DATA_NOT_FOUND("404001","{0} not found for given input: {1}"),
 	
+	// HTTP status 429 related status codes
+	RATE_LIMIT_EXCEEDED("429001","Send rate limit exceeded for {0}, please retry later"),
+	AWS_THROTTLED("429002","Request was throttled by AWS {0}, please retry later"),
+	
 	// HTTP status 500 related status codes
-	INTERNAL_SERVER_ERROR("500001","Service encountered an unexpected condition");
+	INTERNAL_SERVER_ERROR("500001","Service encountered an unexpected condition"),
+	
+	// HTTP status 503 related status codes
+	DISPATCH_QUEUE_FULL("503001","Dispatch queue is full, please retry later"),
+	OUTBOX_UNAVAILABLE("503002","Unable to persist the request, please retry later"),
+	FEEDBACK_QUEUE_FULL("503003","Feedback queue is full, please retry later"),
+	CIRCUIT_OPEN("503004","AWS {0} is unavailable in region {1}, please retry later"),
+	CAMPAIGN_UNAVAILABLE("503005","Campaign pipeline is not accepting uploads, please retry later"),
+	SCHEDULE_FULL("503006","Too many sends are scheduled, please retry later"),
+	IDEMPOTENCY_KEY_IN_FLIGHT("503007","Request with idempotency key {0} is still in flight, please retry later");
 	
 	private String code;
 	private String reason;
@@ -0,0 +1,213 @@
+package com.aws.communication.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+import com.aws.communication.model.CommunicationCharacteristic;
+
+/**
+ * Serializer to write the communication characteristics as SES template
+ * data JSON object.
+ * 
+ * Output is equivalent to serializing a HashMap of characteristic name to value
+ * with a default Gson instance: strings are escaped the same way (including
+ * HTML safe escaping), the last characteristic wins when names collide and
+ * characteristics with null value are omitted. Only the order of the keys may
+ * differ, which is not significant for template data.
+ * 
+ * The serializer keeps no shared mutable state apart from per thread
+ * buffers, thus it is safe to be used concurrently.
+ *
+ */
+public final class TemplateDataSerializer {
+	
+	/**
+	 * Buffers grown beyond this capacity are not kept for reuse, so that a
+	 * single large payload does not pin memory on the thread
+	 */
+	private static final int MAX_POOLED_CAPACITY = 16 * 1024;
+	
+	private static final int INITIAL_CAPACITY = 256;
+	
+	/**
+	 * Up to this many characteristics, name collisions are detected by scanning
+	 * the remaining entries instead of building the name index
+	 */
+	private static final int LINEAR_SCAN_THRESHOLD = 8;
+	
+	private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+	
+	private static final String[] REPLACEMENT_CHARS = new String[128];
+	
+	static {
+		for(int i = 0; i <= 0x1f; i++) {
+			REPLACEMENT_CHARS[i] = String.format("\\u%04x", i);
+		}
+		REPLACEMENT_CHARS['"'] = "\\\"";
+		REPLACEMENT_CHARS['\\'] = "\\\\";
+		REPLACEMENT_CHARS['\t'] = "\\t";
+		REPLACEMENT_CHARS['\b'] = "\\b";
+		REPLACEMENT_CHARS['\n'] = "\\n";
+		REPLACEMENT_CHARS['\r'] = "\\r";
+		REPLACEMENT_CHARS['\f'] = "\\f";
+		REPLACEMENT_CHARS['<'] = "\\u003c";
+		REPLACEMENT_CHARS['>'] = "\\u003e";
+		REPLACEMENT_CHARS['&'] = "\\u0026";
+		REPLACEMENT_CHARS['='] = "\\u003d";
+		REPLACEMENT_CHARS['\''] = "\\u0027";
+	}
+	
+	private TemplateDataSerializer() {
+		super();
+	}
+	
+	/**
+	 * Method to serialize the characteristics as template data JSON object
+	 * 
+	 * @param characteristics - List of template placeholders
+	 * @return String - JSON payload containing the template data
+	 */
+	public static String toJson(List<CommunicationCharacteristic> characteristics) {
+		List<CommunicationCharacteristic> list = characteristics instanceof RandomAccess 
+				? characteristics : new ArrayList<>(characteristics);
+		
+		Buffers buffers = BUFFERS.get();
+		StringBuilder sb = buffers.json;
+		sb.setLength(0);
+		sb.append('{');
+		
+		int size = list.size();
+		int mask = size > LINEAR_SCAN_THRESHOLD ? indexLastOccurrences(buffers, list, size) : -1;
+		
+		boolean first = true;
+		for(int i = 0; i < size; i++) {
+			CommunicationCharacteristic characteristic = list.get(i);
+			boolean overridden = mask < 0 ? isOverridden(list, i, size) 
+					: buffers.slots[findSlot(buffers.slots, mask, list, characteristic.getName())] != i;
+			if(characteristic.getValue() == null || overridden) {
+				continue;
+			}
+			if(!first) {
+				sb.append(',');
+			}
+			first = false;
+			writeString(sb, String.valueOf(characteristic.getName()));
+			sb.append(':');
+			writeString(sb, characteristic.getValue());
+		}
+		
+		sb.append('}');
+		String json = sb.toString();
+		
+		if(sb.capacity() > MAX_POOLED_CAPACITY) {
+			buffers.json = new StringBuilder(INITIAL_CAPACITY);
+		}
+		return json;
+	}
+	
+	/**
+	 * Method to build an open addressing index of characteristic name to the
+	 * index of its last occurrence in the list, in the reusable slots array
+	 * 
+	 * @param buffers - Buffers of the current thread
+	 * @param list - List of characteristics
+	 * @param size - Size of the list
+	 * @return int - Mask of the index table
+	 */
+	private static int indexLastOccurrences(Buffers buffers, List<CommunicationCharacteristic> list, int size) {
+		int capacity = Integer.highestOneBit(size) << 2;
+		if(buffers.slots.length < capacity) {
+			buffers.slots = new int[capacity];
+		}
+		int[] slots = buffers.slots;
+		Arrays.fill(slots, 0, capacity, -1);
+		
+		int mask = capacity - 1;
+		for(int i = 0; i < size; i++) {
+			slots[findSlot(slots, mask, list, list.get(i).getName())] = i;
+		}
+		return mask;
+	}
+	
+	/**
+	 * Method to find the slot of given name in the index, which is either the
+	 * slot holding the same name or the empty slot where it belongs
+	 * 
+	 * @param slots - Index table
+	 * @param mask - Mask of the index table
+	 * @param list - List of characteristics
+	 * @param name - Name to be looked up
+	 * @return int - Slot for the name
+	 */
+	private static int findSlot(int[] slots, int mask, List<CommunicationCharacteristic> list, String name) {
+		int hash = name == null ? 0 : name.hashCode();
+		int slot = (hash ^ (hash >>> 16)) & mask;
+		while(slots[slot] >= 0 && !Objects.equals(name, list.get(slots[slot]).getName())) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+	
+	/**
+	 * Method to check if the characteristic at given index is overridden by a
+	 * later characteristic with same name, by scanning the remaining entries
+	 * 
+	 * @param list - List of characteristics
+	 * @param index - Index of the characteristic to be checked
+	 * @param size - Size of the list
+	 * @return boolean - true if a later characteristic has same name
+	 */
+	private static boolean isOverridden(List<CommunicationCharacteristic> list, int index, int size) {
+		String name = list.get(index).getName();
+		for(int j = index + 1; j < size; j++) {
+			if(Objects.equals(name, list.get(j).getName())) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Method to write the value as quoted and escaped JSON string
+	 * 
+	 * @param sb - Buffer to be written to
+	 * @param value - Value to be written
+	 */
+	private static void writeString(StringBuilder sb, String value) {
+		sb.append('"');
+		int last = 0;
+		int length = value.length();
+		for(int i = 0; i < length; i++) {
+			char c = value.charAt(i);
+			String replacement;
+			if(c < 128) {
+				replacement = REPLACEMENT_CHARS[c];
+				if(replacement == null) {
+					continue;
+				}
+			} else if(c == '\u2028') {
+				replacement = "\\u2028";
+			} else if(c == '\u2029') {
+				replacement = "\\u2029";
+			} else {
+				continue;
+			}
+			sb.append(value, last, i).append(replacement);
+			last = i + 1;
+		}
+		sb.append(value, last, length);
+		sb.append('"');
+	}
+	
+	/**
+	 * Reusable buffers of a thread
+	 */
+	private static final class Buffers {
+		private StringBuilder json = new StringBuilder(INITIAL_CAPACITY);
+		private int[] slots = new int[0];
+	}
+
+}
@@ -0,0 +1,138 @@
+package com.aws.communication.utils;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Parser extracting the placeholders of an SES template, which uses
+ * Handlebars syntax.
+ * 
+ * Only the plain variables outside of any block ({{name}}, {{{name}}})
+ * are considered required. Variables within {{#if}}, {{#each}} or other
+ * blocks are optional or relative to the block, and expressions with
+ * helper arguments are skipped. For a nested path ({{user.name}}) the
+ * top level name is required.
+ *
+ */
+public final class TemplatePlaceholderParser {
+	
+	private static final String OPEN = "{{";
+	private static final String CLOSE = "}}";
+	private static final String OPEN_RAW = "{{{";
+	private static final String CLOSE_RAW = "}}}";
+	private static final String OPEN_COMMENT = "{{!--";
+	private static final String CLOSE_COMMENT = "--}}";
+	
+	private TemplatePlaceholderParser() {
+		
+	}
+	
+	/**
+	 * Method to extract the required placeholders of the template parts
+	 * 
+	 * @param parts - Template parts (subject, text, html), may be null
+	 * @return Set<String> - Required placeholder names in order of appearance
+	 */
+	public static Set<String> requiredPlaceholders(String... parts) {
+		Set<String> placeholders = new LinkedHashSet<>();
+		for(String part : parts) {
+			if(part != null) {
+				collect(part, placeholders);
+			}
+		}
+		return placeholders;
+	}
+	
+	/**
+	 * Method to collect the required placeholders of a template part
+	 * 
+	 * @param part - Template part
+	 * @param placeholders - Set to be populated
+	 */
+	private static void collect(String part, Set<String> placeholders) {
+		int depth = 0;
+		int from = 0;
+		int start;
+		while((start = part.indexOf(OPEN, from)) >= 0) {
+			String close = part.startsWith(OPEN_COMMENT, start) ? CLOSE_COMMENT 
+					: part.startsWith(OPEN_RAW, start) ? CLOSE_RAW : CLOSE;
+			int open = start + (close == CLOSE_RAW ? OPEN_RAW.length() : OPEN.length());
+			int end = part.indexOf(close, open);
+			if(end < 0) {
+				return;
+			}
+			from = end + close.length();
+			
+			String expression = trim(part, open, end);
+			if(expression.isEmpty()) {
+				continue;
+			}
+			char first = expression.charAt(0);
+			if(first == '#') {
+				depth++;
+			} else if(first == '/') {
+				depth = Math.max(0, depth - 1);
+			} else if(depth == 0 && isVariable(expression)) {
+				placeholders.add(topLevelName(expression));
+			}
+		}
+	}
+	
+	/**
+	 * Method to trim whitespace and whitespace control characters
+	 * of an expression
+	 * 
+	 * @param part - Template part
+	 * @param begin - Begin index of the expression
+	 * @param end - End index of the expression
+	 * @return String - Trimmed expression
+	 */
+	private static String trim(String part, int begin, int end) {
+		while(begin < end && (Character.isWhitespace(part.charAt(begin)) || part.charAt(begin) == '~')) {
+			begin++;
+		}
+		while(end > begin && (Character.isWhitespace(part.charAt(end - 1)) || part.charAt(end - 1) == '~')) {
+			end--;
+		}
+		return part.substring(begin, end);
+	}
+	
+	/**
+	 * Method to check if the expression is a plain variable reference
+	 * 
+	 * @param expression - Trimmed expression
+	 * @return boolean - true if plain variable
+	 */
+	private static boolean isVariable(String expression) {
+		if(!Character.isLetter(expression.charAt(0)) && expression.charAt(0) != '_') {
+			return false;
+		}
+		if("else".equals(expression) || "this".equals(expression)) {
+			return false;
+		}
+		for(int i = 1; i < expression.length(); i++) {
+			char c = expression.charAt(i);
+			if(!Character.isLetterOrDigit(c) && c != '_' && c != '-' && c != '.' && c != '[' && c != ']') {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Method to get the top level name of a variable path
+	 * 
+	 * @param expression - Variable expression
+	 * @return String - Top level name
+	 */
+	private static String topLevelName(String expression) {
+		for(int i = 0; i < expression.length(); i++) {
+			char c = expression.charAt(i);
+			if(c == '.' || c == '[') {
+				return expression.substring(0, i);
+			}
+		}
+		return expression;
+	}
+
+}
@@ -0,0 +1,41 @@
+package com.aws.communication.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ThreadFactory;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the virtual thread mode, which must fail on runtimes without
+ * virtual threads rather than falling back to platform threads
+ *
+ */
+class VirtualThreadConfigurationTest {
+
+	@Test
+	void failsOnRuntimeWithoutVirtualThreadsAndCreatesThemOtherwise() throws Exception {
+		if(!virtualThreadsAvailable()) {
+			IllegalStateException exception = assertThrows(IllegalStateException.class, 
+					VirtualThreadConfiguration::new);
+			assertTrue(exception.getMessage().contains("threads.virtual.enabled requires JDK 21"));
+			return;
+		}
+		ThreadFactory factory = new VirtualThreadConfiguration().dispatchThreadFactory();
+		Thread thread = factory.newThread(() -> { });
+		assertEquals(Boolean.TRUE, Thread.class.getMethod("isVirtual").invoke(thread));
+		assertEquals("dispatcher-0", thread.getName());
+	}
+
+	private static boolean virtualThreadsAvailable() {
+		try {
+			Thread.class.getMethod("ofVirtual");
+			return true;
+		} catch(NoSuchMethodException e) {
+			return false;
+		}
+	}
+
+}
@@ -0,0 +1,149 @@
+package com.aws.communication.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.aws.communication.exception.BadRequestException;
+import com.aws.communication.exception.TooManyRequestsException;
+import com.aws.communication.model.CommunicationResponse;
+import com.aws.communication.model.SMSRequest;
+import com.aws.communication.model.StreamResult;
+import com.aws.communication.service.AwsAsyncCommunicationService;
+import com.aws.communication.service.IdempotencyService;
+import com.aws.communication.utils.StatusCodes;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Tests of the reactive edition of the API over a non-blocking service
+ * whose sends are completed by the test
+ *
+ */
+class AwsCommunicationReactiveApiControllerTest {
+
+	private final AwsAsyncCommunicationService service = mock(AwsAsyncCommunicationService.class);
+	private final AwsCommunicationReactiveApiController controller = new AwsCommunicationReactiveApiController();
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(controller, "service", service);
+		ReflectionTestUtils.setField(controller, "idempotencyService", new IdempotencyService());
+		ReflectionTestUtils.setField(controller, "streamMaxConcurrency", 256);
+	}
+
+	@Test
+	void sendsOnlyWhenSubscribed() throws Exception {
+		SMSRequest request = new SMSRequest();
+		when(service.sendSMS(request)).thenReturn(completed("m1"));
+		Mono<CommunicationResponse> response = controller.sendSMS(request, null);
+		verify(service, never()).sendSMS(any(SMSRequest.class));
+		assertEquals("m1", response.block().getMessageId());
+	}
+
+	@Test
+	void emitsValidationFailureAsErrorSignal() throws Exception {
+		SMSRequest request = new SMSRequest();
+		BadRequestException invalid = new BadRequestException(StatusCodes.MISSING_MANDATORTY_PARAM.getCode(),
+				StatusCodes.MISSING_MANDATORTY_PARAM.getReason(), "message");
+		when(service.sendSMS(request)).thenThrow(invalid);
+		assertEquals(invalid, error(controller.sendSMS(request, null)));
+	}
+
+	@Test
+	void unwrapsFailureOfTheSend() throws Exception {
+		SMSRequest request = new SMSRequest();
+		TooManyRequestsException throttled = throttled();
+		CompletableFuture<CommunicationResponse> future = new CompletableFuture<>();
+		future.completeExceptionally(new CompletionException(throttled));
+		when(service.sendSMS(request)).thenReturn(future);
+		assertEquals(throttled, error(controller.sendSMS(request, null)));
+	}
+
+	@Test
+	void streamsResultOfEachRequestWithoutEndingOnFailure() throws Exception {
+		SMSRequest sent = new SMSRequest();
+		SMSRequest invalid = new SMSRequest();
+		SMSRequest throttled = new SMSRequest();
+		SMSRequest broken = new SMSRequest();
+		when(service.sendSMS(sent)).thenReturn(completed("m0"));
+		when(service.sendSMS(invalid)).thenThrow(new BadRequestException(
+				StatusCodes.MISSING_MANDATORTY_PARAM.getCode(), StatusCodes.MISSING_MANDATORTY_PARAM.getReason(), "message"));
+		CompletableFuture<CommunicationResponse> failed = new CompletableFuture<>();
+		failed.completeExceptionally(new CompletionException(throttled()));
+		when(service.sendSMS(throttled)).thenReturn(failed);
+		CompletableFuture<CommunicationResponse> crashed = new CompletableFuture<>();
+		crashed.completeExceptionally(new IllegalStateException("unexpected"));
+		when(service.sendSMS(broken)).thenReturn(crashed);
+
+		List<StreamResult> results = new ArrayList<>(controller.sendSMSStream(Flux.just(sent, invalid, throttled, broken))
+				.collectList().block());
+		results.sort(Comparator.comparing(StreamResult::getIndex));
+		assertEquals(4, results.size());
+		assertEquals("m0", results.get(0).getMessageId());
+		assertNull(results.get(0).getError());
+		assertEquals(StatusCodes.MISSING_MANDATORTY_PARAM.getCode(), results.get(1).getError().getCode());
+		assertEquals(StatusCodes.AWS_THROTTLED.getCode(), results.get(2).getError().getCode());
+		assertEquals(StatusCodes.INTERNAL_SERVER_ERROR.getCode(), results.get(3).getError().getCode());
+		assertNull(results.get(3).getMessageId());
+	}
+
+	@Test
+	void boundsTheSendsInFlightOfAStream() throws Exception {
+		ReflectionTestUtils.setField(controller, "streamMaxConcurrency", 2);
+		List<CompletableFuture<CommunicationResponse>> sends = new ArrayList<>();
+		when(service.sendSMS(any(SMSRequest.class))).thenAnswer(invocation -> {
+			CompletableFuture<CommunicationResponse> send = new CompletableFuture<>();
+			sends.add(send);
+			return send;
+		});
+		List<StreamResult> results = new ArrayList<>();
+		controller.sendSMSStream(Flux.just(new SMSRequest(), new SMSRequest(), new SMSRequest(), new SMSRequest(),
+				new SMSRequest())).subscribe(results::add);
+		verify(service, times(2)).sendSMS(any(SMSRequest.class));
+		sends.get(0).complete(response("m0"));
+		verify(service, times(3)).sendSMS(any(SMSRequest.class));
+		for(int index = 1; index < 5; index++) {
+			sends.get(index).complete(response("m" + index));
+		}
+		assertEquals(5, results.size());
+		assertTrue(results.stream().allMatch(result -> result.getError() == null));
+	}
+
+	private static Throwable error(Mono<CommunicationResponse> response) {
+		return response.map(value -> (Throwable) null).onErrorResume(Mono::just).block();
+	}
+
+	private static TooManyRequestsException throttled() {
+		return new TooManyRequestsException(StatusCodes.AWS_THROTTLED.getCode(), StatusCodes.AWS_THROTTLED.getReason(),
+				"SNS");
+	}
+
+	private static CompletableFuture<CommunicationResponse> completed(String messageId) {
+		return CompletableFuture.completedFuture(response(messageId));
+	}
+
+	private static CommunicationResponse response(String messageId) {
+		CommunicationResponse response = new CommunicationResponse();
+		response.setMessageId(messageId);
+		return response;
+	}
+
+}
@@ -0,0 +1,274 @@
+package com.aws.communication.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.aws.communication.config.RegionalClients;
+import com.aws.communication.exception.BadRequestException;
+import com.aws.communication.exception.NotFoundException;
+import com.aws.communication.exception.ServiceUnavailableException;
+import com.aws.communication.exception.TooManyRequestsException;
+import com.aws.communication.model.CommunicationCharacteristic;
+import com.aws.communication.model.CommunicationResponse;
+import com.aws.communication.model.EmailRequest;
+import com.aws.communication.model.Receiver;
+import com.aws.communication.model.SMSRequest;
+import com.aws.communication.model.Sender;
+import com.aws.communication.service.SendRateLimiter.Channel;
+import com.aws.communication.service.resilience.ResilienceService;
+import com.aws.communication.service.suppression.SuppressionService;
+import com.aws.communication.utils.Constants;
+import com.aws.communication.utils.StatusCodes;
+
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.services.ses.SesAsyncClient;
+import software.amazon.awssdk.services.ses.model.SendTemplatedEmailRequest;
+import software.amazon.awssdk.services.ses.model.SendTemplatedEmailResponse;
+import software.amazon.awssdk.services.ses.model.TemplateDoesNotExistException;
+import software.amazon.awssdk.services.sns.SnsAsyncClient;
+import software.amazon.awssdk.services.sns.model.PublishRequest;
+import software.amazon.awssdk.services.sns.model.PublishResponse;
+import software.amazon.awssdk.services.sns.model.SnsException;
+
+/**
+ * Tests of the non-blocking sends and of their failover across the
+ * regions ranked by the region router
+ *
+ */
+class AwsAsyncCommunicationServiceTest {
+
+	private static final String FIRST = "us-east-1";
+	private static final String SECOND = "eu-west-1";
+
+	private final Map<String, SnsAsyncClient> snsClients = new HashMap<>();
+	private final Map<String, SesAsyncClient> sesClients = new HashMap<>();
+	private final SendRateLimiter rateLimiter = mock(SendRateLimiter.class);
+	private final ResilienceService resilienceService = mock(ResilienceService.class);
+	private final RegionRouter regionRouter = mock(RegionRouter.class);
+	private final TemplateRegistry templateRegistry = mock(TemplateRegistry.class);
+	private final AwsAsyncCommunicationService service = new AwsAsyncCommunicationService();
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() throws ServiceUnavailableException {
+		for(String region : Arrays.asList(FIRST, SECOND)) {
+			snsClients.put(region, mock(SnsAsyncClient.class));
+			sesClients.put(region, mock(SesAsyncClient.class));
+		}
+		when(regionRouter.route(any(Channel.class))).thenReturn(Arrays.asList(FIRST, SECOND));
+		when(resilienceService.callAsync(any(Channel.class), anyString(), any(Supplier.class)))
+				.thenAnswer(invocation -> ((Supplier<CompletableFuture<?>>) invocation.getArgument(2)).get());
+		ReflectionTestUtils.setField(service, "sesAsyncClients", new RegionalClients<>(Arrays.asList(FIRST, SECOND),
+				sesClients::get));
+		ReflectionTestUtils.setField(service, "snsAsyncClients", new RegionalClients<>(Arrays.asList(FIRST, SECOND),
+				snsClients::get));
+		ReflectionTestUtils.setField(service, "rateLimiter", rateLimiter);
+		ReflectionTestUtils.setField(service, "templateRegistry", templateRegistry);
+		ReflectionTestUtils.setField(service, "suppressionService", mock(SuppressionService.class));
+		ReflectionTestUtils.setField(service, "resilienceService", resilienceService);
+		ReflectionTestUtils.setField(service, "regionRouter", regionRouter);
+		ReflectionTestUtils.setField(service, "stageMetrics", mock(SendStageMetrics.class));
+		ReflectionTestUtils.setField(service, "laneClassifier", mock(LaneClassifier.class));
+	}
+
+	@Test
+	void failsOverToNextRegionOnTransientFailure() throws Exception {
+		publishFails(FIRST, SnsException.builder().statusCode(503).message("unavailable").build());
+		publishSucceeds(SECOND, "m2");
+		assertEquals("m2", messageId(service.sendSMS(sms())));
+		verify(regionRouter).onFailure(eq(Channel.SMS), eq(FIRST), anyLong());
+		verify(regionRouter).onFailover(Channel.SMS, FIRST);
+		verify(regionRouter).onSuccess(eq(Channel.SMS), eq(SECOND), anyLong());
+		verify(rateLimiter).tryAcquire(Channel.SMS, null, SECOND, "sender", 1);
+		verify(rateLimiter).onSuccess(Channel.SMS, SECOND);
+	}
+
+	@Test
+	void failsOverToNextRegionOnThrottling() throws Exception {
+		publishFails(FIRST, throttling());
+		publishSucceeds(SECOND, "m2");
+		assertEquals("m2", messageId(service.sendSMS(sms())));
+		verify(rateLimiter).onThrottled(Channel.SMS, FIRST);
+		verify(regionRouter).onFailover(Channel.SMS, FIRST);
+		verify(regionRouter, never()).onFailure(eq(Channel.SMS), eq(FIRST), anyLong());
+	}
+
+	@Test
+	void failsWithTooManyRequestsWhenThrottledInEveryRegion() throws Exception {
+		publishFails(FIRST, throttling());
+		publishFails(SECOND, throttling());
+		Throwable cause = failure(service.sendSMS(sms()));
+		assertTrue(cause instanceof TooManyRequestsException);
+		assertEquals(StatusCodes.AWS_THROTTLED.getCode(), ((TooManyRequestsException) cause).getCode());
+		verify(rateLimiter).onThrottled(Channel.SMS, FIRST);
+		verify(rateLimiter).onThrottled(Channel.SMS, SECOND);
+		verify(regionRouter, never()).onFailover(Channel.SMS, SECOND);
+	}
+
+	@Test
+	void failsOverWhenCircuitBreakerIsOpen() throws Exception {
+		when(resilienceService.callAsync(eq(Channel.SMS), eq(FIRST), any())).thenThrow(
+				new ServiceUnavailableException(StatusCodes.CIRCUIT_OPEN.getCode(),
+						StatusCodes.CIRCUIT_OPEN.getReason(), "SNS", FIRST));
+		publishSucceeds(SECOND, "m2");
+		assertEquals("m2", messageId(service.sendSMS(sms())));
+		verify(snsClients.get(FIRST), never()).publish(any(PublishRequest.class));
+		verify(regionRouter).onFailover(Channel.SMS, FIRST);
+	}
+
+	@Test
+	void doesNotFailOverOnClientError() throws Exception {
+		SnsException invalid = (SnsException) SnsException.builder().statusCode(400).message("invalid").build();
+		publishFails(FIRST, invalid);
+		assertEquals(invalid, failure(service.sendSMS(sms())));
+		verify(snsClients.get(SECOND), never()).publish(any(PublishRequest.class));
+		verify(regionRouter, never()).onFailover(any(Channel.class), anyString());
+	}
+
+	@Test
+	void skipsRegionWithoutPermits() throws Exception {
+		doThrow(new TooManyRequestsException(StatusCodes.RATE_LIMIT_EXCEEDED.getCode(),
+				StatusCodes.RATE_LIMIT_EXCEEDED.getReason(), "SNS")).when(rateLimiter).tryAcquire(Channel.SMS, null, FIRST, "sender", 1);
+		publishSucceeds(SECOND, "m2");
+		assertEquals("m2", messageId(service.sendSMS(sms())));
+		verify(snsClients.get(FIRST), never()).publish(any(PublishRequest.class));
+		verify(regionRouter, never()).onFailover(any(Channel.class), anyString());
+	}
+
+	@Test
+	void marksMissingTemplateWithoutFailingOver() throws Exception {
+		CompletableFuture<SendTemplatedEmailResponse> missing = new CompletableFuture<>();
+		missing.completeExceptionally(TemplateDoesNotExistException.builder().statusCode(400).message("missing")
+				.build());
+		when(sesClients.get(FIRST).sendTemplatedEmail(any(SendTemplatedEmailRequest.class))).thenReturn(missing);
+		assertTrue(failure(service.sendEmail(email())) instanceof NotFoundException);
+		verify(templateRegistry).markMissing("welcome", FIRST);
+		verify(sesClients.get(SECOND), never()).sendTemplatedEmail(any(SendTemplatedEmailRequest.class));
+	}
+
+	@Test
+	void rejectsInvalidRequestOnCallingThread() {
+		SMSRequest request = sms();
+		request.setMessage(" ");
+		assertThrows(BadRequestException.class, () -> service.sendSMS(request));
+		verify(snsClients.get(FIRST), never()).publish(any(PublishRequest.class));
+	}
+
+	@Test
+	void rejectsRequestAboveRateLimitWithoutWaiting() throws Exception {
+		doThrow(new TooManyRequestsException(StatusCodes.RATE_LIMIT_EXCEEDED.getCode(),
+				StatusCodes.RATE_LIMIT_EXCEEDED.getReason(), "SNS")).when(rateLimiter)
+				.tryAcquire(eq(Channel.SMS), any(), anyString(), eq("sender"), eq(1));
+		assertThrows(TooManyRequestsException.class, () -> service.sendSMS(sms()));
+		verify(rateLimiter, never()).acquire(any(Channel.class), any(), anyString(), anyString(), anyInt());
+		verify(snsClients.get(FIRST), never()).publish(any(PublishRequest.class));
+		verify(snsClients.get(SECOND), never()).publish(any(PublishRequest.class));
+	}
+
+	@Test
+	void publishesSmsWithSenderIdAndType() throws Exception {
+		publishSucceeds(FIRST, "m1");
+		assertEquals("m1", messageId(service.sendSMS(sms())));
+		ArgumentCaptor<PublishRequest> published = ArgumentCaptor.forClass(PublishRequest.class);
+		verify(snsClients.get(FIRST)).publish(published.capture());
+		assertEquals("+15550000000", published.getValue().phoneNumber());
+		assertEquals("Hello", published.getValue().message());
+		assertEquals("sender", published.getValue().messageAttributes().get(Constants.AWS_SNS_SMS_SENDERID).stringValue());
+		assertEquals("Transactional", published.getValue().messageAttributes().get(Constants.AWS_SNS_SMS_TYPE)
+				.stringValue());
+		verify(rateLimiter).onSuccess(Channel.SMS, FIRST);
+	}
+
+	@Test
+	void sendsTemplatedEmailWithTemplateData() throws Exception {
+		when(sesClients.get(FIRST).sendTemplatedEmail(any(SendTemplatedEmailRequest.class))).thenReturn(
+				CompletableFuture.completedFuture(SendTemplatedEmailResponse.builder().messageId("e1").build()));
+		EmailRequest request = email();
+		CommunicationCharacteristic name = new CommunicationCharacteristic();
+		name.setName("name");
+		name.setValue("Ann");
+		request.setCommunicationCharacteristics(Arrays.asList(name));
+		assertEquals("e1", messageId(service.sendEmail(request)));
+		ArgumentCaptor<SendTemplatedEmailRequest> sent = ArgumentCaptor.forClass(SendTemplatedEmailRequest.class);
+		verify(sesClients.get(FIRST)).sendTemplatedEmail(sent.capture());
+		assertEquals("sender@example.com", sent.getValue().source());
+		assertEquals("welcome", sent.getValue().template());
+		assertEquals(Arrays.asList("receiver@example.com"), sent.getValue().destination().toAddresses());
+		assertEquals("{\"name\":\"Ann\"}", sent.getValue().templateData());
+		verify(templateRegistry).validateCached(request);
+	}
+
+	private void publishSucceeds(String region, String messageId) {
+		when(snsClients.get(region).publish(any(PublishRequest.class))).thenReturn(
+				CompletableFuture.completedFuture(PublishResponse.builder().messageId(messageId).build()));
+	}
+
+	private void publishFails(String region, Throwable failure) {
+		CompletableFuture<PublishResponse> future = new CompletableFuture<>();
+		future.completeExceptionally(failure);
+		when(snsClients.get(region).publish(any(PublishRequest.class))).thenReturn(future);
+	}
+
+	private static SnsException throttling() {
+		return (SnsException) SnsException.builder().statusCode(400).message("throttled")
+				.awsErrorDetails(AwsErrorDetails.builder().errorCode("Throttling").build()).build();
+	}
+
+	private static String messageId(CompletableFuture<CommunicationResponse> future) throws Exception {
+		return future.get(5, TimeUnit.SECONDS).getMessageId();
+	}
+
+	private static Throwable failure(CompletableFuture<CommunicationResponse> future) {
+		return assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS)).getCause();
+	}
+
+	private static SMSRequest sms() {
+		Sender sender = new Sender();
+		sender.setSenderId("sender");
+		Receiver receiver = new Receiver();
+		receiver.setPhoneNumber("+15550000000");
+		SMSRequest request = new SMSRequest();
+		request.setMessage("Hello");
+		request.setMessageType("Transactional");
+		request.setSender(sender);
+		request.setReceiver(receiver);
+		return request;
+	}
+
+	private static EmailRequest email() {
+		Sender sender = new Sender();
+		sender.setEmailAddress("sender@example.com");
+		Receiver receiver = new Receiver();
+		receiver.setEmailAddress("receiver@example.com");
+		EmailRequest request = new EmailRequest();
+		request.setTemplateName("welcome");
+		request.setSender(sender);
+		request.setReceiver(receiver);
+		return request;
+	}
+
+}
@@ -0,0 +1,207 @@
+package com.aws.communication.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.SdkClientException;
+import com.amazonaws.services.simpleemail.AmazonSimpleEmailService;
+import com.amazonaws.services.simpleemail.model.BulkEmailDestinationStatus;
+import com.amazonaws.services.simpleemail.model.BulkEmailStatus;
+import com.amazonaws.services.simpleemail.model.SendBulkTemplatedEmailRequest;
+import com.amazonaws.services.simpleemail.model.SendBulkTemplatedEmailResult;
+import com.amazonaws.services.simpleemail.model.TemplateDoesNotExistException;
+import com.amazonaws.services.sns.AmazonSNS;
+import com.aws.communication.config.RegionalClients;
+import com.aws.communication.exception.BadRequestException;
+import com.aws.communication.exception.ServiceUnavailableException;
+import com.aws.communication.model.BulkEmailRequest;
+import com.aws.communication.model.BulkEmailResult;
+import com.aws.communication.model.EmailRequest;
+import com.aws.communication.model.Receiver;
+import com.aws.communication.model.Sender;
+import com.aws.communication.service.SendRateLimiter.Channel;
+import com.aws.communication.service.resilience.ResilienceService;
+import com.aws.communication.service.suppression.SuppressionService;
+
+/**
+ * Tests of the mapping of the bulk email statuses, per destination and per
+ * SendBulkTemplatedEmail call, with an SES client answering per template
+ *
+ */
+class AwsCommunicationServiceTest {
+
+	private static final String REGION = "us-east-1";
+
+	private final AmazonSimpleEmailService ses = mock(AmazonSimpleEmailService.class);
+	private final TemplateRegistry templateRegistry = mock(TemplateRegistry.class);
+	private final AwsCommunicationService service = new AwsCommunicationService();
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() throws ServiceUnavailableException {
+		ResilienceService resilienceService = mock(ResilienceService.class);
+		when(resilienceService.call(any(Channel.class), anyString(), any(Supplier.class)))
+				.thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(2)).get());
+		RegionRouter regionRouter = mock(RegionRouter.class);
+		when(regionRouter.route(any(Channel.class))).thenReturn(Collections.singletonList(REGION));
+		ReflectionTestUtils.setField(service, "sesClients", new RegionalClients<>(Arrays.asList(REGION), region -> ses));
+		ReflectionTestUtils.setField(service, "snsClients", new RegionalClients<>(Arrays.asList(REGION),
+				region -> mock(AmazonSNS.class)));
+		ReflectionTestUtils.setField(service, "rateLimiter", mock(SendRateLimiter.class));
+		ReflectionTestUtils.setField(service, "templateRegistry", templateRegistry);
+		ReflectionTestUtils.setField(service, "suppressionService", mock(SuppressionService.class));
+		ReflectionTestUtils.setField(service, "resilienceService", resilienceService);
+		ReflectionTestUtils.setField(service, "regionRouter", regionRouter);
+		ReflectionTestUtils.setField(service, "stageMetrics", mock(SendStageMetrics.class));
+		ReflectionTestUtils.setField(service, "laneClassifier", mock(LaneClassifier.class));
+	}
+
+	@Test
+	void mapsStatusOfEachDestinationInRequestOrder() throws BadRequestException {
+		when(ses.sendBulkTemplatedEmail(any(SendBulkTemplatedEmailRequest.class))).thenAnswer(invocation -> {
+			SendBulkTemplatedEmailRequest request = invocation.getArgument(0);
+			List<BulkEmailDestinationStatus> statuses = new ArrayList<>();
+			for(int index = 0; index < request.getDestinations().size(); index++) {
+				String address = request.getDestinations().get(index).getDestination().getToAddresses().get(0);
+				statuses.add(address.startsWith("rejected")
+						? new BulkEmailDestinationStatus().withStatus(BulkEmailStatus.MessageRejected).withError("rejected")
+						: new BulkEmailDestinationStatus().withStatus(BulkEmailStatus.Success)
+								.withMessageId(request.getTemplate() + "-" + address));
+			}
+			return new SendBulkTemplatedEmailResult().withStatus(statuses);
+		});
+		List<BulkEmailResult> results = send(email("welcome", "a@example.com"), email("reset", "b@example.com"),
+				email("welcome", "rejected@example.com"), email("reset", "c@example.com"));
+		verify(ses, times(2)).sendBulkTemplatedEmail(any(SendBulkTemplatedEmailRequest.class));
+		assertResult(results.get(0), "a@example.com", "welcome", "Success", "welcome-a@example.com", null);
+		assertResult(results.get(1), "b@example.com", "reset", "Success", "reset-b@example.com", null);
+		assertResult(results.get(2), "rejected@example.com", "welcome", "MessageRejected", null, "rejected");
+		assertResult(results.get(3), "c@example.com", "reset", "Success", "reset-c@example.com", null);
+	}
+
+	@Test
+	void splitsGroupsIntoCallsOfFiftyDestinations() throws BadRequestException {
+		when(ses.sendBulkTemplatedEmail(any(SendBulkTemplatedEmailRequest.class))).thenAnswer(invocation -> {
+			SendBulkTemplatedEmailRequest request = invocation.getArgument(0);
+			List<BulkEmailDestinationStatus> statuses = new ArrayList<>();
+			for(int index = 0; index < request.getDestinations().size(); index++) {
+				statuses.add(new BulkEmailDestinationStatus().withStatus(BulkEmailStatus.Success).withMessageId("m"));
+			}
+			return new SendBulkTemplatedEmailResult().withStatus(statuses);
+		});
+		EmailRequest[] requests = new EmailRequest[120];
+		for(int index = 0; index < requests.length; index++) {
+			requests[index] = email("welcome", "user" + index + "@example.com");
+		}
+		List<BulkEmailResult> results = send(requests);
+		ArgumentCaptor<SendBulkTemplatedEmailRequest> calls = ArgumentCaptor.forClass(SendBulkTemplatedEmailRequest.class);
+		verify(ses, times(3)).sendBulkTemplatedEmail(calls.capture());
+		assertEquals(50, calls.getAllValues().get(0).getDestinations().size());
+		assertEquals(50, calls.getAllValues().get(1).getDestinations().size());
+		assertEquals(20, calls.getAllValues().get(2).getDestinations().size());
+		assertEquals("user100@example.com", calls.getAllValues().get(2).getDestinations().get(0).getDestination()
+				.getToAddresses().get(0));
+		for(BulkEmailResult result : results) {
+			assertEquals("Success", result.getStatus());
+		}
+	}
+
+	@Test
+	void marksDestinationsWithoutStatusAsFailed() throws BadRequestException {
+		when(ses.sendBulkTemplatedEmail(any(SendBulkTemplatedEmailRequest.class))).thenReturn(
+				new SendBulkTemplatedEmailResult().withStatus(new BulkEmailDestinationStatus()
+						.withStatus(BulkEmailStatus.Success).withMessageId("m0")));
+		List<BulkEmailResult> results = send(email("welcome", "a@example.com"), email("welcome", "b@example.com"));
+		assertResult(results.get(0), "a@example.com", "welcome", "Success", "m0", null);
+		assertResult(results.get(1), "b@example.com", "welcome", "Failed", null, null);
+	}
+
+	@Test
+	void reportsFailedCallAgainstItsBatchOnly() throws BadRequestException {
+		AmazonServiceException invalid = new AmazonServiceException("invalid");
+		invalid.setStatusCode(400);
+		invalid.setErrorCode("InvalidParameterValue");
+		SdkClientException timeout = new SdkClientException("socket timeout");
+		when(ses.sendBulkTemplatedEmail(any(SendBulkTemplatedEmailRequest.class))).thenAnswer(invocation -> {
+			SendBulkTemplatedEmailRequest request = invocation.getArgument(0);
+			switch(request.getTemplate()) {
+			case "invalid":
+				throw invalid;
+			case "timeout":
+				throw timeout;
+			case "missing":
+				throw new TemplateDoesNotExistException("Template missing does not exist");
+			default:
+				return new SendBulkTemplatedEmailResult().withStatus(new BulkEmailDestinationStatus()
+						.withStatus(BulkEmailStatus.Success).withMessageId("m"));
+			}
+		});
+		List<BulkEmailResult> results = send(email("invalid", "a@example.com"), email("welcome", "b@example.com"),
+				email("timeout", "c@example.com"), email("missing", "d@example.com"));
+		assertResult(results.get(0), "a@example.com", "invalid", "Failed", null, "InvalidParameterValue");
+		assertResult(results.get(1), "b@example.com", "welcome", "Success", "m", null);
+		assertResult(results.get(2), "c@example.com", "timeout", "TransientFailure", null, "socket timeout");
+		assertResult(results.get(3), "d@example.com", "missing", "TemplateDoesNotExist", null,
+				"Template missing does not exist");
+		verify(templateRegistry).markMissing("missing", REGION);
+	}
+
+	@Test
+	void reportsThrottledCallAsAccountThrottled() throws BadRequestException {
+		AmazonServiceException throttled = new AmazonServiceException("Maximum sending rate exceeded");
+		throttled.setStatusCode(400);
+		throttled.setErrorCode("Throttling");
+		when(ses.sendBulkTemplatedEmail(any(SendBulkTemplatedEmailRequest.class))).thenThrow(throttled);
+		List<BulkEmailResult> results = send(email("welcome", "a@example.com"));
+		assertEquals("AccountThrottled", results.get(0).getStatus());
+		assertNull(results.get(0).getMessageId());
+	}
+
+	private List<BulkEmailResult> send(EmailRequest... requests) throws BadRequestException {
+		BulkEmailRequest request = new BulkEmailRequest();
+		request.setEmailRequests(new ArrayList<>(Arrays.asList(requests)));
+		List<BulkEmailResult> results = service.sendBulkEmail(request).getResults();
+		assertEquals(requests.length, results.size());
+		return results;
+	}
+
+	private static void assertResult(BulkEmailResult result, String emailAddress, String templateName, String status,
+			String messageId, String error) {
+		assertEquals(emailAddress, result.getEmailAddress());
+		assertEquals(templateName, result.getTemplateName());
+		assertEquals(status, result.getStatus());
+		assertEquals(messageId, result.getMessageId());
+		assertEquals(error, result.getError());
+	}
+
+	private static EmailRequest email(String template, String receiverAddress) {
+		Sender sender = new Sender();
+		sender.setEmailAddress("sender@example.com");
+		Receiver receiver = new Receiver();
+		receiver.setEmailAddress(receiverAddress);
+		EmailRequest request = new EmailRequest();
+		request.setTemplateName(template);
+		request.setSender(sender);
+		request.setReceiver(receiver);
+		return request;
+	}
+
+}
@@ -0,0 +1,184 @@
+package com.aws.communication.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.aws.communication.config.LaneProperties;
+import com.aws.communication.exception.APIException;
+import com.aws.communication.exception.NotFoundException;
+import com.aws.communication.model.CommunicationResponse;
+import com.aws.communication.model.DispatchStatus;
+import com.aws.communication.model.EmailRequest;
+import com.aws.communication.model.Receiver;
+import com.aws.communication.model.Sender;
+import com.aws.communication.service.DispatchService.OverflowPolicy;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tests of the asynchronous dispatch, with an AWS communication service
+ * whose sends are held by the test
+ *
+ */
+class DispatchServiceTest {
+
+	private final AwsCommunicationService communicationService = mock(AwsCommunicationService.class);
+	private final LaneProperties laneProperties = new LaneProperties();
+	private final CountDownLatch release = new CountDownLatch(1);
+	private final List<String> sentTemplates = Collections.synchronizedList(new ArrayList<>());
+	private DispatchService service;
+
+	@AfterEach
+	void stop() {
+		release.countDown();
+		if(service != null) {
+			service.stop();
+		}
+	}
+
+	@Test
+	void keepsPendingTasksTrackedBeyondTheMaximum() throws Exception {
+		start(1, 2);
+		List<String> trackingIds = new ArrayList<>();
+		for(int index = 0; index < 5; index++) {
+			trackingIds.add(service.submitEmail(email("welcome", null)).getTrackingId());
+		}
+		String scheduled = service.submitEmail(email("welcome", OffsetDateTime.now().plusHours(1))).getTrackingId();
+		awaitStatus(trackingIds.get(0), DispatchStatus.PROCESSING);
+		for(String trackingId : trackingIds.subList(1, 5)) {
+			assertEquals(DispatchStatus.QUEUED, service.getStatus(trackingId).getStatus());
+		}
+		assertEquals(DispatchStatus.SCHEDULED, service.getStatus(scheduled).getStatus());
+
+		release.countDown();
+		awaitStatus(trackingIds.get(4), DispatchStatus.SENT);
+		awaitEvicted(trackingIds.get(2));
+		// only the last two completed tasks are kept
+		for(String trackingId : trackingIds.subList(0, 3)) {
+			assertThrows(NotFoundException.class, () -> service.getStatus(trackingId));
+		}
+		assertEquals(DispatchStatus.SENT, service.getStatus(trackingIds.get(3)).getStatus());
+		assertEquals("message-id", service.getStatus(trackingIds.get(4)).getMessageId());
+		assertEquals(DispatchStatus.SCHEDULED, service.getStatus(scheduled).getStatus());
+	}
+
+	@Test
+	void dispatchesLanesByWeightedRoundRobin() throws Exception {
+		laneProperties.setTransactionalTemplates(Arrays.asList("otp"));
+		start(1, 100);
+		String blocker = service.submitEmail(email("welcome", null)).getTrackingId();
+		awaitStatus(blocker, DispatchStatus.PROCESSING);
+		List<String> trackingIds = new ArrayList<>();
+		for(int index = 0; index < 4; index++) {
+			trackingIds.add(service.submitEmail(email("welcome", null)).getTrackingId());
+		}
+		for(int index = 0; index < 4; index++) {
+			trackingIds.add(service.submitEmail(email("otp", null)).getTrackingId());
+		}
+
+		release.countDown();
+		for(String trackingId : trackingIds) {
+			awaitStatus(trackingId, DispatchStatus.SENT);
+		}
+		// weights of 4 and 1, the promotional lane getting every fifth turn while both have tasks
+		assertEquals(Arrays.asList("welcome", "otp", "otp", "welcome", "otp", "otp", "welcome", "welcome", "welcome"),
+				sentTemplates);
+	}
+
+	@Test
+	void leavesThreadsBeyondTheLaneMaximumToOtherLanes() throws Exception {
+		laneProperties.setTransactionalTemplates(Arrays.asList("otp"));
+		laneProperties.getPromotional().setMaxThreads(1);
+		start(2, 100);
+		String promotional = service.submitEmail(email("welcome", null)).getTrackingId();
+		awaitStatus(promotional, DispatchStatus.PROCESSING);
+		String waiting = service.submitEmail(email("welcome", null)).getTrackingId();
+		String transactional = service.submitEmail(email("otp", null)).getTrackingId();
+		awaitStatus(transactional, DispatchStatus.PROCESSING);
+		assertEquals(DispatchStatus.QUEUED, service.getStatus(waiting).getStatus());
+
+		release.countDown();
+		awaitStatus(waiting, DispatchStatus.SENT);
+	}
+
+	private void start(int dispatcherThreads, int maxTrackedEntries) throws APIException {
+		when(communicationService.sendEmail(any(EmailRequest.class))).thenAnswer(invocation -> {
+			sentTemplates.add(invocation.<EmailRequest>getArgument(0).getTemplateName());
+			release.await();
+			CommunicationResponse response = new CommunicationResponse();
+			response.setMessageId("message-id");
+			return response;
+		});
+		LaneClassifier laneClassifier = new LaneClassifier();
+		ReflectionTestUtils.setField(laneClassifier, "properties", laneProperties);
+		laneClassifier.init();
+
+		service = new DispatchService();
+		ReflectionTestUtils.setField(service, "communicationService", communicationService);
+		ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+		ReflectionTestUtils.setField(service, "laneClassifier", laneClassifier);
+		ReflectionTestUtils.setField(service, "laneProperties", laneProperties);
+		ReflectionTestUtils.setField(service, "queueCapacity", 100);
+		ReflectionTestUtils.setField(service, "overflowPolicy", OverflowPolicy.REJECT);
+		ReflectionTestUtils.setField(service, "blockTimeoutMillis", 0L);
+		ReflectionTestUtils.setField(service, "dispatcherThreads", dispatcherThreads);
+		ReflectionTestUtils.setField(service, "maxTrackedEntries", maxTrackedEntries);
+		ReflectionTestUtils.setField(service, "scheduleTickMillis", 10L);
+		ReflectionTestUtils.setField(service, "scheduleReleaseRate", 100.0);
+		ReflectionTestUtils.setField(service, "maxScheduled", 100);
+		service.start();
+	}
+
+	private void awaitStatus(String trackingId, DispatchStatus status) throws Exception {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while(service.getStatus(trackingId).getStatus() != status && System.nanoTime() < deadline) {
+			TimeUnit.MILLISECONDS.sleep(1);
+		}
+		assertEquals(status, service.getStatus(trackingId).getStatus());
+	}
+
+	private void awaitEvicted(String trackingId) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while(System.nanoTime() < deadline) {
+			try {
+				service.getStatus(trackingId);
+			} catch (NotFoundException e) {
+				return;
+			}
+			TimeUnit.MILLISECONDS.sleep(1);
+		}
+		fail("still tracked: " + trackingId);
+	}
+
+	private static EmailRequest email(String template, OffsetDateTime sendAt) {
+		EmailRequest request = new EmailRequest();
+		request.setTemplateName(template);
+		Sender sender = new Sender();
+		sender.setEmailAddress("sender@example.com");
+		request.setSender(sender);
+		Receiver receiver = new Receiver();
+		receiver.setEmailAddress("receiver@example.com");
+		request.setReceiver(receiver);
+		request.setSendAt(sendAt);
+		return request;
+	}
+
+}
@@ -0,0 +1,210 @@
+package com.aws.communication.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.aws.communication.exception.APIException;
+import com.aws.communication.exception.BadRequestException;
+import com.aws.communication.exception.ServiceUnavailableException;
+import com.aws.communication.model.CommunicationResponse;
+import com.aws.communication.utils.StatusCodes;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tests of the de-duplication of requests by idempotency key
+ *
+ */
+class IdempotencyServiceTest {
+
+	private static final String SCOPE = "email";
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final ExecutorService executor = Executors.newFixedThreadPool(4);
+	private final AtomicInteger sends = new AtomicInteger();
+
+	@AfterEach
+	void stop() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	void collapsesConcurrentDuplicatesIntoOneSend() throws Exception {
+		IdempotencyService service = service(60000, 100, 5000);
+		CountDownLatch sending = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Future<CommunicationResponse> first = executor.submit(() -> service.execute(SCOPE, "key", "payload", () -> {
+			sending.countDown();
+			await(release);
+			return response("m1");
+		}));
+		assertTrue(sending.await(5, TimeUnit.SECONDS));
+		Future<CommunicationResponse> repeat = executor.submit(() -> service.execute(SCOPE, "key", "payload",
+				() -> response("m2")));
+		CompletableFuture<CommunicationResponse> asyncRepeat = service.executeAsync(SCOPE, "key", "payload",
+				() -> CompletableFuture.completedFuture(response("m3")));
+		release.countDown();
+		assertEquals("m1", first.get(5, TimeUnit.SECONDS).getMessageId());
+		assertEquals("m1", repeat.get(5, TimeUnit.SECONDS).getMessageId());
+		assertEquals("m1", asyncRepeat.get(5, TimeUnit.SECONDS).getMessageId());
+		assertEquals(1, sends.get());
+	}
+
+	@Test
+	void countsHitsAndMisses() throws APIException {
+		IdempotencyService service = service(60000, 100, 5000);
+		send(service, "first", "payload");
+		send(service, "first", "payload");
+		send(service, "first", "payload");
+		send(service, "second", "payload");
+		// the same key in another scope is a different key
+		service.execute("sms", "first", "payload", () -> response("sms"));
+		assertEquals(3, meterRegistry.get("aws.communication.idempotency.misses").counter().count());
+		assertEquals(2, meterRegistry.get("aws.communication.idempotency.hits").counter().count());
+		assertEquals(3, sends.get());
+		// requests without a key are not counted
+		service.execute(SCOPE, null, "payload", () -> response("none"));
+		assertEquals(3, meterRegistry.get("aws.communication.idempotency.misses").counter().count());
+	}
+
+	@Test
+	void rejectsKeyReusedForDifferentPayload() throws APIException {
+		IdempotencyService service = service(60000, 100, 5000);
+		send(service, "key", Collections.singletonMap("message", "hello"));
+		BadRequestException e = assertThrows(BadRequestException.class,
+				() -> send(service, "key", Collections.singletonMap("message", "goodbye")));
+		assertEquals(StatusCodes.IDEMPOTENCY_KEY_REUSED.getCode(), e.getCode());
+		assertEquals(1, sends.get());
+	}
+
+	@Test
+	void sendsAgainOnceTheTtlExpired() throws Exception {
+		IdempotencyService service = service(50, 100, 5000);
+		send(service, "key", "payload");
+		send(service, "key", "payload");
+		assertEquals(1, sends.get());
+		TimeUnit.MILLISECONDS.sleep(60);
+		send(service, "key", "payload");
+		assertEquals(2, sends.get());
+	}
+
+	@Test
+	void dropsOldestKeysBeyondTheMaximum() throws APIException {
+		IdempotencyService service = service(60000, 2, 5000);
+		send(service, "first", "payload");
+		send(service, "second", "payload");
+		send(service, "third", "payload");
+		assertEquals(2, meterRegistry.get("aws.communication.idempotency.entries").gauge().value());
+		send(service, "second", "payload");
+		send(service, "third", "payload");
+		assertEquals(3, sends.get());
+		send(service, "first", "payload");
+		assertEquals(4, sends.get());
+	}
+
+	@Test
+	void forgetsFailedSendsWithoutLeavingThemQueued() throws APIException {
+		IdempotencyService service = service(60000, 2, 5000);
+		for(int attempt = 0; attempt < 10; attempt++) {
+			assertThrows(IllegalStateException.class, () -> service.execute(SCOPE, "failing", "payload", () -> {
+				throw new IllegalStateException("failed");
+			}));
+		}
+		CompletableFuture<CommunicationResponse> failed = new CompletableFuture<>();
+		failed.completeExceptionally(new IllegalStateException("failed"));
+		service.executeAsync(SCOPE, "async", "payload", () -> failed);
+		assertEquals(0, ((AtomicInteger) ReflectionTestUtils.getField(service, "insertionOrderSize")).get());
+		// failed sends do not take the room of kept responses
+		send(service, "first", "payload");
+		send(service, "second", "payload");
+		send(service, "first", "payload");
+		assertEquals(2, sends.get());
+		assertEquals("retried", service.execute(SCOPE, "failing", "payload", () -> response("retried"))
+				.getMessageId());
+	}
+
+	@Test
+	void stopsWaitingForTheRequestInFlightAfterTheWaitTime() throws Exception {
+		IdempotencyService service = service(60000, 100, 50);
+		CountDownLatch sending = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		executor.submit(() -> service.execute(SCOPE, "key", "payload", () -> {
+			sending.countDown();
+			await(release);
+			return response("m1");
+		}));
+		assertTrue(sending.await(5, TimeUnit.SECONDS));
+		ServiceUnavailableException e = assertThrows(ServiceUnavailableException.class,
+				() -> send(service, "key", "payload"));
+		assertEquals(StatusCodes.IDEMPOTENCY_KEY_IN_FLIGHT.getCode(), e.getCode());
+		release.countDown();
+	}
+
+	@Test
+	void passesFailureOnToWaitingDuplicates() throws Exception {
+		IdempotencyService service = service(60000, 100, 5000);
+		CountDownLatch sending = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		BadRequestException failure = new BadRequestException("400002", "invalid");
+		Future<CommunicationResponse> first = executor.submit(() -> service.execute(SCOPE, "key", "payload", () -> {
+			sending.countDown();
+			await(release);
+			throw failure;
+		}));
+		assertTrue(sending.await(5, TimeUnit.SECONDS));
+		Future<CommunicationResponse> repeat = executor.submit(() -> send(service, "key", "payload"));
+		TimeUnit.MILLISECONDS.sleep(20);
+		release.countDown();
+		assertSame(failure, assertThrows(Exception.class, () -> first.get(5, TimeUnit.SECONDS)).getCause());
+		assertSame(failure, assertThrows(Exception.class, () -> repeat.get(5, TimeUnit.SECONDS)).getCause());
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private IdempotencyService service(long ttlMillis, int maxEntries, long waitTimeoutMillis) {
+		IdempotencyService service = new IdempotencyService();
+		ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+		ReflectionTestUtils.setField(service, "meterRegistry", meterRegistry);
+		ReflectionTestUtils.setField(service, "enabled", true);
+		ReflectionTestUtils.setField(service, "ttlMillis", ttlMillis);
+		ReflectionTestUtils.setField(service, "maxEntries", maxEntries);
+		ReflectionTestUtils.setField(service, "waitTimeoutMillis", waitTimeoutMillis);
+		service.init();
+		return service;
+	}
+
+	private CommunicationResponse send(IdempotencyService service, String key, Object payload) throws APIException {
+		return service.execute(SCOPE, key, payload, () -> response("m" + sends.get()));
+	}
+
+	private CommunicationResponse response(String messageId) {
+		sends.incrementAndGet();
+		CommunicationResponse response = new CommunicationResponse();
+		response.setMessageId(messageId);
+		return response;
+	}
+
+}
@@ -0,0 +1,60 @@
+package com.aws.communication.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.aws.communication.config.LaneProperties;
+import com.aws.communication.model.EmailRequest;
+import com.aws.communication.model.SMSRequest;
+
+/**
+ * Tests of the assignment of the send requests to their priority lane
+ *
+ */
+class LaneClassifierTest {
+
+	private final LaneClassifier classifier = new LaneClassifier();
+
+	@BeforeEach
+	void setUp() {
+		LaneProperties properties = new LaneProperties();
+		properties.setTransactionalTemplates(Arrays.asList(" otp ", "", "password-reset"));
+		ReflectionTestUtils.setField(classifier, "properties", properties);
+		classifier.init();
+	}
+
+	@Test
+	void classifiesEmailByTransactionalTemplate() {
+		assertEquals(Lane.TRANSACTIONAL, classifier.classify(email("otp")));
+		assertEquals(Lane.TRANSACTIONAL, classifier.classify(email("password-reset")));
+		assertEquals(Lane.PROMOTIONAL, classifier.classify(email("newsletter")));
+		assertEquals(Lane.PROMOTIONAL, classifier.classify(email("")));
+		assertEquals(Lane.PROMOTIONAL, classifier.classify(email(null)));
+	}
+
+	@Test
+	void classifiesSmsByMessageType() {
+		assertEquals(Lane.TRANSACTIONAL, classifier.classify(sms("Transactional")));
+		assertEquals(Lane.TRANSACTIONAL, classifier.classify(sms("transactional")));
+		assertEquals(Lane.PROMOTIONAL, classifier.classify(sms("Promotional")));
+		assertEquals(Lane.PROMOTIONAL, classifier.classify(sms(null)));
+	}
+
+	private static EmailRequest email(String templateName) {
+		EmailRequest request = new EmailRequest();
+		request.setTemplateName(templateName);
+		return request;
+	}
+
+	private static SMSRequest sms(String messageType) {
+		SMSRequest request = new SMSRequest();
+		request.setMessageType(messageType);
+		return request;
+	}
+
+}
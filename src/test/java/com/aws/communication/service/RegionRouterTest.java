@@ -0,0 +1,145 @@
+package com.aws.communication.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.amazonaws.services.simpleemail.AmazonSimpleEmailService;
+import com.amazonaws.services.sns.AmazonSNS;
+import com.aws.communication.config.RegionalClients;
+import com.aws.communication.service.SendRateLimiter.Channel;
+import com.aws.communication.service.resilience.ResilienceService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tests of the ranking of the regions by their moving averages, with
+ * probing disabled so that the ranking is deterministic
+ *
+ */
+class RegionRouterTest {
+
+	private static final String FIRST = "us-east-1";
+	private static final String SECOND = "eu-west-1";
+	private static final String THIRD = "ap-south-1";
+
+	private final ResilienceService resilienceService = mock(ResilienceService.class);
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	void keepsConfiguredOrderOfUntriedRegions() {
+		RegionRouter router = router(FIRST, SECOND, THIRD);
+		assertEquals(Arrays.asList(FIRST, SECOND, THIRD), router.route(Channel.EMAIL));
+	}
+
+	@Test
+	void ranksUntriedRegionBeforeMeasuredOnes() {
+		RegionRouter router = router(FIRST, SECOND);
+		router.onSuccess(Channel.EMAIL, FIRST, millis(10));
+		assertEquals(Arrays.asList(SECOND, FIRST), router.route(Channel.EMAIL));
+	}
+
+	@Test
+	void ranksRegionsByMovingAverageOfLatency() {
+		RegionRouter router = router(FIRST, SECOND);
+		router.onSuccess(Channel.SMS, FIRST, millis(100));
+		router.onSuccess(Channel.SMS, SECOND, millis(50));
+		assertEquals(Arrays.asList(SECOND, FIRST), router.route(Channel.SMS));
+		// 50 + 0.2 * (300 - 50) = 100 after one slow call, then 80 after a fast one
+		router.onSuccess(Channel.SMS, SECOND, millis(300));
+		assertEquals(100, latency(Channel.SMS, SECOND), 0.001);
+		router.onSuccess(Channel.SMS, SECOND, millis(0));
+		assertEquals(80, latency(Channel.SMS, SECOND), 0.001);
+		assertEquals(Arrays.asList(SECOND, FIRST), router.route(Channel.SMS));
+		// the email ranking is not affected by the SMS calls
+		assertEquals(Arrays.asList(FIRST, SECOND), router.route(Channel.EMAIL));
+	}
+
+	@Test
+	void countsFailureAtLeastAsFailureLatencyAndPenalisesErrorRate() {
+		RegionRouter router = router(FIRST, SECOND);
+		router.onSuccess(Channel.EMAIL, FIRST, millis(10));
+		router.onSuccess(Channel.EMAIL, SECOND, millis(200));
+		router.onFailure(Channel.EMAIL, FIRST, millis(1));
+		// 10 + 0.2 * (1000 - 10) = 208
+		assertEquals(208, latency(Channel.EMAIL, FIRST), 0.001);
+		assertEquals(0.2, errorRate(Channel.EMAIL, FIRST), 0.001);
+		assertEquals(Arrays.asList(SECOND, FIRST), router.route(Channel.EMAIL));
+		for(int index = 0; index < 50; index++) {
+			router.onSuccess(Channel.EMAIL, FIRST, millis(10));
+		}
+		assertEquals(Arrays.asList(FIRST, SECOND), router.route(Channel.EMAIL));
+	}
+
+	@Test
+	void ranksRegionWithOpenCircuitBreakerLast() {
+		RegionRouter router = router(FIRST, SECOND);
+		router.onSuccess(Channel.EMAIL, FIRST, millis(10));
+		router.onSuccess(Channel.EMAIL, SECOND, millis(500));
+		when(resilienceService.isCallPermitted(Channel.EMAIL, FIRST)).thenReturn(false);
+		assertEquals(Arrays.asList(SECOND, FIRST), router.route(Channel.EMAIL));
+	}
+
+	@Test
+	void countsFailoversPerRegion() {
+		RegionRouter router = router(FIRST, SECOND);
+		router.onFailover(Channel.SMS, FIRST);
+		router.onFailover(Channel.SMS, FIRST);
+		router.onFailover(Channel.SMS, "unknown-region");
+		assertEquals(2, meterRegistry.get("aws.communication.routing.failover")
+				.tags("channel", Channel.SMS.name(), "region", FIRST).counter().count());
+		assertEquals(0, meterRegistry.get("aws.communication.routing.failover")
+				.tags("channel", Channel.SMS.name(), "region", SECOND).counter().count());
+	}
+
+	@Test
+	void returnsSingleRegionAsIs() {
+		RegionRouter router = router(FIRST);
+		router.onFailure(Channel.EMAIL, FIRST, millis(10));
+		assertEquals(Collections.singletonList(FIRST), router.route(Channel.EMAIL));
+	}
+
+	@SuppressWarnings("unchecked")
+	private RegionRouter router(String... regions) {
+		when(resilienceService.isCallPermitted(any(Channel.class), anyString())).thenReturn(true);
+		List<String> regionList = Arrays.asList(regions);
+		RegionRouter router = new RegionRouter();
+		ReflectionTestUtils.setField(router, "sesClients", new RegionalClients<>(regionList,
+				region -> mock(AmazonSimpleEmailService.class)));
+		ReflectionTestUtils.setField(router, "snsClients", new RegionalClients<>(regionList,
+				region -> mock(AmazonSNS.class)));
+		ReflectionTestUtils.setField(router, "resilienceService", resilienceService);
+		ReflectionTestUtils.setField(router, "meterRegistry", meterRegistry);
+		ReflectionTestUtils.setField(router, "ewmaAlpha", 0.2);
+		ReflectionTestUtils.setField(router, "errorPenalty", 10.0);
+		ReflectionTestUtils.setField(router, "probeRatio", 0.0);
+		ReflectionTestUtils.setField(router, "failureLatencyMillis", 1000L);
+		router.init();
+		return router;
+	}
+
+	private double latency(Channel channel, String region) {
+		return meterRegistry.get("aws.communication.routing.latency")
+				.tags("channel", channel.name(), "region", region).gauge().value();
+	}
+
+	private double errorRate(Channel channel, String region) {
+		return meterRegistry.get("aws.communication.routing.error.rate")
+				.tags("channel", channel.name(), "region", region).gauge().value();
+	}
+
+	private static long millis(long millis) {
+		return TimeUnit.MILLISECONDS.toNanos(millis);
+	}
+
+}
@@ -0,0 +1,146 @@
+package com.aws.communication.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.aws.communication.config.SendRateLimitProperties;
+import com.aws.communication.exception.TooManyRequestsException;
+import com.aws.communication.service.SendRateLimiter.Channel;
+import com.aws.communication.utils.StatusCodes;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tests of the send rate limiter, with rates low enough for nothing to be
+ * refilled during a test
+ *
+ */
+class SendRateLimiterTest {
+
+	private static final String REGION = "us-east-1";
+	private static final String SENDER = "noreply@example.com";
+
+	private final SendRateLimitProperties properties = new SendRateLimitProperties();
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	void isOffByDefault() throws TooManyRequestsException {
+		assertFalse(new SendRateLimitProperties().isEnabled());
+		SendRateLimiter limiter = limiter();
+		for(int request = 0; request < 1000; request++) {
+			limiter.tryAcquire(Channel.EMAIL, Lane.TRANSACTIONAL, REGION, SENDER, 1);
+		}
+		limiter.onThrottled(Channel.EMAIL, REGION);
+		assertEquals(1, meterRegistry.get("aws.communication.ratelimit.throttled").tag("channel", "EMAIL")
+				.counter().count());
+	}
+
+	@Test
+	void rejectsBeyondTheBurstOfTheRegion() throws TooManyRequestsException {
+		properties.setEnabled(true);
+		properties.getSes().setRate(0.01);
+		properties.getSes().setBurst(2);
+		SendRateLimiter limiter = limiter();
+		limiter.tryAcquire(Channel.EMAIL, Lane.TRANSACTIONAL, REGION, SENDER, 1);
+		limiter.tryAcquire(Channel.EMAIL, Lane.TRANSACTIONAL, REGION, SENDER, 1);
+		TooManyRequestsException e = assertThrows(TooManyRequestsException.class,
+				() -> limiter.tryAcquire(Channel.EMAIL, Lane.TRANSACTIONAL, REGION, SENDER, 1));
+		assertEquals(StatusCodes.RATE_LIMIT_EXCEEDED.getCode(), e.getCode());
+		assertEquals(1, meterRegistry.get("aws.communication.ratelimit.rejected").tag("channel", "EMAIL")
+				.counter().count());
+		// other regions and channels have their own buckets
+		limiter.tryAcquire(Channel.EMAIL, Lane.TRANSACTIONAL, "eu-west-1", SENDER, 2);
+		limiter.tryAcquire(Channel.SMS, Lane.TRANSACTIONAL, REGION, SENDER, 1);
+	}
+
+	@Test
+	void waitsForPermitsUpToTheMaximumWait() throws TooManyRequestsException {
+		properties.setEnabled(true);
+		properties.setMaxWaitMs(1000);
+		properties.getSns().setRate(20);
+		properties.getSns().setBurst(1);
+		SendRateLimiter limiter = limiter();
+		limiter.acquire(Channel.SMS, Lane.TRANSACTIONAL, REGION, SENDER, 1);
+		long start = System.nanoTime();
+		limiter.acquire(Channel.SMS, Lane.TRANSACTIONAL, REGION, SENDER, 1);
+		assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(40));
+		// a large request is admitted and delays the next one beyond the maximum wait
+		limiter.acquire(Channel.SMS, Lane.TRANSACTIONAL, REGION, SENDER, 100);
+		assertThrows(TooManyRequestsException.class,
+				() -> limiter.acquire(Channel.SMS, Lane.TRANSACTIONAL, REGION, SENDER, 1));
+	}
+
+	@Test
+	void limitsConfiguredSendersOnly() throws TooManyRequestsException {
+		properties.setEnabled(true);
+		properties.getSes().setRate(1_000_000);
+		properties.getSes().setBurst(2);
+		properties.getSes().setSenders(Collections.singletonMap(SENDER, 0.01));
+		SendRateLimiter limiter = limiter();
+		limiter.tryAcquire(Channel.EMAIL, Lane.TRANSACTIONAL, REGION, SENDER, 2);
+		assertThrows(TooManyRequestsException.class,
+				() -> limiter.tryAcquire(Channel.EMAIL, Lane.TRANSACTIONAL, REGION, SENDER, 1));
+		// the region has capacity left for other senders
+		limiter.tryAcquire(Channel.EMAIL, Lane.TRANSACTIONAL, REGION, "other@example.com", 1);
+	}
+
+	@Test
+	void keepsTheTransactionalReserveFromPromotionalTraffic() throws TooManyRequestsException {
+		properties.setEnabled(true);
+		properties.setTransactionalReserve(0.5);
+		properties.getSes().setRate(0.01);
+		properties.getSes().setBurst(4);
+		SendRateLimiter limiter = limiter();
+		limiter.tryAcquire(Channel.EMAIL, Lane.PROMOTIONAL, REGION, SENDER, 1);
+		limiter.tryAcquire(Channel.EMAIL, Lane.PROMOTIONAL, REGION, SENDER, 1);
+		assertThrows(TooManyRequestsException.class,
+				() -> limiter.tryAcquire(Channel.EMAIL, Lane.PROMOTIONAL, REGION, SENDER, 1));
+		limiter.tryAcquire(Channel.EMAIL, Lane.TRANSACTIONAL, REGION, SENDER, 2);
+		assertThrows(TooManyRequestsException.class,
+				() -> limiter.tryAcquire(Channel.EMAIL, Lane.TRANSACTIONAL, REGION, SENDER, 1));
+	}
+
+	@Test
+	void backsOffOnThrottlingAndRampsBackUp() throws TooManyRequestsException {
+		properties.setEnabled(true);
+		properties.getAdaptive().setHoldMs(0);
+		properties.getSes().setRate(10);
+		SendRateLimiter limiter = limiter();
+		limiter.tryAcquire(Channel.EMAIL, Lane.TRANSACTIONAL, REGION, SENDER, 1);
+		limiter.onThrottled(Channel.EMAIL, REGION);
+		assertEquals(5, rate());
+		for(int throttled = 0; throttled < 10; throttled++) {
+			limiter.onThrottled(Channel.EMAIL, REGION);
+		}
+		// min-rate-fraction of the configured rate
+		assertEquals(1, rate(), 1e-9);
+		limiter.onSuccess(Channel.EMAIL, REGION);
+		// increase-fraction of the configured rate
+		assertEquals(1.5, rate(), 1e-9);
+		for(int success = 0; success < 100; success++) {
+			limiter.onSuccess(Channel.EMAIL, REGION);
+		}
+		assertEquals(10, rate(), 1e-9);
+	}
+
+	private double rate() {
+		return meterRegistry.get("aws.communication.ratelimit.rate").tag("region", REGION).gauge().value();
+	}
+
+	private SendRateLimiter limiter() {
+		SendRateLimiter limiter = new SendRateLimiter();
+		ReflectionTestUtils.setField(limiter, "properties", properties);
+		ReflectionTestUtils.setField(limiter, "meterRegistry", meterRegistry);
+		limiter.init();
+		return limiter;
+	}
+
+}
@@ -0,0 +1,157 @@
+package com.aws.communication.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.aws.communication.config.RegionalClients;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import software.amazon.awssdk.services.sns.SnsAsyncClient;
+import software.amazon.awssdk.services.sns.model.PublishRequest;
+import software.amazon.awssdk.services.sns.model.PublishResponse;
+import software.amazon.awssdk.services.sns.model.SnsException;
+
+/**
+ * Tests of the SMS micro-batching stage, with an SNS client whose calls
+ * are completed by the test
+ *
+ */
+class SmsPublishBatcherTest {
+
+	private static final String REGION = "us-east-1";
+
+	private final SnsAsyncClient client = mock(SnsAsyncClient.class);
+	private final List<CompletableFuture<PublishResponse>> calls = new ArrayList<>();
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private SmsPublishBatcher batcher;
+
+	@AfterEach
+	void stop() {
+		if(batcher != null) {
+			// completing a call lets the flusher make the next one
+			for(int index = 0; index < callCount(); index++) {
+				call(index).complete(PublishResponse.builder().build());
+			}
+			batcher.stop();
+		}
+	}
+
+	@Test
+	void flushesFullBatchWithoutWaitingForTheWindow() throws InterruptedException {
+		start(3, 60000, 10);
+		List<CompletableFuture<PublishResponse>> futures = new ArrayList<>();
+		for(int index = 0; index < 3; index++) {
+			futures.add(batcher.publish(REGION, request(index)));
+		}
+		awaitCalls(3);
+		assertEquals(1, meterRegistry.get("aws.communication.sms.batch.size").summary().count());
+		assertEquals(3, meterRegistry.get("aws.communication.sms.batch.size").summary().totalAmount());
+		futures.forEach(future -> assertFalse(future.isDone()));
+	}
+
+	@Test
+	void flushesPartialBatchAtTheEndOfTheWindow() throws InterruptedException {
+		start(100, 50, 10);
+		long start = System.nanoTime();
+		batcher.publish(REGION, request(0));
+		batcher.publish(REGION, request(1));
+		awaitCalls(2);
+		assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+		assertEquals(2, meterRegistry.get("aws.communication.sms.batch.size").summary().totalAmount());
+		assertTrue(meterRegistry.get("aws.communication.sms.batch.flush.latency").timer()
+				.totalTime(TimeUnit.MILLISECONDS) >= 50);
+	}
+
+	@Test
+	void completesEachCallerWithItsOwnOutcome() throws Exception {
+		start(2, 60000, 10);
+		CompletableFuture<PublishResponse> first = batcher.publish(REGION, request(0));
+		CompletableFuture<PublishResponse> second = batcher.publish(REGION, request(1));
+		awaitCalls(2);
+		PublishResponse response = PublishResponse.builder().messageId("m0").build();
+		SnsException failure = (SnsException) SnsException.builder().message("failed").build();
+		call(0).complete(response);
+		call(1).completeExceptionally(failure);
+		assertSame(response, first.get(1, TimeUnit.SECONDS));
+		try {
+			second.get(1, TimeUnit.SECONDS);
+		} catch(ExecutionException e) {
+			assertSame(failure, e.getCause());
+		}
+		assertTrue(second.isCompletedExceptionally());
+		assertEquals(1, meterRegistry.get("aws.communication.sms.batch.failures").summary().totalAmount());
+	}
+
+	@Test
+	void boundsTheCallsInFlight() throws InterruptedException {
+		start(4, 60000, 2);
+		for(int index = 0; index < 4; index++) {
+			batcher.publish(REGION, request(index));
+		}
+		awaitCalls(2);
+		TimeUnit.MILLISECONDS.sleep(50);
+		assertEquals(2, callCount());
+		call(0).complete(PublishResponse.builder().build());
+		awaitCalls(3);
+	}
+
+	private void start(int maxBatchSize, long windowMillis, int maxInFlight) {
+		when(client.publish(any(PublishRequest.class))).thenAnswer(invocation -> {
+			CompletableFuture<PublishResponse> call = new CompletableFuture<>();
+			synchronized(calls) {
+				calls.add(call);
+			}
+			return call;
+		});
+		batcher = new SmsPublishBatcher();
+		ReflectionTestUtils.setField(batcher, "snsAsyncClients", new RegionalClients<>(Arrays.asList(REGION),
+				region -> client));
+		ReflectionTestUtils.setField(batcher, "meterRegistry", meterRegistry);
+		ReflectionTestUtils.setField(batcher, "maxBatchSize", maxBatchSize);
+		ReflectionTestUtils.setField(batcher, "windowMillis", windowMillis);
+		ReflectionTestUtils.setField(batcher, "maxInFlight", maxInFlight);
+		ReflectionTestUtils.setField(batcher, "queueCapacity", 100);
+		batcher.start();
+	}
+
+	private int callCount() {
+		synchronized(calls) {
+			return calls.size();
+		}
+	}
+
+	private CompletableFuture<PublishResponse> call(int index) {
+		synchronized(calls) {
+			return calls.get(index);
+		}
+	}
+
+	private void awaitCalls(int count) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while(callCount() < count && System.nanoTime() < deadline) {
+			TimeUnit.MILLISECONDS.sleep(1);
+		}
+		assertEquals(count, callCount());
+	}
+
+	private static PublishRequest request(int index) {
+		return PublishRequest.builder().phoneNumber("+1555000" + index).message("message " + index).build();
+	}
+
+}
@@ -0,0 +1,78 @@
+package com.aws.communication.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+import com.amazonaws.services.simpleemail.model.Template;
+import com.aws.communication.model.CommunicationCharacteristic;
+import com.aws.communication.service.template.CompiledEmailTemplate;
+
+/**
+ * Tests of the choice between local and SES rendering of a cached template
+ *
+ */
+class TemplateEntryTest {
+
+	@Test
+	void compilesSupportedTemplateOnce() {
+		TemplateEntry entry = TemplateEntry.found("welcome", new Template().withTemplateName("welcome")
+				.withSubjectPart("Welcome {{name}}")
+				.withTextPart("Hello {{name}}{{#if code}}, your code is {{code}}{{/if}}")
+				.withHtmlPart("<p>Hello {{name}}</p>"));
+		CompiledEmailTemplate compiled = entry.getCompiledTemplate();
+		assertNotNull(compiled);
+		assertSame(compiled, entry.getCompiledTemplate());
+		String[] values = compiled.bind(Arrays.asList(characteristic("name", "<Ann>")));
+		// {{name}} is HTML escaped in every part, as SES does
+		assertEquals("Welcome &lt;Ann&gt;", compiled.renderSubject(values));
+		assertEquals("Hello &lt;Ann&gt;", compiled.renderText(values));
+		assertEquals("<p>Hello &lt;Ann&gt;</p>", compiled.renderHtml(values));
+	}
+
+	@Test
+	void fallsBackToSesForUnsupportedHelpers() {
+		TemplateEntry entry = TemplateEntry.found("orders", new Template().withTemplateName("orders")
+				.withSubjectPart("Your orders")
+				.withHtmlPart("<ul>{{#each orders}}<li>{{this}}</li>{{/each}}</ul>"));
+		assertNull(entry.getCompiledTemplate());
+		assertNull(entry.getCompiledTemplate());
+	}
+
+	@Test
+	void fallsBackToSesForNestedPaths() {
+		TemplateEntry entry = TemplateEntry.found("account", new Template().withTemplateName("account")
+				.withSubjectPart("Hello {{user.name}}")
+				.withTextPart("Hello"));
+		assertNull(entry.getCompiledTemplate());
+	}
+
+	@Test
+	void fallsBackToSesForMalformedTemplates() {
+		TemplateEntry entry = TemplateEntry.found("broken", new Template().withTemplateName("broken")
+				.withSubjectPart("Hello")
+				.withTextPart("{{#if name}}Hello {{name}}"));
+		assertNull(entry.getCompiledTemplate());
+	}
+
+	@Test
+	void doesNotCompileMissingTemplates() {
+		TemplateEntry entry = TemplateEntry.missing("unknown");
+		assertNull(entry.getCompiledTemplate());
+		assertEquals(Collections.emptySet(), entry.getPlaceholders());
+	}
+
+	private static CommunicationCharacteristic characteristic(String name, String value) {
+		CommunicationCharacteristic characteristic = new CommunicationCharacteristic();
+		characteristic.setName(name);
+		characteristic.setValue(value);
+		return characteristic;
+	}
+
+}
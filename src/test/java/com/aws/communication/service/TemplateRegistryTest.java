@@ -0,0 +1,192 @@
+package com.aws.communication.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.amazonaws.SdkClientException;
+import com.amazonaws.services.simpleemail.AmazonSimpleEmailService;
+import com.amazonaws.services.simpleemail.model.GetTemplateRequest;
+import com.amazonaws.services.simpleemail.model.GetTemplateResult;
+import com.amazonaws.services.simpleemail.model.ListTemplatesRequest;
+import com.amazonaws.services.simpleemail.model.ListTemplatesResult;
+import com.amazonaws.services.simpleemail.model.Template;
+import com.amazonaws.services.simpleemail.model.TemplateDoesNotExistException;
+import com.amazonaws.services.simpleemail.model.TemplateMetadata;
+import com.aws.communication.exception.BadRequestException;
+import com.aws.communication.exception.NotFoundException;
+import com.aws.communication.model.CommunicationCharacteristic;
+import com.aws.communication.model.EmailRequest;
+import com.aws.communication.service.SendRateLimiter.Channel;
+import com.aws.communication.service.resilience.ResilienceService;
+import com.aws.communication.utils.StatusCodes;
+
+/**
+ * Tests of the template cache, with an SES client answering GetTemplate
+ * and ListTemplates as set up by each test
+ *
+ */
+class TemplateRegistryTest {
+
+	private static final String REGION = "us-east-1";
+
+	private final AmazonSimpleEmailService ses = mock(AmazonSimpleEmailService.class);
+	private final ResilienceService resilienceService = mock(ResilienceService.class);
+	private final TemplateRegistry registry = new TemplateRegistry();
+
+	@BeforeEach
+	void setUp() {
+		when(resilienceService.isCallPermitted(Channel.EMAIL, REGION)).thenReturn(true);
+		ReflectionTestUtils.setField(registry, "simpleEmailService", ses);
+		ReflectionTestUtils.setField(registry, "resilienceService", resilienceService);
+		ReflectionTestUtils.setField(registry, "stageMetrics", mock(SendStageMetrics.class));
+		ReflectionTestUtils.setField(registry, "region", REGION);
+		ReflectionTestUtils.setField(registry, "enabled", true);
+		ReflectionTestUtils.setField(registry, "validatePlaceholders", true);
+		ReflectionTestUtils.setField(registry, "ttlMillis", 300000L);
+		ReflectionTestUtils.setField(registry, "negativeTtlMillis", 30000L);
+		ReflectionTestUtils.setField(registry, "unavailableTtlMillis", 5000L);
+		ReflectionTestUtils.setField(registry, "refreshMillis", 60000L);
+		ReflectionTestUtils.setField(registry, "reloadRate", 0.0);
+	}
+
+	@Test
+	void loadsTemplateOnceAndRejectsMissingPlaceholders() throws Exception {
+		templateExists("welcome");
+		registry.validate(email("welcome", "name", "code"));
+		BadRequestException exception = assertThrows(BadRequestException.class,
+				() -> registry.validate(email("welcome", "name")));
+		assertEquals(StatusCodes.MISSING_TEMPLATE_DATA.getCode(), exception.getCode());
+		assertEquals("code", exception.getParameters()[0]);
+		verify(ses, times(1)).getTemplate(any(GetTemplateRequest.class));
+	}
+
+	@Test
+	void cachesMissingTemplate() {
+		when(ses.getTemplate(any(GetTemplateRequest.class))).thenThrow(new TemplateDoesNotExistException("missing"));
+		assertThrows(NotFoundException.class, () -> registry.validate(email("unknown")));
+		assertThrows(NotFoundException.class, () -> registry.validate(email("unknown")));
+		verify(ses, times(1)).getTemplate(any(GetTemplateRequest.class));
+	}
+
+	@Test
+	void skipsLookupsForAWhileAfterSesFailed() throws Exception {
+		when(ses.getTemplate(any(GetTemplateRequest.class))).thenThrow(new SdkClientException("timeout"));
+		registry.validate(email("welcome"));
+		registry.validate(email("reset"));
+		verify(ses, times(1)).getTemplate(any(GetTemplateRequest.class));
+	}
+
+	@Test
+	void skipsLookupsWhileCircuitBreakerIsOpen() throws Exception {
+		when(resilienceService.isCallPermitted(Channel.EMAIL, REGION)).thenReturn(false);
+		registry.validate(email("welcome"));
+		verify(ses, never()).getTemplate(any(GetTemplateRequest.class));
+	}
+
+	@Test
+	void usesExpiredTemplateWhileSesFails() throws Exception {
+		ReflectionTestUtils.setField(registry, "ttlMillis", 1L);
+		templateExists("welcome");
+		registry.validate(email("welcome", "name", "code"));
+		TimeUnit.MILLISECONDS.sleep(5);
+		when(ses.getTemplate(any(GetTemplateRequest.class))).thenThrow(new SdkClientException("timeout"));
+		assertThrows(BadRequestException.class, () -> registry.validate(email("welcome", "name")));
+		verify(ses, times(2)).getTemplate(any(GetTemplateRequest.class));
+	}
+
+	@Test
+	void validatesCachedTemplatesOnlyWithoutCallingSes() throws Exception {
+		registry.validateCached(email("welcome"));
+		verify(ses, never()).getTemplate(any(GetTemplateRequest.class));
+		registry.markMissing("welcome", REGION);
+		assertThrows(NotFoundException.class, () -> registry.validateCached(email("welcome")));
+	}
+
+	@Test
+	void recordsTemplatesMissingInThePrimaryRegionOnly() throws Exception {
+		registry.markMissing("welcome", "eu-west-1");
+		registry.validateCached(email("welcome"));
+		registry.markMissing("welcome", REGION);
+		assertThrows(NotFoundException.class, () -> registry.validateCached(email("welcome")));
+		registry.invalidate("welcome");
+		registry.validateCached(email("welcome"));
+	}
+
+	@Test
+	void refreshUpdatesDeletedAndCreatedTemplatesFromTheList() throws Exception {
+		templateExists("welcome");
+		registry.validate(email("welcome", "name", "code"));
+		registry.markMissing("reset", REGION);
+		when(ses.listTemplates(any(ListTemplatesRequest.class))).thenReturn(new ListTemplatesResult()
+				.withTemplatesMetadata(new TemplateMetadata().withName("reset")));
+		registry.refresh();
+		// welcome was deleted and reset created since they were cached
+		assertThrows(NotFoundException.class, () -> registry.validateCached(email("welcome")));
+		registry.validateCached(email("reset"));
+	}
+
+	@Test
+	void sharesConcurrentLoadsOfTheSameTemplate() throws Exception {
+		CountDownLatch called = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		when(ses.getTemplate(any(GetTemplateRequest.class))).thenAnswer(invocation -> {
+			called.countDown();
+			release.await(5, TimeUnit.SECONDS);
+			return new GetTemplateResult().withTemplate(template("welcome"));
+		});
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<TemplateEntry> first = executor.submit(() -> registry.lookup("welcome"));
+			called.await(5, TimeUnit.SECONDS);
+			Future<TemplateEntry> second = executor.submit(() -> registry.lookup("welcome"));
+			TimeUnit.MILLISECONDS.sleep(50);
+			release.countDown();
+			assertEquals(first.get(5, TimeUnit.SECONDS).getName(), second.get(5, TimeUnit.SECONDS).getName());
+		} finally {
+			executor.shutdownNow();
+		}
+		verify(ses, times(1)).getTemplate(any(GetTemplateRequest.class));
+	}
+
+	private void templateExists(String templateName) {
+		when(ses.getTemplate(any(GetTemplateRequest.class))).thenReturn(new GetTemplateResult()
+				.withTemplate(template(templateName)));
+	}
+
+	private static Template template(String templateName) {
+		return new Template().withTemplateName(templateName)
+				.withSubjectPart("Welcome {{name}}")
+				.withTextPart("Your code is {{code}}");
+	}
+
+	private static EmailRequest email(String templateName, String... characteristics) {
+		EmailRequest request = new EmailRequest();
+		request.setTemplateName(templateName);
+		CommunicationCharacteristic[] data = new CommunicationCharacteristic[characteristics.length];
+		for(int index = 0; index < characteristics.length; index++) {
+			data[index] = new CommunicationCharacteristic();
+			data[index].setName(characteristics[index]);
+			data[index].setValue("value");
+		}
+		request.setCommunicationCharacteristics(Arrays.asList(data));
+		return request;
+	}
+
+}
@@ -0,0 +1,121 @@
+package com.aws.communication.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the generic cell rate token bucket and its rate adjustments
+ *
+ */
+class TokenBucketTest {
+
+	private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	@Test
+	void admitsTheBurstThenReportsTheWait() {
+		TokenBucket bucket = new TokenBucket(10, 5, SECOND);
+		for(int request = 0; request < 5; request++) {
+			assertEquals(0, bucket.reserve(1, 0));
+		}
+		assertEquals(-1, bucket.reserve(1, 0));
+		long wait = bucket.reserve(1, SECOND);
+		// one emission interval of 100 ms, less the time the test took so far
+		assertTrue(wait > TimeUnit.MILLISECONDS.toNanos(50) && wait <= TimeUnit.MILLISECONDS.toNanos(100),
+				"waited " + wait);
+	}
+
+	@Test
+	void reservesNothingWhenTheWaitExceedsTheMaximum() {
+		TokenBucket bucket = new TokenBucket(1, 2, SECOND);
+		assertEquals(0, bucket.reserve(2, 0));
+		for(int request = 0; request < 10; request++) {
+			assertEquals(-1, bucket.reserve(1, 0));
+		}
+		// a single rejected reservation would have pushed this wait past one second
+		assertTrue(bucket.reserve(1, SECOND) >= 0);
+	}
+
+	@Test
+	void reservesLargeRequestsUpFront() {
+		TokenBucket bucket = new TokenBucket(10, 2, SECOND);
+		assertEquals(0, bucket.reserve(5, 0));
+		long wait = bucket.reserve(1, SECOND);
+		// the five permits delay the next request by four intervals beyond the burst
+		assertTrue(wait > TimeUnit.MILLISECONDS.toNanos(250) && wait <= TimeUnit.MILLISECONDS.toNanos(400),
+				"waited " + wait);
+	}
+
+	@Test
+	void givesBackReleasedPermits() {
+		TokenBucket bucket = new TokenBucket(1, 3, SECOND);
+		assertEquals(0, bucket.reserve(3, 0));
+		assertEquals(-1, bucket.reserve(1, 0));
+		bucket.release(1);
+		assertEquals(0, bucket.reserve(1, 0));
+		assertEquals(-1, bucket.reserve(1, 0));
+	}
+
+	@Test
+	void halvesTheRateOncePerHoldPeriod() {
+		TokenBucket bucket = new TokenBucket(10, 10, SECOND);
+		assertTrue(bucket.decrease(0.5, 1, SECOND));
+		assertEquals(5, bucket.getRate());
+		assertFalse(bucket.decrease(0.5, 1, SECOND));
+		assertEquals(5, bucket.getRate());
+		bucket.increase(1, SECOND);
+		assertEquals(5, bucket.getRate());
+	}
+
+	@Test
+	void staysWithinTheMinimumAndConfiguredRate() {
+		TokenBucket bucket = new TokenBucket(10, 10, 0);
+		for(int throttled = 0; throttled < 10; throttled++) {
+			bucket.decrease(0.5, 1, 0);
+		}
+		assertEquals(1, bucket.getRate());
+		bucket.increase(2, 0);
+		assertEquals(3, bucket.getRate());
+		for(int success = 0; success < 10; success++) {
+			bucket.increase(2, 0);
+		}
+		assertEquals(10, bucket.getRate());
+		assertEquals(10, bucket.getConfiguredRate());
+	}
+
+	@Test
+	void admitsExactlyTheBurstUnderContention() throws InterruptedException {
+		// one permit per thousand seconds, so that nothing is refilled during the test
+		TokenBucket bucket = new TokenBucket(0.001, 100, SECOND);
+		AtomicInteger admitted = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		for(int thread = 0; thread < 4; thread++) {
+			executor.execute(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				for(int request = 0; request < 100; request++) {
+					if(bucket.reserve(1, 0) >= 0) {
+						admitted.incrementAndGet();
+					}
+				}
+			});
+		}
+		start.countDown();
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+		assertEquals(100, admitted.get());
+	}
+
+}
@@ -0,0 +1,123 @@
+package com.aws.communication.service.campaign;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.aws.communication.exception.BadRequestException;
+import com.aws.communication.model.CommunicationCharacteristic;
+import com.aws.communication.utils.StatusCodes;
+
+/**
+ * Tests of the reading of CSV campaign uploads, row by row
+ *
+ */
+class CsvRecipientReaderTest {
+
+	@Test
+	void readsPlaceholdersNamedByTheHeader() throws Exception {
+		List<RecipientRow> rows = read("\uFEFFname, emailAddress ,code\r\nAnn,ann@example.com,123\r\n"
+				+ "Bob,bob@example.com,\r\n", 1000);
+		assertEquals(2, rows.size());
+		assertRow(rows.get(0), 2, "ann@example.com", "name=Ann", "code=123");
+		// empty values are left out
+		assertRow(rows.get(1), 3, "bob@example.com", "name=Bob");
+	}
+
+	@Test
+	void readsQuotedValuesSpanningLines() throws Exception {
+		List<RecipientRow> rows = read("emailAddress,address,quote\n"
+				+ "ann@example.com,\"1 Main St,\nSpringfield\",\"She said \"\"hi\"\"\"\n"
+				+ "bob@example.com,\"\",plain\n", 1000);
+		assertRow(rows.get(0), 2, "ann@example.com", "address=1 Main St,\nSpringfield", "quote=She said \"hi\"");
+		assertRow(rows.get(1), 4, "bob@example.com", "quote=plain");
+	}
+
+	@Test
+	void reportsInvalidRowsWithoutEndingTheUpload() throws Exception {
+		List<RecipientRow> rows = read("emailAddress,name\n"
+				+ "ann@example.com\n"
+				+ "\n"
+				+ "bob@example.com,\"Bob\"by\n"
+				+ "carl@example.com,Ca\"rl\n"
+				+ "dan@example.com,Dan\n", 1000);
+		assertEquals(4, rows.size());
+		assertInvalid(rows.get(0), 2, "ann@example.com", "row has 1 columns instead of 2");
+		assertInvalid(rows.get(1), 4, "bob@example.com", "row has a malformed quoted value");
+		assertInvalid(rows.get(2), 5, "carl@example.com", "row has a malformed quoted value");
+		assertRow(rows.get(3), 6, "dan@example.com", "name=Dan");
+	}
+
+	@Test
+	void reportsUnterminatedQuoteAtTheEndOfTheUpload() throws Exception {
+		List<RecipientRow> rows = read("emailAddress,name\nann@example.com,\"Ann\n", 1000);
+		assertEquals(1, rows.size());
+		assertInvalid(rows.get(0), 2, "ann@example.com", "row has a malformed quoted value");
+	}
+
+	@Test
+	void skipsRowsLongerThanTheMaximumAcrossBufferReads() throws Exception {
+		StringBuilder name = new StringBuilder();
+		for(int index = 0; index < 20000; index++) {
+			name.append('x');
+		}
+		List<RecipientRow> rows = read("emailAddress,name\nann@example.com," + name + "\nbob@example.com,Bob", 100);
+		assertEquals(2, rows.size());
+		assertInvalid(rows.get(0), 2, null, "row is longer than 100 characters");
+		assertRow(rows.get(1), 3, "bob@example.com", "name=Bob");
+	}
+
+	@Test
+	void rejectsHeaderWithoutEmailAddressColumn() {
+		BadRequestException exception = assertThrows(BadRequestException.class,
+				() -> read("email,name\nann@example.com,Ann\n", 1000));
+		assertEquals(StatusCodes.INVALID_CAMPAIGN_ROW.getCode(), exception.getCode());
+	}
+
+	@Test
+	void readsNothingFromAnEmptyUpload() throws Exception {
+		assertEquals(0, read("", 1000).size());
+		assertEquals(0, read("emailAddress,name\n", 1000).size());
+	}
+
+	static List<RecipientRow> read(RecipientReader reader) throws IOException, BadRequestException {
+		List<RecipientRow> rows = new ArrayList<>();
+		try(RecipientReader recipients = reader) {
+			RecipientRow row;
+			while((row = recipients.next()) != null) {
+				rows.add(row);
+			}
+		}
+		return rows;
+	}
+
+	static void assertRow(RecipientRow row, long line, String emailAddress, String... characteristics) {
+		assertEquals(line, row.getLine());
+		assertEquals(emailAddress, row.getEmailAddress());
+		assertNull(row.getError());
+		List<String> values = new ArrayList<>();
+		for(CommunicationCharacteristic characteristic : row.getCharacteristics()) {
+			values.add(characteristic.getName() + "=" + characteristic.getValue());
+		}
+		assertEquals(Arrays.asList(characteristics), values);
+	}
+
+	static void assertInvalid(RecipientRow row, long line, String emailAddress, String error) {
+		assertEquals(line, row.getLine());
+		assertEquals(emailAddress, row.getEmailAddress());
+		assertEquals(error, row.getError());
+	}
+
+	private static List<RecipientRow> read(String upload, int maxRowLength) throws IOException, BadRequestException {
+		return read(new CsvRecipientReader(new StringReader(upload), maxRowLength));
+	}
+
+}
@@ -0,0 +1,66 @@
+package com.aws.communication.service.campaign;
+
+import static com.aws.communication.service.campaign.CsvRecipientReaderTest.assertInvalid;
+import static com.aws.communication.service.campaign.CsvRecipientReaderTest.assertRow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.aws.communication.exception.BadRequestException;
+import com.fasterxml.jackson.core.JsonFactory;
+
+/**
+ * Tests of the reading of newline delimited JSON campaign uploads, line by line
+ *
+ */
+class NdjsonRecipientReaderTest {
+
+	@Test
+	void readsPlaceholdersAsTheOtherFields() throws Exception {
+		List<RecipientRow> rows = read("{\"name\":\"Ann\",\"emailAddress\":\"ann@example.com\",\"code\":123}\r\n"
+				+ "\n"
+				+ "  \n"
+				+ "{\"emailAddress\":\"bob@example.com\",\"name\":null,\"vip\":true}", 1000);
+		assertEquals(2, rows.size());
+		assertRow(rows.get(0), 1, "ann@example.com", "name=Ann", "code=123");
+		assertRow(rows.get(1), 4, "bob@example.com", "vip=true");
+	}
+
+	@Test
+	void reportsInvalidLinesWithoutEndingTheUpload() throws Exception {
+		List<RecipientRow> rows = read("[\"ann@example.com\"]\n"
+				+ "{\"emailAddress\":\"bob@example.com\",\"name\":{\"first\":\"Bob\"}}\n"
+				+ "{\"emailAddress\":\"carl@example.com\",\"name\":\n"
+				+ "{\"emailAddress\":\"dan@example.com\"} {}\n"
+				+ "{\"emailAddress\":\"eve@example.com\"}\n", 1000);
+		assertEquals(5, rows.size());
+		assertInvalid(rows.get(0), 1, null, "line is not a JSON object");
+		assertInvalid(rows.get(1), 2, "bob@example.com", "value of name is not a string or number");
+		assertInvalid(rows.get(2), 3, "carl@example.com", "line is not valid JSON");
+		assertInvalid(rows.get(3), 4, "dan@example.com", "line holds more than one JSON value");
+		assertRow(rows.get(4), 5, "eve@example.com");
+	}
+
+	@Test
+	void skipsLinesLongerThanTheMaximumAcrossBufferReads() throws Exception {
+		StringBuilder name = new StringBuilder();
+		for(int index = 0; index < 20000; index++) {
+			name.append('x');
+		}
+		List<RecipientRow> rows = read("{\"emailAddress\":\"ann@example.com\",\"name\":\"" + name + "\"}\n"
+				+ "{\"emailAddress\":\"bob@example.com\"}\n", 100);
+		assertEquals(2, rows.size());
+		assertInvalid(rows.get(0), 1, null, "line is longer than 100 characters");
+		assertRow(rows.get(1), 2, "bob@example.com");
+	}
+
+	private static List<RecipientRow> read(String upload, int maxRowLength) throws IOException, BadRequestException {
+		return CsvRecipientReaderTest.read(new NdjsonRecipientReader(new StringReader(upload), maxRowLength,
+				new JsonFactory()));
+	}
+
+}
@@ -0,0 +1,223 @@
+package com.aws.communication.service.feedback;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.amazonaws.services.sns.AmazonSNS;
+import com.aws.communication.exception.BadRequestException;
+import com.aws.communication.model.FeedbackResult;
+import com.aws.communication.service.suppression.SuppressionService;
+import com.aws.communication.utils.StatusCodes;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tests of the SNS envelope handling of the feedback ingestion, mostly with
+ * signature verification off and a suppression list checked by the test
+ *
+ */
+class FeedbackServiceTest {
+
+	private static final String TOPIC = "arn:aws:sns:us-east-1:123456789012:ses-feedback";
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final SuppressionService suppressionService = mock(SuppressionService.class);
+	private final AmazonSNS snsClient = mock(AmazonSNS.class);
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final FeedbackService service = new FeedbackService();
+
+	@BeforeEach
+	void setUp() {
+		when(suppressionService.isJournaled()).thenReturn(true);
+		ReflectionTestUtils.setField(service, "suppressionService", suppressionService);
+		ReflectionTestUtils.setField(service, "snsClient", snsClient);
+		ReflectionTestUtils.setField(service, "objectMapper", objectMapper);
+		ReflectionTestUtils.setField(service, "meterRegistry", meterRegistry);
+		ReflectionTestUtils.setField(service, "snsRegion", "us-east-1");
+		ReflectionTestUtils.setField(service, "verifySignature", false);
+		ReflectionTestUtils.setField(service, "topicArns", new HashSet<>(Arrays.asList(TOPIC, "")));
+		ReflectionTestUtils.setField(service, "queueCapacity", 100);
+		ReflectionTestUtils.setField(service, "offerTimeoutMillis", 10L);
+		ReflectionTestUtils.setField(service, "batchSize", 100);
+		ReflectionTestUtils.setField(service, "softBounceThreshold", 3);
+		ReflectionTestUtils.setField(service, "maxSoftBounceEntries", 1000);
+	}
+
+	@AfterEach
+	void tearDown() {
+		if(ReflectionTestUtils.getField(service, "processor") != null) {
+			service.stop();
+		}
+	}
+
+	@Test
+	void refusesToStartWithoutTopicAllowlist() {
+		ReflectionTestUtils.setField(service, "topicArns", new HashSet<>(Arrays.asList("")));
+		assertThrows(IllegalStateException.class, service::start);
+	}
+
+	@Test
+	void refusesToStartWithoutSuppressionJournal() {
+		when(suppressionService.isJournaled()).thenReturn(false);
+		assertThrows(IllegalStateException.class, service::start);
+	}
+
+	@Test
+	void confirmsSubscriptionOfAllowedTopic() throws Exception {
+		service.start();
+		ObjectNode envelope = envelope("SubscriptionConfirmation", TOPIC);
+		envelope.put("Token", "token-1");
+		service.ingest(bytes(envelope));
+		verify(snsClient).confirmSubscription(TOPIC, "token-1");
+	}
+
+	@Test
+	void rejectsMessagesOfOtherTopicsWithoutConfirming() throws Exception {
+		service.start();
+		ObjectNode envelope = envelope("SubscriptionConfirmation", "arn:aws:sns:us-east-1:123456789012:other");
+		envelope.put("Token", "token-1");
+		BadRequestException exception = assertThrows(BadRequestException.class, () -> service.ingest(bytes(envelope)));
+		assertEquals(StatusCodes.INVALID_SNS_MESSAGE.getCode(), exception.getCode());
+		verify(snsClient, never()).confirmSubscription(TOPIC, "token-1");
+		assertEquals(1.0, meterRegistry.counter("aws.communication.feedback.invalid").count());
+	}
+
+	@Test
+	void rejectsUnknownMessageTypeAndInvalidJson() throws Exception {
+		service.start();
+		assertThrows(BadRequestException.class, () -> service.ingest(bytes(envelope("Unknown", TOPIC))));
+		BadRequestException exception = assertThrows(BadRequestException.class,
+				() -> service.ingest("{".getBytes(StandardCharsets.UTF_8)));
+		assertEquals(StatusCodes.INVALID_JSON_REQUEST.getCode(), exception.getCode());
+		assertEquals(2.0, meterRegistry.counter("aws.communication.feedback.invalid").count());
+	}
+
+	@Test
+	void suppressesPermanentBounceAndComplaintRecipients() throws Exception {
+		service.start();
+		service.ingest(bytes(notification(bounce("Permanent", "Bounced@Example.com"))));
+		service.ingest(bytes(notification(complaint("complained@example.com"))));
+		assertEquals(new HashSet<>(Arrays.asList("bounced@example.com", "complained@example.com")), suppressed());
+	}
+
+	@Test
+	void suppressesTransientBouncesOnlyWithoutDeliveryInBetween() throws Exception {
+		service.start();
+		String lines = String.join("\n",
+				json(bounce("Transient", "soft@example.com")),
+				json(bounce("Transient", "soft@example.com")),
+				json(bounce("Transient", "delivered@example.com")),
+				json(bounce("Transient", "delivered@example.com")),
+				json(delivery("delivered@example.com")),
+				json(bounce("Transient", "delivered@example.com")),
+				json(bounce("Transient", "soft@example.com")));
+		FeedbackResult result = service.ingestStream(new ByteArrayInputStream(lines.getBytes(StandardCharsets.UTF_8)));
+		assertEquals(7, result.getAccepted());
+		assertEquals(new HashSet<>(Arrays.asList("soft@example.com")), suppressed());
+	}
+
+	@Test
+	void streamAcceptsBareNotificationsAndSkipsInvalidLines() throws Exception {
+		service.start();
+		String lines = String.join("\n",
+				json(notification(complaint("a@example.com"))),
+				"",
+				"not json",
+				json(envelope("Notification", "arn:aws:sns:us-east-1:123456789012:other")),
+				json(complaint("b@example.com")));
+		FeedbackResult result = service.ingestStream(new ByteArrayInputStream(lines.getBytes(StandardCharsets.UTF_8)));
+		assertEquals(2, result.getAccepted());
+		assertEquals(2, result.getRejected());
+	}
+
+	@Test
+	void streamRejectsBareNotificationsWhenSignaturesAreVerified() throws Exception {
+		ReflectionTestUtils.setField(service, "verifySignature", true);
+		service.start();
+		FeedbackResult result = service.ingestStream(new ByteArrayInputStream(
+				json(complaint("a@example.com")).getBytes(StandardCharsets.UTF_8)));
+		assertEquals(0, result.getAccepted());
+		assertEquals(1, result.getRejected());
+		service.stop();
+		verify(suppressionService, never()).add(anyCollection());
+	}
+
+	@SuppressWarnings("unchecked")
+	private Set<String> suppressed() throws Exception {
+		// stopping processes the notifications already queued
+		service.stop();
+		ArgumentCaptor<Collection<String>> captor = ArgumentCaptor.forClass(Collection.class);
+		verify(suppressionService, atLeastOnce()).add(captor.capture());
+		Set<String> recipients = new HashSet<>();
+		captor.getAllValues().forEach(recipients::addAll);
+		return recipients;
+	}
+
+	private ObjectNode envelope(String type, String topicArn) {
+		ObjectNode envelope = objectMapper.createObjectNode();
+		envelope.put("Type", type);
+		envelope.put("TopicArn", topicArn);
+		envelope.put("MessageId", "sns-1");
+		return envelope;
+	}
+
+	private ObjectNode notification(ObjectNode message) throws Exception {
+		ObjectNode envelope = envelope("Notification", TOPIC);
+		envelope.put("Message", objectMapper.writeValueAsString(message));
+		return envelope;
+	}
+
+	private ObjectNode bounce(String bounceType, String emailAddress) {
+		ObjectNode notification = objectMapper.createObjectNode();
+		notification.put("notificationType", "Bounce");
+		ObjectNode bounce = notification.putObject("bounce");
+		bounce.put("bounceType", bounceType);
+		bounce.putArray("bouncedRecipients").addObject().put("emailAddress", emailAddress);
+		return notification;
+	}
+
+	private ObjectNode complaint(String emailAddress) {
+		ObjectNode notification = objectMapper.createObjectNode();
+		notification.put("eventType", "Complaint");
+		notification.putObject("complaint").putArray("complainedRecipients").addObject()
+				.put("emailAddress", emailAddress);
+		return notification;
+	}
+
+	private ObjectNode delivery(String emailAddress) {
+		ObjectNode notification = objectMapper.createObjectNode();
+		notification.put("notificationType", "Delivery");
+		notification.putObject("delivery").putArray("recipients").add(emailAddress);
+		return notification;
+	}
+
+	private byte[] bytes(ObjectNode node) throws Exception {
+		return objectMapper.writeValueAsBytes(node);
+	}
+
+	private String json(ObjectNode node) throws Exception {
+		return objectMapper.writeValueAsString(node);
+	}
+
+}
@@ -0,0 +1,243 @@
+package com.aws.communication.service.outbox;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests of the outbox recovery and compaction
+ *
+ */
+class OutboxTest {
+
+	private static final int SEGMENT_SIZE = 4096;
+	private static final byte KIND = 3;
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void recoversPendingEntriesInAppendOrder() throws IOException {
+		try(Outbox outbox = new Outbox(directory, SEGMENT_SIZE, 60000)) {
+			outbox.append(KIND, "t0", payload(0));
+			long acknowledged = outbox.append(KIND, "t1", payload(1));
+			outbox.append(KIND, "t2", payload(2));
+			outbox.acknowledge(acknowledged);
+		}
+		try(Outbox outbox = new Outbox(directory, SEGMENT_SIZE, 60000)) {
+			assertEquals(trackingIds("t0", "t2"), trackingIds(outbox.getRecoveredEntries()));
+			assertArrayEquals(payload(2), outbox.getRecoveredEntries().get(1).getPayload());
+			assertEquals(KIND, outbox.getRecoveredEntries().get(1).getKind());
+			assertEquals(2, outbox.getPendingCount());
+		}
+	}
+
+	@Test
+	void ignoresTornRecordAtTheTail() throws IOException {
+		long last;
+		try(Outbox outbox = new Outbox(directory, SEGMENT_SIZE, 60000)) {
+			outbox.append(KIND, "t0", payload(0));
+			last = outbox.append(KIND, "t1", payload(1));
+		}
+		Path segment = onlySegment();
+		long tail = lastRecordOffset(segment, last);
+		try(RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+			file.seek(tail + 30);
+			file.write(~file.read());
+		}
+		try(Outbox outbox = new Outbox(directory, SEGMENT_SIZE, 60000)) {
+			assertEquals(trackingIds("t0"), trackingIds(outbox.getRecoveredEntries()));
+			outbox.append(KIND, "t2", payload(2));
+		}
+		try(Outbox outbox = new Outbox(directory, SEGMENT_SIZE, 60000)) {
+			assertEquals(trackingIds("t0", "t2"), trackingIds(outbox.getRecoveredEntries()));
+		}
+	}
+
+	@Test
+	void recoversSegmentTruncatedMidRecord() throws IOException {
+		long last;
+		try(Outbox outbox = new Outbox(directory, SEGMENT_SIZE, 60000)) {
+			outbox.append(KIND, "t0", payload(0));
+			last = outbox.append(KIND, "t1", payload(1));
+		}
+		Path segment = onlySegment();
+		try(RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+			file.setLength(lastRecordOffset(segment, last) + 10);
+		}
+		try(Outbox outbox = new Outbox(directory, SEGMENT_SIZE, 60000)) {
+			assertEquals(trackingIds("t0"), trackingIds(outbox.getRecoveredEntries()));
+			for(int index = 2; index < 60; index++) {
+				outbox.append(KIND, "t" + index, payload(index));
+			}
+		}
+		try(Outbox outbox = new Outbox(directory, SEGMENT_SIZE, 60000)) {
+			assertEquals(59, outbox.getRecoveredEntries().size());
+		}
+	}
+
+	@Test
+	void skipsCorruptRecordsInEarlierSegments() throws IOException {
+		try(Outbox outbox = new Outbox(directory, SEGMENT_SIZE, 60000)) {
+			for(int index = 0; index < 80; index++) {
+				outbox.append(KIND, "t" + index, payload(index));
+			}
+			assertTrue(outbox.getSegmentCount() >= 3);
+		}
+		List<Path> segments = segments();
+		long secondBase = baseSequence(segments.get(1));
+		try(RandomAccessFile file = new RandomAccessFile(segments.get(0).toFile(), "rw")) {
+			// a flipped bit in the body of the second record
+			file.seek(lastRecordOffset(segments.get(0), 1) + 40);
+			file.write(~file.read());
+		}
+		try(RandomAccessFile file = new RandomAccessFile(segments.get(1).toFile(), "rw")) {
+			// a length prefix which cannot be followed to the next record
+			file.writeInt(Integer.MAX_VALUE);
+		}
+		try(Outbox outbox = new Outbox(directory, SEGMENT_SIZE, 60000)) {
+			List<String> expected = new ArrayList<>();
+			for(int index = 0; index < 80; index++) {
+				if(index != 1 && index != secondBase) {
+					expected.add("t" + index);
+				}
+			}
+			assertEquals(expected, trackingIds(outbox.getRecoveredEntries()));
+			assertEquals(2, outbox.getCorruptRecordCount());
+			outbox.append(KIND, "t80", payload(80));
+		}
+		try(Outbox outbox = new Outbox(directory, SEGMENT_SIZE, 60000)) {
+			assertEquals(79, outbox.getRecoveredEntries().size());
+		}
+	}
+
+	@Test
+	void acknowledgesEntryMovedForwardByCompaction() throws IOException, InterruptedException {
+		long stuck;
+		try(Outbox outbox = new Outbox(directory, SEGMENT_SIZE, 20)) {
+			stuck = outbox.append(KIND, "stuck", payload(0));
+			for(int index = 1; index < 100; index++) {
+				outbox.acknowledge(outbox.append(KIND, "t" + index, payload(index)));
+			}
+			awaitCompaction(outbox);
+			OutboxEntry entry = outbox.read(stuck);
+			assertNotNull(entry);
+			assertEquals("stuck", entry.getTrackingId());
+			assertArrayEquals(payload(0), entry.getPayload());
+			outbox.acknowledge(stuck);
+			assertNull(outbox.read(stuck));
+			assertEquals(0, outbox.getPendingCount());
+		}
+		try(Outbox outbox = new Outbox(directory, SEGMENT_SIZE, 60000)) {
+			assertTrue(outbox.getRecoveredEntries().isEmpty());
+		}
+	}
+
+	@Test
+	void replaysEntryMovedForwardByCompactionOnce() throws IOException, InterruptedException {
+		try(Outbox outbox = new Outbox(directory, SEGMENT_SIZE, 20)) {
+			outbox.append(KIND, "stuck", payload(0));
+			for(int index = 1; index < 100; index++) {
+				outbox.acknowledge(outbox.append(KIND, "t" + index, payload(index)));
+			}
+			awaitCompaction(outbox);
+		}
+		try(Outbox outbox = new Outbox(directory, SEGMENT_SIZE, 60000)) {
+			assertEquals(trackingIds("stuck"), trackingIds(outbox.getRecoveredEntries()));
+		}
+	}
+
+	/**
+	 * Method to wait until compaction deleted every segment but the active
+	 * one, the first segment included, which holds the stuck entry until it
+	 * is moved forward
+	 *
+	 * @param outbox - Outbox
+	 * @throws InterruptedException Thrown when interrupted
+	 */
+	private void awaitCompaction(Outbox outbox) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while(outbox.getSegmentCount() > 1 && System.nanoTime() < deadline) {
+			TimeUnit.MILLISECONDS.sleep(10);
+		}
+		assertEquals(1, outbox.getSegmentCount());
+		assertFalse(Files.exists(directory.resolve(String.format("segment-%020d.log", 0))));
+	}
+
+	private List<Path> segments() throws IOException {
+		try(Stream<Path> files = Files.list(directory)) {
+			return files.filter(OutboxSegment::isSegment).sorted().collect(Collectors.toList());
+		}
+	}
+
+	private static long baseSequence(Path segment) {
+		String name = segment.getFileName().toString();
+		return Long.parseLong(name.substring("segment-".length(), name.length() - ".log".length()));
+	}
+
+	private Path onlySegment() throws IOException {
+		try(Stream<Path> files = Files.list(directory)) {
+			List<Path> segments = files.filter(OutboxSegment::isSegment).collect(Collectors.toList());
+			assertEquals(1, segments.size());
+			return segments.get(0);
+		}
+	}
+
+	/**
+	 * Method to find the offset of the record of the given index by
+	 * walking the length prefixes of the segment
+	 *
+	 * @param segment - Segment file
+	 * @param sequence - Index of the record in the segment, its sequence in the first segment
+	 * @return long - Offset of the record
+	 * @throws IOException Thrown when the file cannot be read
+	 */
+	private static long lastRecordOffset(Path segment, long sequence) throws IOException {
+		try(RandomAccessFile file = new RandomAccessFile(segment.toFile(), "r")) {
+			long offset = 0;
+			for(long index = 0; index < sequence; index++) {
+				file.seek(offset);
+				offset += 4 + file.readInt();
+			}
+			return offset;
+		}
+	}
+
+	private static byte[] payload(int index) {
+		StringBuilder payload = new StringBuilder("{\"index\":").append(index).append(",\"body\":\"");
+		for(int fill = 0; fill < 80; fill++) {
+			payload.append((char) ('a' + (index + fill) % 26));
+		}
+		return payload.append("\"}").toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static List<String> trackingIds(String... trackingIds) {
+		List<String> list = new ArrayList<>();
+		for(String trackingId : trackingIds) {
+			list.add(trackingId);
+		}
+		return list;
+	}
+
+	private static List<String> trackingIds(List<OutboxEntry> entries) {
+		return entries.stream().map(OutboxEntry::getTrackingId).collect(Collectors.toList());
+	}
+
+}
@@ -0,0 +1,96 @@
+package com.aws.communication.service.resilience;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.aws.communication.service.resilience.CircuitBreaker.State;
+
+/**
+ * Tests of the circuit breaker transitions, driven by explicit times
+ *
+ */
+class CircuitBreakerTest {
+
+	private static final long WINDOW = 10_000;
+	private static final long OPEN = 5_000;
+
+	private final List<State> transitions = new ArrayList<>();
+	private final CircuitBreaker breaker = new CircuitBreaker(0.5, 4, WINDOW, OPEN, 2, transitions::add);
+
+	@Test
+	void staysClosedBelowTheMinimumCalls() {
+		for(int call = 0; call < 3; call++) {
+			breaker.onFailure(call);
+		}
+		assertEquals(State.CLOSED, breaker.getState());
+		assertTrue(breaker.tryAcquire(3));
+	}
+
+	@Test
+	void opensAtTheFailureRateThresholdAndRejectsCalls() {
+		breaker.onSuccess(0);
+		breaker.onSuccess(1);
+		breaker.onFailure(2);
+		assertEquals(State.CLOSED, breaker.getState());
+		breaker.onFailure(3);
+		assertEquals(State.OPEN, breaker.getState());
+		assertFalse(breaker.tryAcquire(3 + OPEN - 1));
+		assertFalse(breaker.isCallPermitted(3 + OPEN - 1));
+		assertEquals(Arrays.asList(State.OPEN), transitions);
+	}
+
+	@Test
+	void forgetsCallsOutsideTheWindow() {
+		breaker.onFailure(0);
+		breaker.onFailure(1);
+		breaker.onFailure(2);
+		breaker.onFailure(WINDOW * 2);
+		assertEquals(State.CLOSED, breaker.getState());
+	}
+
+	@Test
+	void closesAfterTheTrialCallsSucceed() {
+		open(0);
+		assertTrue(breaker.isCallPermitted(OPEN));
+		assertTrue(breaker.tryAcquire(OPEN));
+		assertEquals(State.HALF_OPEN, breaker.getState());
+		assertTrue(breaker.tryAcquire(OPEN));
+		// only the configured number of trial calls is let through
+		assertFalse(breaker.tryAcquire(OPEN));
+		breaker.onSuccess(OPEN + 1);
+		assertEquals(State.HALF_OPEN, breaker.getState());
+		breaker.onSuccess(OPEN + 2);
+		assertEquals(State.CLOSED, breaker.getState());
+		assertEquals(Arrays.asList(State.OPEN, State.HALF_OPEN, State.CLOSED), transitions);
+		// failures before opening do not count any more
+		breaker.onFailure(OPEN + 3);
+		assertEquals(State.CLOSED, breaker.getState());
+	}
+
+	@Test
+	void reopensOnTheFirstFailedTrialCall() {
+		open(0);
+		assertTrue(breaker.tryAcquire(OPEN));
+		breaker.onFailure(OPEN + 1);
+		assertEquals(State.OPEN, breaker.getState());
+		// the open time starts over from the failed trial
+		assertFalse(breaker.tryAcquire(OPEN * 2));
+		assertTrue(breaker.tryAcquire(OPEN * 2 + 1));
+		assertEquals(Arrays.asList(State.OPEN, State.HALF_OPEN, State.OPEN, State.HALF_OPEN), transitions);
+	}
+
+	private void open(long now) {
+		for(int call = 0; call < 4; call++) {
+			breaker.onFailure(now);
+		}
+		assertEquals(State.OPEN, breaker.getState());
+	}
+
+}
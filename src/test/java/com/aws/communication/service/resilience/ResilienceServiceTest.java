@@ -0,0 +1,123 @@
+package com.aws.communication.service.resilience;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.amazonaws.AmazonServiceException;
+import com.aws.communication.config.ResilienceProperties;
+import com.aws.communication.service.SendRateLimiter.Channel;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tests of the retries made by the resilience layer
+ *
+ */
+class ResilienceServiceTest {
+
+	private static final String REGION = "us-east-1";
+
+	private final ResilienceProperties properties = new ResilienceProperties();
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final ResilienceService service = new ResilienceService();
+
+	@BeforeEach
+	void start() {
+		properties.getRetry().setBaseDelayMs(1);
+		properties.getRetry().setMaxDelayMs(5);
+		ReflectionTestUtils.setField(service, "properties", properties);
+		ReflectionTestUtils.setField(service, "meterRegistry", meterRegistry);
+		service.init();
+	}
+
+	@AfterEach
+	void stop() {
+		service.stop();
+	}
+
+	@Test
+	void retriesTransientFailuresUpToTheMaximumAttempts() {
+		AtomicInteger attempts = new AtomicInteger();
+		AmazonServiceException failure = failure(500, "InternalFailure");
+		assertSame(failure, assertThrows(AmazonServiceException.class, () -> service.call(Channel.EMAIL, REGION, () -> {
+			attempts.incrementAndGet();
+			throw failure;
+		})));
+		assertEquals(3, attempts.get());
+		assertEquals(2, meterRegistry.get("aws.communication.retry.attempts").counter().count());
+		assertEquals(1, meterRegistry.get("aws.communication.retry.exhausted").tag("reason", "attempts")
+				.counter().count());
+	}
+
+	@Test
+	void leavesThrottlingToTheCaller() throws Exception {
+		AtomicInteger attempts = new AtomicInteger();
+		AmazonServiceException failure = failure(400, "Throttling");
+		assertThrows(AmazonServiceException.class, () -> service.call(Channel.EMAIL, REGION, () -> {
+			attempts.incrementAndGet();
+			throw failure;
+		}));
+		assertEquals(1, attempts.get());
+
+		CompletableFuture<String> result = service.callAsync(Channel.SMS, REGION, () -> {
+			attempts.incrementAndGet();
+			CompletableFuture<String> call = new CompletableFuture<>();
+			call.completeExceptionally(failure);
+			return call;
+		});
+		ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(1, TimeUnit.SECONDS));
+		assertSame(failure, e.getCause());
+		assertEquals(2, attempts.get());
+	}
+
+	@Test
+	void retriesAsyncCallsFromTheScheduler() throws Exception {
+		AtomicInteger attempts = new AtomicInteger();
+		CompletableFuture<String> result = service.callAsync(Channel.SMS, REGION, () -> {
+			CompletableFuture<String> call = new CompletableFuture<>();
+			if(attempts.incrementAndGet() < 3) {
+				call.completeExceptionally(failure(503, "ServiceUnavailable"));
+			} else {
+				call.complete("sent");
+			}
+			return call;
+		});
+		assertEquals("sent", result.get(1, TimeUnit.SECONDS));
+		assertEquals(3, attempts.get());
+	}
+
+	@Test
+	void keepsJitteredDelaysWithinTheBaseAndMaximum() {
+		properties.getRetry().setBaseDelayMs(10);
+		properties.getRetry().setMaxDelayMs(100);
+		long delay = 10;
+		boolean varied = false;
+		for(int retry = 0; retry < 1000; retry++) {
+			long previous = delay;
+			delay = service.nextDelay(previous);
+			assertTrue(delay >= 10 && delay <= Math.min(100, previous * 3), previous + " -> " + delay);
+			varied |= delay != previous;
+		}
+		assertTrue(varied);
+	}
+
+	private static AmazonServiceException failure(int statusCode, String errorCode) {
+		AmazonServiceException exception = new AmazonServiceException(errorCode);
+		exception.setStatusCode(statusCode);
+		exception.setErrorCode(errorCode);
+		return exception;
+	}
+
+}
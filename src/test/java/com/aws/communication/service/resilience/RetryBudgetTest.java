@@ -0,0 +1,95 @@
+package com.aws.communication.service.resilience;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the retry budget, driven by explicit times
+ *
+ */
+class RetryBudgetTest {
+
+	private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	@Test
+	void startsWithTheMinimumPerSecond() {
+		RetryBudget budget = new RetryBudget(0.2, 2, 0);
+		assertTrue(budget.tryRetry(0));
+		assertTrue(budget.tryRetry(0));
+		assertFalse(budget.tryRetry(0));
+	}
+
+	@Test
+	void depositsTheRatioPerCall() {
+		RetryBudget budget = new RetryBudget(0.2, 0, 0);
+		for(int call = 0; call < 4; call++) {
+			budget.onCall(0);
+		}
+		assertFalse(budget.tryRetry(0));
+		budget.onCall(0);
+		assertTrue(budget.tryRetry(0));
+		assertFalse(budget.tryRetry(0));
+	}
+
+	@Test
+	void refillsTheMinimumOverTimeUpToTenSeconds() {
+		RetryBudget budget = new RetryBudget(0.2, 2, 0);
+		assertEquals(2, budget.getTokens(), 1e-6);
+		budget.tryRetry(0);
+		budget.tryRetry(0);
+		assertFalse(budget.tryRetry(SECOND / 4));
+		assertTrue(budget.tryRetry(SECOND / 2));
+		assertTrue(budget.tryRetry(SECOND * 60));
+		assertEquals(19, budget.getTokens(), 1e-6);
+	}
+
+	@Test
+	void accumulatesRefillsSmallerThanTheResolution() {
+		RetryBudget budget = new RetryBudget(0, 1, 0);
+		budget.tryRetry(0);
+		// 100 ns at one retry per second is below a millionth of a token
+		for(long now = 0; now <= SECOND; now += 100) {
+			budget.onCall(now);
+		}
+		assertTrue(budget.tryRetry(SECOND));
+	}
+
+	@Test
+	void grantsEachTokenOnceUnderContention() throws InterruptedException {
+		RetryBudget budget = new RetryBudget(1, 0, 0);
+		for(int call = 0; call < 10; call++) {
+			budget.onCall(0);
+		}
+		AtomicInteger granted = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		for(int thread = 0; thread < 4; thread++) {
+			executor.execute(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				for(int retry = 0; retry < 100; retry++) {
+					if(budget.tryRetry(0)) {
+						granted.incrementAndGet();
+					}
+				}
+			});
+		}
+		start.countDown();
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+		assertEquals(10, granted.get());
+	}
+
+}
@@ -0,0 +1,77 @@
+package com.aws.communication.service.schedule;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the expiry of the timing wheel across its levels
+ *
+ */
+class TimingWheelTest {
+
+	// 4 slots per level and 3 levels, so that a turn of the wheel spans 64 ticks
+	private static final int BITS = 2;
+	private static final int LEVELS = 3;
+
+	@Test
+	void expiresEachDeadlineAtItsTickAcrossLevelBoundaries() {
+		for(long start = 0; start < 64; start++) {
+			TimingWheel<Long> wheel = new TimingWheel<>(1, BITS, LEVELS, start);
+			for(long delay = 1; delay <= 200; delay++) {
+				assertTrue(wheel.add(start + delay, start + delay));
+			}
+			for(long now = start + 1; now <= start + 200; now++) {
+				List<Long> expired = new ArrayList<>();
+				wheel.advance(now, expired::add);
+				List<Long> expected = new ArrayList<>();
+				expected.add(now);
+				assertEquals(expected, expired, "started at " + start);
+			}
+			assertEquals(0, wheel.size());
+		}
+	}
+
+	@Test
+	void expiresInDeadlineOrderWhenAdvancingManyTicksAtOnce() {
+		TimingWheel<Long> wheel = new TimingWheel<>(1, BITS, LEVELS, 13);
+		List<Long> expected = new ArrayList<>();
+		for(long deadline = 500; deadline > 13; deadline -= 7) {
+			wheel.add(deadline, deadline);
+			expected.add(0, deadline);
+		}
+		List<Long> expired = new ArrayList<>();
+		wheel.advance(300, expired::add);
+		int reached = (int) expected.stream().filter(deadline -> deadline <= 300).count();
+		assertEquals(expected.subList(0, reached), expired);
+		assertEquals(expected.size() - reached, wheel.size());
+		wheel.advance(500, expired::add);
+		assertEquals(expected, expired);
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	void roundsDeadlinesUpToTheNextTick() {
+		TimingWheel<String> wheel = new TimingWheel<>(10, BITS, LEVELS, 1000);
+		assertTrue(wheel.add(1005, "value"));
+		List<String> expired = new ArrayList<>();
+		wheel.advance(1009, expired::add);
+		assertTrue(expired.isEmpty());
+		wheel.advance(1010, expired::add);
+		assertEquals(1, expired.size());
+	}
+
+	@Test
+	void rejectsDeadlinesAlreadyReached() {
+		TimingWheel<String> wheel = new TimingWheel<>(10, BITS, LEVELS, 1000);
+		assertFalse(wheel.add(1000, "now"));
+		assertFalse(wheel.add(990, "past"));
+		assertEquals(0, wheel.size());
+	}
+
+}
@@ -0,0 +1,85 @@
+package com.aws.communication.service.suppression;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the fingerprint set, with fingerprints chosen by their home
+ * slot in the 16 slots of the smallest table
+ *
+ */
+class FingerprintSetTest {
+
+	private static final int SLOTS = 16;
+
+	@Test
+	void findsEntriesShiftedBackAcrossTheEndOfTheTable() {
+		FingerprintSet set = new FingerprintSet(1);
+		// homes 14, 15, 14, 0 and 15, so that the run wraps around into slots 0 to 2
+		long[] fingerprints = {14, 15, 14 + SLOTS, SLOTS, 15 + SLOTS};
+		for(long fingerprint : fingerprints) {
+			assertTrue(set.add(fingerprint));
+		}
+		assertTrue(set.remove(14));
+		assertFalse(set.contains(14));
+		for(int index = 1; index < fingerprints.length; index++) {
+			assertTrue(set.contains(fingerprints[index]), "lost " + fingerprints[index]);
+		}
+		assertTrue(set.remove(15));
+		assertTrue(set.remove(14 + SLOTS));
+		assertTrue(set.contains(SLOTS));
+		assertTrue(set.contains(15 + SLOTS));
+		assertEquals(2, set.size());
+	}
+
+	@Test
+	void removeThenLookupAfterWraparoundMatchesHashSet() {
+		Random random = new Random(42);
+		FingerprintSet set = new FingerprintSet(1);
+		Set<Long> expected = new HashSet<>();
+		long[] pool = new long[40];
+		for(int index = 0; index < pool.length; index++) {
+			// homes 13 to 15 and 0 to 1, clustering entries around the end of the table
+			pool[index] = (long) (index / 5 + 1) * SLOTS + (13 + index % 5) % SLOTS;
+		}
+		for(int operation = 0; operation < 20000; operation++) {
+			long fingerprint = pool[random.nextInt(pool.length)];
+			// keep at most 11 entries so that the table is not grown
+			if(expected.size() < 11 && random.nextBoolean()) {
+				assertEquals(expected.add(fingerprint), set.add(fingerprint));
+			} else {
+				assertEquals(expected.remove(fingerprint), set.remove(fingerprint));
+			}
+			for(long candidate : pool) {
+				assertEquals(expected.contains(candidate), set.contains(candidate), "after operation " + operation);
+			}
+			assertEquals(expected.size(), set.size());
+		}
+		assertEquals(SLOTS * Long.BYTES, set.memoryBytes());
+	}
+
+	@Test
+	void keepsEntriesWhenGrown() {
+		FingerprintSet set = new FingerprintSet(1);
+		for(long fingerprint = 1; fingerprint <= 1000; fingerprint++) {
+			set.add(fingerprint * SLOTS - 1);
+		}
+		for(long fingerprint = 1; fingerprint <= 1000; fingerprint += 2) {
+			assertTrue(set.remove(fingerprint * SLOTS - 1));
+		}
+		Set<Long> remaining = new HashSet<>();
+		set.forEach(remaining::add);
+		assertEquals(500, remaining.size());
+		for(long fingerprint = 1; fingerprint <= 1000; fingerprint++) {
+			assertEquals(fingerprint % 2 == 0, set.contains(fingerprint * SLOTS - 1));
+		}
+	}
+
+}
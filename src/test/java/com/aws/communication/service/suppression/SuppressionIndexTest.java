@@ -0,0 +1,108 @@
+package com.aws.communication.service.suppression;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Tests of the rebuild of the Bloom filter of the suppression index as
+ * fingerprints are removed and added
+ *
+ */
+class SuppressionIndexTest {
+
+	private static final int CAPACITY = 1000;
+
+	@Test
+	void keepsBitsOfRemovedFingerprintsUntilQuarterOfCapacity() {
+		SuppressionIndex index = new SuppressionIndex(CAPACITY, 10);
+		long[] fingerprints = fingerprints(CAPACITY);
+		for(long fingerprint : fingerprints) {
+			assertTrue(index.add(fingerprint));
+		}
+		for(int removed = 0; removed < CAPACITY / 4 - 1; removed++) {
+			assertTrue(index.remove(fingerprints[removed]));
+		}
+		assertEquals(CAPACITY / 4 - 1, index.staleEntries());
+		for(int removed = 0; removed < CAPACITY / 4 - 1; removed++) {
+			assertTrue(bloomFilter(index).mightContain(fingerprints[removed]));
+			assertFalse(index.contains(fingerprints[removed]));
+		}
+	}
+
+	@Test
+	void rebuildsBloomFilterWithoutRemovedFingerprints() {
+		SuppressionIndex index = new SuppressionIndex(CAPACITY, 10);
+		long[] fingerprints = fingerprints(CAPACITY);
+		for(long fingerprint : fingerprints) {
+			index.add(fingerprint);
+		}
+		for(int removed = 0; removed < CAPACITY / 4; removed++) {
+			index.remove(fingerprints[removed]);
+		}
+		assertEquals(0, index.staleEntries());
+		int falsePositives = 0;
+		for(int removed = 0; removed < CAPACITY / 4; removed++) {
+			if(bloomFilter(index).mightContain(fingerprints[removed])) {
+				falsePositives++;
+			}
+			assertFalse(index.contains(fingerprints[removed]));
+		}
+		// about 1% with 10 bits per entry
+		assertTrue(falsePositives < CAPACITY / 4 / 20, falsePositives + " false positives");
+		for(int kept = CAPACITY / 4; kept < CAPACITY; kept++) {
+			assertTrue(index.contains(fingerprints[kept]));
+		}
+		assertEquals(CAPACITY - CAPACITY / 4, index.size());
+	}
+
+	@Test
+	void countsOnlyFingerprintsPresent() {
+		SuppressionIndex index = new SuppressionIndex(CAPACITY, 10);
+		index.add(1);
+		assertFalse(index.remove(2));
+		assertTrue(index.remove(1));
+		assertFalse(index.remove(1));
+		assertEquals(1, index.staleEntries());
+	}
+
+	@Test
+	void clearsStaleEntriesWhenGrown() {
+		SuppressionIndex index = new SuppressionIndex(CAPACITY, 10);
+		long[] fingerprints = fingerprints(CAPACITY + 100);
+		for(int added = 0; added < 100; added++) {
+			index.add(fingerprints[added]);
+		}
+		for(int removed = 0; removed < 50; removed++) {
+			index.remove(fingerprints[removed]);
+		}
+		assertEquals(50, index.staleEntries());
+		for(int added = 100; added < fingerprints.length; added++) {
+			index.add(fingerprints[added]);
+		}
+		assertEquals(0, index.staleEntries());
+		assertEquals(2 * CAPACITY, bloomFilter(index).getCapacity());
+		for(int added = 50; added < fingerprints.length; added++) {
+			assertTrue(index.contains(fingerprints[added]));
+		}
+	}
+
+	private static long[] fingerprints(int count) {
+		Random random = new Random(42);
+		long[] fingerprints = new long[count];
+		for(int index = 0; index < count; index++) {
+			fingerprints[index] = random.nextLong();
+		}
+		return fingerprints;
+	}
+
+	private static BloomFilter bloomFilter(SuppressionIndex index) {
+		return (BloomFilter) ReflectionTestUtils.getField(index, "bloomFilter");
+	}
+
+}
@@ -0,0 +1,97 @@
+package com.aws.communication.service.template;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the headers written for locally rendered emails
+ *
+ */
+class MimeMessageWriterTest {
+
+	private static final Pattern ENCODED_WORD = Pattern.compile("=\\?UTF-8\\?B\\?([A-Za-z0-9+/=]*)\\?=");
+
+	@Test
+	void rejectsLineBreakInAddresses() {
+		assertThrows(IllegalArgumentException.class, () -> MimeMessageWriter.write(
+				"sender@example.com\r\nBcc: victim@example.com", "receiver@example.com", "Subject", "text", null));
+		assertThrows(IllegalArgumentException.class, () -> MimeMessageWriter.write(
+				"sender@example.com", "receiver@example.com\nBcc: victim@example.com", "Subject", "text", null));
+	}
+
+	@Test
+	void encodesLineBreakInSubjectInsteadOfStartingHeader() {
+		String subject = "Hello\r\nBcc: victim@example.com";
+		String headers = headers(MimeMessageWriter.write("sender@example.com", "receiver@example.com", subject,
+				"text", null));
+		assertFalse(headers.contains("\r\nBcc:"));
+		assertEquals(subject, decodedSubject(headers));
+	}
+
+	@Test
+	void writesPrintableAsciiSubjectAsIs() {
+		String headers = headers(MimeMessageWriter.write("sender@example.com", "receiver@example.com",
+				"Your order has shipped", "text", null));
+		assertTrue(headers.contains("\r\nSubject: Your order has shipped\r\n"));
+	}
+
+	@Test
+	void foldsLongSubjectIntoEncodedWordsWithoutSplittingCharacters() {
+		StringBuilder subject = new StringBuilder();
+		for(int index = 0; index < 40; index++) {
+			// two, three and four byte characters, the last one a surrogate pair
+			subject.append("\u00e9\u20ac\ud83d\ude00");
+		}
+		String headers = headers(MimeMessageWriter.write("sender@example.com", "receiver@example.com",
+				subject.toString(), null, "<p>html</p>"));
+		Matcher words = ENCODED_WORD.matcher(headers);
+		int count = 0;
+		while(words.find()) {
+			byte[] word = Base64.getDecoder().decode(words.group(1));
+			assertTrue(word.length <= 45);
+			// RFC 2047 limit of an encoded word
+			assertTrue(words.group().length() <= 75);
+			// a word ending inside a character would not round-trip
+			assertEquals(new String(word, StandardCharsets.UTF_8).getBytes(StandardCharsets.UTF_8).length,
+					word.length);
+			count++;
+		}
+		assertTrue(count > 1);
+		assertEquals(subject.toString(), decodedSubject(headers));
+	}
+
+	@Test
+	void writesMultipartAlternativeWithTextAndHtml() {
+		String message = new String(MimeMessageWriter.write("sender@example.com", "receiver@example.com", "Subject",
+				"text body", "<p>html body</p>"), StandardCharsets.US_ASCII);
+		assertTrue(message.contains("Content-Type: multipart/alternative; boundary="));
+		assertTrue(message.contains("Content-Type: text/plain; charset=UTF-8"));
+		assertTrue(message.contains("Content-Type: text/html; charset=UTF-8"));
+		assertTrue(message.contains(Base64.getEncoder().encodeToString("text body".getBytes(StandardCharsets.UTF_8))));
+	}
+
+	private static String headers(byte[] message) {
+		String text = new String(message, StandardCharsets.US_ASCII);
+		return text.substring(0, text.indexOf("\r\nMIME-Version:") + "\r\nMIME-Version:".length());
+	}
+
+	private static String decodedSubject(String headers) {
+		String subject = headers.substring(headers.indexOf("Subject: "), headers.indexOf("\r\nMIME-Version:"));
+		StringBuilder decoded = new StringBuilder();
+		Matcher words = ENCODED_WORD.matcher(subject);
+		while(words.find()) {
+			decoded.append(new String(Base64.getDecoder().decode(words.group(1)), StandardCharsets.UTF_8));
+		}
+		return decoded.toString();
+	}
+
+}
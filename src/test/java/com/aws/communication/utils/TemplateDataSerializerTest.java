@@ -0,0 +1,126 @@
+package com.aws.communication.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.aws.communication.model.CommunicationCharacteristic;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Tests that the template data serializer writes what a default Gson
+ * instance writes for a HashMap of the characteristics
+ *
+ */
+class TemplateDataSerializerTest {
+
+	private static final Gson GSON = new Gson();
+
+	@Test
+	void escapesControlCharacters() {
+		StringBuilder value = new StringBuilder();
+		for(char c = 0; c < 0x20; c++) {
+			value.append(c);
+		}
+		value.append("\"\\/\u007f");
+		assertSameAsGson(Arrays.asList(characteristic("control", value.toString())));
+	}
+
+	@Test
+	void escapesHtmlSensitiveCharacters() {
+		assertSameAsGson(Arrays.asList(characteristic("<name>", "<a href='x'>Tom & Jerry</a> a=b")));
+	}
+
+	@Test
+	void escapesLineAndParagraphSeparators() {
+		assertSameAsGson(Arrays.asList(characteristic("line\u2028", "line\u2028paragraph\u2029end")));
+	}
+
+	@Test
+	void writesLoneSurrogatesAsIs() {
+		assertSameAsGson(Arrays.asList(characteristic("high", "a\ud83db"), characteristic("low", "a\ude00b"),
+				characteristic("pair", "\ud83d\ude00")));
+	}
+
+	@Test
+	void omitsNullValues() {
+		assertSameAsGson(Arrays.asList(characteristic("name", null), characteristic("code", "1234"),
+				characteristic(null, "unnamed")));
+		assertEquals("{}", TemplateDataSerializer.toJson(Arrays.asList(characteristic("name", null))));
+	}
+
+	@Test
+	void keepsTheLastOfDuplicateNames() {
+		assertSameAsGson(Arrays.asList(characteristic("name", "first"), characteristic("code", "1"),
+				characteristic("name", "second"), characteristic("name", null)));
+		// above the linear scan threshold the names are indexed
+		List<CommunicationCharacteristic> characteristics = new ArrayList<>();
+		for(int index = 0; index < 40; index++) {
+			characteristics.add(characteristic("name" + index % 13, "value" + index));
+		}
+		assertSameAsGson(characteristics);
+		assertSameAsGson(new LinkedList<>(characteristics));
+	}
+
+	@Test
+	void matchesGsonForRandomCharacteristics() {
+		Random random = new Random(42);
+		char[] alphabet = "ab<>&='\"\\\n\t\u0000\u001f\u007f\u00e9\u2028\u2029\ud83d\ude00".toCharArray();
+		for(int run = 0; run < 2000; run++) {
+			List<CommunicationCharacteristic> characteristics = new ArrayList<>();
+			int size = random.nextInt(20);
+			for(int index = 0; index < size; index++) {
+				characteristics.add(characteristic(random(random, alphabet, 2),
+						random.nextInt(10) == 0 ? null : random(random, alphabet, 12)));
+			}
+			assertSameAsGson(characteristics);
+		}
+	}
+
+	/**
+	 * Compares with the Gson output written in the key order of the serializer,
+	 * the key order of a HashMap not being significant for template data
+	 */
+	private static void assertSameAsGson(List<CommunicationCharacteristic> characteristics) {
+		Map<String, String> map = new HashMap<>();
+		for(CommunicationCharacteristic characteristic : characteristics) {
+			map.put(characteristic.getName(), characteristic.getValue());
+		}
+		String json = TemplateDataSerializer.toJson(characteristics);
+		JsonObject parsed = JsonParser.parseString(json).getAsJsonObject();
+		assertEquals(JsonParser.parseString(GSON.toJson(map)), parsed);
+
+		Map<String, String> ordered = new LinkedHashMap<>();
+		for(String name : parsed.keySet()) {
+			ordered.put(name, map.get("null".equals(name) && !map.containsKey(name) ? null : name));
+		}
+		assertEquals(GSON.toJson(ordered), json);
+	}
+
+	private static String random(Random random, char[] alphabet, int maxLength) {
+		char[] chars = new char[random.nextInt(maxLength + 1)];
+		for(int index = 0; index < chars.length; index++) {
+			chars[index] = alphabet[random.nextInt(alphabet.length)];
+		}
+		return new String(chars);
+	}
+
+	private static CommunicationCharacteristic characteristic(String name, String value) {
+		CommunicationCharacteristic characteristic = new CommunicationCharacteristic();
+		characteristic.setName(name);
+		characteristic.setValue(value);
+		return characteristic;
+	}
+
+}